@@ -8,12 +8,10 @@ import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
 
 import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.utils.SpreadsheetRow;
 
 /**
  * Represents an entry in the operation spreadsheet.
@@ -70,42 +68,36 @@ public class OperationEntry {
 	}
 
 	/** Reads an entry from a spreadsheet row */
-	public static OperationEntry readFromRow(Row row) {
+	public static OperationEntry readFromRow(SpreadsheetRow row) {
 
 		OperationEntry entry = new OperationEntry();
 
 		// Family name is in column A
-		String cellValue = row.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
-		if (cellValue.length() > 0) entry.setFamilyName(row.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim());
+		String cellValue = row.getString(0).trim();
+		if (cellValue.length() > 0) entry.setFamilyName(row.getString(0).trim());
 
 		// Series name is in column B
-		cellValue = row.getCell(1, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(1).trim();
 		if (cellValue.length() > 0) entry.setSeriesName(cellValue);
 
 		// Short name is in column C
-		cellValue = row.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(2).trim();
 		if (cellValue.length() > 0) entry.setShortName(cellValue);
 
 		// DDS identifier is in column D
-		cellValue = row.getCell(3, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(3).trim();
 		if (cellValue.length() > 0) entry.setDdsIdentifier(cellValue);
 
 		// Operation type is in column E
-		cellValue = row.getCell(4, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(4).trim();
 		if (cellValue.length() > 0) entry.setOperationType(cellValue);
 
 		// Operation information is in column F (we have to deal with numeric values)
-		Cell opInfoCell = row.getCell(5, MissingCellPolicy.CREATE_NULL_AS_BLANK);
-		if (opInfoCell.getCellType() == CellType.NUMERIC) { // Both getCellType() and getCellTypeEnum() are deprecated...
-			Integer numericCellValue = (int)opInfoCell.getNumericCellValue();
-			entry.setOperationInfo(numericCellValue.toString());
-		} else {
-			cellValue = opInfoCell.toString().trim();
-			if (cellValue.length() > 0) entry.setOperationInfo(cellValue);
-		}
+		cellValue = getStringValue(row, 5);
+		if (cellValue.length() > 0) entry.setOperationInfo(cellValue);
 
 		// Periodicity is in column G
-		cellValue = row.getCell(6, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim().toLowerCase();
+		cellValue = row.getString(6).trim().toLowerCase();
 		if (cellValue.length() > 0) {
 			// A bit of normalisation
 			if (cellValue.startsWith("annuelle")) cellValue = "annuelle"; // Deals with 'annuelle (3 enquêtes par an)'
@@ -118,12 +110,11 @@ public class OperationEntry {
 		}
 
 		// CASD availability is in column H
-		cellValue = row.getCell(7, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(7).trim();
 		if (cellValue.length() > 0) entry.setCASDAvailability(cellValue);
 
 		// CASD products is in column I
-		Cell casdProductsCell = row.getCell(8, MissingCellPolicy.CREATE_NULL_AS_BLANK);
-		cellValue = getStringValue(casdProductsCell);
+		cellValue = getStringValue(row, 8);
 		if (cellValue.length() > 0) {
 			entry.setCASDProducts(cellValue);
 			// Check that the value can be interpreted
@@ -177,12 +168,12 @@ public class OperationEntry {
 		return builder.toString();
 	}
 
-	private static String getStringValue(Cell cell) {
+	private static String getStringValue(SpreadsheetRow row, int column) {
 
-		if (cell.getCellType() == CellType.NUMERIC) {
-			Integer numericCellValue = (int)cell.getNumericCellValue();
+		if (row.getCellType(column) == CellType.NUMERIC) {
+			Integer numericCellValue = (int)row.getNumeric(column);
 			return numericCellValue.toString();
-		} else return cell.toString().trim();
+		} else return row.getString(column).trim();
 	}
 
 	// Getters and setters
@@ -18,12 +18,10 @@ import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 
 import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
 
 /**
  * Creates a Jena model corresponding to the list of operations, series and families.
@@ -56,24 +54,22 @@ public class OperationModelMaker {
 		productModel.setNsPrefix("dcat", DCAT.getURI()); // Product model will also need DCAT and PROV
 		productModel.setNsPrefix("prov", "http://www.w3.org/ns/prov#");
 
-		Workbook opeWorkbook = null;
-		Sheet sheet = null;
+		SpreadsheetReader opeReader = null;
+		Iterator<SpreadsheetRow> rows = null;
 		try {
-			opeWorkbook = WorkbookFactory.create(new File(CASDConfiguration.OPERATIONS_XLSX_FILE_NAME));
-			sheet = opeWorkbook.getSheetAt(0);
+			opeReader = SpreadsheetReader.open(new File(CASDConfiguration.OPERATIONS_XLSX_FILE_NAME));
+			rows = opeReader.readRows(0);
 		} catch (Exception e) {
 			logger.fatal("Error while opening Excel file - " + e.getMessage());
 			System.exit(1);
 		}
 
-		Iterator<Row> rows = sheet.rowIterator();
 		rows.next(); // Skip the title line
 		String currentFamily = "Init value";
 		List<OperationEntry> familyBlock = null;
 
 		while (rows.hasNext()) {
-			Row row = rows.next();
-			OperationEntry entry = OperationEntry.readFromRow(row);
+			OperationEntry entry = OperationEntry.readFromRow(rows.next());
 			if (entry.isEmpty()) continue;
 			String familyName = entry.getFamilyName();
 			// If family name is not empty and differs from current value, start new family bloc
@@ -92,7 +88,7 @@ public class OperationModelMaker {
 		opeModel.add(getFamilyModel(familyBlock));
 		logger.debug("Closing family " + currentFamily);
 
-		try { opeWorkbook.close(); } catch (IOException ignored) { }
+		opeReader.close();
 
 		try {
 			opeModel.write(new FileWriter("src/main/resources/data/operations.ttl"), "TTL");
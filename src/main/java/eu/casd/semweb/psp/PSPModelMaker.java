@@ -22,13 +22,10 @@ import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 
 import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
 
 public class PSPModelMaker {
 
@@ -64,23 +61,22 @@ public class PSPModelMaker {
 		pspCatalog.addProperty(DCTerms.language, dcatModel.createResource("http://id.loc.gov/vocabulary/iso639-1/fr"));
 
 		// Open the Excel file and get the relevant sheet
-		Workbook pdpWorkbook = null;
-		Sheet simsSheet = null;
+		SpreadsheetReader pdpReader = null;
+		Iterator<SpreadsheetRow> rows = null;
 		try {
-			pdpWorkbook = WorkbookFactory.create(new File(PSPModelMaker.EXCEL_FILE));
-			simsSheet = pdpWorkbook.getSheetAt(4);
+			pdpReader = SpreadsheetReader.open(new File(PSPModelMaker.EXCEL_FILE));
+			rows = pdpReader.readRows(4);
 		} catch (Exception e) {
 			logger.fatal("Error while opening Excel file - " + e.getMessage());
 		}
 
-		Iterator<Row> rows = simsSheet.rowIterator();
 		rows.next(); rows.next(); rows.next(); // Skip 3 title lines
 		
 		while (rows.hasNext()) {
-			Row row = rows.next();
+			SpreadsheetRow row = rows.next();
 
 			// First cell is the name of the StatisticalOperationFamily
-			String sofName = row.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			String sofName = row.getString(0).trim();
 			// Create the resource without type to be able to test existence test later
 			Resource sofResource = pspModel.createResource(fr.insee.semweb.sdmx.metadata.Configuration.statisticalOperationFamilyURI(sofName));
 
@@ -92,22 +88,22 @@ public class PSPModelMaker {
 				sofResource.addProperty(SKOS.prefLabel, pspModel.createLiteral(sofName, "fr"));
 				// Thematic coverage is described in column B. For now we create a unique literal value of dcterms:subject
 				// TODO Separate the different themes into several dcterms:subject values, or even use a controlled vocabulary ?
-				String cellValue = row.getCell(1, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+				String cellValue = row.getString(1).trim();
 				sofResource.addProperty(DCTerms.subject, pspModel.createLiteral(cellValue, "fr"));
 				// Methodological documentation is in column C, always empty for now
-				cellValue = row.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+				cellValue = row.getString(2).trim();
 				if (cellValue.length() > 0) sofResource.addProperty(methodologicalNote, pspModel.createLiteral(cellValue, "en"));
 			}
 			// Create the statistical operation series; prefLabel in column E, altLabel in column D
-			String sosShortName = row.getCell(3, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			String sosShortName = row.getString(3).trim();
 			Resource sosResource = pspModel.createResource(fr.insee.semweb.sdmx.metadata.Configuration.statisticalOperationSeriesURI(sosShortName), Configuration.STATISTICAL_OPERATION_SERIES);
 			sosResource.addProperty(SKOS.altLabel, pspModel.createLiteral(sosShortName, "fr"));
-			sosResource.addProperty(SKOS.prefLabel, pspModel.createLiteral(row.getCell(4, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim(), "fr"));
+			sosResource.addProperty(SKOS.prefLabel, pspModel.createLiteral(row.getString(4).trim(), "fr"));
 			sosResource.addProperty(DCTerms.isPartOf, sofResource);
 
 			// Gets the value that specifies the different dcat:Dataset instances (column H)
 			// TODO Add also as dc:temporal value? What to do when value is empty?
-			String temporal = row.getCell(7, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			String temporal = row.getString(7).trim();
 			List<String> datasetYears = null;
 			if (temporal.length() > 0) {
 				datasetYears = getYears(temporal);
@@ -132,8 +128,8 @@ public class PSPModelMaker {
 			} catch (IOException e) {
 				logger.fatal("");
 			}
-			try { pdpWorkbook.close(); } catch (Exception ignored) { }
 		}
+		pdpReader.close(); // The sheet is streamed, so the reader can only be closed after the last row
 	}
 
 
@@ -27,14 +27,11 @@ import org.apache.jena.rdf.model.SimpleSelector;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 
 import eu.casd.semweb.psp.PSPOperationEntry.OperationType;
 import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
 
 public class SourceConverter {
 
@@ -109,11 +106,11 @@ public class SourceConverter {
 		}
 
 		// Read the Excel file listing the operations with their types, parent, CASD indicator, etc.
-		Workbook simsWorkbook = null;
-		Sheet simsSheet = null;
+		SpreadsheetReader simsReader = null;
+		Iterator<SpreadsheetRow> rows = null;
 		try {
-			simsWorkbook = WorkbookFactory.create(new File(OPERATION_LIST_FILE_NAME));
-			simsSheet = simsWorkbook.getSheetAt(0);
+			simsReader = SpreadsheetReader.open(new File(OPERATION_LIST_FILE_NAME));
+			rows = simsReader.readRows(0);
 			logger.debug("Spreadsheet opened: " + OPERATION_LIST_FILE_NAME);
 		} catch (Exception e) {
 			logger.fatal("Error while opening Excel file " + OPERATION_LIST_FILE_NAME + " - " + e.getMessage());
@@ -122,11 +119,10 @@ public class SourceConverter {
 
 		// For each row in the spreadsheet, create an OperationEntry object and add it to a map
 		Map<String, PSPOperationEntry> typedOperations = new HashMap<String, PSPOperationEntry>();
-		Iterator<Row> rows = simsSheet.rowIterator();
 		rows.next(); // Skip the title line
 		while (rows.hasNext()) {
-			Row row = rows.next();
-			String operationName = row.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			SpreadsheetRow row = rows.next();
+			String operationName = row.getString(0).trim();
 			// The title should be found in the mappings, in order to retrieve the operation code
 			if (!mappings.containsKey(operationName)) {
 				logger.error("Operation title absent from mapping file: " + operationName);
@@ -135,19 +131,19 @@ public class SourceConverter {
 			String operationIdentifier = mappings.get(operationName);
 			logger.debug("Reading data for operation " + operationIdentifier);
 			PSPOperationEntry operation = new PSPOperationEntry(operationIdentifier);
-			operation.setType(row.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim());
+			operation.setType(row.getString(2).trim());
 			if (operation.getType() == OperationType.UNKNOWN) {
-				logger.error("Unrecognise type '" + row.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString() + "' for operation " + operationName);
+				logger.error("Unrecognise type '" + row.getString(2) + "' for operation " + operationName);
 				continue;				
 			}
-			String parentCode = row.getCell(3, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			String parentCode = row.getString(3).trim();
 			if (parentCode.length() > 0) operation.setParentCode(parentCode.substring(4)); // To get rid of the 'OPE-' prefix
-			String casdInfo = row.getCell(1, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			String casdInfo = row.getString(1).trim();
 			if (casdInfo.length() > 0) operation.setCasdIndicator(casdInfo); // Refine treatment of the CASD info
 
 			typedOperations.put(operationIdentifier, operation);
 		}
-		try { simsWorkbook.close(); } catch (IOException ignored) { }
+		simsReader.close();
 		logger.debug(typedOperations.size() + " operation read from spreadsheet");
 		// Check if every declared parent exists in the list
 		for (String operationCode : typedOperations.keySet()) {
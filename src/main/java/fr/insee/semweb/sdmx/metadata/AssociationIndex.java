@@ -0,0 +1,333 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.insee.semweb.sdmx.metadata.Configuration.M0ResourceType;
+import fr.insee.semweb.sdmx.metadata.Configuration.OrganizationRole;
+import fr.insee.semweb.sdmx.metadata.M0Index.M0URI;
+import fr.insee.semweb.utils.URIComparator;
+
+/**
+ * Decoded content of the M0 'associations' model: relations, hierarchies, replacements, attachments, references to links and documents, etc.
+ * The index is built in one pass on the model, each 'relatedTo' or 'relatedToGb' statement being classified once.
+ * The index is immutable: all the maps returned are copies that the caller can modify.
+ *
+ * @author Franck
+ */
+public class AssociationIndex {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(AssociationIndex.class);
+
+	/** Names of the SIMS attributes whose values are organizations */
+	public static final List<String> ORGANIZATION_ATTRIBUTES = Arrays.asList("CONTACT_ORGANISATION", "ORGANISATION_UNIT");
+
+	/** Relations between operation-like resources (M0 URIs) */
+	private final SortedMap<String, List<String>> relations = new TreeMap<String, List<String>>();
+	/** Hierarchies between children and parents (M0 URIs) */
+	private final SortedMap<String, String> hierarchies = new TreeMap<String, String>(Comparator.nullsFirst(new URIComparator()));
+	/** Replacing resources and the resources they replace (M0 URIs) */
+	private final SortedMap<String, List<String>> replacements = new TreeMap<String, List<String>>(Comparator.nullsFirst(new URIComparator()));
+	/** Indicators and the series they are produced from (M0 URIs) */
+	private final SortedMap<String, List<String>> productionRelations = new TreeMap<String, List<String>>(Comparator.nullsFirst(new URIComparator()));
+	/** Operations and organizations (M0 URIs), for each organization role */
+	private final Map<OrganizationRole, SortedMap<String, List<String>>> organizationalRelations = new EnumMap<OrganizationRole, SortedMap<String, List<String>>>(OrganizationRole.class);
+	/** Documentations and the series or operations they are attached to (M0 URIs) */
+	private final SortedMap<String, String> simsAttachments = new TreeMap<String, String>();
+	/** Documentations and the series, operations or indicators they are attached to (M0 URIs) */
+	private final SortedMap<String, String> simsAttachmentsWithIndicators = new TreeMap<String, String>();
+	/** References from documentation attributes to links and documents, in French and in English */
+	private ReferenceTable referenceTableFr = null;
+	private ReferenceTable referenceTableEn = null;
+	/** Organizations (M0 URIs) that are values of organizational attributes of documentations */
+	private ReferenceTable organizationValueTable = null;
+	/** Numbers of the links or documents referenced in French and in English, indexed by [English][links] */
+	private final List<Set<Integer>> referencedNumbers = new ArrayList<Set<Integer>>();
+
+	private AssociationIndex() {
+
+		for (OrganizationRole role : OrganizationRole.values()) organizationalRelations.put(role, new TreeMap<String, List<String>>());
+		for (int index = 0; index < 4; index++) referencedNumbers.add(new HashSet<Integer>());
+	}
+
+	/**
+	 * Builds the index of an M0 'associations' model.
+	 *
+	 * @param m0AssociationModel The M0 'associations' model.
+	 * @return The index of the model.
+	 */
+	public static AssociationIndex build(Model m0AssociationModel) {
+
+		long startTime = System.currentTimeMillis();
+		AssociationIndex index = new AssociationIndex();
+		Set<String> attachedResources = new HashSet<String>();
+		Set<String> attachedResourcesWithIndicators = new HashSet<String>();
+		// The builders are only needed during the construction, the index keeps the compact tables
+		ReferenceTable.Builder referencesFr = new ReferenceTable.Builder(ReferenceTable.LINK_OR_DOCUMENT_URI);
+		ReferenceTable.Builder referencesEn = new ReferenceTable.Builder(ReferenceTable.LINK_OR_DOCUMENT_URI);
+		ReferenceTable.Builder organizationValues = new ReferenceTable.Builder();
+		// Statements are listed by predicate, so that when several statements conflict the first one is the same as with a selection on the predicate
+		ExtendedIterator<Statement> statementIterator = m0AssociationModel.listStatements(null, Configuration.M0_RELATED_TO, (RDFNode) null)
+				.andThen(m0AssociationModel.listStatements(null, Configuration.M0_RELATED_TO_EN, (RDFNode) null));
+		while (statementIterator.hasNext()) {
+			Statement statement = statementIterator.next();
+			boolean inEnglish = statement.getPredicate().equals(Configuration.M0_RELATED_TO_EN);
+			if (!inEnglish && !statement.getPredicate().equals(Configuration.M0_RELATED_TO)) continue;
+			if (!statement.getSubject().isURIResource() || !statement.getObject().isURIResource()) continue;
+			String subjectURI = statement.getSubject().getURI();
+			String objectURI = statement.getObject().asResource().getURI();
+
+			// References from documentation attributes to links and documents exist in both languages
+			if (subjectURI.startsWith(Configuration.M0_SIMS_BASE_URI)) {
+				if (objectURI.startsWith(M0ResourceType.LINK.getBaseURI())) index.addReference(inEnglish ? referencesEn : referencesFr, statement, inEnglish, true);
+				else if (objectURI.startsWith(M0ResourceType.DOCUMENT.getBaseURI())) index.addReference(inEnglish ? referencesEn : referencesFr, statement, inEnglish, false);
+			}
+			if (inEnglish) continue;
+
+			// <http://baseUri/series/serie/99/RELATED_TO> relatedTo <http://baseUri/series/serie/98/RELATED_TO> (relations between code lists and codes are eliminated)
+			if (!subjectURI.startsWith("http://baseUri/code") && subjectURI.endsWith("RELATED_TO") && objectURI.endsWith("RELATED_TO")) {
+				addToListMap(index.relations, StringUtils.removeEnd(subjectURI, "/RELATED_TO"), StringUtils.removeEnd(objectURI, "/RELATED_TO"));
+			}
+			if (subjectURI.endsWith("ASSOCIE_A") && objectURI.endsWith("ASSOCIE_A")) {
+				String subject = StringUtils.removeEnd(subjectURI, "/ASSOCIE_A");
+				String object = StringUtils.removeEnd(objectURI, "/ASSOCIE_A");
+				// <http://baseUri/familles/famille/58/ASSOCIE_A> relatedTo <http://baseUri/series/serie/117/ASSOCIE_A>: each series or operation should have at most one parent
+				if ((subjectURI.startsWith("http://baseUri/series") && objectURI.startsWith("http://baseUri/familles")) || (subjectURI.startsWith("http://baseUri/operations") && objectURI.startsWith("http://baseUri/series"))) {
+					if (index.hierarchies.containsKey(subject)) logger.error("Conflicting parents for " + subject + " - " + object + " and " + index.hierarchies.get(subject));
+					else index.hierarchies.put(subject, object);
+				}
+				// <http://baseUri/documentations/documentation/1527/ASSOCIE_A> relatedTo <http://baseUri/operations/operation/1/ASSOCIE_A>
+				if (subjectURI.startsWith("http://baseUri/documentations")) {
+					// The attachments with and without indicators are two independent views, each one keeping the first attachment of each SIMS metadata set
+					if (objectURI.startsWith("http://baseUri/series") || objectURI.startsWith("http://baseUri/operations")) {
+						addAttachment(index.simsAttachments, attachedResources, subject, object);
+						addAttachment(index.simsAttachmentsWithIndicators, attachedResourcesWithIndicators, subject, object);
+					}
+					else if (objectURI.startsWith("http://baseUri/indicateurs")) addAttachment(index.simsAttachmentsWithIndicators, attachedResourcesWithIndicators, subject, object);
+				}
+			}
+			// <http://baseUri/series/serie/12/REPLACES> relatedTo <http://baseUri/series/serie/13/REMPLACE_PAR>
+			if (subjectURI.endsWith("REPLACES") && objectURI.endsWith("REMPLACE_PAR")) {
+				addToListMap(index.replacements, StringUtils.removeEnd(subjectURI, "/REPLACES"), StringUtils.removeEnd(objectURI, "/REMPLACE_PAR"));
+			}
+			// <http://baseUri/indicateurs/indicateur/27/PRODUCED_FROM> relatedTo <http://baseUri/series/serie/137/PRODUIT_INDICATEURS>
+			if (subjectURI.endsWith("PRODUCED_FROM") && objectURI.endsWith("PRODUIT_INDICATEURS") && subjectURI.startsWith("http://baseUri/indicateurs") && objectURI.startsWith("http://baseUri/series")) {
+				addToListMap(index.productionRelations, StringUtils.removeEnd(subjectURI, "/PRODUCED_FROM"), StringUtils.removeEnd(objectURI, "/PRODUIT_INDICATEURS"));
+			}
+			// <http://baseUri/series/serie/42/STAKEHOLDERS> relatedTo <http://baseUri/organismes/organisme/10/STAKEHOLDERS> (same with '/ORGANISATION' for producers)
+			if (objectURI.startsWith("http://baseUri/organismes")) {
+				for (OrganizationRole role : OrganizationRole.values()) {
+					String suffix = "/" + role.toString();
+					if (subjectURI.endsWith(suffix) && objectURI.endsWith(suffix)) addToListMap(index.organizationalRelations.get(role), StringUtils.removeEnd(subjectURI, suffix), StringUtils.removeEnd(objectURI, suffix));
+				}
+			}
+			// <http://baseUri/documentations/documentation/1507/CONTACT_ORGANISATION> relatedTo <http://baseUri/organismes/organisme/36/CONTACT_ORGANISATION>
+			if (subjectURI.startsWith(Configuration.M0_SIMS_BASE_URI)) {
+				for (String attributeName : ORGANIZATION_ATTRIBUTES) {
+					if (!subjectURI.endsWith(attributeName)) continue;
+					M0URI documentationURI = M0URI.parse(subjectURI);
+					if (documentationURI == null) {
+						logger.error("Unexpected statement ignored: " + statement);
+						continue;
+					}
+					organizationValues.add(documentationURI.getNumber(), attributeName, StringUtils.substringBeforeLast(objectURI, "/"));
+				}
+			}
+		}
+		index.referenceTableFr = referencesFr.build();
+		index.referenceTableEn = referencesEn.build();
+		index.organizationValueTable = organizationValues.build();
+		logger.debug("Association index built in " + (System.currentTimeMillis() - startTime) + " ms");
+
+		return index;
+	}
+
+	/**
+	 * Returns the relations between operation-like resources (each relation appears in both directions).
+	 *
+	 * @return A sorted map whose keys are M0 URIs and values are lists of related M0 URIs.
+	 */
+	public SortedMap<String, List<String>> getRelations() {
+		return copyListMap(relations);
+	}
+
+	/**
+	 * Returns the hierarchies between families and series and between series and operations.
+	 *
+	 * @return A sorted map whose keys are the M0 URIs of the children and values the M0 URIs of the parents.
+	 */
+	public SortedMap<String, String> getHierarchies() {
+		return copyMap(hierarchies);
+	}
+
+	/**
+	 * Returns the replacement relations.
+	 *
+	 * @return A sorted map whose keys are the M0 URIs of the replacing resources and values the lists of the M0 URIs of the resources they replace.
+	 */
+	public SortedMap<String, List<String>> getReplacements() {
+		return copyListMap(replacements);
+	}
+
+	/**
+	 * Returns the relations stating that an indicator is produced from a series.
+	 *
+	 * @return A sorted map whose keys are the M0 URIs of the indicators and values the lists of the M0 URIs of the series.
+	 */
+	public SortedMap<String, List<String>> getProductionRelations() {
+		return copyListMap(productionRelations);
+	}
+
+	/**
+	 * Returns the relations of a given type between operations and organizations.
+	 *
+	 * @param organizationRole Role of the organizations: producers or stakeholders.
+	 * @return A sorted map whose keys are the M0 URIs of the operations and values the lists of the M0 URIs of the organizations.
+	 */
+	public SortedMap<String, List<String>> getOrganizationalRelations(OrganizationRole organizationRole) {
+		return copyListMap(organizationalRelations.get(organizationRole));
+	}
+
+	/**
+	 * Returns the attachments of SIMS metadata sets to series and operations, and possibly indicators.
+	 *
+	 * @param includeIndicators If <code>true</code>, the attachments to indicators are also returned.
+	 * @return A sorted map whose keys are the M0 URIs of the documentations and values the M0 URIs of the resources they are attached to.
+	 */
+	public SortedMap<String, String> getSIMSAttachments(boolean includeIndicators) {
+		return copyMap(includeIndicators ? simsAttachmentsWithIndicators : simsAttachments);
+	}
+
+	/**
+	 * Returns the references from documentation attributes to links or documents in a given language.
+	 *
+	 * @param language The language tag of the references ('en' for English, French otherwise).
+	 * @param links If <code>true</code>, the references to links are returned, otherwise the references to documents.
+	 * @return A sorted map whose keys are documentation numbers and values maps between attribute names and the sets of target link or document URIs.
+	 */
+	public SortedMap<Integer, SortedMap<String, SortedSet<String>>> getAttributeReferences(String language, boolean links) {
+		return getReferenceTable(language).toSortedMap(reference -> ReferenceTable.isLink(reference) == links);
+	}
+
+	/**
+	 * Returns the table of references from documentation attributes to links and documents in a given language.
+	 *
+	 * @param language The language tag of the references ('en' for English, French otherwise).
+	 * @return The compact table of references to links and documents.
+	 */
+	public ReferenceTable getReferenceTable(String language) {
+		return "en".equalsIgnoreCase(language) ? referenceTableEn : referenceTableFr;
+	}
+
+	/**
+	 * Returns the organizations that are values of the organizational attributes of documentations (CONTACT_ORGANISATION, ORGANISATION_UNIT).
+	 *
+	 * @return A sorted map whose keys are documentation numbers and values maps between attribute names and the sets of organization M0 URIs.
+	 */
+	public SortedMap<Integer, SortedMap<String, SortedSet<String>>> getOrganizationValues() {
+		return organizationValueTable.toSortedMap();
+	}
+
+	/**
+	 * Returns the table of the organizations that are values of the organizational attributes of documentations.
+	 *
+	 * @return The compact table of organization M0 URIs.
+	 */
+	public ReferenceTable getOrganizationValueTable() {
+		return organizationValueTable;
+	}
+
+	/**
+	 * Returns the language of the links or documents referenced by the documentations: a link or document is French if it is referenced as French, English otherwise.
+	 *
+	 * @param links If <code>true</code>, the languages of the links are returned, otherwise those of the documents.
+	 * @return A sorted map whose keys are the link or document numbers and the values the language tags.
+	 */
+	public SortedMap<Integer, String> getLanguageTags(boolean links) {
+
+		SortedMap<Integer, String> languageTags = new TreeMap<Integer, String>();
+		for (Integer number : referencedNumbers.get(position(false, links))) languageTags.put(number, "fr");
+		for (Integer number : referencedNumbers.get(position(true, links))) {
+			if (languageTags.containsKey(number)) logger.warn(((links) ? "Link" : "Document") + " number " + number + " is both English and French");
+			else languageTags.put(number, "en");
+		}
+
+		return languageTags;
+	}
+
+	/**
+	 * Records a reference from a documentation attribute to a link or a document.
+	 */
+	private void addReference(ReferenceTable.Builder references, Statement statement, boolean inEnglish, boolean links) {
+
+		// The link/document number and SIMS attribute are the last two elements of the link/document URI
+		M0URI referenceURI = M0URI.parse(statement.getObject().asResource().getURI());
+		M0URI documentationURI = M0URI.parse(statement.getSubject().getURI());
+		if ((referenceURI != null) && (referenceURI.getAttribute() != null)) referencedNumbers.get(position(inEnglish, links)).add(referenceURI.getNumber());
+
+		// Check that both URIs contain an attribute name and that the attributes in subject and object URIs are the same
+		if ((referenceURI == null) || (documentationURI == null) || (referenceURI.getAttribute() == null) || (!referenceURI.getAttribute().equals(documentationURI.getAttribute()))) {
+			logger.error("Unexpected statement ignored: " + statement);
+			return;
+		}
+		String attributeName = referenceURI.getAttribute();
+		// HACK: some associations are made on the 'ASSOCIE_A' attribute, which is not a SIMS attribute, we don't want those associations
+		if ("ASSOCIE_A".equals(attributeName)) return;
+		int reference = links ? ReferenceTable.linkReference(referenceURI.getNumber()) : ReferenceTable.documentReference(referenceURI.getNumber());
+		references.add(documentationURI.getNumber(), attributeName, reference);
+	}
+
+	/**
+	 * Records the attachment of a SIMS metadata set in one of the views, checking that the metadata set and the resource have only one attachment in this view.
+	 */
+	private static void addAttachment(SortedMap<String, String> attachments, Set<String> attachedResources, String simsSet, String resource) {
+
+		// We can check that each operation or series has not more than one SIMS metadata set attached
+		if (!attachedResources.add(resource)) logger.warn("Several SIMS metadata sets are attached to " + resource);
+		// Each SIMS metadata set should be attached to only one series/operation
+		if (attachments.containsKey(simsSet)) logger.error("SIMS metadata set " + simsSet + " is attached to both " + resource + " and " + attachments.get(simsSet));
+		else attachments.put(simsSet, resource);
+	}
+
+	private static int position(boolean inEnglish, boolean links) {
+		return (inEnglish ? 2 : 0) + (links ? 1 : 0);
+	}
+
+	private static void addToListMap(SortedMap<String, List<String>> map, String key, String value) {
+
+		if (!map.containsKey(key)) map.put(key, new ArrayList<String>());
+		map.get(key).add(value);
+	}
+
+	private static SortedMap<String, String> copyMap(SortedMap<String, String> map) {
+
+		SortedMap<String, String> copy = new TreeMap<String, String>(map.comparator());
+		copy.putAll(map);
+		return copy;
+	}
+
+	private static SortedMap<String, List<String>> copyListMap(SortedMap<String, List<String>> map) {
+
+		SortedMap<String, List<String>> copy = new TreeMap<String, List<String>>(map.comparator());
+		for (Map.Entry<String, List<String>> entry : map.entrySet()) copy.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+		return copy;
+	}
+}
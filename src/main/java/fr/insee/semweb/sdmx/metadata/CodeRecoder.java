@@ -0,0 +1,155 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.SKOS;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Recodes and validates the values of the coded SIMSFr attributes.
+ * The recodings of M0 codes are defined in a declarative table, and the valid codes of each code concept are read from the code lists.
+ * For each code concept, the recodings and valid codes are merged in a single map, so that each M0 code is recoded and validated with one lookup.
+ * Unknown codes are counted for each attribute in a map given by the caller, so that each conversion has its own counts (they are still converted, as they were before validation).
+ * The recoder itself is immutable, so it can be shared by concurrent conversions.
+ *
+ * @author Franck
+ */
+public class CodeRecoder {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(CodeRecoder.class);
+
+	/** Recodings of M0 codes: code concept, M0 code, target code (<code>null</code> when the M0 code is not converted) */
+	private static final String[][] RECODING_TABLE = {
+		{"Frequence", "T", "U"}, // CL_FREQ
+		{"Frequence", "BM", "T"},
+		{"UniteEnquetee", "AS", "A"}, // CL_SURVEY_UNIT
+		{"UniteEnquetee", "O", null}, // CL_SURVEY_UNIT: O (Other) filtered out
+		{"ModeCollecte", "O", null} // CL_COLLECTION_MODE: O (Other) filtered out
+	};
+
+	/** Recodings of M0 codes for each code concept, built from the recoding table */
+	static final Map<String, Map<String, String>> RECODINGS = new HashMap<String, Map<String, String>>();
+	static {
+		for (String[] recoding : RECODING_TABLE) RECODINGS.computeIfAbsent(recoding[0], concept -> new HashMap<String, String>()).put(recoding[1], recoding[2]);
+	}
+
+	/** For each code concept whose code list is known, the target code URI of each M0 code (<code>null</code> for the M0 codes which are not converted) */
+	private final Map<String, Map<String, String>> codeURIs = new HashMap<String, Map<String, String>>();
+	/** Labels of the units of measure, which replace the codes */
+	private final Map<String, String[]> unitMeasureLabels;
+
+	/**
+	 * Creates a recoder from the valid codes of the code concepts and the labels of the units of measure.
+	 *
+	 * @param validCodes The valid codes (notations) for each code concept name (e.g. Frequence), as returned by <code>getValidCodes</code>.
+	 * @param unitMeasureLabels The French and English labels for each unit of measure code.
+	 */
+	public CodeRecoder(Map<String, Set<String>> validCodes, Map<String, String[]> unitMeasureLabels) {
+
+		for (Map.Entry<String, Set<String>> conceptEntry : validCodes.entrySet()) {
+			String conceptName = conceptEntry.getKey();
+			Map<String, String> conceptCodeURIs = new HashMap<String, String>();
+			for (String code : conceptEntry.getValue()) conceptCodeURIs.put(code, Configuration.inseeCodeURI(code, conceptName));
+			// M0 codes which are recoded are valid if the target code is valid
+			for (Map.Entry<String, String> recoding : RECODINGS.getOrDefault(conceptName, Collections.emptyMap()).entrySet()) {
+				if (recoding.getValue() == null) conceptCodeURIs.put(recoding.getKey(), null);
+				else if (conceptEntry.getValue().contains(recoding.getValue())) conceptCodeURIs.put(recoding.getKey(), Configuration.inseeCodeURI(recoding.getValue(), conceptName));
+				else conceptCodeURIs.remove(recoding.getKey()); // The M0 code is unknown for the target code list
+			}
+			codeURIs.put(conceptName, conceptCodeURIs);
+		}
+		this.unitMeasureLabels = (unitMeasureLabels == null) ? Collections.emptyMap() : unitMeasureLabels;
+		logger.debug("Code recoder created with code lists for concepts " + new TreeMap<String, Set<String>>(validCodes).keySet());
+	}
+
+	/**
+	 * Reads the valid codes of each code concept in a model containing code lists, as created by <code>CodelistModelMaker</code>.
+	 * The codes are the notations of the instances of the code concept classes.
+	 *
+	 * @param codesModel The model containing the code lists.
+	 * @return A map whose keys are the code concept names (e.g. Frequence) and values the sets of valid codes.
+	 */
+	public static Map<String, Set<String>> getValidCodes(Model codesModel) {
+
+		Map<String, Set<String>> validCodes = new HashMap<String, Set<String>>();
+		for (Statement typeStatement : codesModel.listStatements(null, RDF.type, (RDFNode) null).toList()) {
+			if (!typeStatement.getObject().isURIResource()) continue;
+			String classURI = typeStatement.getObject().asResource().getURI();
+			if (!classURI.startsWith(Configuration.INSEE_CODE_CONCEPTS_BASE_URI)) continue;
+			Resource code = typeStatement.getSubject();
+			Statement notationStatement = code.getProperty(SKOS.notation);
+			if (notationStatement == null) continue;
+			String conceptName = classURI.substring(Configuration.INSEE_CODE_CONCEPTS_BASE_URI.length());
+			validCodes.computeIfAbsent(conceptName, name -> new HashSet<String>()).add(notationStatement.getString());
+		}
+		return validCodes;
+	}
+
+	/**
+	 * Applies the recoding table to an M0 code, without validation.
+	 *
+	 * @param conceptName The name of the code concept (e.g. Frequence).
+	 * @param code The M0 code.
+	 * @return The target code, which is the M0 code itself if there is no recoding, or <code>null</code> if the M0 code must not be converted.
+	 */
+	public static String recode(String conceptName, String code) {
+
+		Map<String, String> conceptRecodings = RECODINGS.get(conceptName);
+		if ((conceptRecodings == null) || !conceptRecodings.containsKey(code)) return code;
+		return conceptRecodings.get(code);
+	}
+
+	/**
+	 * Recodes and validates an M0 code and returns the URI of the corresponding target code.
+	 * If the code list of the concept is not known, the code is recoded without validation.
+	 *
+	 * @param attributeName The name of the attribute taking the code as value (used to count unknown codes).
+	 * @param conceptName The name of the code concept (e.g. Frequence).
+	 * @param code The M0 code.
+	 * @param unknownCodeCounts The numbers of unknown codes for each attribute, incremented if the code is unknown (must be thread-safe if shared by concurrent calls).
+	 * @return The URI of the target code, or <code>null</code> if the M0 code must not be converted.
+	 */
+	public String getCodeURI(String attributeName, String conceptName, String code, Map<String, Integer> unknownCodeCounts) {
+
+		Map<String, String> conceptCodeURIs = codeURIs.get(conceptName);
+		if ((conceptCodeURIs != null) && conceptCodeURIs.containsKey(code)) return conceptCodeURIs.get(code);
+
+		// Unknown code or code list
+		if (conceptCodeURIs != null) countUnknownCode(attributeName, code, unknownCodeCounts);
+		String targetCode = recode(conceptName, code);
+		return (targetCode == null) ? null : Configuration.inseeCodeURI(targetCode, conceptName);
+	}
+
+	/**
+	 * Returns the labels that replace a code of unit of measure.
+	 *
+	 * @param attributeName The name of the attribute taking the code as value (used to count unknown codes).
+	 * @param code The code of unit of measure.
+	 * @param unknownCodeCounts The numbers of unknown codes for each attribute, incremented if the code is unknown (must be thread-safe if shared by concurrent calls).
+	 * @return The French and English labels corresponding to the code, or <code>null</code> if the code is unknown.
+	 */
+	public String[] getUnitMeasureLabels(String attributeName, String code, Map<String, Integer> unknownCodeCounts) {
+
+		String[] labels = unitMeasureLabels.get(code);
+		if (labels == null) countUnknownCode(attributeName, code, unknownCodeCounts);
+		return labels;
+	}
+
+	private static void countUnknownCode(String attributeName, String code, Map<String, Integer> unknownCodeCounts) {
+
+		logger.warn("Unknown code '" + code + "' for attribute " + attributeName);
+		unknownCodeCounts.merge(attributeName, 1, Integer::sum);
+	}
+}
@@ -1,24 +1,25 @@
 package fr.insee.semweb.sdmx.metadata;
 
+import fr.insee.semweb.utils.SnapshotCache;
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
 import fr.insee.semweb.utils.Utils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.vocabulary.OWL;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -37,6 +38,9 @@ public class CodelistModelMaker {
 
 	public static Logger logger = LogManager.getLogger(CodelistModelMaker.class);
 
+	/** Prefix of the names of the snapshot graphs containing the code lists of each sheet */
+	private static final String SHEET_GRAPH_PREFIX = "urn:x-sheet:";
+
 	/**
 	 * Reads all the code lists from the dedicated Excel file into a Jena dataset.
 	 * The 'Themes' scheme will be put in a 'concepts' graph (unless excluded), the other lists in a 'codes' graph.
@@ -49,31 +53,18 @@ public class CodelistModelMaker {
 	 */
 	public static Dataset readCodelistDataset(File xlxsFile, String conceptGraph, String codeGraph, String... exclusions) {
 
-		Workbook clWorkbook;
-		try {
-			clWorkbook = WorkbookFactory.create(xlxsFile);
-		} catch (Exception e) {
-			logger.fatal("Error while opening Excel file " + xlxsFile.getAbsolutePath() + " - " + e.getMessage());
-			return null;
-		}
+		SortedMap<String, Model> sheetModels = readCodelistSheets(xlxsFile);
+		if (sheetModels == null) return null;
 
-		logger.info("Reading code lists from Excel file " + Configuration.CL_XLSX_FILE_NAME);
 		List<String> exclusionList = Arrays.asList(exclusions);
 		if (!exclusionList.isEmpty()) logger.info("The following code lists are excluded " + exclusionList);
 		Model concepts = ModelFactory.createDefaultModel();
 		Model codes = ModelFactory.createDefaultModel();
-
-		// Each code list should be on a dedicated sheet of the spreadsheet
-		Iterator<Sheet> sheets = clWorkbook.sheetIterator();
-		while (sheets.hasNext()) {
-			Sheet sheet = sheets.next();
-			String sheetName = sheet.getSheetName().trim();
-			if (exclusionList.contains(sheetName)) continue;
-			logger.info("Reading " + sheetName + " code list");
-			if (sheet.getSheetName().equals("CL_TOPICS")) concepts.add(readThemesConceptScheme(sheet));
-			else codes.add(readCodelist(sheet));
+		for (Map.Entry<String, Model> sheetEntry : sheetModels.entrySet()) {
+			if (exclusionList.contains(sheetEntry.getKey().trim())) continue;
+			if (sheetEntry.getKey().equals("CL_TOPICS")) concepts.add(sheetEntry.getValue());
+			else codes.add(sheetEntry.getValue());
 		}
-		try { clWorkbook.close(); } catch (IOException ignored) { }
 
 		Dataset dataset = DatasetFactory.create();
 		if (concepts.size() > 0) dataset.addNamedModel(conceptGraph, concepts);
@@ -84,6 +75,58 @@ public class CodelistModelMaker {
 		return dataset;
 	}
 
+	/**
+	 * Reads the code lists of each sheet of the dedicated Excel file, the 'CL_TOPICS' sheet containing the 'Themes' scheme.
+	 * If workbook snapshots are activated, the code lists are read from the binary snapshot of the file when it is up to date, and the snapshot is created otherwise.
+	 * 
+	 * @param xlxsFile The Excel file containing the code lists (<code>File</code> object).
+	 * @return A sorted map whose keys are the names of the sheets and values the models of the corresponding code lists, or <code>null</code> in case of problem.
+	 */
+	public static SortedMap<String, Model> readCodelistSheets(File xlxsFile) {
+
+		File snapshotDirectory = new File(Configuration.SNAPSHOT_DIRECTORY);
+		if (Configuration.USE_WORKBOOK_SNAPSHOTS) {
+			DatasetGraph snapshot = SnapshotCache.readSnapshot(xlxsFile, snapshotDirectory);
+			if (snapshot != null) {
+				logger.info("Code lists read from snapshot of Excel file " + xlxsFile.getAbsolutePath());
+				SortedMap<String, Model> sheetModels = new TreeMap<String, Model>();
+				Dataset snapshotDataset = DatasetFactory.wrap(snapshot);
+				// The default graph of the snapshot gives the name of the sheet corresponding to each graph
+				snapshotDataset.getDefaultModel().listStatements(null, RDFS.label, (RDFNode) null).forEachRemaining(statement -> sheetModels.put(statement.getString(), snapshotDataset.getNamedModel(statement.getSubject().getURI())));
+				return sheetModels;
+			}
+		}
+
+		logger.info("Reading code lists from Excel file " + xlxsFile.getAbsolutePath());
+		SortedMap<String, Model> sheetModels = new TreeMap<String, Model>();
+		// Each code list should be on a dedicated sheet of the spreadsheet
+		try (SpreadsheetReader clReader = SpreadsheetReader.open(xlxsFile)) {
+			List<String> sheetNames = clReader.getSheetNames();
+			for (int sheetIndex = 0; sheetIndex < sheetNames.size(); sheetIndex++) {
+				String sheetName = sheetNames.get(sheetIndex);
+				logger.info("Reading " + sheetName.trim() + " code list");
+				if (sheetName.equals("CL_TOPICS")) sheetModels.put(sheetName, readThemesConceptScheme(clReader.readRows(sheetIndex)));
+				else sheetModels.put(sheetName, readCodelist(clReader.readRows(sheetIndex)));
+			}
+		} catch (Exception e) {
+			logger.fatal("Error while reading Excel file " + xlxsFile.getAbsolutePath() + " - " + e.getMessage());
+			return null;
+		}
+
+		if (Configuration.USE_WORKBOOK_SNAPSHOTS) {
+			Dataset snapshotDataset = DatasetFactory.create();
+			int graphNumber = 0;
+			for (Map.Entry<String, Model> sheetEntry : sheetModels.entrySet()) {
+				String graphName = SHEET_GRAPH_PREFIX + (++graphNumber);
+				snapshotDataset.addNamedModel(graphName, sheetEntry.getValue());
+				snapshotDataset.getDefaultModel().add(snapshotDataset.getDefaultModel().createResource(graphName), RDFS.label, sheetEntry.getKey());
+			}
+			SnapshotCache.writeSnapshot(xlxsFile, snapshotDirectory, snapshotDataset.asDatasetGraph());
+		}
+
+		return sheetModels;
+	}
+
 	/**
 	 * Reads one code list from a sheet of the dedicated Excel file into a Jena model.
 	 * 
@@ -92,20 +135,30 @@ public class CodelistModelMaker {
 	 */
 	public static Model readCodelist(Sheet sheet) {
 
+		return readCodelist(SpreadsheetRow.rowIterator(sheet));
+	}
+
+	/**
+	 * Reads one code list from the rows of a sheet of the dedicated Excel file into a Jena model.
+	 * 
+	 * @param rows An iterator on the rows of the sheet containing the code list, as returned by <code>SpreadsheetReader</code>.
+	 * @return A Jena <code>Model</code> containing the code list as a SKOS concept scheme.
+	 */
+	public static Model readCodelist(Iterator<SpreadsheetRow> rows) {
+
 		Model codeList = ModelFactory.createDefaultModel();
 		codeList.setNsPrefix("skos", SKOS.getURI());
 		codeList.setNsPrefix("rdfs", RDFS.getURI());
 
-		Iterator<Row> rows = sheet.rowIterator();
 		rows.next(); // Skip the title line
 
 		// The first line after the title contains the code and labels of the code list itself
-		Row csRow = rows.next();
-		String sheetName = csRow.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		SpreadsheetRow csRow = rows.next();
+		String sheetName = csRow.getString(0).trim();
 		// HACK: STATUS ends with a non-breakable space
 		sheetName = sheetName.replaceAll("\u00A0", "");
-		String englishLabel = csRow.getCell(1, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
-		String frenchLabel = csRow.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		String englishLabel = csRow.getString(1).trim();
+		String frenchLabel = csRow.getString(2).trim();
 		String pathElement = frenchLabel;
 
 		String codeListURI = Configuration.codelistURI(frenchLabel);
@@ -123,11 +176,11 @@ public class CodelistModelMaker {
 		// The next lines list the code values
 		String notation;
 		while (rows.hasNext()) {
-			Row row = rows.next();
-			notation = row.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			SpreadsheetRow row = rows.next();
+			notation = row.getString(0).trim();
 			if (notation.length() == 0) continue;
-			englishLabel = row.getCell(1, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
-			frenchLabel = row.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			englishLabel = row.getString(1).trim();
+			frenchLabel = row.getString(2).trim();
 			Resource code = codeList.createResource(Configuration.inseeCodeURI(notation, Utils.camelCase(pathElement, false, false)), SKOS.Concept);
 			code.addProperty(RDF.type, codeClass); // The codes are instances of the code concept class
 			code.addProperty(SKOS.notation, notation);
@@ -148,6 +201,17 @@ public class CodelistModelMaker {
 	 */
 	public static Model readThemesConceptScheme(Sheet sheet) {
 
+		return readThemesConceptScheme(SpreadsheetRow.rowIterator(sheet));
+	}
+
+	/**
+	 * Reads the concept scheme of statistical themes from the rows of a sheet of the dedicated Excel file.
+	 * 
+	 * @param rows An iterator on the rows of the sheet which contains the theme list, as returned by <code>SpreadsheetReader</code>.
+	 * @return A Jena <code>Model</code> containing the themes code lists as a SKOS concept scheme.
+	 */
+	public static Model readThemesConceptScheme(Iterator<SpreadsheetRow> rows) {
+
 		Model themes = ModelFactory.createDefaultModel();
 		themes.setNsPrefix("skos", SKOS.getURI());
 		themes.setNsPrefix("rdfs", RDFS.getURI());
@@ -161,14 +225,13 @@ public class CodelistModelMaker {
 		themeClass.addProperty(RDFS.label, themes.createLiteral("Thème statistique", "fr"));
 		themeClass.addProperty(RDFS.label, themes.createLiteral("Statistical theme", "en"));
 
-		Iterator<Row> rows = sheet.rowIterator();
 		rows.next(); rows.next(); // The list begins on the third row
 		Resource topConcept = null;
 		while (rows.hasNext()) {
-			Row themeRow = rows.next();
-			String notation = themeRow.getCell(0).toString().trim();
-			String labelFR = themeRow.getCell(2).toString().trim();
-			String labelEN = themeRow.getCell(1).toString().trim();
+			SpreadsheetRow themeRow = rows.next();
+			String notation = themeRow.getString(0).trim();
+			String labelFR = themeRow.getString(2).trim();
+			String labelEN = themeRow.getString(1).trim();
 			if (notation.length() == 3) { // Top-level concept
 				topConcept = themes.createResource(Configuration.themeURI(notation), SKOS.Concept);
 				topConcept.addProperty(RDF.type, themeClass);
@@ -200,30 +263,17 @@ public class CodelistModelMaker {
 	 */
 	public static Map<String, Resource> getNotationConceptMappings() {
 
-		Workbook clWorkbook;
-		try {
-			clWorkbook = WorkbookFactory.create(new File(Configuration.CL_XLSX_FILE_NAME));
-		} catch (Exception e) {
-			logger.fatal("Error while opening Excel file - " + e.getMessage());
-			return null;
-		}
+		SortedMap<String, Model> sheetModels = readCodelistSheets(new File(Configuration.CL_XLSX_FILE_NAME));
+		if (sheetModels == null) return null;
 
 		Map<String, Resource> mappings = new HashMap<String, Resource>();
-
-		Iterator<Sheet> sheets = clWorkbook.sheetIterator();
-		while (sheets.hasNext()) {
-			Sheet sheet = sheets.next();
-			String clNotation = sheet.getSheetName();
+		for (Map.Entry<String, Model> sheetEntry : sheetModels.entrySet()) {
+			String clNotation = sheetEntry.getKey();
 			if (clNotation.contains("CL_TOPICS")) continue; // We exclude the category list
-
-			Iterator<Row> rows = sheet.rowIterator();
-			rows.next();
-			Row csRow = rows.next(); // Get French label on the second line
-			String frenchLabel = csRow.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
-			Resource codeClass = ResourceFactory.createResource(Configuration.codeConceptURI(frenchLabel));
-			mappings.put(clNotation, codeClass);
+			// The code concept class is created from the French label of the code list
+			List<Resource> codeClasses = sheetEntry.getValue().listSubjectsWithProperty(RDF.type, RDFS.Class).toList();
+			if (codeClasses.size() > 0) mappings.put(clNotation, ResourceFactory.createResource(codeClasses.get(0).getURI()));
 		}
-		try { clWorkbook.close(); } catch (IOException ignored) { }
 
 		return mappings;
 	}
@@ -57,6 +57,8 @@ public class Configuration {
 	public static String SIMS_MSD_TURTLE_FILE_NAME = "src/main/resources/data/sims-msd.ttl";
 	/** SIMS-FR metadata structure definition and related resources */
 	public static String SIMS_FR_MSD_TURTLE_FILE_NAME = "src/main/resources/data/sims-fr-msd.ttl";
+	/** Concept schemes and metadata structure definitions of SIMS and SIMSFr, in one named graph each */
+	public static String SIMS_METADATA_TRIG_FILE_NAME = "src/main/resources/data/sims-metadata.trig";
 	/** SIMSFr code lists */
 	public static String SIMS_CL_TURTLE_FILE_NAME = "src/main/resources/data/sims-cl.ttl";
 	/** Concepts and concept schemes for the categorization of the operations and products */
@@ -147,6 +149,32 @@ public class Configuration {
 
 	/** Specifies if reported attributes are created or if attribute properties are directly attached to the report */
 	public static boolean CREATE_REPORTED_ATTRIBUTES = true;
+	/** Specifies if, when references are included in SIMS reports, the referenced documents and links are written once in a shared graph instead of in each report */
+	public static boolean SHARE_SIMS_REFERENCES = false;
+	/** Range of the identifiers used in the target URIs of the series, operations and indicators without a fixed mapping */
+	public static int FIRST_TARGET_IDENTIFIER = 1001;
+	public static int LAST_TARGET_IDENTIFIER = 1999;
+
+	/** Specifies if the parsed M0 dataset is cached as binary snapshots, which are much faster to read than the TriG file (one snapshot per graph if M0_LAZY_LOADING is set, one for the whole dataset otherwise) */
+	public static boolean USE_M0_SNAPSHOT = true;
+	/** Directory where the binary snapshots of parsed input files are stored (in the build directory, so that they are neither packaged nor versioned) */
+	public static String SNAPSHOT_DIRECTORY = "target/snapshots";
+	/** Specifies if the information parsed from the specification workbooks (SIMSFr, code lists, organizations) is cached as binary snapshots, so that POI is only used when a workbook changes */
+	public static boolean USE_WORKBOOK_SNAPSHOTS = true;
+	/** Number of threads used to parse the M0 TriG file (1 for sequential parsing) */
+	public static int M0_PARSING_PARALLELISM = Runtime.getRuntime().availableProcessors();
+	/** Specifies if the graphs of the M0 dataset are only parsed when they are requested (otherwise the whole dataset is read at once); with USE_M0_SNAPSHOT, each graph is then read from and written to its own snapshot */
+	public static boolean M0_LAZY_LOADING = true;
+	/** Number of threads used to convert the M0 documentations into SIMS reports (1 for sequential conversion) */
+	public static int SIMS_CONVERSION_PARALLELISM = Runtime.getRuntime().availableProcessors();
+	/** Number of threads used to convert the families, series, operations and indicators (1 for sequential conversion) */
+	public static int OPERATION_CONVERSION_PARALLELISM = 4;
+	/** Directory where the converted SIMS reports are cached with the fingerprints of their M0 information (see <code>SIMSReportCache</code>) */
+	public static String SIMS_CACHE_DIRECTORY = "src/main/resources/data/cache/sims";
+	/** Specifies if the URI mappings of families, series, operations and indicators are recorded in a ledger so that target URIs remain stable (see <code>URIMappingLedger</code>) */
+	public static boolean USE_URI_MAPPING_LEDGER = false;
+	/** Ledger of the URI mappings of families, series, operations and indicators (the default location is removed by a clean build, the ledger of published URIs must be kept elsewhere) */
+	public static String URI_MAPPING_LEDGER_FILE_NAME = "target/cache/uri-mappings.tsv";
 
 	// Numbers of the columns where the SIMS information is stored in SIMS and SIMSFr Excel formats
 	// Notation and name, Concept name, Concept code, Description, Representation, ESS guidelines, Quality indicators
@@ -335,6 +363,14 @@ public class Configuration {
 		return BASE_SIMS_URI + "concept/" + identifier;
 	}
 
+	/** URI of the graph containing a SIMS/SIMSFr concept scheme or MSD in the combined SIMS metadata file */
+	public static String simsMetadataGraphURI(String name) {
+		return "http://rdf.insee.fr/graphes/qualite/" + name;
+	}
+
+	/** URI of the graph containing the documents and links referenced by the SIMSv2Fr reports, when they are shared */
+	public static String SIMS_REFERENCES_GRAPH_URI = "http://rdf.insee.fr/graphes/qualite/references";
+
 	/** URI of the graph containing a SIMSv2Fr report */
 	public static String simsReportGraphURI(String reportId) {
 		return "http://rdf.insee.fr/graphes/qualite/rapport/" + reportId;
@@ -432,6 +468,51 @@ public class Configuration {
 		return "http://id.insee.fr/documents/document/" + documentNumber;
 	}
 
+	/**
+	 * Enumeration of the types of resources in the M0 model, whose URIs have the form http://baseUri/{types}/{type}/{number}/{ATTRIBUTE}.
+	 */
+	public enum M0ResourceType {
+		FAMILY("familles", "famille"),
+		SERIES("series", "serie"),
+		OPERATION("operations", "operation"),
+		INDICATOR("indicateurs", "indicateur"),
+		DOCUMENTATION("documentations", "documentation"),
+		LINK("liens", "lien"),
+		DOCUMENT("documents", "document"),
+		CODE_LIST("codelists", "codelist"),
+		CODE("codes", "code"),
+		ORGANIZATION("organismes", "organisme");
+
+		private final String pluralName;
+		private final String singularName;
+
+		private M0ResourceType(String pluralName, String singularName) {
+			this.pluralName = pluralName;
+			this.singularName = singularName;
+		}
+
+		/** Returns the path segment in the plural form (which is also the local name of the M0 graph containing the resources) */
+		public String getPluralName() {
+			return pluralName;
+		}
+
+		/** Returns the path segment in the singular form */
+		public String getSingularName() {
+			return singularName;
+		}
+
+		/** Returns the base URI of the M0 resources of this type (the URIs of the resources are obtained by adding the resource number) */
+		public String getBaseURI() {
+			return "http://baseUri/" + pluralName + "/" + singularName + "/";
+		}
+
+		/** Returns the resource type corresponding to the plural path segment, or <code>null</code> if there is none */
+		public static M0ResourceType fromPluralName(String pluralName) {
+			for (M0ResourceType type : values()) if (type.pluralName.equals(pluralName)) return type;
+			return null;
+		}
+	}
+
 	/**
 	 * Enumeration of the different roles in which an organization can appear in the M0 model.
 	 */
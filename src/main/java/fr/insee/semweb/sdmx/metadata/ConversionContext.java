@@ -0,0 +1,291 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Working state of the conversions of an M0 dataset: the M0 dataset itself and the reference data calculated from it (URI mappings, SIMSFr conversion plan, associations, etc.).
+ * Each piece of reference data is calculated on first use and then shared by all the conversions using the context, which can run concurrently.
+ * Conversions of different M0 datasets use different contexts, so they can run in the same process without interfering.
+ * The static methods of <code>M0Converter</code> and <code>M0SIMSConverter</code> use the default context, which is based on the M0 dataset of the registry.
+ * The data returned by the context must not be modified.
+ *
+ * @author Franck
+ */
+public class ConversionContext {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(ConversionContext.class);
+
+	/** The default context, based on the M0 dataset of the registry */
+	private static ConversionContext defaultContext = null;
+
+	/** The M0 dataset containing all the models */
+	private Dataset m0Dataset = null;
+	/** Indicates if the M0 dataset is the one of the registry */
+	private final boolean registryDataset;
+
+	/** All the mappings between M0 and target URIs for families, series, operations and indicators */
+	private SortedMap<String, String> uriMappings = null;
+	/** The mappings between M0 and target URIs for organizations */
+	private SortedMap<String, String> organizationURIMappings = null;
+
+	/** Index of the relations contained in the M0 associations */
+	private AssociationIndex associationIndex = null;
+	/** Relations between families and statistical themes */
+	private SortedMap<String, List<String>> familyThemesRelations = null;
+
+	/** The SIMSFr scheme */
+	private SIMSFrScheme simsFrScheme = null;
+	/** The conversion plan of the SIMSFr attributes */
+	private SIMSConversionPlan simsConversionPlan = null;
+	/** References to links and documents for French and English rich text attributes */
+	private ReferenceTable attributeReferencesFr = null;
+	private ReferenceTable attributeReferencesEn = null;
+	/** Target organization URIs for the organizational attributes */
+	private ReferenceTable organizationValues = null;
+	/** Target URIs of the resources documented by the documentations */
+	private SortedMap<Integer, String> simsAttachments = null;
+	/** Documents and links in SIMSFr format */
+	private Model simsDocumentsAndLinksModel = null;
+	/** Descriptions of the documents and links indexed by URI */
+	private ReferenceExpansionStore referenceExpansionStore = null;
+	/** Mappings between codes and labels for units of measure */
+	private SortedMap<String, String[]> unitMeasureMappings = null;
+	/** Recoder and validator of the coded values */
+	private CodeRecoder codeRecoder = null;
+	/** Mappings between M0 CL_AREA codes and territory resources */
+	private SortedMap<String, Resource> geoMappings = null;
+
+	/**
+	 * Creates a conversion context on the M0 dataset of the registry.
+	 */
+	public ConversionContext() {
+		this(null);
+	}
+
+	/**
+	 * Creates a conversion context on a given M0 dataset.
+	 *
+	 * @param m0Dataset The M0 dataset, or <code>null</code> to use the M0 dataset of the registry.
+	 */
+	public ConversionContext(Dataset m0Dataset) {
+		this.m0Dataset = m0Dataset;
+		this.registryDataset = (m0Dataset == null);
+	}
+
+	/**
+	 * Returns the default conversion context, used by the static conversion methods.
+	 *
+	 * @return The default conversion context, based on the M0 dataset of the registry.
+	 */
+	public static synchronized ConversionContext getDefault() {
+
+		if (defaultContext == null) defaultContext = new ConversionContext();
+		return defaultContext;
+	}
+
+	/**
+	 * Returns the M0 dataset of the context, obtaining it from the registry if necessary.
+	 *
+	 * @return The M0 dataset.
+	 */
+	public synchronized Dataset getM0Dataset() {
+
+		if (m0Dataset == null) {
+			m0Dataset = M0DatasetRegistry.getDataset();
+			logger.debug("M0 dataset obtained from the registry (file " + Configuration.M0_FILE_NAME + ")");
+		}
+		return m0Dataset;
+	}
+
+	/**
+	 * Returns all the mappings between M0 and target URIs for families, series, operations and indicators.
+	 * For the M0 dataset of the registry, the mappings are recorded in the URI mapping ledger if it is used.
+	 *
+	 * @return The mappings as a map where the keys are the M0 URIs and the values the target URIs, sorted on keys.
+	 */
+	public synchronized SortedMap<String, String> getURIMappings() {
+
+		if (uriMappings == null) {
+			URIMappingLedger ledger = (registryDataset && Configuration.USE_URI_MAPPING_LEDGER) ? URIMappingLedger.open(new File(Configuration.URI_MAPPING_LEDGER_FILE_NAME)) : null;
+			uriMappings = Collections.unmodifiableSortedMap(M0Converter.createURIMappings(this, ledger));
+		}
+		return uriMappings;
+	}
+
+	/**
+	 * Returns the mappings between M0 and target URIs for organizations.
+	 *
+	 * @return A sorted map in which the keys are the M0 URIs of the organizations and the values their target URIs.
+	 */
+	public synchronized SortedMap<String, String> getOrganizationURIMappings() {
+
+		if (organizationURIMappings == null) organizationURIMappings = Collections.unmodifiableSortedMap(M0Converter.readOrganizationURIMappings(this));
+		return organizationURIMappings;
+	}
+
+	/**
+	 * Returns the index of the relations contained in the M0 associations model.
+	 *
+	 * @return The association index.
+	 */
+	public synchronized AssociationIndex getAssociationIndex() {
+
+		if (associationIndex == null) associationIndex = M0DatasetRegistry.getAssociationIndex(getM0AssociationsModel());
+		return associationIndex;
+	}
+
+	/**
+	 * Returns the relations between families and statistical themes, read from the family-themes spreadsheet.
+	 *
+	 * @return A sorted map whose keys are the family URIs and values the lists of theme URIs (empty if the spreadsheet cannot be read).
+	 */
+	public synchronized SortedMap<String, List<String>> getFamilyThemesRelations() {
+
+		if (familyThemesRelations == null) {
+			SortedMap<String, List<String>> relations = M0Converter.getFamilyThemesRelations();
+			familyThemesRelations = (relations == null) ? Collections.emptySortedMap() : Collections.unmodifiableSortedMap(relations);
+		}
+		return familyThemesRelations;
+	}
+
+	/**
+	 * Returns the SIMSFr scheme, read from the SIMSFr spreadsheet.
+	 *
+	 * @return The SIMSFr scheme.
+	 */
+	public synchronized SIMSFrScheme getSIMSFrScheme() {
+
+		if (simsFrScheme == null) simsFrScheme = SIMSFrScheme.readSIMSFrFromExcel(new File(Configuration.SIMS_XLSX_FILE_NAME));
+		return simsFrScheme;
+	}
+
+	/**
+	 * Returns the conversion plan of the SIMSFr attributes, compiled from the SIMSFr scheme and MSD.
+	 *
+	 * @return The SIMSFr conversion plan.
+	 */
+	public synchronized SIMSConversionPlan getSIMSConversionPlan() {
+
+		// The MSD is only needed to compile the plan, and is read without inference
+		if (simsConversionPlan == null) simsConversionPlan = SIMSConversionPlan.compile(MSDResolver.read(Configuration.SIMS_FR_MSD_TURTLE_FILE_NAME), getSIMSFrScheme());
+		return simsConversionPlan;
+	}
+
+	/**
+	 * Returns the references to links and documents of the rich text attributes of all documentations, for a given language.
+	 *
+	 * @param language The language of the attributes ('fr' or 'en').
+	 * @return The reference table for the language.
+	 */
+	public synchronized ReferenceTable getAttributeReferences(String language) {
+
+		if (attributeReferencesFr == null) {
+			attributeReferencesFr = getAssociationIndex().getReferenceTable("fr");
+			attributeReferencesEn = getAssociationIndex().getReferenceTable("en");
+		}
+		return ("en".equals(language)) ? attributeReferencesEn : attributeReferencesFr;
+	}
+
+	/**
+	 * Returns the target organization URIs of the organizational attributes of all documentations.
+	 *
+	 * @return The reference table of the organization URIs.
+	 */
+	public synchronized ReferenceTable getOrganizationValues() {
+
+		if (organizationValues == null) organizationValues = M0SIMSConverter.getOrganizationValueTable(this, getM0AssociationsModel());
+		return organizationValues;
+	}
+
+	/**
+	 * Returns the correspondence between documentations and the target URIs of the resources they document.
+	 *
+	 * @return A sorted map whose keys are the documentation numbers and values the URIs of the documented resources.
+	 */
+	public synchronized SortedMap<Integer, String> getSIMSAttachments() {
+
+		if (simsAttachments == null) simsAttachments = Collections.unmodifiableSortedMap(M0SIMSConverter.getSIMSAttachments(this, getM0AssociationsModel()));
+		return simsAttachments;
+	}
+
+	/**
+	 * Returns the model containing all documents and links in SIMSFr format.
+	 *
+	 * @return The documents and links model.
+	 */
+	public synchronized Model getSIMSDocumentsAndLinksModel() {
+
+		if (simsDocumentsAndLinksModel == null) simsDocumentsAndLinksModel = M0SIMSConverter.convertDocumentsToSIMS(this).add(M0SIMSConverter.convertLinksToSIMS(this));
+		return simsDocumentsAndLinksModel;
+	}
+
+	/**
+	 * Returns the store of the descriptions of documents and links, built from the documents and links model.
+	 *
+	 * @return The reference expansion store.
+	 */
+	public synchronized ReferenceExpansionStore getReferenceExpansionStore() {
+
+		if (referenceExpansionStore == null) referenceExpansionStore = ReferenceExpansionStore.build(getSIMSDocumentsAndLinksModel());
+		return referenceExpansionStore;
+	}
+
+	/**
+	 * Returns the mappings between codes and labels for units of measure.
+	 *
+	 * @return A sorted map whose keys are the codes and values the French and English labels.
+	 */
+	public synchronized SortedMap<String, String[]> getUnitMeasureMappings() {
+
+		if (unitMeasureMappings == null) unitMeasureMappings = Collections.unmodifiableSortedMap(M0Extractor.extractUnitMeasureMappings(getM0Dataset(), false));
+		return unitMeasureMappings;
+	}
+
+	/**
+	 * Returns the recoder of the coded values, created from the code lists of the code list spreadsheet and the mappings for units of measure.
+	 * If the code lists cannot be read, the codes are recoded without validation.
+	 *
+	 * @return The code recoder.
+	 */
+	public synchronized CodeRecoder getCodeRecoder() {
+
+		if (codeRecoder == null) {
+			Map<String, Set<String>> validCodes = Collections.emptyMap();
+			Dataset codeListDataset = CodelistModelMaker.readCodelistDataset(new File(Configuration.CL_XLSX_FILE_NAME), Configuration.INSEE_BASE_GRAPH_URI + "concepts", Configuration.INSEE_BASE_GRAPH_URI + "codes", "CL_TOPICS");
+			if (codeListDataset == null) logger.warn("Code lists could not be read, coded values will not be validated");
+			else {
+				validCodes = CodeRecoder.getValidCodes(codeListDataset.getNamedModel(Configuration.INSEE_BASE_GRAPH_URI + "codes"));
+				codeListDataset.close();
+			}
+			codeRecoder = new CodeRecoder(validCodes, getUnitMeasureMappings());
+		}
+		return codeRecoder;
+	}
+
+	/**
+	 * Returns the mappings between M0 CL_AREA codes and the target territory resources.
+	 *
+	 * @return A sorted map whose keys are the M0 codes and values the territory resources.
+	 */
+	public synchronized SortedMap<String, Resource> getGeoMappings() {
+
+		if (geoMappings == null) geoMappings = Collections.unmodifiableSortedMap(GeoMapper.createM0CodeToURIMappings());
+		return geoMappings;
+	}
+
+	private Model getM0AssociationsModel() {
+		return getM0Dataset().getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
+	}
+}
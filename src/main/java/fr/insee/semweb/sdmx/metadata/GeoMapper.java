@@ -13,12 +13,8 @@ import org.apache.jena.query.QueryExecutionFactory;
 import org.apache.jena.query.QueryFactory;
 import org.apache.jena.query.ResultSet;
 import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.ResourceFactory;
-import org.apache.jena.rdf.model.Selector;
-import org.apache.jena.rdf.model.SimpleSelector;
-import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.vocabulary.SKOS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -108,15 +104,8 @@ public class GeoMapper {
 
 		SortedSet<String> usedValues = new TreeSet<>();
 
-		// Select the triples that have a REF_AREA attribute URI as subject and 'values' as predicate
-		Selector selector = new SimpleSelector(null, Configuration.M0_VALUES, (RDFNode) null) {
-			public boolean selects(Statement statement) {
-				return statement.getSubject().getURI().endsWith("/REF_AREA");
-			}
-		};
-
-		// List the values of the attribute that are used in the documentation model
-		m0DocumentationsModel.listStatements(selector).forEachRemaining(statement -> usedValues.add(statement.getObject().toString()));
+		// List the values of the REF_AREA attribute ('values' predicate) that are used in the documentation model
+		M0DatasetRegistry.getIndex(m0DocumentationsModel).getAttributeStatements("REF_AREA", false).forEach(statement -> usedValues.add(statement.getObject().toString()));
 
 		m0DocumentationsModel.close();
 		return usedValues;
@@ -157,15 +146,10 @@ public class GeoMapper {
 
 		SortedSet<String> otherValues = new TreeSet<>();
 
-		// Select the triples that have a REF_AREA attribute URI as subject, a 'values' as predicate and 'OTHER' as object
-		Selector selector = new SimpleSelector(null, Configuration.M0_VALUES, "OTHER") {
-			public boolean selects(Statement statement) {
-				return statement.getSubject().getURI().endsWith("/REF_AREA");
-			}
-		};
-
-		// List the statements with REF_AREA = 'OTHER'
-		m0DocumentationsModel.listStatements(selector).forEachRemaining(statement -> otherValues.add(statement.toString()));
+		// List the statements that have a REF_AREA attribute URI as subject, a 'values' as predicate and 'OTHER' as object
+		M0DatasetRegistry.getIndex(m0DocumentationsModel).getAttributeStatements("REF_AREA", false).forEach(statement -> {
+			if (statement.getObject().isLiteral() && "OTHER".equals(statement.getLiteral().getLexicalForm())) otherValues.add(statement.toString());
+		});
 
 		return otherValues;
 	}
@@ -0,0 +1,100 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.util.BitSet;
+
+/**
+ * Allocator of the numeric identifiers available in a range, used to create the target URIs of the resources without a fixed mapping.
+ * The free identifiers are held in a bit set, so that claiming an identifier, reserving identifiers and finding the next free identifier do not depend on the number of identifiers already allocated.
+ * The allocator is not thread-safe.
+ *
+ * @author Franck
+ */
+public class IdentifierAllocator {
+
+	/** First identifier of the range */
+	private final int first;
+	/** Last identifier of the range */
+	private final int last;
+	/** Free identifiers of the range: bit i is set if identifier first + i is free */
+	private final BitSet free;
+
+	/**
+	 * Creates an allocator where all the identifiers of a range are free.
+	 *
+	 * @param first The first identifier of the range.
+	 * @param last The last identifier of the range (included).
+	 */
+	public IdentifierAllocator(int first, int last) {
+
+		if (last < first) throw new IllegalArgumentException("Invalid identifier range [" + first + ", " + last + "]");
+		this.first = first;
+		this.last = last;
+		this.free = new BitSet(last - first + 1);
+		this.free.set(0, last - first + 1);
+	}
+
+	/**
+	 * Claims a given identifier, for example an identifier already used by a fixed mapping.
+	 *
+	 * @param identifier The identifier to claim.
+	 * @return <code>true</code> if the identifier was free, <code>false</code> if it was already allocated or is outside the range.
+	 */
+	public boolean claim(int identifier) {
+
+		if ((identifier < first) || (identifier > last)) return false;
+		int index = identifier - first;
+		boolean wasFree = free.get(index);
+		free.clear(index);
+		return wasFree;
+	}
+
+	/**
+	 * Allocates the lowest free identifier.
+	 *
+	 * @return The allocated identifier.
+	 * @throws IllegalStateException If there is no free identifier left in the range.
+	 */
+	public int next() {
+
+		int identifier = peek();
+		if (identifier < 0) throw new IllegalStateException("No free identifier left in range [" + first + ", " + last + "]");
+		free.clear(identifier - first);
+		return identifier;
+	}
+
+	/**
+	 * Reserves a number of free identifiers, starting from the lowest, so that they will not be allocated.
+	 *
+	 * @param count The number of identifiers to reserve.
+	 * @return The number of identifiers actually reserved, lower than <code>count</code> if there were not enough free identifiers.
+	 */
+	public int reserve(int count) {
+
+		int reserved = 0;
+		for (int index = free.nextSetBit(0); (index >= 0) && (reserved < count); index = free.nextSetBit(index + 1)) {
+			free.clear(index);
+			reserved++;
+		}
+		return reserved;
+	}
+
+	/**
+	 * Returns the lowest free identifier without allocating it.
+	 *
+	 * @return The lowest free identifier, or -1 if there is no free identifier left.
+	 */
+	public int peek() {
+
+		int index = free.nextSetBit(0);
+		return (index < 0) ? -1 : first + index;
+	}
+
+	/**
+	 * Returns the number of free identifiers.
+	 *
+	 * @return The number of identifiers that can still be allocated.
+	 */
+	public int available() {
+		return free.cardinality();
+	}
+}
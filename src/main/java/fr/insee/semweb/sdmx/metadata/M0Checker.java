@@ -48,6 +48,8 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import fr.insee.semweb.sdmx.metadata.Configuration.M0ResourceType;
+import fr.insee.semweb.sdmx.metadata.M0Index.M0URI;
 import fr.insee.semweb.utils.URIComparator;
 import fr.insee.semweb.utils.Utils;
 
@@ -345,20 +347,15 @@ public class M0Checker {
 		statementIterator.forEachRemaining(new Consumer<Statement>() {
 			@Override
 			public void accept(Statement statement) {
-				String subjectURI = statement.getSubject().getURI();
-				String[] uriComponents = subjectURI.split("/");
-				String attributeName = uriComponents[uriComponents.length - 1];
-				try {
-					Integer.parseInt(attributeName); // Will raise an exception for the URIs ending with attribute name, which is what we are looking for
-				} catch (NumberFormatException e) {
-					if (!"sequence".equals(attributeName)) {
-						attributeList.add(attributeName);
-						if (!ignoredAttributes.contains(attributeName)) {
-							Integer serialNumber = Integer.parseInt(uriComponents[uriComponents.length - 2]);
-							if (!attributesByLinkId.containsKey(serialNumber)) attributesByLinkId.put(serialNumber, new TreeSet<String>());
-							attributesByLinkId.get(serialNumber).add(attributeName);							
-						}
-					}
+				// We are looking for the URIs ending with attribute name (the link resources themselves and the sequence resource are ignored)
+				M0URI subjectURI = M0URI.parse(statement.getSubject().getURI());
+				if ((subjectURI == null) || (subjectURI.getAttribute() == null)) return;
+				String attributeName = subjectURI.getAttribute();
+				attributeList.add(attributeName);
+				if (!ignoredAttributes.contains(attributeName)) {
+					Integer serialNumber = subjectURI.getNumber();
+					if (!attributesByLinkId.containsKey(serialNumber)) attributesByLinkId.put(serialNumber, new TreeSet<String>());
+					attributesByLinkId.get(serialNumber).add(attributeName);
 				}
 			}
 		});
@@ -446,23 +443,16 @@ public class M0Checker {
 				rowIndexes.put(number, index++);
 			}
 
-			// Create cells for the values of the exported attributes
-			m0LinksModel.listStatements().forEachRemaining(new Consumer<Statement>() {
-				@Override
-				public void accept(Statement statement) {
-					// Select statements with 'values' and 'valuesGb' properties
-					if (!(statement.getPredicate().equals(Configuration.M0_VALUES) || statement.getPredicate().equals(Configuration.M0_VALUES_EN))) return;
-					// All subjects should start with the base links URI
-					String variablePart = statement.getSubject().toString().replace(baseLinkURI, "");
-					if (variablePart.length() == statement.getSubject().toString().length()) logger.warn("Unexpected subject URI in statement " + statement);
-					String attributeName = variablePart.split("/")[1];
-					if (!attributesToExport.contains(attributeName)) return;
-					Integer documentNumber = Integer.parseInt(variablePart.split("/")[0]);
-					// Create cell
-					String attributeValue = statement.getObject().toString();
-					docSheet.getRow(rowIndexes.get(documentNumber)).createCell(attributesToExport.indexOf(attributeName) + 1, CellType.STRING).setCellValue(attributeValue);
+			// Create cells for the values of the exported attributes (French value, or English value if there is no French one)
+			M0Index linkIndex = M0Index.build(m0LinksModel);
+			for (Integer linkNumber : rowIndexes.keySet()) {
+				for (String attributeName : attributesToExport) {
+					List<RDFNode> values = linkIndex.getValues(M0ResourceType.LINK, linkNumber, attributeName, false);
+					if (values.isEmpty()) values = linkIndex.getValues(M0ResourceType.LINK, linkNumber, attributeName, true);
+					if (values.isEmpty()) continue;
+					docSheet.getRow(rowIndexes.get(linkNumber)).createCell(attributesToExport.indexOf(attributeName) + 1, CellType.STRING).setCellValue(values.get(0).toString());
 				}
-			});
+			}
 			// Adjust columns before writing the spreadsheet
 			for (index = 0 ; index <= attributesToExport.size(); index++) docSheet.autoSizeColumn(index);
 			try {
@@ -778,8 +768,8 @@ public class M0Checker {
 		Map<String, String> attachmentMappings = M0Extractor.extractSIMSAttachments(m0AssociationModel, includeIndicators); // Associations SIMS -> resources
 		m0AssociationModel.close();
 
-		// Make a model containing both series and operations, and possibly indicators (families have no SIMS attached)
-		Model m0Model = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "series");
+		// Make a model containing both series and operations, and possibly indicators (families have no SIMS attached), without modifying the dataset
+		Model m0Model = ModelFactory.createDefaultModel().add(m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "series"));
 		m0Model.add(m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "operations"));
 		if (includeIndicators) m0Model.add(m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "indicators"));
 
@@ -841,14 +831,8 @@ public class M0Checker {
 
 		SortedSet<String> valueSet = new TreeSet<String>();
 
-		Selector selector = new SimpleSelector(null, Configuration.M0_VALUES, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject URI ends with the expected property name
-			public boolean selects(Statement statement) {
-				if (statement.getSubject().getURI().endsWith("/" + attributeName)) return true; // To avoid mixing STATUS and VALIDATION_STATUS, for example
-				return false;
-			}
-		};
-		m0DocumentationsModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
+		// The index matches complete attribute names, so STATUS and VALIDATION_STATUS, for example, are not mixed
+		M0DatasetRegistry.getIndex(m0DocumentationsModel).getAttributeStatements(attributeName, false).forEach(new Consumer<Statement>() {
 			@Override
 			public void accept(Statement statement) {
 				valueSet.add(statement.getObject().toString());
@@ -870,16 +854,8 @@ public class M0Checker {
 
 		Model invalidCodesM0Model = ModelFactory.createDefaultModel();
 
-		// Select the triples that have the given attribute URI as subject and 'values' as predicate
-		Selector selector = new SimpleSelector(null, Configuration.M0_VALUES, (RDFNode) null) {
-			// Override the 'selects' method to retain only statements whose subject URI ends with the expected property name
-			public boolean selects(Statement statement) {
-				if (statement.getSubject().getURI().endsWith("/" + attributeName)) return true;
-				return false;
-			}
-		};
-		// List values with the given property as subject and extract those whose object value is not in the expected list
-		m0DocumentationsModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
+		// List the triples that have the given attribute URI as subject and 'values' as predicate and extract those whose object value is not in the expected list
+		M0DatasetRegistry.getIndex(m0DocumentationsModel).getAttributeStatements(attributeName, false).forEach(new Consumer<Statement>() {
 			@Override
 			public void accept(Statement statement) {
 				String codeValue = statement.getObject().toString();
@@ -899,16 +875,8 @@ public class M0Checker {
 
 		Set<String> unusedValues = new HashSet<>(validValues);
 
-		// Select the triples that have the given attribute URI as subject and 'values' as predicate
-		Selector selector = new SimpleSelector(null, Configuration.M0_VALUES, (RDFNode) null) {
-			// Override the 'selects' method to retain only statements whose subject URI ends with the expected property name
-			public boolean selects(Statement statement) {
-				if (statement.getSubject().getURI().endsWith("/" + attributeName)) return true;
-				return false;
-			}
-		};
-		// List the attribute values and remove them from the set of unused values
-		m0DocumentationsModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
+		// List the values of the given attribute ('values' predicate) and remove them from the set of unused values
+		M0DatasetRegistry.getIndex(m0DocumentationsModel).getAttributeStatements(attributeName, false).forEach(new Consumer<Statement>() {
 			@Override
 			public void accept(Statement statement) {
 				String codeValue = statement.getObject().toString();
@@ -1,21 +1,29 @@
 package fr.insee.semweb.sdmx.metadata;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Literal;
@@ -27,19 +35,17 @@ import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
-import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.ORG;
+import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 
 import static fr.insee.semweb.sdmx.metadata.Configuration.*;
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
 import fr.insee.semweb.utils.URIComparator;
 import fr.insee.stamina.utils.PROV;
 
@@ -54,57 +60,81 @@ public class M0Converter {
 	/** Log4J2 logger */
 	public static Logger logger = LogManager.getLogger(M0Converter.class);
 
-	/** The M0 dataset containing all the models */
-	protected static Dataset m0Dataset = null;
-
-	/** The explicit fixed mappings between M0 and target URIs for operations and the like */
-	static Map<String, String> fixedURIMappings = null;
-
-	/** The mappings between M0 and target URIs for organizations */
-	static SortedMap<String, String> organizationURIMappings = null;
-
-	/** All the mappings between M0 and target URIs for families, series, operations and indicators */
-	static Map<String, String> allURIMappings = null;
+	/** Mappings between M0 'attribute URIs' of code lists and codes and SKOS properties */
+	private static final Map<String, Property> CODE_LIST_PROPERTY_MAPPINGS = new HashMap<String, Property>();
+	static {
+		CODE_LIST_PROPERTY_MAPPINGS.put("ID", null); // ID is equal to code or code list number, no business meaning (and expressed with a weird property http://www.SDMX.org/.../message#values"
+		CODE_LIST_PROPERTY_MAPPINGS.put("CODE_VALUE", SKOS.notation); // CODE_VALUE seems to be the notation, FIXME it is in French
+		CODE_LIST_PROPERTY_MAPPINGS.put("ID_METIER", RDFS.comment); // ID_METIER is just TITLE - ID, store in a comment for now
+		CODE_LIST_PROPERTY_MAPPINGS.put("TITLE", SKOS.prefLabel); // Can have French and English values
+	}
+	/** Properties of code lists and codes whose values should have a language tag */
+	private static final List<String> CODE_LIST_STRING_PROPERTIES = Arrays.asList("ID_METIER", "TITLE");
 
 	/**
 	 * Return a dataset containing two named graphs: one for families, series and operations, and one for indicators.
+	 * Uses the default conversion context.
 	 * 
 	 * @param operationGraph The URI to use for the 'operations' graph.
 	 * @param indicatorGraph The URI to use for the 'indicators' graph.
 	 * @return A Jena <code>Dataset</code> containing the information organized in two graphs.
 	 */
 	public static Dataset convertAllOperationsAndIndicators(String operationGraph, String indicatorGraph) {
+		return convertAllOperationsAndIndicators(ConversionContext.getDefault(), operationGraph, indicatorGraph);
+	}
+
+	/**
+	 * Return a dataset containing two named graphs: one for families, series and operations, and one for indicators.
+	 * The shared inputs (URI mappings, association index, family themes) are computed first, then families, series, operations and indicators are converted concurrently.
+	 * 
+	 * @param context The conversion context.
+	 * @param operationGraph The URI to use for the 'operations' graph.
+	 * @param indicatorGraph The URI to use for the 'indicators' graph.
+	 * @return A Jena <code>Dataset</code> containing the information organized in two graphs.
+	 */
+	public static Dataset convertAllOperationsAndIndicators(ConversionContext context, String operationGraph, String indicatorGraph) {
 
 		logger.debug("Extracting M0 dataset with graph: " + operationGraph + " for operations and graph " + indicatorGraph + " for indicators");
+		prepareOperationConversions(context);
 		Dataset dataset = DatasetFactory.create();
-		dataset.addNamedModel(operationGraph, convertAllOperations());
-		dataset.addNamedModel(indicatorGraph, convertIndicators());
+		// Indicators are converted concurrently with families, series and operations
+		ForkJoinPool pool = new ForkJoinPool(OPERATION_CONVERSION_PARALLELISM);
+		try {
+			ForkJoinTask<Model> indicatorTask = pool.submit(() -> convertIndicators(context));
+			dataset.addNamedModel(operationGraph, convertAllOperations(context, pool));
+			dataset.addNamedModel(indicatorGraph, indicatorTask.join());
+		} finally {
+			pool.shutdown();
+		}
 
 		return dataset;
 	}
 
 	/**
 	 * Extracts the code lists from the M0 model and restructures them as SKOS concept schemes, keeping M0 URIs.
+	 * Uses the default conversion context.
 	 * 
 	 * @return A Jena <code>Model</code> containing the M0 code lists as SKOS concept schemes.
 	 */
 	public static Model convertCodeLists() {
+		return convertCodeLists(ConversionContext.getDefault());
+	}
+
+	/**
+	 * Extracts the code lists from the M0 model and restructures them as SKOS concept schemes, keeping M0 URIs.
+	 * 
+	 * @param context The conversion context.
+	 * @return A Jena <code>Model</code> containing the M0 code lists as SKOS concept schemes.
+	 */
+	public static Model convertCodeLists(ConversionContext context) {
 
-		// Mappings between M0 'attribute URIs' and SKOS properties
-		final Map<String, Property> clPropertyMappings = new HashMap<String, Property>();
-		clPropertyMappings.put("ID", null); // ID is equal to code or code list number, no business meaning (and expressed with a weird property http://www.SDMX.org/.../message#values"
-		clPropertyMappings.put("CODE_VALUE", SKOS.notation); // CODE_VALUE seems to be the notation, FIXME it is in French
-		clPropertyMappings.put("ID_METIER", RDFS.comment); // ID_METIER is just TITLE - ID, store in a comment for now
-		clPropertyMappings.put("TITLE", SKOS.prefLabel); // Can have French and English values
-		final List<String> stringProperties = Arrays.asList("ID_METIER", "TITLE"); // Property whose values should have a language tag
-		
-		readDataset();
+		Dataset m0Dataset = context.getM0Dataset();
 		logger.debug("Extracting code lists from M0 dataset " + M0_FILE_NAME);
 		Model skosModel = ModelFactory.createDefaultModel();
 		skosModel.setNsPrefix("rdfs", RDFS.getURI());
 		skosModel.setNsPrefix("skos", SKOS.getURI());
 
-		// Open the 'codelists' M0 model first to obtain the number of code lists and create them in SKOS model
+		// Open the 'codelists' M0 model first to obtain the number of code lists
 		Model clM0Model = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "codelists");
 		// Code lists M0 URIs take the form http://baseUri/codelists/codelist/n, where n is an increment strictly inferior to the value of http://baseUri/codelists/codelist/sequence
 		int clNumber = M0Extractor.getMaxSequence(clM0Model);
@@ -112,103 +142,143 @@ public class M0Converter {
 
 		// Then we read in the 'associations' model the mappings between code lists and codes and store them as a map
 		// Mappings are of the form {code list URI}/RELATED_TO M0_RELATED_TO {code URI}/RELATED_TO
-		Map<Integer, List<Integer>> codeMappings = new HashMap<Integer, List<Integer>>();
+		SortedMap<Integer, List<Integer>> codeMappings = new TreeMap<Integer, List<Integer>>();
 		Model associationsM0Model = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "associations");
-		for (int index = 1; index <= clNumber; index++) {
-			List<Integer> listOfCodes = new ArrayList<Integer>();
-			Resource clRelationResource = clM0Model.createResource(M0_CODE_LISTS_BASE_URI + index + "/RELATED_TO");
-			// Retrieve the numeric identifiers of the codes related to the current code list
-			StmtIterator associationIterator = associationsM0Model.listStatements(clRelationResource, M0_RELATED_TO, (RDFNode)null);
-			associationIterator.forEachRemaining(new Consumer<Statement>() {
-				@Override
-				public void accept(Statement statement) {
-					// Get code identifier, which is the last-but-one part of the URI, cast to integer
-					String[] pathElements = statement.getObject().asResource().getURI().split("/");
-					Integer code = Integer.parseInt(pathElements[pathElements.length - 2]);
-					listOfCodes.add(code);
-				}
-			});
-			if (listOfCodes.size() > 0) codeMappings.put(index, listOfCodes);
-		}
+		associationsM0Model.listStatements(null, M0_RELATED_TO, (RDFNode)null).forEachRemaining(statement -> {
+			String relationURI = statement.getSubject().getURI();
+			if ((relationURI == null) || !relationURI.startsWith(M0_CODE_LISTS_BASE_URI) || !relationURI.endsWith("/RELATED_TO")) return;
+			int clIndex;
+			try {
+				clIndex = Integer.parseInt(relationURI.substring(M0_CODE_LISTS_BASE_URI.length(), relationURI.length() - "/RELATED_TO".length()));
+			} catch (NumberFormatException e) {
+				return;
+			}
+			if ((clIndex < 1) || (clIndex > clNumber)) return;
+			// Get code identifier, which is the last-but-one part of the URI, cast to integer
+			String[] pathElements = statement.getObject().asResource().getURI().split("/");
+			codeMappings.computeIfAbsent(clIndex, index -> new ArrayList<Integer>()).add(Integer.parseInt(pathElements[pathElements.length - 2]));
+		});
 		logger.debug(codeMappings.size() + " code lists found in the 'codelists' M0 model");
 		associationsM0Model.close();
 
-		// Open the 'code' model and browse both 'codelists' and 'codes' models to produce the target SKOS model
+		// Group the values of the properties of code lists and codes by subject, in one pass on each model
 		Model codeM0Model = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "codes");
-		// Main loop is on code lists
-		for (int clIndex = 1; clIndex <= clNumber; clIndex++) {
-			if (codeMappings.get(clIndex) == null) continue; // Case of discontinuity in the numbering sequence
-			Resource clResource = clM0Model.createResource(M0_CODE_LISTS_BASE_URI + clIndex);
-			Resource skosCLResource = skosModel.createResource(M0_CODE_LISTS_BASE_URI + clIndex, SKOS.ConceptScheme);
-			logger.info("Creating code list " + skosCLResource.getURI() + " containing codes " + codeMappings.get(clIndex));
-			for (String property : clPropertyMappings.keySet()) { // Looping through M0 properties
-				if (clPropertyMappings.get(property) == null) continue;
-				Resource propertyResource = clM0Model.createResource(clResource.getURI() + "/" + property);
-				StmtIterator valueIterator = clM0Model.listStatements(propertyResource, M0_VALUES, (RDFNode)null); // Find French values (there should be exactly one)
-				if (!valueIterator.hasNext()) {
-					logger.error("No value for property " + property + " of code list " + clResource.getURI());
-					continue;
-				}
-				// Create the relevant statement in the SKOS model, adding a language tag if the property is in stringProperties
-				if (stringProperties.contains(property)) {
-					skosCLResource.addProperty(clPropertyMappings.get(property), skosModel.createLiteral(valueIterator.next().getObject().toString(), "fr"));
-				} else {
-					skosCLResource.addProperty(clPropertyMappings.get(property), skosModel.createLiteral(valueIterator.next().getObject().toString()));
-				}
-				if (valueIterator.hasNext()) logger.error("Several values for property " + property + " of code list " + clResource.getURI());
-				valueIterator = clM0Model.listStatements(propertyResource, M0_VALUES_EN, (RDFNode)null); // Find English values (can be zero or one)
-				if (valueIterator.hasNext()) {
-					skosCLResource.addProperty(clPropertyMappings.get(property), skosModel.createLiteral(valueIterator.next().getObject().toString(), "en"));
+		Map<String, List<Statement>> clValues = groupValuesBySubject(clM0Model);
+		Map<String, List<Statement>> codeValues = groupValuesBySubject(codeM0Model);
+		clM0Model.close();
+		codeM0Model.close();
+
+		// Each code list is converted independently, then the triples are added to the SKOS model in bulk
+		List<List<Triple>> conceptSchemes = codeMappings.entrySet().parallelStream()
+				.map(mapping -> convertCodeList(mapping.getKey(), mapping.getValue(), clValues, codeValues))
+				.collect(Collectors.toList());
+		Graph skosGraph = skosModel.getGraph();
+		for (List<Triple> conceptScheme : conceptSchemes) GraphUtil.add(skosGraph, conceptScheme);
+
+		return skosModel;
+	}
+
+	/**
+	 * Creates the triples of the SKOS concept scheme corresponding to an M0 code list.
+	 * 
+	 * @param clIndex The index of the code list in M0.
+	 * @param codeIndexes The indexes of the codes of the code list in M0.
+	 * @param clValues The values of the properties of the code lists, grouped by subject.
+	 * @param codeValues The values of the properties of the codes, grouped by subject.
+	 * @return The list of triples describing the concept scheme and its concepts.
+	 */
+	private static List<Triple> convertCodeList(int clIndex, List<Integer> codeIndexes, Map<String, List<Statement>> clValues, Map<String, List<Statement>> codeValues) {
+
+		List<Triple> triples = new ArrayList<Triple>();
+		Node clNode = NodeFactory.createURI(M0_CODE_LISTS_BASE_URI + clIndex);
+		logger.info("Creating code list " + clNode.getURI() + " containing codes " + codeIndexes);
+		triples.add(Triple.create(clNode, RDF.type.asNode(), SKOS.ConceptScheme.asNode()));
+		addCodeListPropertyValues(triples, clNode, clValues, "code list");
+		for (int codeIndex : codeIndexes) {
+			Node codeNode = NodeFactory.createURI(M0_CODES_BASE_URI + codeIndex);
+			triples.add(Triple.create(codeNode, RDF.type.asNode(), SKOS.Concept.asNode()));
+			addCodeListPropertyValues(triples, codeNode, codeValues, "code");
+			// Finally, add the relevant SKOS properties between the code and the code list
+			triples.add(Triple.create(codeNode, SKOS.inScheme.asNode(), clNode));
+			triples.add(Triple.create(codeNode, SKOS.topConceptOf.asNode(), clNode));
+			triples.add(Triple.create(clNode, SKOS.hasTopConcept.asNode(), codeNode));
+		}
+		return triples;
+	}
+
+	/**
+	 * Creates the triples corresponding to the M0 properties of a code or code list.
+	 * 
+	 * @param triples The list where the triples are added.
+	 * @param subject The code or code list.
+	 * @param values The values of the properties of the codes or code lists, grouped by subject.
+	 * @param kind The kind of subject ('code' or 'code list'), used in the error messages.
+	 */
+	private static void addCodeListPropertyValues(List<Triple> triples, Node subject, Map<String, List<Statement>> values, String kind) {
+
+		for (String property : CODE_LIST_PROPERTY_MAPPINGS.keySet()) { // Looping through M0 properties
+			Property skosProperty = CODE_LIST_PROPERTY_MAPPINGS.get(property);
+			if (skosProperty == null) continue;
+			String frenchValue = null; // There should be exactly one French value
+			String englishValue = null; // There can be zero or one English value
+			int frenchValueCount = 0;
+			for (Statement valueStatement : values.getOrDefault(subject.getURI() + "/" + property, Collections.emptyList())) {
+				if (M0_VALUES.equals(valueStatement.getPredicate())) {
+					if (frenchValueCount++ == 0) frenchValue = valueStatement.getObject().toString();
 				}
+				else if (englishValue == null) englishValue = valueStatement.getObject().toString();
 			}
-			// Read in the code mappings the list of codes associated to the current code list
-			List<Integer> codesOfList = codeMappings.get(clIndex);
-			for (int codeIndex : codesOfList) {
-				Resource codeResource = codeM0Model.createResource(M0_CODES_BASE_URI + codeIndex);
-				Resource skosCodeResource = skosModel.createResource(M0_CODES_BASE_URI + codeIndex, SKOS.Concept);
-				// Create the statements associated to the code
-				for (String property : clPropertyMappings.keySet()) {
-					if (clPropertyMappings.get(property) == null) continue;
-					Resource propertyResource = codeM0Model.createResource(codeResource.getURI() + "/" + property);
-					StmtIterator valueIterator = codeM0Model.listStatements(propertyResource, M0_VALUES, (RDFNode)null); // Find French values (there should be exactly one)
-					if (!valueIterator.hasNext()) {
-						logger.error("No value for property " + property + " of code " + codeResource.getURI());
-						continue;
-					}
-					if (stringProperties.contains(property)) {
-						skosCodeResource.addProperty(clPropertyMappings.get(property), skosModel.createLiteral(valueIterator.next().getObject().toString(), "fr"));
-					} else {
-						skosCodeResource.addProperty(clPropertyMappings.get(property), skosModel.createLiteral(valueIterator.next().getObject().toString()));
-					}
-					if (valueIterator.hasNext()) logger.error("Several values for property " + property + " of code " + codeResource.getURI());
-					valueIterator = codeM0Model.listStatements(propertyResource, M0_VALUES_EN, (RDFNode)null); // Find English values (can be zero or one)
-					if (valueIterator.hasNext()) {
-						skosCodeResource.addProperty(clPropertyMappings.get(property), skosModel.createLiteral(valueIterator.next().getObject().toString(), "en"));
-					}
-					// Finally, add the relevant SKOS properties between the code and the code list
-					skosCodeResource.addProperty(SKOS.inScheme, skosCLResource);
-					skosCodeResource.addProperty(SKOS.topConceptOf, skosCLResource);
-					skosCLResource.addProperty(SKOS.hasTopConcept, skosCodeResource);
-				}
+			if (frenchValue == null) {
+				logger.error("No value for property " + property + " of " + kind + " " + subject.getURI());
+				continue;
 			}
+			// Create the relevant triple, adding a language tag if the property is in the list of string properties
+			if (CODE_LIST_STRING_PROPERTIES.contains(property)) triples.add(Triple.create(subject, skosProperty.asNode(), NodeFactory.createLiteral(frenchValue, "fr")));
+			else triples.add(Triple.create(subject, skosProperty.asNode(), NodeFactory.createLiteral(frenchValue)));
+			if (frenchValueCount > 1) logger.error("Several values for property " + property + " of " + kind + " " + subject.getURI());
+			if (englishValue != null) triples.add(Triple.create(subject, skosProperty.asNode(), NodeFactory.createLiteral(englishValue, "en")));
 		}
+	}
 
-		clM0Model.close();
-		codeM0Model.close();
+	/**
+	 * Groups by subject URI the French and English values of the properties in an M0 model, in one pass on the model.
+	 * 
+	 * @param m0Model The M0 model.
+	 * @return A map whose keys are the URIs of the M0 property resources (e.g. http://baseUri/codes/code/12/TITLE) and values the statements giving their values.
+	 */
+	private static Map<String, List<Statement>> groupValuesBySubject(Model m0Model) {
 
-		return skosModel;
+		Map<String, List<Statement>> valuesBySubject = new HashMap<String, List<Statement>>();
+		m0Model.listStatements().forEachRemaining(statement -> {
+			if (!statement.getSubject().isURIResource()) return;
+			if (!M0_VALUES.equals(statement.getPredicate()) && !M0_VALUES_EN.equals(statement.getPredicate())) return;
+			valuesBySubject.computeIfAbsent(statement.getSubject().getURI(), uri -> new ArrayList<Statement>()).add(statement);
+		});
+		return valuesBySubject;
 	}
 
 	/**
 	 * Extracts the information on organizations from the M0 model and restructures it according to ORG.
 	 * For now we only extract the ID_CODE and (French) TITLE, and check consistency with target model (created from spreadsheet).
+	 * Uses the default conversion context.
 	 * 
 	 * @return A Jena <code>Model</code> containing the M0 organizations in ORG format.
 	 */
 	public static Model convertOrganizations() {
+		return convertOrganizations(ConversionContext.getDefault());
+	}
+
+	/**
+	 * Extracts the information on organizations from the M0 model and restructures it according to ORG.
+	 * For now we only extract the ID_CODE and (French) TITLE, and check consistency with target model (created from spreadsheet).
+	 * 
+	 * @param context The conversion context.
+	 * @return A Jena <code>Model</code> containing the M0 organizations in ORG format.
+	 */
+	public static Model convertOrganizations(ConversionContext context) {
 
 		// Read dataset and create model to return and read target model for consistency check
-		readDataset();
+		Dataset m0Dataset = context.getM0Dataset();
 		logger.debug("Extracting information on organizations from M0 dataset " + M0_FILE_NAME);
 		Model orgModel = ModelFactory.createDefaultModel();
 		orgModel.setNsPrefix("rdfs", RDFS.getURI());
@@ -338,10 +408,35 @@ public class M0Converter {
 
 	/**
 	 * Returns all URI mappings for operations, series, families and indicators.
+	 * Uses the default conversion context.
 	 * 
 	 * @return The mappings as a map where the keys are the M0 URIs and the values the target URIs, sorted on keys.
 	 */
 	public static SortedMap<String, String> createURIMappings() {
+		return createURIMappings(ConversionContext.getDefault());
+	}
+
+	/**
+	 * Returns all URI mappings for operations, series, families and indicators.
+	 * 
+	 * @param context The conversion context.
+	 * @return The mappings as a map where the keys are the M0 URIs and the values the target URIs, sorted on keys.
+	 */
+	public static SortedMap<String, String> createURIMappings(ConversionContext context) {
+		return createURIMappings(context, null);
+	}
+
+	/**
+	 * Returns all URI mappings for operations, series, families and indicators, keeping the mappings already recorded in a ledger.
+	 * Fixed mappings take precedence over the mappings recorded, which are replaced in the ledger when a fixed mapping has changed.
+	 * Only the M0 resources which have neither a fixed mapping nor a mapping in the ledger get new mappings, and these mappings are then appended to the ledger.
+	 * The mappings recorded for M0 resources which do not exist anymore are not returned, but their target identifiers are not reused.
+	 * 
+	 * @param context The conversion context.
+	 * @param ledger The ledger of the URI mappings, or <code>null</code> to create all the mappings from scratch.
+	 * @return The mappings as a map where the keys are the M0 URIs and the values the target URIs, sorted on keys.
+	 */
+	public static SortedMap<String, String> createURIMappings(ConversionContext context, URIMappingLedger ledger) {
 
 		// Fix the sizes of the ranges reserved for the new identifications of the different types of objects
 		Map<String, Integer> idRanges = new HashMap<String, Integer>();
@@ -351,88 +446,148 @@ public class M0Converter {
 		idRanges.put("indicateur", 0); // Not used
 		Map<String, Integer> idCounters = new HashMap<String, Integer>();
 
-		readDataset();
+		Dataset m0Dataset = context.getM0Dataset();
 		SortedMap<String, String> uriMappings = new TreeMap<String, String>(Comparator.nullsFirst(new URIComparator()));
 		List<String> types = Arrays.asList("famille", "serie", "operation", "indicateur");
 		logger.info("Starting the creation of all the URI mappings for families, series, operations and indicators");
 
-		// 1: Get fixed mappings and remove correspondent identifiers from available identifiers
+		// 0: List the M0 resources of each type
+		SortedMap<String, String> ledgerMappings = (ledger == null) ? Collections.emptySortedMap() : ledger.getMappings();
+		Map<String, List<Integer>> m0Indexes = new HashMap<String, List<Integer>>();
+		Set<String> m0URIs = new HashSet<String>();
+		for (String resourceType : types) {
+			List<Integer> typeIndexes = new ArrayList<Integer>();
+			// Get the model corresponding to this type of resource
+			Model m0Model = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + resourceType + "s");
+			int maxNumber = M0Extractor.getMaxSequence(m0Model);
+			for (int index = 1; index <= maxNumber; index++) {
+				String m0URI = "http://baseUri/" + resourceType + "s/" + resourceType + "/" + index;
+				// The following instruction does not actually add the resource to the model, so the test on the next line will work as expected
+				Resource m0Resource = m0Model.createResource(m0URI);
+				if (!m0Model.contains(m0Resource, null)) continue; // Verify that M0 resource actually exist
+				typeIndexes.add(index);
+				m0URIs.add(m0URI);
+			}
+			m0Model.close();
+			m0Indexes.put(resourceType, typeIndexes);
+		}
+
+		// 1: Get fixed and recorded mappings and remove correspondent identifiers from available identifiers
 		// Target identifiers range from 1001 upwards (except for families)
-		List<Integer> availableNumbers = IntStream.rangeClosed(1001, 1999).boxed().collect(Collectors.toList());
+		IdentifierAllocator availableNumbers = new IdentifierAllocator(FIRST_TARGET_IDENTIFIER, LAST_TARGET_IDENTIFIER);
+		// Mappings recorded in the ledger are kept for the existing M0 resources, and the identifiers of all recorded mappings remain used
+		for (Map.Entry<String, String> recordedMapping : ledgerMappings.entrySet()) {
+			availableNumbers.claim(getTargetIdentifier(recordedMapping.getValue()));
+			if (m0URIs.contains(recordedMapping.getKey())) uriMappings.put(recordedMapping.getKey(), recordedMapping.getValue());
+			else logger.debug("Mapping of " + recordedMapping.getKey() + " recorded in the ledger ignored, the M0 resource does not exist anymore");
+		}
+		if (ledgerMappings.size() != 0) logger.info("Number of mappings recorded in the ledger: " + ledgerMappings.size() + ", for existing M0 resources: " + uriMappings.size());
 		// First we have to remove from available numbers all those associated with fixed mappings
 		// We have to do a complete pass on all types of objects because there is no separation of the ranges for identifiers of different types
+		Set<String> fixedURIs = new HashSet<String>();
+		SortedMap<String, String> replacedMappings = new TreeMap<String, String>(Comparator.nullsFirst(new URIComparator()));
 		for (String resourceType : types) {
 			Map<Integer, String> typeMappings = getIdURIFixedMappings(m0Dataset, resourceType);
 			if (typeMappings.size() != 0) logger.info("Number of fixed mappings for type " + resourceType + ": " + typeMappings.size() + ", a corresponding amount of available identifiers will be removed");
 			for (int index : typeMappings.keySet()) {
-				// Add fixed mapping to the global list of all mappings
-				uriMappings.put("http://baseUri/" + resourceType + "s/" + resourceType + "/" + index, typeMappings.get(index));
-				int toRemove = Integer.parseInt(StringUtils.substringAfterLast(typeMappings.get(index), "/").substring(1));
-				availableNumbers.removeIf(number -> number == toRemove); // Not super-efficient, but the list is not that big
+				// Add fixed mapping to the global list of all mappings, replacing the mapping recorded in the ledger if it is different
+				String m0URI = "http://baseUri/" + resourceType + "s/" + resourceType + "/" + index;
+				fixedURIs.add(m0URI);
+				String recordedURI = ledgerMappings.get(m0URI);
+				if ((recordedURI != null) && !recordedURI.equals(typeMappings.get(index))) {
+					logger.warn("Fixed mapping of " + m0URI + " to " + typeMappings.get(index) + " replaces the mapping to " + recordedURI + " recorded in the ledger");
+					replacedMappings.put(m0URI, typeMappings.get(index));
+				}
+				uriMappings.put(m0URI, typeMappings.get(index));
+				availableNumbers.claim(getTargetIdentifier(typeMappings.get(index)));
 			}
 		}
-		logger.info("Total number of fixed mappings: " + uriMappings.size());
+		logger.info("Total number of fixed mappings: " + fixedURIs.size());
 
-		// 2: Attribute remaining identifiers to all resources that don't have a fixed mapping
+		// 2: Attribute remaining identifiers to all resources that don't have a fixed or recorded mapping
 		for (String resourceType : types) {
 			idCounters.put(resourceType, 0); // Initialize identification counter for this type of resources
-			// Get the model corresponding to this type of resource
-			Model m0Model = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + resourceType + "s");
-			int maxNumber = M0Extractor.getMaxSequence(m0Model);
-			for (int index = 1; index <= maxNumber; index++) {
+			for (int index : m0Indexes.get(resourceType)) {
 				String m0URI = "http://baseUri/" + resourceType + "s/" + resourceType + "/" + index;
-				if (uriMappings.containsKey(m0URI)) continue; // Fixed mappings already dealt with
-				// The following instruction does not actually add the resource to the model, so the test on the next line will work as expected
-				Resource m0Resource = m0Model.createResource(m0URI);
-				if (!m0Model.contains(m0Resource, null)) continue; // Verify that M0 resource actually exist
+				if (fixedURIs.contains(m0URI)) continue; // Fixed mappings already dealt with
+				// Mappings recorded in the ledger use the range of their type like new mappings
+				if (idRanges.get(resourceType) > 0) idRanges.put(resourceType, idRanges.get(resourceType) - 1);
+				if (ledgerMappings.containsKey(m0URI)) continue;
 				// At this point, the resource exists and has not a fixed mapping: attribute target URI based on first available number, except for families who use the M0 index
-				if ("famille".equals(resourceType)) uriMappings.put(m0Resource.getURI(), operationResourceURI(Integer.toString(index), resourceType));
+				if ("famille".equals(resourceType)) uriMappings.put(m0URI, operationResourceURI(Integer.toString(index), resourceType));
 				else {
-					Integer targetId = availableNumbers.get(0);
-					availableNumbers.remove(0);
-					uriMappings.put(m0Resource.getURI(), operationResourceURI(targetId.toString(), resourceType));
+					int targetId = availableNumbers.next();
+					uriMappings.put(m0URI, operationResourceURI(Integer.toString(targetId), resourceType));
 				}
 				idCounters.put(resourceType, idCounters.get(resourceType) + 1);
-				if (idRanges.get(resourceType) > 0) idRanges.put(resourceType, idRanges.get(resourceType) - 1);
 			}
-			m0Model.close();
 			logger.info("Number of new mappings created for type " + resourceType + ": " + idCounters.get(resourceType));
 			if (idRanges.get(resourceType) > 0) {
-				//idRanges.put(resourceType, idRanges.get(resourceType) - idCounters.get(resourceType));
 				// Reserve some available numbers for future new series or operations
 				logger.debug("Reserving " + idRanges.get(resourceType) + " identifiers for future instances of type " + resourceType);
-				availableNumbers.subList(0, idRanges.get(resourceType)).clear();
+				availableNumbers.reserve(idRanges.get(resourceType));
 			}
-			logger.info("Total number of remaining identifiers for new mappings: " + availableNumbers.size());
-			logger.debug("Next available identifier is " + availableNumbers.get(0));
+			logger.info("Total number of remaining identifiers for new mappings: " + availableNumbers.available());
+			logger.debug("Next available identifier is " + availableNumbers.peek());
 		}
 
 		// 3: Check that there is no duplicate on the mapped URIs
 		logger.debug("Checking for duplicate values in the mapped target URIs"); 
-		List<String> mappedURIs = new ArrayList<String>();
-		for (String m0URI : uriMappings.keySet()) {
-			String mappedURI = uriMappings.get(m0URI);
-			if (mappedURIs.contains(mappedURI)) logger.error("Duplicate value in mappings: " + mappedURI); 
-			else mappedURIs.add(mappedURI);
+		Set<String> mappedURIs = new HashSet<String>(2 * uriMappings.size());
+		for (String mappedURI : uriMappings.values()) {
+			if (!mappedURIs.add(mappedURI)) logger.error("Duplicate value in mappings: " + mappedURI);
+		}
+
+		// 4: Record the changed fixed mappings and the new mappings in the ledger
+		if (ledger != null) {
+			ledger.replace(replacedMappings);
+			ledger.append(uriMappings);
 		}
 
 		logger.info("Total number of URI mappings for operations, series, families and indicators: " + uriMappings.size());
 		return uriMappings;
 	}
 
+	/**
+	 * Returns the numeric identifier contained in a target URI of series, operation or indicator (for example 1001 for .../serie/s1001).
+	 * 
+	 * @param targetURI The target URI.
+	 * @return The identifier, or -1 if the URI does not contain an identifier.
+	 */
+	private static int getTargetIdentifier(String targetURI) {
+
+		try {
+			return Integer.parseInt(StringUtils.substringAfterLast(targetURI, "/").substring(1));
+		} catch (NumberFormatException | IndexOutOfBoundsException e) {
+			return -1;
+		}
+	}
+
 	/**
 	 * Extracts the informations on the families from the M0 model and converts them according to the target model.
 	 * Also adds the references to statistical themes.
+	 * Uses the default conversion context.
 	 * 
 	 * @return A Jena <code>Model</code> containing the target RDF model for families.
 	 */
 	public static Model convertFamilies() {
+		return convertFamilies(ConversionContext.getDefault());
+	}
+
+	/**
+	 * Extracts the informations on the families from the M0 model and converts them according to the target model.
+	 * Also adds the references to statistical themes.
+	 * 
+	 * @param context The conversion context.
+	 * @return A Jena <code>Model</code> containing the target RDF model for families.
+	 */
+	public static Model convertFamilies(ConversionContext context) {
 
-		// Read the M0 model and create the URI mappings if necessary
-		readDataset();
-		if (allURIMappings == null) allURIMappings = createURIMappings(); // Not indispensable for families
+		// Get the M0 dataset and the URI mappings
+		Dataset m0Dataset = context.getM0Dataset();
+		Map<String, String> allURIMappings = context.getURIMappings(); // Not indispensable for families
 		// Get the family-themes relations
-		Map<String, List<String>> familyThemesRelations = getFamilyThemesRelations();
+		Map<String, List<String>> familyThemesRelations = context.getFamilyThemesRelations();
 
 		logger.debug("Extracting the information on families from dataset " + M0_FILE_NAME);
 		Model m0Model = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "familles");
@@ -479,14 +634,25 @@ public class M0Converter {
 
 	/**
 	 * Extracts the informations on the series from the M0 model and converts them according to the target model.
+	 * Uses the default conversion context.
 	 * 
 	 * @return A Jena <code>Model</code> containing the target RDF model for series.
 	 */
 	public static Model convertSeries() {
+		return convertSeries(ConversionContext.getDefault());
+	}
+
+	/**
+	 * Extracts the informations on the series from the M0 model and converts them according to the target model.
+	 * 
+	 * @param context The conversion context.
+	 * @return A Jena <code>Model</code> containing the target RDF model for series.
+	 */
+	public static Model convertSeries(ConversionContext context) {
 
-		// Read the M0 model and create the URI mappings if necessary
-		readDataset();
-		if (allURIMappings == null) allURIMappings = createURIMappings();
+		// Get the M0 dataset and the URI mappings
+		Dataset m0Dataset = context.getM0Dataset();
+		Map<String, String> allURIMappings = context.getURIMappings();
 
 		logger.debug("Extracting the information on series from dataset " + M0_FILE_NAME);
 		Model m0Model = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "series");
@@ -526,14 +692,25 @@ public class M0Converter {
 
 	/**
 	 * Extracts the informations on the operations from the M0 model and restructures them according to the target model.
+	 * Uses the default conversion context.
 	 * 
 	 * @return A Jena <code>Model</code> containing the target RDF model for operations.
 	 */
 	public static Model convertOperations() {
+		return convertOperations(ConversionContext.getDefault());
+	}
+
+	/**
+	 * Extracts the informations on the operations from the M0 model and restructures them according to the target model.
+	 * 
+	 * @param context The conversion context.
+	 * @return A Jena <code>Model</code> containing the target RDF model for operations.
+	 */
+	public static Model convertOperations(ConversionContext context) {
 
-		// Read the M0 model and create the URI mappings if necessary
-		readDataset();
-		if (allURIMappings == null) allURIMappings = createURIMappings();
+		// Get the M0 dataset and the URI mappings
+		Dataset m0Dataset = context.getM0Dataset();
+		Map<String, String> allURIMappings = context.getURIMappings();
 
 		logger.debug("Extracting the information on operations from dataset " + M0_FILE_NAME);
 		Model m0Model = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "operations");
@@ -584,14 +761,25 @@ public class M0Converter {
 
 	/**
 	 * Extracts the informations on the indicators from the M0 model and restructures them according to the target model.
+	 * Uses the default conversion context.
 	 * 
 	 * @return A Jena <code>Model</code> containing the target RDF model for indicators.
 	 */
 	public static Model convertIndicators() {
+		return convertIndicators(ConversionContext.getDefault());
+	}
 
-		// Read the M0 model and create the URI mappings if necessary
-		readDataset();
-		if (allURIMappings == null) allURIMappings = createURIMappings();
+	/**
+	 * Extracts the informations on the indicators from the M0 model and restructures them according to the target model.
+	 * 
+	 * @param context The conversion context.
+	 * @return A Jena <code>Model</code> containing the target RDF model for indicators.
+	 */
+	public static Model convertIndicators(ConversionContext context) {
+
+		// Get the M0 dataset and the URI mappings
+		Dataset m0Dataset = context.getM0Dataset();
+		Map<String, String> allURIMappings = context.getURIMappings();
 
 		logger.debug("Reading the M0 model on indicators from dataset " + M0_FILE_NAME);
 		Model m0IndicatorssModel = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "indicateurs");
@@ -624,9 +812,8 @@ public class M0Converter {
 		m0IndicatorssModel.close();
 
 		logger.info(indicatorRealNumber + " indicators extracted, now adding the PRODUCED_FROM, RELATED_TO and REPLACES relations");
-		logger.debug("Reading the M0 model on associations from dataset " + M0_FILE_NAME);
-		Model m0AssociationModel = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "associations");
-		Map<String, List<String>> multipleRelations = M0Extractor.extractProductionRelations(m0AssociationModel);
+		AssociationIndex associationIndex = context.getAssociationIndex();
+		Map<String, List<String>> multipleRelations = associationIndex.getProductionRelations();
 		for (String indicatorM0URI : multipleRelations.keySet()) {
 			String indicatorTargetURI = allURIMappings.get(indicatorM0URI);
 			if (indicatorTargetURI == null) {
@@ -645,7 +832,7 @@ public class M0Converter {
 			}
 		}
 		// RELATED_TO relations (limited to indicators)
-		multipleRelations = M0Extractor.extractRelations(m0AssociationModel);
+		multipleRelations = associationIndex.getRelations();
 		for (String startM0URI : multipleRelations.keySet()) {
 			if (!startM0URI.startsWith("http://baseUri/indicateurs")) continue;
 			Resource startResource = indicatorModel.createResource(allURIMappings.get(startM0URI));
@@ -656,7 +843,7 @@ public class M0Converter {
 			}
 		}
 		// REPLACES relations (limited to indicators)
-		multipleRelations = M0Extractor.extractReplacements(m0AssociationModel);
+		multipleRelations = associationIndex.getReplacements();
 		for (String replacingM0URI : multipleRelations.keySet()) {
 			if (!replacingM0URI.startsWith("http://baseUri/indicateurs")) continue;
 			Resource replacingResource = indicatorModel.createResource(allURIMappings.get(replacingM0URI));
@@ -667,7 +854,6 @@ public class M0Converter {
 				logger.debug("Replacement property created between resource " + replacingResource.getURI() + " replacing resource " + replacedResource.getURI());
 			}
 		}
-		m0AssociationModel.close();
 
 		return indicatorModel;
 	}
@@ -725,10 +911,60 @@ public class M0Converter {
 
 	/**
 	 * Extracts from the current M0 dataset, and converts to the target model, all information about families, series and operations, and relations between them.
+	 * Uses the default conversion context.
 	 * 
 	 * @return A Jena model containing all the statements.
 	 */
 	public static Model convertAllOperations() {
+		return convertAllOperations(ConversionContext.getDefault());
+	}
+
+	/**
+	 * Extracts from the current M0 dataset, and converts to the target model, all information about families, series and operations, and relations between them.
+	 * Families, series and operations are converted concurrently.
+	 * 
+	 * @param context The conversion context.
+	 * @return A Jena model containing all the statements.
+	 */
+	public static Model convertAllOperations(ConversionContext context) {
+
+		prepareOperationConversions(context);
+		ForkJoinPool pool = new ForkJoinPool(OPERATION_CONVERSION_PARALLELISM);
+		try {
+			return convertAllOperations(context, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Computes once the inputs shared by the conversions of families, series, operations and indicators, so that these conversions can then run concurrently.
+	 * 
+	 * @param context The conversion context.
+	 */
+	private static void prepareOperationConversions(ConversionContext context) {
+
+		// The M0 models are obtained once here, so that they are not created concurrently in datasets which are not read-only
+		Dataset m0Dataset = context.getM0Dataset();
+		for (String graphName : Arrays.asList("familles", "series", "operations", "indicateurs")) m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + graphName);
+		context.getURIMappings();
+		context.getAssociationIndex();
+		context.getFamilyThemesRelations();
+		context.getOrganizationURIMappings();
+	}
+
+	/**
+	 * Converts concurrently the families, series and operations, then adds the relations between them and with organizations.
+	 * 
+	 * @param context The conversion context, where the shared inputs have already been computed.
+	 * @param pool The pool of threads where the families, series and operations are converted.
+	 * @return A Jena model containing all the statements.
+	 */
+	private static Model convertAllOperations(ConversionContext context, ForkJoinPool pool) {
+
+		ForkJoinTask<Model> familyTask = pool.submit(() -> convertFamilies(context));
+		ForkJoinTask<Model> seriesTask = pool.submit(() -> convertSeries(context));
+		ForkJoinTask<Model> operationTask = pool.submit(() -> convertOperations(context));
 
 		Model operationModel = ModelFactory.createDefaultModel();
 		operationModel.setNsPrefix("rdfs", RDFS.getURI());
@@ -736,13 +972,14 @@ public class M0Converter {
 		operationModel.setNsPrefix("dcterms", DCTerms.getURI());
 		operationModel.setNsPrefix("insee", "http://rdf.insee.fr/def/base#");
 
-		// First add models on families, series and operations (this will read the dataset and create the URI mappings)
-		operationModel.add(convertFamilies()).add(convertSeries()).add(convertOperations());
+		// First add models on families, series and operations
+		operationModel.add(familyTask.join()).add(seriesTask.join()).add(operationTask.join());
+		Map<String, String> allURIMappings = context.getURIMappings();
+		AssociationIndex associationIndex = context.getAssociationIndex();
 
-		// Now read the links of various kinds between families, series and operations, starting with hierarchies
+		// Now add the links of various kinds between families, series and operations, starting with hierarchies
 		// For readability, we do not verify in this method that the M0 URIs are in the mappings
-		Model m0AssociationModel = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "associations");
-		Map<String, String> simpleRelations = M0Extractor.extractHierarchies(m0AssociationModel);
+		Map<String, String> simpleRelations = associationIndex.getHierarchies();
 		for (String chilM0dURI : simpleRelations.keySet()) {
 			Resource child = operationModel.createResource(allURIMappings.get(chilM0dURI));
 			Resource parent = operationModel.createResource(allURIMappings.get(simpleRelations.get(chilM0dURI)));
@@ -751,7 +988,7 @@ public class M0Converter {
 			logger.debug("Hierarchy properties created between child " + child.getURI() + " and parent " + parent.getURI());
 		}
 		// RELATED_TO relations (excluding indicators)
-		Map<String, List<String>> multipleRelations = M0Extractor.extractRelations(m0AssociationModel);
+		Map<String, List<String>> multipleRelations = associationIndex.getRelations();
 		for (String startM0URI : multipleRelations.keySet()) {
 			if (startM0URI.startsWith("http://baseUri/indicateurs")) continue;
 			Resource startResource = operationModel.createResource(allURIMappings.get(startM0URI));
@@ -762,7 +999,7 @@ public class M0Converter {
 			}
 		}
 		// REPLACES relations (excluding indicators)
-		multipleRelations = M0Extractor.extractReplacements(m0AssociationModel);
+		multipleRelations = associationIndex.getReplacements();
 		for (String replacingM0URI : multipleRelations.keySet()) {
 			if (replacingM0URI.startsWith("http://baseUri/indicateurs")) continue; // There is no cross-relation of replacement between operations and indicators
 			Resource replacingResource = operationModel.createResource(allURIMappings.get(replacingM0URI));
@@ -776,17 +1013,16 @@ public class M0Converter {
 		// Finally, add relations to organizations
 		for (Configuration.OrganizationRole role : Configuration.OrganizationRole.values()) {
 			logger.debug("Creating organizational relations with role " + role.toString());
-			multipleRelations = M0Extractor.extractOrganizationalRelations(m0AssociationModel, role);
+			multipleRelations = associationIndex.getOrganizationalRelations(role);
 			for (String operationM0URI : multipleRelations.keySet()) {
 				Resource operationResource = operationModel.createResource(allURIMappings.get(operationM0URI));
 				for (String organizationURI : multipleRelations.get(operationM0URI)) {
-					Resource organizationResource = ResourceFactory.createResource(convertM0OrganizationURI(organizationURI));
+					Resource organizationResource = ResourceFactory.createResource(convertM0OrganizationURI(context, organizationURI));
 					operationResource.addProperty(role.getProperty(), organizationResource);
 					logger.debug("Organizational relation created between resource " + operationResource.getURI() + " and organization " + organizationResource.getURI());
 				}
 			}
 		}
-		m0AssociationModel.close();
 		return operationModel;
 	}
 
@@ -800,56 +1036,52 @@ public class M0Converter {
 
 		SortedMap<String, List<String>> relationMappings = new TreeMap<String, List<String>>();
 
-		Workbook familyThemesWorkbook = null;
 		File xlsxFile = new File(FAMILY_THEMES_XLSX_FILE_NAME);
-		try {
-			logger.info("Reading family-themes relations from Excel file " + xlsxFile.getAbsolutePath());
-			familyThemesWorkbook = WorkbookFactory.create(xlsxFile);
-		} catch (Exception e) {
-			logger.fatal("Error while opening Excel file - " + e.getMessage());
-			return null;
-		}
-
-		Iterator<Row> rows = familyThemesWorkbook.getSheetAt(0).rowIterator();
-		while (rows.hasNext()) {
-			Row row = rows.next();
-			// Family URI is in column B
-			String familyURI = row.getCell(1).toString();
-			relationMappings.put(familyURI, new ArrayList<String>());
-			// First theme identifier is in column D, never empty
-			String themeId = row.getCell(3).toString();
-			relationMappings.get(familyURI).add(themeURI(themeId));
-			// Second theme identifier is in column E, can be empty
-			Cell themeCell = row.getCell(4);
-			if (themeCell != null) {
-				themeId = themeCell.toString();
+		logger.info("Reading family-themes relations from Excel file " + xlsxFile.getAbsolutePath());
+		try (SpreadsheetReader familyThemesReader = SpreadsheetReader.open(xlsxFile)) {
+			Iterator<SpreadsheetRow> rows = familyThemesReader.readRows(0);
+			while (rows.hasNext()) {
+				SpreadsheetRow row = rows.next();
+				// Family URI is in column B
+				String familyURI = row.getString(1);
+				relationMappings.put(familyURI, new ArrayList<String>());
+				// First theme identifier is in column D, never empty
+				String themeId = row.getString(3);
 				relationMappings.get(familyURI).add(themeURI(themeId));
+				// Second theme identifier is in column E, can be empty
+				if (row.hasCell(4)) {
+					themeId = row.getString(4);
+					relationMappings.get(familyURI).add(themeURI(themeId));
+				}
+				logger.debug("Themes registered for family " + familyURI + ": " + relationMappings.get(familyURI));
 			}
-			logger.debug("Themes registered for family " + familyURI + ": " + relationMappings.get(familyURI));
+		} catch (Exception e) {
+			logger.fatal("Error while reading Excel file - " + e.getMessage());
+			return null;
 		}
-		try { familyThemesWorkbook.close(); } catch (IOException ignored) { }
 
 		return relationMappings;
 	}
 
 	/**
-	 * Reads the complete M0 dataset if it has not been read already.
+	 * Reads the mappings between M0 and target URIs for organizations.
+	 * Uses the default conversion context.
+	 * 
+	 * @return A sorted map in which the keys are the M0 URIs of the organizations and the values their target URIs.
 	 */
-	protected static void readDataset() {
-		if (m0Dataset == null) {
-			m0Dataset = RDFDataMgr.loadDataset(M0_FILE_NAME);
-			logger.debug("M0 dataset read from file " + M0_FILE_NAME);
-		}
+	public static SortedMap<String, String> readOrganizationURIMappings() {
+		return readOrganizationURIMappings(ConversionContext.getDefault());
 	}
 
 	/**
 	 * Reads the mappings between M0 and target URIs for organizations.
 	 * 
+	 * @param context The conversion context.
 	 * @return A sorted map in which the keys are the M0 URIs of the organizations and the values their target URIs.
 	 */
-	public static SortedMap<String, String> readOrganizationURIMappings() {
+	public static SortedMap<String, String> readOrganizationURIMappings(ConversionContext context) {
 
-		readDataset();
+		Dataset m0Dataset = context.getM0Dataset();
 		SortedMap<String, String> organizationURIMappings = new TreeMap<String, String>(new URIComparator());
 		// Read the 'organismes' model and loop through the statements with 'ID_CODE' subjects
 		Model m0OrganizationsModel = m0Dataset.getNamedModel(M0_BASE_GRAPH_URI + "organismes");
@@ -875,14 +1107,24 @@ public class M0Converter {
 
 	/**
 	 * Converts an M0 organization resource URI into the corresponding target URI.
+	 * Uses the default conversion context.
 	 * 
 	 * @param m0URI The M0 organization resource URI.
 	 * @return The target URI for the resource.
 	 */
 	public static String convertM0OrganizationURI(String m0URI) {
+		return convertM0OrganizationURI(ConversionContext.getDefault(), m0URI);
+	}
+
+	/**
+	 * Converts an M0 organization resource URI into the corresponding target URI.
+	 * 
+	 * @param context The conversion context.
+	 * @param m0URI The M0 organization resource URI.
+	 * @return The target URI for the resource.
+	 */
+	public static String convertM0OrganizationURI(ConversionContext context, String m0URI) {
 
-		if (organizationURIMappings == null) organizationURIMappings = readOrganizationURIMappings();
-		if (organizationURIMappings.containsKey(m0URI)) return organizationURIMappings.get(m0URI);
-		return null;
+		return context.getOrganizationURIMappings().get(m0URI);
 	}
 }
@@ -0,0 +1,225 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphReadOnly;
+import org.apache.jena.sparql.graph.GraphReadOnly;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.insee.semweb.utils.LazyDatasetGraph;
+import fr.insee.semweb.utils.SnapshotCache;
+import fr.insee.semweb.utils.TriGBlockIndex;
+
+/**
+ * Holds the M0 dataset shared by all the M0 converters, extractors and checkers.
+ * The M0 TriG file is parsed only once per JVM, and the dataset is handed out as a read-only view.
+ * In lazy mode, each graph of the file is parsed only when it is requested for the first time.
+ * Snapshots follow the loading mode: in lazy mode each graph has its own snapshot, otherwise the whole dataset is snapshotted at once.
+ *
+ * @author Franck
+ */
+public class M0DatasetRegistry {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(M0DatasetRegistry.class);
+
+	/** The M0 dataset as parsed from the M0 file */
+	private static DatasetGraph m0DatasetGraph = null;
+
+	/** The read-only view of the M0 dataset which is handed out to clients */
+	private static Dataset m0DatasetView = null;
+
+	/** The indexes of the M0 graphs handed out, built on demand */
+	private static Map<Graph, M0Index> m0Indexes = new ConcurrentHashMap<Graph, M0Index>();
+
+	/** The indexes of the M0 association graphs handed out, built on demand */
+	private static Map<Graph, AssociationIndex> associationIndexes = new ConcurrentHashMap<Graph, AssociationIndex>();
+
+	/**
+	 * Returns the M0 dataset, reading it from the M0 file if it has not been read already.
+	 * The dataset returned is read-only, and closing it or one of its models has no effect on the shared data.
+	 *
+	 * @return A read-only view of the complete M0 dataset.
+	 */
+	public static synchronized Dataset getDataset() {
+
+		if (m0DatasetView == null) {
+			m0DatasetGraph = Configuration.M0_LAZY_LOADING ? createLazyDatasetGraph(Configuration.M0_FILE_NAME) : loadDatasetGraph(Configuration.M0_FILE_NAME);
+			m0DatasetView = DatasetFactory.wrap(new ReadOnlyDatasetGraph(m0DatasetGraph));
+		}
+		return m0DatasetView;
+	}
+
+	/**
+	 * Returns a read-only view of one of the named graphs of the M0 dataset.
+	 *
+	 * @param graphName The local name of the graph, for example 'series' or 'documentations'.
+	 * @return A read-only Jena <code>Model</code> on the graph (empty if the graph does not exist).
+	 */
+	public static Model getNamedModel(String graphName) {
+
+		return getDataset().getNamedModel(Configuration.M0_BASE_GRAPH_URI + graphName);
+	}
+
+	/**
+	 * Returns the index of one of the named graphs of the M0 dataset, building it if it has not been built already.
+	 *
+	 * @param graphName The local name of the graph, for example 'liens' or 'documentations'.
+	 * @return The index of the attribute values of the graph.
+	 */
+	public static M0Index getIndex(String graphName) {
+
+		return getIndex(getNamedModel(graphName));
+	}
+
+	/**
+	 * Returns the index of an M0 model.
+	 * If the model is one of the read-only models handed out by the registry, its index is built only once, otherwise it is built on each call.
+	 *
+	 * @param m0Model The M0 model to index.
+	 * @return The index of the attribute values of the model.
+	 */
+	public static M0Index getIndex(Model m0Model) {
+
+		// Only the shared graphs are guaranteed not to change
+		if (!(m0Model.getGraph() instanceof ReadOnlyGraph)) return M0Index.build(m0Model);
+
+		return m0Indexes.computeIfAbsent(m0Model.getGraph(), graph -> M0Index.build(m0Model));
+	}
+
+	/**
+	 * Returns the association index of an M0 'associations' model.
+	 * If the model is one of the read-only models handed out by the registry, its index is built only once, otherwise it is built on each call.
+	 *
+	 * @param m0AssociationModel The M0 'associations' model to index.
+	 * @return The index of the relations contained in the model.
+	 */
+	public static AssociationIndex getAssociationIndex(Model m0AssociationModel) {
+
+		if (!(m0AssociationModel.getGraph() instanceof ReadOnlyGraph)) return AssociationIndex.build(m0AssociationModel);
+
+		return associationIndexes.computeIfAbsent(m0AssociationModel.getGraph(), graph -> AssociationIndex.build(m0AssociationModel));
+	}
+
+	/**
+	 * Discards the shared M0 dataset and its indexes, so that the next call to <code>getDataset</code> will read the M0 file again.
+	 * Views previously handed out remain valid.
+	 */
+	public static synchronized void reset() {
+
+		m0DatasetGraph = null;
+		m0DatasetView = null;
+		m0Indexes.clear();
+		associationIndexes.clear();
+	}
+
+	/**
+	 * Creates a dataset on a TriG file whose graphs will be parsed on demand.
+	 * If the structure of the file does not allow lazy parsing, the whole dataset is read at once.
+	 * If snapshots are activated, each graph is read from its own binary snapshot when it is up to date, and the snapshot is created otherwise.
+	 *
+	 * @param fileName The name of the TriG file.
+	 * @return The dataset as a Jena <code>DatasetGraph</code>.
+	 */
+	private static DatasetGraph createLazyDatasetGraph(String fileName) {
+
+		long startTime = System.currentTimeMillis();
+		File sourceFile = new File(fileName);
+		DatasetGraph datasetGraph = null;
+		try {
+			TriGBlockIndex index = new TriGBlockIndex(sourceFile, TriGBlockIndex.getChunkSize(sourceFile.length(), Configuration.M0_PARSING_PARALLELISM));
+			datasetGraph = new LazyDatasetGraph(index, Configuration.M0_PARSING_PARALLELISM, Configuration.USE_M0_SNAPSHOT ? new File(Configuration.SNAPSHOT_DIRECTORY) : null);
+		} catch (IllegalArgumentException | IOException e) {
+			logger.warn("Graphs of file " + fileName + " cannot be read on demand, reading the whole dataset - " + e.getMessage());
+			return loadDatasetGraph(fileName);
+		}
+		logger.info("M0 file " + fileName + " indexed in " + (System.currentTimeMillis() - startTime) + " ms (" + datasetGraph.size() + " named graphs, read on demand)");
+
+		return datasetGraph;
+	}
+
+	/**
+	 * Reads a dataset from a TriG file, logging the time spent and the heap used in the process.
+	 * If snapshots are activated, the dataset is read from the binary snapshot of the file when it is up to date, and the snapshot is created otherwise.
+	 *
+	 * @param fileName The name of the TriG file.
+	 * @return The dataset as a Jena <code>DatasetGraph</code>.
+	 */
+	private static DatasetGraph loadDatasetGraph(String fileName) {
+
+		Runtime runtime = Runtime.getRuntime();
+		long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+		long startTime = System.currentTimeMillis();
+		File sourceFile = new File(fileName);
+		File snapshotDirectory = new File(Configuration.SNAPSHOT_DIRECTORY);
+		DatasetGraph datasetGraph = null;
+		if (Configuration.USE_M0_SNAPSHOT) datasetGraph = SnapshotCache.readSnapshot(sourceFile, snapshotDirectory);
+		String origin = "snapshot of file ";
+		if (datasetGraph == null) {
+			// The graph blocks of the file are parsed in parallel into plain in-memory graphs, which can be read concurrently
+			datasetGraph = TriGBlockIndex.loadDatasetGraph(sourceFile, Configuration.M0_PARSING_PARALLELISM);
+			origin = "file ";
+			if (Configuration.USE_M0_SNAPSHOT) SnapshotCache.writeSnapshot(sourceFile, snapshotDirectory, datasetGraph);
+		}
+		long loadTime = System.currentTimeMillis() - startTime;
+		long heapUsed = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+		logger.info("M0 dataset read from " + origin + fileName + " in " + loadTime + " ms (" + datasetGraph.size() + " named graphs, approximately " + (heapUsed >> 20) + " MB of heap used)");
+
+		return datasetGraph;
+	}
+
+	/**
+	 * Read-only view of a dataset, which returns read-only views of its graphs.
+	 * The views of a given graph are cached, so that successive calls return the same object.
+	 */
+	private static class ReadOnlyDatasetGraph extends DatasetGraphReadOnly {
+
+		private final Map<Node, Graph> graphViews = new ConcurrentHashMap<Node, Graph>();
+		private Graph defaultGraphView = null;
+
+		public ReadOnlyDatasetGraph(DatasetGraph datasetGraph) {
+			super(datasetGraph);
+		}
+
+		@Override
+		public synchronized Graph getDefaultGraph() {
+			if (defaultGraphView == null) defaultGraphView = new ReadOnlyGraph(getR().getDefaultGraph());
+			return defaultGraphView;
+		}
+
+		@Override
+		public Graph getGraph(Node graphNode) {
+			return graphViews.computeIfAbsent(graphNode, node -> new ReadOnlyGraph(getR().getGraph(node)));
+		}
+
+		@Override
+		public void close() {
+			// The shared dataset is never closed by its clients
+		}
+	}
+
+	/**
+	 * Read-only view of a graph which can be closed by clients without closing the underlying graph.
+	 */
+	private static class ReadOnlyGraph extends GraphReadOnly {
+
+		public ReadOnlyGraph(Graph graph) {
+			super(graph);
+		}
+
+		@Override
+		public void close() {
+			// The underlying graph is shared and must stay open
+		}
+	}
+}
@@ -8,9 +8,9 @@ import static fr.insee.semweb.sdmx.metadata.Configuration.M0_VALUES_EN;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
@@ -35,8 +35,9 @@ import org.apache.jena.vocabulary.SKOS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import fr.insee.semweb.sdmx.metadata.Configuration.M0ResourceType;
 import fr.insee.semweb.sdmx.metadata.Configuration.OrganizationRole;
-import fr.insee.semweb.utils.URIComparator;
+import fr.insee.semweb.sdmx.metadata.M0Index.M0URI;
 
 /**
  * Extracts RDF information expressed in the interim format ("M0 model").
@@ -61,24 +62,16 @@ public class M0Extractor {
 		logger.debug("Extracting from M0 model triples with subject corresponding to SIMS atttribute: " + attributeName);
 	
 		Model extractModel = ModelFactory.createDefaultModel();
-		Selector selector = new SimpleSelector(null, Configuration.M0_VALUES, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject URI ends with the attribute name
-	        public boolean selects(Statement statement) {
-	        	return statement.getSubject().getURI().endsWith(attributeName);
-	        }
-	    };
-	
-		// Run the selector and add the selected statements to the extract model
-		extractModel.add(m0Model.listStatements(selector));
+		M0Index m0Index = M0DatasetRegistry.getIndex(m0Model);
+
+		// Add the statements of the attribute to the extract model
+		extractModel.add(m0Index.getAttributeStatements(attributeName, false));
 		long numberOfValues = extractModel.size();
 	
 		// String attributes may also have English values
-		selector = new SimpleSelector(null, Configuration.M0_VALUES_EN, (RDFNode) null) {
-	        public boolean selects(Statement statement) {
-	        	return ((statement.getSubject().getURI().endsWith(attributeName)) && (statement.getObject().isLiteral()) && (statement.getLiteral().getString().trim().length() > 0));
-	        }
-	    };
-		extractModel.add(m0Model.listStatements(selector));
+		for (Statement statement : m0Index.getAttributeStatements(attributeName, true)) {
+			if ((statement.getObject().isLiteral()) && (statement.getLiteral().getString().trim().length() > 0)) extractModel.add(statement);
+		}
 		long numberOfEnglishValues = extractModel.size() - numberOfValues;
 	
 		String reportNumber = (numberOfEnglishValues == 0) ? Long.toString(numberOfValues) : Long.toString(numberOfValues) + " (French) + " + Long.toString(numberOfEnglishValues) + " (English)";
@@ -98,19 +91,9 @@ public class M0Extractor {
 	 */
 	public static SortedMap<String, List<String>> extractAttributeValues(Model m0Model, String attributeName, boolean inEnglish) {
 
-		Property valueProperty = inEnglish ? Configuration.M0_VALUES_EN : Configuration.M0_VALUES;
-
-		// Define the selector catching the relevant statements
-		Selector selector = new SimpleSelector(null, valueProperty, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject URI ends with the attribute name
-	        public boolean selects(Statement statement) {
-	        	return statement.getSubject().getURI().endsWith(attributeName);
-	        }
-	    };
-
 	    SortedMap<String, List<String>> attributeValues = new TreeMap<String, List<String>>();
-		// Iterate on all statements and build the list of values of the attribute
-	    m0Model.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
+		// Iterate on the statements of the attribute and build the list of values of the attribute
+	    M0DatasetRegistry.getIndex(m0Model).getAttributeStatements(attributeName, inEnglish).forEach(new Consumer<Statement>() {
 			@Override
 			public void accept(Statement statement) {
 				// Extract the URI of the base entity to which the attribute relates
@@ -227,35 +210,9 @@ public class M0Extractor {
 	 * @return A sorted map containing the relations where keys are M0 URIs and values are lists of related M0 URIs, sorted on keys.
 	 */
 	public static SortedMap<String, List<String>> extractRelations(Model m0AssociationModel) {
-	
-		// The relations are in the 'associations' graph and have the following structure:
-		// <http://baseUri/series/serie/99/RELATED_TO> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/series/serie/98/RELATED_TO>
-	
+
 		logger.debug("Extracting the information on relations between series, indicators, etc.");
-		SortedMap<String, List<String>> relationMappings = new TreeMap<String, List<String>>();
-	
-		// Will select the 'RELATED_TO/RELATED_TO' relations between relevant resources
-		Selector selector = new SimpleSelector(null, M0_RELATED_TO, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject URI ends with 'RELATED_TO' and object URI with 'RELATED_TO'
-	        public boolean selects(Statement statement) {
-	        	// There are also RELATED_TO relations between code lists and codes in the association model, that must be eliminated
-	        	String subjectURI = statement.getSubject().getURI();
-	        	if (subjectURI.startsWith("http://baseUri/code")) return false;
-	        	return ((subjectURI.endsWith("RELATED_TO")) && (statement.getObject().isResource()) && (statement.getObject().asResource().getURI().endsWith("RELATED_TO")));
-	        }
-	    };
-	    // Read the selected statements and fill the map that will be returned (will throw an exception if model is null)
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String oneEnd = StringUtils.removeEnd(statement.getSubject().getURI(), "/RELATED_TO");
-				String otherEnd = StringUtils.removeEnd(statement.getObject().asResource().getURI(), "/RELATED_TO");
-				if (!relationMappings.containsKey(oneEnd)) relationMappings.put(oneEnd, new ArrayList<String>());
-				relationMappings.get(oneEnd).add(otherEnd);
-			}
-		});
-		logger.debug("Size of the map to return is: " + relationMappings.size());
-		return relationMappings;	
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getRelations();
 	}
 
 	/**
@@ -267,37 +224,8 @@ public class M0Extractor {
 	 */
 	public static SortedMap<String, String> extractHierarchies(Model m0AssociationModel) {
 
-		// The hierarchies are in the 'associations' graph and have the following structure:
-		// <http://baseUri/familles/famille/58/ASSOCIE_A> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/series/serie/117/ASSOCIE_A>
-	
 		logger.debug("Extracting the information on hierarchies between families, series and operations");
-		SortedMap<String, String> hierarchyMappings = new TreeMap<String, String>(Comparator.nullsFirst(new URIComparator()));
-
-		// Will select the 'ASSOCIE_A/ASSOCIE_A' relations between relevant resources
-		Selector selector = new SimpleSelector(null, M0_RELATED_TO, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject and object URIs end with 'ASSOCIE_A' and begin with expected objects
-	        public boolean selects(Statement statement) {
-	        	String subjectURI = statement.getSubject().getURI();
-	        	String objectURI = statement.getObject().asResource().getURI();
-	        	if (!((subjectURI.endsWith("ASSOCIE_A")) && (objectURI.endsWith("ASSOCIE_A")))) return false;
-	        	if ((subjectURI.startsWith("http://baseUri/series")) && (objectURI.startsWith("http://baseUri/familles"))) return true;
-	        	if ((subjectURI.startsWith("http://baseUri/operations")) && (objectURI.startsWith("http://baseUri/series"))) return true;
-	        	return false;
-	        }
-	    };
-	    // Read the selected statements and fill the map that will be returned (will throw an exception if model is null)
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String child = StringUtils.removeEnd(statement.getSubject().getURI(), "/ASSOCIE_A");
-				String parent = StringUtils.removeEnd(statement.getObject().asResource().getURI(), "/ASSOCIE_A");
-				// Each series or operation should have at most one parent
-				if (hierarchyMappings.containsKey(child)) M0Converter.logger.error("Conflicting parents for " + child + " - " + parent + " and " + hierarchyMappings.get(child));
-				else hierarchyMappings.put(child, parent);
-			}
-		});
-		logger.debug("Size of the map to return is: " + hierarchyMappings.size());
-		return hierarchyMappings;	
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getHierarchies();
 	}
 
 	/**
@@ -309,31 +237,8 @@ public class M0Extractor {
 	 */
 	public static SortedMap<String, List<String>> extractReplacements(Model m0AssociationModel) {
 
-		// The relations are in the 'associations' graph and have the following structure :
-		// <http://baseUri/series/serie/12/REPLACES> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/series/serie/13/REMPLACE_PAR> .
-	
 		logger.debug("Extracting the information on replacement relations between series or indicators");
-		SortedMap<String, List<String>> replacementMappings = new TreeMap<String, List<String>>(Comparator.nullsFirst(new URIComparator()));
-		
-		// Will select the 'REPLACES/REMPLACE_PAR' relations
-		Selector selector = new SimpleSelector(null, M0_RELATED_TO, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject URI ends with 'REPLACES' and object URI with 'REMPLACE_PAR'
-	        public boolean selects(Statement statement) {
-	        	return ((statement.getSubject().getURI().endsWith("REPLACES")) && (statement.getObject().isResource()) && (statement.getObject().asResource().getURI().endsWith("REMPLACE_PAR")));
-	        }
-	    };
-	    // Read the selected statements and fill the map that will be returned (will throw an exception if model is null)
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String after = StringUtils.removeEnd(statement.getSubject().getURI(), "/REPLACES");
-				String before = StringUtils.removeEnd(statement.getObject().asResource().getURI(), "/REMPLACE_PAR");
-				if (!replacementMappings.containsKey(after)) replacementMappings.put(after, new ArrayList<String>());
-				replacementMappings.get(after).add(before);
-			}
-		});
-		logger.debug("Size of the map to return is: " + replacementMappings.size());	
-		return replacementMappings;
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getReplacements();
 	}
 
 	/**
@@ -345,36 +250,8 @@ public class M0Extractor {
 	 */
 	public static SortedMap<String, List<String>> extractProductionRelations(Model m0AssociationModel) {
 
-		// The relations between series and indicators are in the 'associations' graph and have the following structure:
-		// <http://baseUri/indicateurs/indicateur/27/PRODUCED_FROM> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/series/serie/137/PRODUIT_INDICATEURS>
-		// Note: discard cases where PRODUCED_FROM is used instead of PRODUIT_INDICATEURS.
-	
 		logger.debug("Extracting 'PRODUCED_FROM/PRODUIT_INDICATEURS' relations between series and indicators");
-		SortedMap<String, List<String>> relationMappings = new TreeMap<String, List<String>>(Comparator.nullsFirst(new URIComparator()));
-		// Will select the 'PRODUCED_FROM/PRODUIT_INDICATEURS' relations
-		Selector selector = new SimpleSelector(null, M0_RELATED_TO, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject and object URIs end with 'PRODUCED_FROM' and begin with expected objects
-	        public boolean selects(Statement statement) {
-	        	String subjectURI = statement.getSubject().getURI();
-	        	String objectURI = statement.getObject().asResource().getURI();
-	        	if (!((subjectURI.endsWith("PRODUCED_FROM")) && (objectURI.endsWith("PRODUIT_INDICATEURS")))) return false;
-	        	if ((subjectURI.startsWith("http://baseUri/indicateurs")) && (objectURI.startsWith("http://baseUri/series"))) return true;
-	        	return false;
-	        }
-	    };
-	
-	    // Read the selected statements and fill the map that will be returned (will throw an exception if model is null)
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String indicatorURI = StringUtils.removeEnd(statement.getSubject().getURI(), "/PRODUCED_FROM");
-				String seriesURI = StringUtils.removeEnd(statement.getObject().asResource().getURI(), "/PRODUIT_INDICATEURS");
-				if (!relationMappings.containsKey(indicatorURI)) relationMappings.put(indicatorURI, new ArrayList<String>());
-				relationMappings.get(indicatorURI).add(seriesURI);
-			}
-		});
-		logger.debug("Size of the map to return is: " + relationMappings.size());
-		return relationMappings;
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getProductionRelations();
 	}
 
 	/**
@@ -386,35 +263,9 @@ public class M0Extractor {
 	 * @return A sorted map containing the relations where keys are M0 URIs and values are lists of linked organizations M0 URIs, sorted on keys.
 	 */
 	public static SortedMap<String, List<String>> extractOrganizationalRelations(Model m0AssociationModel, OrganizationRole organizationRole) {
-	
-		// The relations between operations and organizations are in the 'associations' graph and have the following structure (same with '/ORGANISATION' for producer):
-		// <http://baseUri/series/serie/42/STAKEHOLDERS> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/organismes/organisme/10/STAKEHOLDERS>
-	
-		logger.debug("Extracting organizational realtions between series and indicators for organization role " + organizationRole);
-		SortedMap<String, List<String>> organizationMappings = new TreeMap<String, List<String>>();
-		String suffix = "/" + organizationRole.toString();
-		// Will select the 'STAKEHOLDERS/STAKEHOLDERS' or 'ORGANISATION/ORGANISATION' relations
-		Selector selector = new SimpleSelector(null, M0_RELATED_TO, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject and object URIs end with the appropriate suffix
-	        public boolean selects(Statement statement) {
-	        	return ((statement.getSubject().getURI().endsWith(suffix)) && (statement.getObject().isResource())
-	        			&& (statement.getObject().asResource().getURI().startsWith("http://baseUri/organismes")) && (statement.getObject().asResource().getURI().endsWith(suffix)));
-	        }
-	    };
-
-	    // Read the selected statements and fill the map that will be returned (will throw an exception if model is null)
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String operation = StringUtils.removeEnd(statement.getSubject().getURI(), suffix);
-				String organization = StringUtils.removeEnd(statement.getObject().asResource().getURI(), suffix);
-				if (!organizationMappings.containsKey(operation)) organizationMappings.put(operation, new ArrayList<String>());
-				organizationMappings.get(operation).add(organization);
-			}
-		});
-	
-		logger.debug("Size of the map to return is: " + organizationMappings.size());
-		return organizationMappings;
+
+		logger.debug("Extracting organizational relations between operations and organizations for organization role " + organizationRole);
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getOrganizationalRelations(organizationRole);
 	}
 
 	/**
@@ -426,44 +277,9 @@ public class M0Extractor {
 	 * @return A sorted map containing the attachment relations.
 	 */
 	public static SortedMap<String, String> extractSIMSAttachments(Model m0AssociationModel, boolean includeIndicators) {
-	
-		// The attachment relations are in the 'associations' graph and have the following structure:
-		// <http://baseUri/documentations/documentation/1527/ASSOCIE_A> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/operations/operation/1/ASSOCIE_A>
-	
+
 		logger.debug("Extracting the information on attachment between SIMS metadata sets and series or operations");
-		SortedMap<String, String> attachmentMappings = new TreeMap<String, String>();
-		// Will select all RELATED_TO relations between documentations and series, operations and, if requested, indicators
-		Selector selector = new SimpleSelector(null, Configuration.M0_RELATED_TO, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject and object URIs end with 'ASSOCIE_A' and begin with expected objects
-			@Override
-	        public boolean selects(Statement statement) {
-	        	String subjectURI = statement.getSubject().getURI();
-	        	String objectURI = statement.getObject().asResource().getURI();
-	        	if (!((subjectURI.endsWith("ASSOCIE_A")) && (objectURI.endsWith("ASSOCIE_A")))) return false;
-	        	if (subjectURI.startsWith("http://baseUri/documentations")) {
-	        		if (objectURI.startsWith("http://baseUri/series")) return true;
-	        		if (objectURI.startsWith("http://baseUri/operations")) return true;
-	        		if (includeIndicators && objectURI.startsWith("http://baseUri/indicateurs")) return true;
-	        	}
-	        	return false;
-	        }
-	    };
-	    // Read the selected statements and fill the map that will be returned (will throw an exception if model is null)
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String simsSet = StringUtils.removeEnd(statement.getSubject().getURI(), "/ASSOCIE_A");
-				String operation = StringUtils.removeEnd(statement.getObject().asResource().getURI(), "/ASSOCIE_A");
-				// We can check that each operation or series has not more than one SIMS metadata set attached
-				if (attachmentMappings.containsValue(operation)) M0SIMSConverter.logger.warn("Several SIMS metadata sets are attached to " + operation);
-				// Each SIMS metadata set should be attached to only one series/operation
-				if (attachmentMappings.containsKey(simsSet)) M0SIMSConverter.logger.error("SIMS metadata set " + simsSet + " is attached to both " + operation + " and " + attachmentMappings.get(simsSet));
-				else attachmentMappings.put(simsSet, operation);
-			}
-		});
-	
-		logger.debug("Size of the map to return is: " + attachmentMappings.size());
-		return attachmentMappings;	
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getSIMSAttachments(includeIndicators);
 	}
 
 	/**
@@ -481,14 +297,10 @@ public class M0Extractor {
 		while (subjectsIterator.hasNext()) {
 			String m0DocumentationURI = subjectsIterator.next().getURI();
 			// Documentation URIs will typically look like http://baseUri/documentations/documentation/1608/ASSOCIE_A
-			String m0DocumentationId = m0DocumentationURI.substring(Configuration.M0_SIMS_BASE_URI.length()).split("/")[0];
-			// Series identifiers are integers (but careful with the sequence number)
-			try {
-				m0DocumentIdSet.add(Integer.parseInt(m0DocumentationId));
-			} catch (NumberFormatException e) {
-				// Should be the sequence number resource: http://baseUri/documentations/documentation/sequence
-				if (!("sequence".equals(m0DocumentationId))) M0SIMSConverter.logger.error("Invalid documentation URI: " + m0DocumentationURI);
-			}
+			M0URI decodedURI = M0URI.parse(m0DocumentationURI);
+			if ((decodedURI != null) && (decodedURI.getType() == M0ResourceType.DOCUMENTATION)) m0DocumentIdSet.add(decodedURI.getNumber());
+			// Careful with the sequence number resource: http://baseUri/documentations/documentation/sequence
+			else if (!(Configuration.M0_SIMS_BASE_URI + "sequence").equals(m0DocumentationURI)) M0SIMSConverter.logger.error("Invalid documentation URI: " + m0DocumentationURI);
 		}
 		logger.debug("Found a total of " + m0DocumentIdSet.size() + " documentations in the M0 model");
 		logger.debug("Minimum identifier is " + m0DocumentIdSet.first() + ", maximum identifier is " + m0DocumentIdSet.last());
@@ -521,6 +333,37 @@ public class M0Extractor {
 		return extractModel;
 	}
 
+	/**
+	 * Partitions an M0 model by resource: the statements whose subject is a resource of a given type or one of its attributes are grouped by resource number.
+	 * The partition is made in one pass on the model, instead of one pass per resource with <code>extractM0ResourceModel</code>.
+	 * 
+	 * @param m0Model A Jena <code>Model</code> in M0 format to partition.
+	 * @param resourceType The type of the M0 resources (e.g. documentations).
+	 * @param resourceNumbers The numbers of the resources for which a model is wanted, or <code>null</code> for all the resources of the model.
+	 * @return A sorted map whose keys are the resource numbers and values the Jena <code>Model</code> containing the statements of the resources, in M0 format.
+	 */
+	public static SortedMap<Integer, Model> partitionM0Model(Model m0Model, M0ResourceType resourceType, Set<Integer> resourceNumbers) {
+
+		logger.debug("Partitioning M0 model by resources of type " + resourceType);
+
+		SortedMap<Integer, Model> partition = new TreeMap<Integer, Model>();
+		m0Model.listStatements().forEachRemaining(new Consumer<Statement>() {
+			@Override
+			public void accept(Statement statement) {
+				if (!statement.getSubject().isURIResource()) return;
+				M0URI subjectURI = M0URI.parse(statement.getSubject().getURI());
+				if ((subjectURI == null) || (subjectURI.getType() != resourceType)) return;
+				Integer resourceNumber = subjectURI.getNumber();
+				if ((resourceNumbers != null) && !resourceNumbers.contains(resourceNumber)) return;
+				if (!partition.containsKey(resourceNumber)) partition.put(resourceNumber, ModelFactory.createDefaultModel());
+				partition.get(resourceNumber).add(statement);
+			}
+		});
+		logger.debug("Statements distributed between " + partition.size() + " resource models");
+
+		return partition;
+	}
+
 	/**
 	 * Returns the maximum of the sequence number used in a M0 model.
 	 * 
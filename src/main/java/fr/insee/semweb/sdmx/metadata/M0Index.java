@@ -0,0 +1,280 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.insee.semweb.sdmx.metadata.Configuration.M0ResourceType;
+
+/**
+ * Index of the attribute values of an M0 model, where each subject URI is decoded once into resource type, resource number and attribute name.
+ * Values are stored in tables indexed by resource number, so that they can be retrieved without scanning the model or parsing URIs again.
+ * The 'values' and 'valuesGb' statements are also indexed by attribute name, so that all the statements of a given attribute can be listed in time proportional to their number.
+ * The index is immutable once built, and can be shared between threads.
+ *
+ * @author Franck
+ */
+public class M0Index {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(M0Index.class);
+
+	/** Prefix common to all M0 resource URIs */
+	public static final String M0_BASE_URI = "http://baseUri/";
+
+	/** Resource numbers below this limit are indexed in tables, bigger numbers (up to 9 digits are accepted) in maps */
+	private static final int TABLE_NUMBER_LIMIT = 1 << 16;
+
+	/** For each resource type, the table of resources indexed by resource number (entries are null for absent numbers) */
+	private final Map<M0ResourceType, Resource[]> resources = new EnumMap<M0ResourceType, Resource[]>(M0ResourceType.class);
+	/** For each resource type, the resources whose numbers are too big for the table */
+	private final Map<M0ResourceType, Map<Integer, Resource>> sparseResources = new EnumMap<M0ResourceType, Map<Integer, Resource>>(M0ResourceType.class);
+
+	/** Statements with the 'values' property, indexed by attribute name */
+	private final Map<String, List<Statement>> statementsFr = new HashMap<String, List<Statement>>();
+	/** Statements with the 'valuesGb' property, indexed by attribute name */
+	private final Map<String, List<Statement>> statementsEn = new HashMap<String, List<Statement>>();
+
+	/** Number of values indexed */
+	private int size = 0;
+
+	private M0Index() {}
+
+	/**
+	 * Builds the index of an M0 model in one pass on its statements.
+	 * All the resources appearing as subjects are indexed, with the values of the 'values' and 'valuesGb' properties of their attributes.
+	 *
+	 * @param m0Model The M0 model to index.
+	 * @return The index of the model.
+	 */
+	public static M0Index build(Model m0Model) {
+
+		long startTime = System.currentTimeMillis();
+		M0Index index = new M0Index();
+		int ignored = 0;
+		StmtIterator statementIterator = m0Model.listStatements();
+		while (statementIterator.hasNext()) {
+			Statement statement = statementIterator.next();
+			M0URI subjectURI = statement.getSubject().isURIResource() ? M0URI.parse(statement.getSubject().getURI()) : null;
+			if (subjectURI == null) {
+				ignored++; // Typically the sequence resources
+				continue;
+			}
+			Resource resource = index.getOrCreateResource(subjectURI.type, subjectURI.number);
+			if (subjectURI.attribute == null) continue;
+			if (statement.getPredicate().equals(Configuration.M0_VALUES)) {
+				index.addValue(resource.valuesFr, subjectURI.attribute, statement.getObject());
+				index.statementsFr.computeIfAbsent(subjectURI.attribute, name -> new ArrayList<Statement>()).add(statement);
+			}
+			else if (statement.getPredicate().equals(Configuration.M0_VALUES_EN)) {
+				index.addValue(resource.valuesEn, subjectURI.attribute, statement.getObject());
+				index.statementsEn.computeIfAbsent(subjectURI.attribute, name -> new ArrayList<Statement>()).add(statement);
+			}
+		}
+		logger.debug("M0 index built in " + (System.currentTimeMillis() - startTime) + " ms: " + index.size + " values indexed, " + ignored + " statements ignored");
+
+		return index;
+	}
+
+	/**
+	 * Returns the values of an attribute of a resource.
+	 *
+	 * @param type The type of the resource.
+	 * @param number The number of the resource.
+	 * @param attributeName The name of the attribute (e.g. SUMMARY).
+	 * @param inEnglish If <code>true</code>, the English values ('valuesGb' property) are returned, otherwise the French values ('values' property).
+	 * @return The list of values, empty if there is none.
+	 */
+	public List<RDFNode> getValues(M0ResourceType type, int number, String attributeName, boolean inEnglish) {
+
+		Resource resource = getResource(type, number);
+		if (resource == null) return Collections.emptyList();
+		List<RDFNode> values = (inEnglish ? resource.valuesEn : resource.valuesFr).get(attributeName);
+
+		return (values == null) ? Collections.emptyList() : Collections.unmodifiableList(values);
+	}
+
+	/**
+	 * Returns the values of all the attributes of a resource.
+	 *
+	 * @param type The type of the resource.
+	 * @param number The number of the resource.
+	 * @param inEnglish If <code>true</code>, the English values are returned, otherwise the French values.
+	 * @return A sorted map whose keys are the attribute names and values the lists of values, empty if the resource is not in the index.
+	 */
+	public SortedMap<String, List<RDFNode>> getAttributeValues(M0ResourceType type, int number, boolean inEnglish) {
+
+		Resource resource = getResource(type, number);
+		if (resource == null) return Collections.emptySortedMap();
+
+		return Collections.unmodifiableSortedMap(inEnglish ? resource.valuesEn : resource.valuesFr);
+	}
+
+	/**
+	 * Returns all the statements giving values of an attribute, whatever the resource.
+	 *
+	 * @param attributeName The name of the attribute (e.g. REF_AREA).
+	 * @param inEnglish If <code>true</code>, the statements with the 'valuesGb' property are returned, otherwise the statements with the 'values' property.
+	 * @return The list of statements, empty if there is none.
+	 */
+	public List<Statement> getAttributeStatements(String attributeName, boolean inEnglish) {
+
+		List<Statement> statements = (inEnglish ? statementsEn : statementsFr).get(attributeName);
+
+		return (statements == null) ? Collections.emptyList() : Collections.unmodifiableList(statements);
+	}
+
+	/**
+	 * Checks if a resource appears in the index.
+	 *
+	 * @param type The type of the resource.
+	 * @param number The number of the resource.
+	 * @return <code>true</code> if the resource or one of its attributes is the subject of a statement of the model indexed.
+	 */
+	public boolean contains(M0ResourceType type, int number) {
+		return getResource(type, number) != null;
+	}
+
+	/**
+	 * Returns the numbers of the resources of a given type that appear in the index.
+	 *
+	 * @param type The type of the resources.
+	 * @return The set of resource numbers in ascending order.
+	 */
+	public SortedSet<Integer> getNumbers(M0ResourceType type) {
+
+		SortedSet<Integer> numbers = new TreeSet<Integer>();
+		Resource[] table = resources.get(type);
+		if (table != null) for (int number = 0; number < table.length; number++) if (table[number] != null) numbers.add(number);
+		if (sparseResources.containsKey(type)) numbers.addAll(sparseResources.get(type).keySet());
+
+		return numbers;
+	}
+
+	/**
+	 * Returns the number of values indexed.
+	 *
+	 * @return The number of values indexed.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private Resource getResource(M0ResourceType type, int number) {
+
+		if (number >= TABLE_NUMBER_LIMIT) return sparseResources.getOrDefault(type, Collections.emptyMap()).get(number);
+		Resource[] table = resources.get(type);
+		if ((table == null) || (number < 0) || (number >= table.length)) return null;
+		return table[number];
+	}
+
+	private Resource getOrCreateResource(M0ResourceType type, int number) {
+
+		if (number >= TABLE_NUMBER_LIMIT) return sparseResources.computeIfAbsent(type, key -> new HashMap<Integer, Resource>()).computeIfAbsent(number, key -> new Resource());
+		Resource[] table = resources.get(type);
+		if (table == null) table = new Resource[Math.max(16, number + 1)];
+		else if (number >= table.length) table = Arrays.copyOf(table, Math.min(Math.max(2 * table.length, number + 1), TABLE_NUMBER_LIMIT));
+		resources.put(type, table);
+		if (table[number] == null) table[number] = new Resource();
+
+		return table[number];
+	}
+
+	private void addValue(SortedMap<String, List<RDFNode>> values, String attributeName, RDFNode value) {
+
+		if (!values.containsKey(attributeName)) values.put(attributeName, new ArrayList<RDFNode>(1));
+		values.get(attributeName).add(value);
+		size++;
+	}
+
+	/**
+	 * The values of the attributes of one M0 resource, in both languages.
+	 */
+	private static class Resource {
+
+		private final SortedMap<String, List<RDFNode>> valuesFr = new TreeMap<String, List<RDFNode>>();
+		private final SortedMap<String, List<RDFNode>> valuesEn = new TreeMap<String, List<RDFNode>>();
+	}
+
+	/**
+	 * Decoded form of an M0 URI: http://baseUri/{types}/{type}/{number} for a resource or http://baseUri/{types}/{type}/{number}/{ATTRIBUTE} for one of its attributes.
+	 */
+	public static final class M0URI {
+
+		private final M0ResourceType type;
+		private final int number;
+		private final String attribute;
+
+		private M0URI(M0ResourceType type, int number, String attribute) {
+			this.type = type;
+			this.number = number;
+			this.attribute = attribute;
+		}
+
+		/**
+		 * Decodes an M0 URI.
+		 *
+		 * @param uri The URI to decode.
+		 * @return The decoded URI, or <code>null</code> if the URI does not have the expected structure (for example the URIs of the sequence resources).
+		 */
+		public static M0URI parse(String uri) {
+
+			if ((uri == null) || !uri.startsWith(M0_BASE_URI)) return null;
+			int typeEnd = uri.indexOf('/', M0_BASE_URI.length());
+			if (typeEnd < 0) return null;
+			M0ResourceType type = M0ResourceType.fromPluralName(uri.substring(M0_BASE_URI.length(), typeEnd));
+			if ((type == null) || !uri.startsWith(type.getBaseURI())) return null;
+
+			// The resource number is made of the digits following the base URI
+			int position = type.getBaseURI().length();
+			int number = 0;
+			int numberStart = position;
+			while ((position < uri.length()) && (uri.charAt(position) >= '0') && (uri.charAt(position) <= '9') && (position - numberStart < 9)) number = 10 * number + (uri.charAt(position++) - '0');
+			if (position == numberStart) return null;
+			if (position == uri.length()) return new M0URI(type, number, null);
+			if ((uri.charAt(position) != '/') || (position + 1 == uri.length()) || (uri.indexOf('/', position + 1) >= 0)) return null;
+
+			return new M0URI(type, number, uri.substring(position + 1));
+		}
+
+		/** Returns the type of the M0 resource */
+		public M0ResourceType getType() {
+			return type;
+		}
+
+		/** Returns the number of the M0 resource */
+		public int getNumber() {
+			return number;
+		}
+
+		/** Returns the name of the attribute, or <code>null</code> if the URI is the one of the resource itself */
+		public String getAttribute() {
+			return attribute;
+		}
+
+		/** Returns the URI of the M0 resource (without the attribute name) */
+		public String getResourceURI() {
+			return type.getBaseURI() + number;
+		}
+
+		@Override
+		public String toString() {
+			return (attribute == null) ? getResourceURI() : getResourceURI() + "/" + attribute;
+		}
+	}
+}
@@ -1,25 +1,34 @@
 package fr.insee.semweb.sdmx.metadata;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
-import org.apache.jena.ontology.OntModel;
-import org.apache.jena.ontology.OntProperty;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Literal;
@@ -32,13 +41,12 @@ import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.rdf.model.Selector;
 import org.apache.jena.rdf.model.SimpleSelector;
 import org.apache.jena.rdf.model.Statement;
-import org.apache.jena.rdf.model.StmtIterator;
-import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.sparql.vocabulary.FOAF;
 import org.apache.jena.vocabulary.DC;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.DCTypes;
-import org.apache.jena.vocabulary.ORG;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
@@ -46,7 +54,11 @@ import org.apache.jena.vocabulary.XSD;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import fr.insee.stamina.utils.DQV;
+import fr.insee.semweb.sdmx.metadata.Configuration.M0ResourceType;
+import fr.insee.semweb.sdmx.metadata.M0Index.M0URI;
+import fr.insee.semweb.sdmx.metadata.SIMSConversionPlan.AttributeConversion;
+import fr.insee.semweb.sdmx.metadata.SIMSConversionPlan.RangeKind;
+import fr.insee.semweb.utils.Utils;
 
 /**
  * Extends the M0 converter with methods for the conversion of SIMS quality metadata.
@@ -64,33 +76,15 @@ public class M0SIMSConverter extends M0Converter {
 	// Base URL for the documents referenced in the SIMS attributes
 	public static String SIMS_DOCUMENT_BASE_URI = "https://www.insee.fr/fr/metadonnees/source/fichier/";
 
-	/** The SIMS-FR metadata structure definition */
-	protected static OntModel simsFrMSD = null;
-	/** The SIMS-FR scheme */
-	protected static SIMSFrScheme simsFRScheme = null;
-	/** All the references from attributes to links or documents in French */
-	protected static SortedMap<Integer, SortedMap<String, SortedSet<String>>> attributeReferencesFr = null;
-	/** All the references from attributes to links or documents in English */
-	protected static SortedMap<Integer, SortedMap<String, SortedSet<String>>> attributeReferencesEn = null;
-	/** The SIMS model for documents and links */
-	protected static Model simsDocumentsAndLinksModel = null;
-	/** Attachments between documentations and their target (series, operation or indicator) */
-	protected static SortedMap<Integer, String> simsAttachments = null;
-	/** Mappings between codes and labels for units of measure */
-	protected static SortedMap<String, String[]> umMappings = null;
-	/** Mappings between M0 codes and target resources for territories */
-	protected static SortedMap<String, Resource> geoMappings = null;
-	/** Values of the target URIs for SIMS organizational attributes */
-	protected static SortedMap<Integer, SortedMap<String, SortedSet<String>>> organizationValues = null;
-
-	// Will be handy for parsing dates
-	final static DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+	// Will be handy for parsing dates (SimpleDateFormat is not thread-safe, so each thread has its own instance)
+	final static ThreadLocal<DateFormat> dateFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd"));
 	// Dummy RDF literal used for converting organizations
 	final static String dummyString = "dummy";
 	final static Literal dummyLiteral = ResourceFactory.createStringLiteral(dummyString);
 
 	/**
 	 * Converts a list (or all) of M0 'documentation' models to SIMS models.
+	 * The documentations are converted concurrently if <code>Configuration.SIMS_CONVERSION_PARALLELISM</code> is greater than 1, the content of the dataset returned being the same.
 	 * 
 	 * @param m0Ids A <code>List</code> of M0 'documentation' metadata set identifiers, or <code>null</code> to convert all models.
 	 * @param namedModels If <code>true</code>, a named model will be created for each identifier, otherwise all models will be included in the dataset.
@@ -100,28 +94,106 @@ public class M0SIMSConverter extends M0Converter {
 	 */
 	public static Dataset convertToSIMS(List<Integer> m0Ids, boolean namedModels, boolean withAttachments, boolean includeReferences) {
 
-		// We will need the documentation model, the SIMSFr scheme and the SIMSFr MSD
-		if (m0Dataset == null) m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
-		Model m0DocumentationModel = m0Dataset.getNamedModel("http://rdf.insee.fr/graphe/documentations");
-		simsFrMSD = (OntModel) ModelFactory.createOntologyModel().read(Configuration.SIMS_FR_MSD_TURTLE_FILE_NAME);
-		simsFRScheme = SIMSFrScheme.readSIMSFrFromExcel(new File(Configuration.SIMS_XLSX_FILE_NAME));
+		return convertToSIMS(m0Ids, namedModels, withAttachments, includeReferences, (SIMSReportCache) null);
+	}
 
-		// We will also need all the attribute references to links and documents, and the values of organizational attributes (which are obtained through associations)
-		Model m0AssociationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
-		attributeReferencesFr = getAllAttributeReferences(m0AssociationsModel, "fr");
-		attributeReferencesEn = getAllAttributeReferences(m0AssociationsModel, "en");
-		organizationValues = getOrganizationValues(m0AssociationsModel);
-		// If all documents and links information are to be included in the target documentation models, we need the complete documents and links model 
-		if (includeReferences) simsDocumentsAndLinksModel = convertDocumentsToSIMS().add(convertLinksToSIMS());
+	/**
+	 * Converts a list (or all) of M0 'documentation' models to SIMS models, reusing the reports stored in a cache when the M0 information of the documentation did not change.
+	 * The fingerprint of a documentation covers its M0 model, its references to links and documents, its organizations, its attachment and the conversion context (SIMSFr MSD and scheme, code lists, options and mappings).
+	 * Reports read from the cache are not recoded, so the unknown codes logged at the end of the conversion only concern the reports converted again.
+	 * After the conversion, the cache lists the reports added, changed or unchanged, and, if all documentations were converted, the reports removed.
+	 * 
+	 * @param m0Ids A <code>List</code> of M0 'documentation' metadata set identifiers, or <code>null</code> to convert all models.
+	 * @param namedModels If <code>true</code>, a named model will be created for each identifier, otherwise all models will be included in the dataset.
+	 * @param withAttachments If <code>true</code>, the resulting model will include the triple attaching the SIMS to its target.
+	 * @param includeReferences If <code>true</code>, the properties of referenced documents and links will be included in the models of the dataset returned.
+	 * @param reportCache The cache of SIMS reports, or <code>null</code> to convert all the documentations.
+	 * @return A Jena dataset containing the models corresponding to the identifiers received.
+	 */
+	public static Dataset convertToSIMS(List<Integer> m0Ids, boolean namedModels, boolean withAttachments, boolean includeReferences, SIMSReportCache reportCache) {
+
+		return convertToSIMS(ConversionContext.getDefault(), m0Ids, namedModels, withAttachments, includeReferences, reportCache);
+	}
 
-		// We also need the mappings between codes and labels for units of measure, since the coded values are now replaces by text (see hack below)
-		umMappings = M0Extractor.extractUnitMeasureMappings(m0Dataset, false);
+	/**
+	 * Converts a list (or all) of M0 'documentation' models of a conversion context to SIMS models, possibly reusing the reports stored in a cache.
+	 * Several conversions can run concurrently on the same context or on different contexts.
+	 * 
+	 * @param context The conversion context.
+	 * @param m0Ids A <code>List</code> of M0 'documentation' metadata set identifiers, or <code>null</code> to convert all models.
+	 * @param namedModels If <code>true</code>, a named model will be created for each identifier, otherwise all models will be included in the dataset.
+	 * @param withAttachments If <code>true</code>, the resulting model will include the triple attaching the SIMS to its target.
+	 * @param includeReferences If <code>true</code>, the properties of referenced documents and links will be included in the models of the dataset returned.
+	 * @param reportCache The cache of SIMS reports, or <code>null</code> to convert all the documentations.
+	 * @return A Jena dataset containing the models corresponding to the identifiers received.
+	 */
+	public static Dataset convertToSIMS(ConversionContext context, List<Integer> m0Ids, boolean namedModels, boolean withAttachments, boolean includeReferences, SIMSReportCache reportCache) {
 
-		// We also need the mappings between M0 CL_AREA codes and the target territory resources
-		geoMappings = GeoMapper.createM0CodeToURIMappings();
+		Dataset simsDataset = DatasetFactory.create();
+		convertToSIMS(context, m0Ids, withAttachments, includeReferences, reportCache, (docIdentifier, simsModel) -> addSIMSModel(simsDataset, docIdentifier, simsModel, namedModels));
 
-		// Finally, if attachments are requested, we need the correspondence between documentations and the documented resources
-		if (withAttachments) simsAttachments = getSIMSAttachments(m0AssociationsModel);
+		return simsDataset;
+	}
+
+	/**
+	 * Converts a list (or all) of M0 'documentation' models to SIMS models and sends the result to a stream.
+	 * The triples or quads of each report are sent as soon as the report is converted, in the order of the identifiers, so that the output is never held in memory as a whole.
+	 * The stream receives the same content as the dataset returned by <code>convertToSIMS(m0Ids, namedModels, withAttachments, includeReferences)</code>, except that triples shared by several reports in the default graph are sent once for each report.
+	 * 
+	 * @param m0Ids A <code>List</code> of M0 'documentation' metadata set identifiers, or <code>null</code> to convert all models.
+	 * @param namedModels If <code>true</code>, the content of each report is sent as quads in a named graph, otherwise it is sent as triples of the default graph.
+	 * @param withAttachments If <code>true</code>, the resulting model will include the triple attaching the SIMS to its target.
+	 * @param includeReferences If <code>true</code>, the properties of referenced documents and links will be included in the reports.
+	 * @param simsStream The stream receiving the reports (<code>start</code> and <code>finish</code> are called by this method).
+	 */
+	public static void convertToSIMS(List<Integer> m0Ids, boolean namedModels, boolean withAttachments, boolean includeReferences, StreamRDF simsStream) {
+
+		convertToSIMS(ConversionContext.getDefault(), m0Ids, namedModels, withAttachments, includeReferences, simsStream);
+	}
+
+	/**
+	 * Converts a list (or all) of M0 'documentation' models of a conversion context to SIMS models and sends the result to a stream.
+	 * 
+	 * @param context The conversion context.
+	 * @param m0Ids A <code>List</code> of M0 'documentation' metadata set identifiers, or <code>null</code> to convert all models.
+	 * @param namedModels If <code>true</code>, the content of each report is sent as quads in a named graph, otherwise it is sent as triples of the default graph.
+	 * @param withAttachments If <code>true</code>, the resulting model will include the triple attaching the SIMS to its target.
+	 * @param includeReferences If <code>true</code>, the properties of referenced documents and links will be included in the reports.
+	 * @param simsStream The stream receiving the reports (<code>start</code> and <code>finish</code> are called by this method).
+	 */
+	public static void convertToSIMS(ConversionContext context, List<Integer> m0Ids, boolean namedModels, boolean withAttachments, boolean includeReferences, StreamRDF simsStream) {
+
+		Set<String> sentPrefixes = new HashSet<String>();
+		simsStream.start();
+		convertToSIMS(context, m0Ids, withAttachments, includeReferences, null, (docIdentifier, simsModel) -> sendSIMSModel(simsStream, docIdentifier, simsModel, namedModels, sentPrefixes));
+		simsStream.finish();
+	}
+
+	/**
+	 * Converts a list (or all) of M0 'documentation' models to SIMS models and passes each SIMS model to a consumer, in the order of the identifiers.
+	 * When the documentations are converted concurrently, the number of reports converted in advance is bounded, so that memory use does not depend on the number of reports.
+	 * 
+	 * @param context The conversion context.
+	 * @param m0Ids A <code>List</code> of M0 'documentation' metadata set identifiers, or <code>null</code> to convert all models.
+	 * @param withAttachments If <code>true</code>, the resulting model will include the triple attaching the SIMS to its target.
+	 * @param includeReferences If <code>true</code>, the properties of referenced documents and links will be included in the SIMS models.
+	 * @param reportCache The cache of SIMS reports, or <code>null</code> if no cache is used.
+	 * @param reportConsumer The consumer of the documentation identifiers and corresponding SIMS models (which it should close), which also receives the model of the shared documents and links with a <code>null</code> identifier if <code>Configuration.SHARE_SIMS_REFERENCES</code> is set.
+	 */
+	private static void convertToSIMS(ConversionContext context, List<Integer> m0Ids, boolean withAttachments, boolean includeReferences, SIMSReportCache reportCache, BiConsumer<Integer, Model> reportConsumer) {
+
+		// We will need the documentation model and the conversion plan, compiled once for the context from the SIMSFr scheme and MSD
+		Model m0DocumentationModel = context.getM0Dataset().getNamedModel("http://rdf.insee.fr/graphe/documentations");
+		context.getSIMSConversionPlan();
+
+		// The other reference data (references to links and documents, organizations, mappings for units of measure and territories, and possibly the complete documents and links model and the attachments)
+		// is also calculated once for the context, before the reports are converted concurrently
+		context.getAttributeReferences("fr");
+		context.getOrganizationValues();
+		context.getCodeRecoder();
+		context.getGeoMappings();
+		if (includeReferences) context.getReferenceExpansionStore();
+		if (withAttachments) context.getSIMSAttachments();
 
 		// If list of identifiers received was null, get the list of all existing M0 'documentation' model identifiers
 		SortedSet<Integer> docIdentifiers = new TreeSet<Integer>();
@@ -134,32 +206,198 @@ public class M0SIMSConverter extends M0Converter {
 			logger.debug("Converting a list of M0 'documentation' models to SIMSFr format (" + docIdentifiers.size() + " models)");
 		}
 
-		Dataset simsDataset = DatasetFactory.create();
-		for (Integer docIdentifier : docIdentifiers) {
-			// Extract the M0 model containing the resource of the current documentation
-			Model docModel = M0Extractor.extractM0ResourceModel(m0DocumentationModel, Configuration.M0_SIMS_BASE_URI + docIdentifier);
-			// Convert to SIMS format
-			Model simsModel = convertM0ModelToSIMS(docModel, includeReferences);
-			if (!namedModels) simsDataset.getDefaultModel().add(simsModel);
-			else {
-				simsDataset.addNamedModel(Configuration.simsReportGraphURI(docIdentifier.toString()), simsModel);
+		// Split the documentation model in one pass into the M0 models of the different documentations
+		SortedMap<Integer, Model> docModels = M0Extractor.partitionM0Model(m0DocumentationModel, M0ResourceType.DOCUMENTATION, docIdentifiers);
+
+		// When the referenced documents and links are shared, they are collected from the reports (in the order of the identifiers) and passed to the consumer at the end
+		final boolean sharedReferences = includeReferences && Configuration.SHARE_SIMS_REFERENCES;
+		Set<String> referenceURIs = new TreeSet<String>();
+		BiConsumer<Integer, Model> collectingConsumer = (docIdentifier, simsModel) -> {
+			if (sharedReferences) simsModel.listObjectsOfProperty(Configuration.ADDITIONAL_MATERIAL).forEachRemaining(reference -> {
+				if (reference.isURIResource()) referenceURIs.add(reference.asResource().getURI());
+			});
+			reportConsumer.accept(docIdentifier, simsModel);
+		};
+
+		// The recoder is shared by the conversions of the context, so the unknown codes are counted for this conversion only
+		Map<String, Integer> unknownCodeCounts = new ConcurrentHashMap<String, Integer>();
+
+		// With a cache, the conversion context is common to the fingerprints of all the documentations
+		final String contextFingerprint = (reportCache == null) ? null : getContextFingerprint(context, withAttachments, includeReferences);
+
+		if ((Configuration.SIMS_CONVERSION_PARALLELISM <= 1) || (docIdentifiers.size() <= 1)) {
+			for (Integer docIdentifier : docIdentifiers) {
+				// Get the M0 model containing the resource of the current documentation (removed from the partition so that it can be freed after conversion)
+				Model docModel = docModels.remove(docIdentifier);
+				if (docModel == null) docModel = ModelFactory.createDefaultModel();
+				// Convert to SIMS format
+				collectingConsumer.accept(docIdentifier, convertM0ModelToSIMS(context, docIdentifier, docModel, withAttachments, includeReferences, reportCache, contextFingerprint, unknownCodeCounts));
+				docModel.close();
+			}
+		} else {
+			// The reports are converted concurrently, and passed to the consumer in the order of the identifiers
+			logger.debug("Converting the M0 'documentation' models with " + Configuration.SIMS_CONVERSION_PARALLELISM + " threads");
+			ForkJoinPool pool = new ForkJoinPool(Configuration.SIMS_CONVERSION_PARALLELISM);
+			try {
+				Deque<Integer> pendingIdentifiers = new ArrayDeque<Integer>();
+				Deque<ForkJoinTask<Model>> pendingTasks = new ArrayDeque<ForkJoinTask<Model>>();
+				for (Integer docIdentifier : docIdentifiers) {
+					Model docModel = docModels.remove(docIdentifier);
+					final Model m0Model = (docModel == null) ? ModelFactory.createDefaultModel() : docModel;
+					pendingIdentifiers.add(docIdentifier);
+					pendingTasks.add(pool.submit(() -> {
+						Model simsModel = convertM0ModelToSIMS(context, docIdentifier, m0Model, withAttachments, includeReferences, reportCache, contextFingerprint, unknownCodeCounts);
+						m0Model.close();
+						return simsModel;
+					}));
+					// Wait for the oldest report when enough reports are being converted
+					if (pendingTasks.size() >= 2 * Configuration.SIMS_CONVERSION_PARALLELISM) collectingConsumer.accept(pendingIdentifiers.poll(), pendingTasks.poll().join());
+				}
+				while (!pendingTasks.isEmpty()) collectingConsumer.accept(pendingIdentifiers.poll(), pendingTasks.poll().join());
+			} finally {
+				pool.shutdown();
 			}
-			simsModel.close();
-			docModel.close();
 		}
+		if (sharedReferences) {
+			logger.debug("Writing the " + referenceURIs.size() + " documents and links referenced in the reports to a shared graph");
+			reportConsumer.accept(null, context.getReferenceExpansionStore().createModel(referenceURIs));
+		}
+		// Reports read from the cache are not recoded, so with a cache the unknown codes are only counted for the reports converted again
+		if (!unknownCodeCounts.isEmpty()) logger.warn("Numbers of unknown codes by attribute" + ((reportCache == null) ? "" : " (reports read from the cache excluded)") + ": " + new TreeMap<String, Integer>(unknownCodeCounts));
+		// Removed reports can only be identified when all the documentations have been converted
+		if ((reportCache != null) && (m0Ids == null)) reportCache.removeOtherReports(docIdentifiers);
 		m0DocumentationModel.close();
-		m0AssociationsModel.close();
-		return simsDataset;
+	}
+
+	/**
+	 * Converts the M0 model of a documentation to SIMSFr format, or reads the corresponding report from the cache if the fingerprint of the documentation did not change.
+	 * 
+	 * @param context The conversion context.
+	 * @param docIdentifier The identifier of the documentation.
+	 * @param m0Model A Jena <code>Model</code> containing the metadata in M0 format.
+	 * @param withAttachments If <code>true</code>, the model returned will include the triple attaching the SIMS to its target.
+	 * @param includeReferences If <code>true</code>, the properties of referenced documents and links will be included in the model returned.
+	 * @param reportCache The cache of SIMS reports, or <code>null</code> if no cache is used.
+	 * @param contextFingerprint The fingerprint of the conversion context (ignored if there is no cache).
+	 * @param unknownCodeCounts The numbers of unknown codes for each attribute, incremented for the codes of the documentation if it is converted.
+	 * @return A Jena <code>Model</code> containing the metadata in SIMSFr format.
+	 */
+	private static Model convertM0ModelToSIMS(ConversionContext context, Integer docIdentifier, Model m0Model, boolean withAttachments, boolean includeReferences, SIMSReportCache reportCache, String contextFingerprint, Map<String, Integer> unknownCodeCounts) {
+
+		if (reportCache == null) return convertM0ModelToSIMS(context, m0Model, withAttachments, includeReferences, unknownCodeCounts);
+
+		String fingerprint = SIMSReportCache.fingerprint(m0Model, contextFingerprint,
+				context.getAttributeReferences("fr").describe(docIdentifier), context.getAttributeReferences("en").describe(docIdentifier), context.getOrganizationValues().describe(docIdentifier),
+				withAttachments ? context.getSIMSAttachments().get(docIdentifier) : null);
+		Model simsModel = reportCache.get(docIdentifier, fingerprint);
+		if (simsModel == null) {
+			simsModel = convertM0ModelToSIMS(context, m0Model, withAttachments, includeReferences, unknownCodeCounts);
+			reportCache.put(docIdentifier, fingerprint, simsModel);
+		}
+		return simsModel;
+	}
+
+	/**
+	 * Calculates the fingerprint of the information used for the conversion of all the documentations.
+	 * 
+	 * @param context The conversion context.
+	 * @param withAttachments Indicates if the attachments of the reports are created.
+	 * @param includeReferences Indicates if the properties of referenced documents and links are included in the reports.
+	 * @return The fingerprint of the conversion context.
+	 */
+	private static String getContextFingerprint(ConversionContext context, boolean withAttachments, boolean includeReferences) {
+
+		List<String> contextInformation = new ArrayList<String>();
+		// The code list workbook gives the valid codes used by the code recoder
+		for (String fileName : Arrays.asList(Configuration.SIMS_FR_MSD_TURTLE_FILE_NAME, Configuration.SIMS_XLSX_FILE_NAME, Configuration.CL_XLSX_FILE_NAME)) {
+			try {
+				contextInformation.add(Utils.fileDigest(new File(fileName)));
+			} catch (IOException e) {
+				// The digest is then different from any digest previously calculated, so all reports will be converted again
+				logger.warn("Cannot calculate digest of file " + fileName + ", cached reports will not be used - " + e.getMessage());
+				contextInformation.add(String.valueOf(System.nanoTime()));
+			}
+		}
+		contextInformation.add(withAttachments + "|" + includeReferences + "|" + Configuration.CREATE_REPORTED_ATTRIBUTES + "|" + Configuration.SHARE_SIMS_REFERENCES);
+		StringBuilder unitMappings = new StringBuilder();
+		for (Map.Entry<String, String[]> mapping : context.getUnitMeasureMappings().entrySet()) unitMappings.append(mapping.getKey()).append('=').append(Arrays.toString(mapping.getValue())).append(';');
+		contextInformation.add(unitMappings.toString());
+		contextInformation.add(context.getGeoMappings().toString());
+
+		return SIMSReportCache.fingerprint(includeReferences ? context.getSIMSDocumentsAndLinksModel() : null, contextInformation.toArray(new String[contextInformation.size()]));
+	}
+
+	/**
+	 * Adds the SIMS model of a documentation to the dataset of SIMS reports and closes it.
+	 * 
+	 * @param simsDataset The dataset of SIMS reports.
+	 * @param docIdentifier The identifier of the documentation.
+	 * @param simsModel The SIMS model of the documentation.
+	 * @param namedModels If <code>true</code>, the model is added as a named model, otherwise it is added to the default model.
+	 */
+	private static void addSIMSModel(Dataset simsDataset, Integer docIdentifier, Model simsModel, boolean namedModels) {
+
+		if (!namedModels) simsDataset.getDefaultModel().add(simsModel);
+		else {
+			simsDataset.addNamedModel(getGraphURI(docIdentifier), simsModel);
+		}
+		simsModel.close();
+	}
+
+	/**
+	 * Sends the SIMS model of a documentation to a stream and closes it.
+	 * 
+	 * @param simsStream The stream receiving the SIMS reports.
+	 * @param docIdentifier The identifier of the documentation.
+	 * @param simsModel The SIMS model of the documentation.
+	 * @param namedModels If <code>true</code>, the model is sent as quads in a named graph, otherwise it is sent as triples.
+	 * @param sentPrefixes The prefixes already sent to the stream, which is updated with the prefixes of the model.
+	 */
+	private static void sendSIMSModel(StreamRDF simsStream, Integer docIdentifier, Model simsModel, boolean namedModels, Set<String> sentPrefixes) {
+
+		for (Map.Entry<String, String> prefixEntry : simsModel.getNsPrefixMap().entrySet()) {
+			if (sentPrefixes.add(prefixEntry.getKey())) simsStream.prefix(prefixEntry.getKey(), prefixEntry.getValue());
+		}
+		Node graphNode = namedModels ? NodeFactory.createURI(getGraphURI(docIdentifier)) : null;
+		simsModel.getGraph().find().forEachRemaining(triple -> {
+			if (graphNode == null) simsStream.triple(triple);
+			else simsStream.quad(new Quad(graphNode, triple));
+		});
+		simsModel.close();
+	}
+
+	/**
+	 * Returns the URI of the graph of a SIMS report, or of the graph of shared documents and links.
+	 * 
+	 * @param docIdentifier The identifier of the documentation, or <code>null</code> for the shared documents and links.
+	 * @return The URI of the graph.
+	 */
+	private static String getGraphURI(Integer docIdentifier) {
+		return (docIdentifier == null) ? Configuration.SIMS_REFERENCES_GRAPH_URI : Configuration.simsReportGraphURI(docIdentifier.toString());
 	}
 
 	/**
 	 * Converts a metadata set from M0 to SIMSFr RDF format.
 	 * 
+	 * @param context The conversion context.
 	 * @param m0Model A Jena <code>Model</code> containing the metadata in M0 format.
+	 * @param withAttachments If <code>true</code>, the model returned will include the triple attaching the SIMS to its target.
 	 * @param includeReferences If <code>true</code>, the properties of referenced documents and links will be included in the model returned.
+	 * @param unknownCodeCounts The numbers of unknown codes for each attribute, incremented for the codes of the metadata set.
 	 * @return A Jena <code>Model</code> containing the metadata in SIMSFr format.
 	 */
-	private static Model convertM0ModelToSIMS(Model m0Model, boolean includeReferences) {
+	private static Model convertM0ModelToSIMS(ConversionContext context, Model m0Model, boolean withAttachments, boolean includeReferences, Map<String, Integer> unknownCodeCounts) {
+
+		// Reference data of the context
+		SIMSConversionPlan simsConversionPlan = context.getSIMSConversionPlan();
+		ReferenceTable attributeReferencesFr = context.getAttributeReferences("fr");
+		ReferenceTable attributeReferencesEn = context.getAttributeReferences("en");
+		ReferenceTable organizationValues = context.getOrganizationValues();
+		CodeRecoder codeRecoder = context.getCodeRecoder();
+		SortedMap<String, Resource> geoMappings = context.getGeoMappings();
+		SortedMap<Integer, String> simsAttachments = withAttachments ? context.getSIMSAttachments() : null;
+		// Referenced documents and links are expanded in the report unless they are written in a shared graph
+		ReferenceExpansionStore referenceStore = (includeReferences && !Configuration.SHARE_SIMS_REFERENCES) ? context.getReferenceExpansionStore() : null;
 
 		// Retrieve base URI (the base resource is a skos:Concept) and the corresponding M0 identifier
 		List<Statement> conceptStatements = m0Model.listStatements(null, RDF.type, SKOS.Concept).toList();
@@ -192,37 +430,27 @@ public class M0SIMSConverter extends M0Converter {
 				logger.debug("Metadata report attached to target resource: " + metadataTargetURI);
 			}
 		}
-		// Shortcuts to the lists of references to French and English documents and links on attributes of the current documentation
-		SortedMap<String, SortedSet<String>> documentReferencesFr = attributeReferencesFr.get(documentNumber);
-		SortedMap<String, SortedSet<String>> documentReferencesEn = attributeReferencesEn.get(documentNumber);
 
-		// For each possible (non-direct) SIMSFr entry, check if the M0 model contains corresponding information and in that case convert it
-		for (SIMSFrEntry entry : simsFRScheme.getEntries()) {
-			if (entry.isDirect() || (entry.isQualityMetric())) continue; // Only SIMSFr attributes are converted: excluding direct attributes and quality indicators
+		// For each SIMSFr attribute of the conversion plan, check if the M0 model contains corresponding information and in that case convert it
+		for (AttributeConversion conversion : simsConversionPlan.getConversions()) {
+			SIMSFrEntry entry = conversion.getEntry();
 			// Create a m0 resource corresponding to the SIMSFr entry and check if the resource has values in M0 (French values are sine qua non)
 			Resource m0EntryResource = ResourceFactory.createResource(m0BaseResource.getURI() + "/" + entry.getCode());
 			logger.debug("Looking for the presence of SIMS attribute " + entry.getCode() + " (M0 URI: " + m0EntryResource + ")");
-			// Get the metadata attribute property from the MSD and get its range
-			String propertyURI = Configuration.simsAttributePropertyURI(entry, false);
-			OntProperty metadataAttributeProperty = simsFrMSD.getOntProperty(propertyURI);
-			if (metadataAttributeProperty == null) { // This should not happen
-				logger.error("Property " + propertyURI + " not found in the SIMSFr MSD");
-				System.out.println(entry.getCode());
-				continue;
-			}
-			Statement rangeStatement = metadataAttributeProperty.getProperty(RDFS.range);
-			Resource propertyRange = (rangeStatement == null) ? null : rangeStatement.getObject().asResource();
+			// The metadata attribute property and the kind of its range are resolved in the conversion plan
+			Property metadataAttributeProperty = conversion.getProperty();
+			RangeKind rangeKind = conversion.getRangeKind();
 			// Query for the list of (French) values of the M0 entry resource
 			List<RDFNode> objectValues = m0Model.listObjectsOfProperty(m0EntryResource, Configuration.M0_VALUES).toList();
 			if (objectValues.size() == 0) {
 				// No value is normal for organizational attributes (CONTACT_ORGANISATION and ORGANISATION_UNIT) because they take their values through associations.
-				if (propertyRange.equals(ORG.Organization)) {
+				if (rangeKind == RangeKind.ORGANIZATION) {
 					// HACK We just add a fake value in order to pass in the mail loop below and benefit from the treatments made there (logging, creation of reported attribute...)
 					objectValues.add(dummyLiteral);
 				}
 				// No value is also acceptable if the type is DCTypes.Text and the resource has references to links or documents
-				else if (DCTypes.Text.equals(propertyRange) && (documentReferencesFr != null) && documentReferencesFr.containsKey(entry.getCode())) {
-					logger.debug("No value found in the M0 documentation model for SIMSFr attribute " + entry.getCode() + ", but references exist: " + documentReferencesFr.get(entry.getCode()));
+				else if ((rangeKind == RangeKind.RICH_TEXT) && attributeReferencesFr.contains(documentNumber, entry.getCode())) {
+					logger.debug("No value found in the M0 documentation model for SIMSFr attribute " + entry.getCode() + ", but references exist");
 				}
 				else {
 					logger.debug("No value found in the M0 documentation model for SIMSFr attribute " + entry.getCode());
@@ -252,24 +480,25 @@ public class M0SIMSConverter extends M0Converter {
 					targetResource.addProperty(simsModel.createProperty(Configuration.SDMX_MM_BASE_URI + "metadataReport"), report);
 				} else targetResource = report;
 
-				logger.debug("Target property is " + metadataAttributeProperty + " with range " + propertyRange);
-				if (propertyRange.equals(DCTypes.Text)) {
+				logger.debug("Target property is " + metadataAttributeProperty + " with range " + conversion.getRange());
+				switch (rangeKind) {
+				case RICH_TEXT:
 					// We are in the case of a 'text + seeAlso...' object. Create DCTypes.text instances for French and possibly English texts
 					Resource frenchTextResource = simsModel.createResource(Configuration.simsFrRichTextURI(m0Id, entry, "fr"), DCTypes.Text);
 					if ((stringValue != null) && (stringValue.length() != 0)) frenchTextResource.addProperty(RDF.value, simsModel.createLiteral(stringValue, "fr"));
 					frenchTextResource.addProperty(DCTerms.language, Configuration.LANGUAGE_FR);
 					targetResource.addProperty(metadataAttributeProperty, frenchTextResource);
 					// We search for references to French documents or links attached to this attribute
-					SortedSet<String> thisAttributeReferences = (documentReferencesFr == null) ? null : documentReferencesFr.get(entry.getCode());
+					int referencesHandle = attributeReferencesFr.locate(documentNumber, entry.getCode());
 					logger.debug("Attribute " + entry.getCode() + " has type 'rich text'");
-					if (thisAttributeReferences != null) {
-						logger.debug("Attribute " + entry.getCode() + " has French references " + thisAttributeReferences);
-						for (String refURI : thisAttributeReferences) {
+					if (referencesHandle >= 0) {
+						logger.debug("Attribute " + entry.getCode() + " has " + attributeReferencesFr.getReferenceCount(referencesHandle) + " French references");
+						for (int index = 0; index < attributeReferencesFr.getReferenceCount(referencesHandle); index++) {
 							// Add the referenced link/document as additional material to the text resource
-							Resource refResource = simsModel.createResource(refURI);
+							Resource refResource = simsModel.createResource(attributeReferencesFr.getReferenceURI(referencesHandle, index));
 							frenchTextResource.addProperty(Configuration.ADDITIONAL_MATERIAL, refResource);
 							// If requested, add all the properties of the link/document extracted from the document and links model
-							if (includeReferences) simsModel.add(simsDocumentsAndLinksModel.listStatements(refResource, null, (RDFNode) null));
+							if (referenceStore != null) referenceStore.expand(simsModel.getGraph(), refResource.getURI());
 						}
 					}
 					// See if there is an English rich text value
@@ -281,29 +510,28 @@ public class M0SIMSConverter extends M0Converter {
 						englishTextResource.addProperty(RDF.value, simsModel.createLiteral(stringValue, "en"));
 						englishTextResource.addProperty(DCTerms.language, Configuration.LANGUAGE_EN);
 						targetResource.addProperty(metadataAttributeProperty, englishTextResource);
-						thisAttributeReferences = (documentReferencesEn == null) ? null : documentReferencesEn.get(entry.getCode());
-						if (thisAttributeReferences != null) {
-							logger.debug("Attribute " + entry.getCode() + " has English references " + thisAttributeReferences);
-							for (String refURI : thisAttributeReferences) {
+						referencesHandle = attributeReferencesEn.locate(documentNumber, entry.getCode());
+						if (referencesHandle >= 0) {
+							logger.debug("Attribute " + entry.getCode() + " has " + attributeReferencesEn.getReferenceCount(referencesHandle) + " English references");
+							for (int index = 0; index < attributeReferencesEn.getReferenceCount(referencesHandle); index++) {
 								// Add the referenced link/document as additional material to the text resource
-								Resource refResource = simsModel.createResource(refURI);
+								Resource refResource = simsModel.createResource(attributeReferencesEn.getReferenceURI(referencesHandle, index));
 								englishTextResource.addProperty(Configuration.ADDITIONAL_MATERIAL, refResource);
 								// If requested, add all the properties of the link/document extracted from the document and links model
-								if (includeReferences) simsModel.add(simsDocumentsAndLinksModel.listStatements(refResource, null, (RDFNode) null));
+								if (referenceStore != null) referenceStore.expand(simsModel.getGraph(), refResource.getURI());
 							}
 						}
 					}
-				}
-				else if (propertyRange.equals(Configuration.SIMS_REPORTED_ATTRIBUTE)) {
+					break;
+				case REPORTED_ATTRIBUTE:
 					// Just a placeholder for now, the case does not seem to exist in currently available data
 					targetResource.addProperty(metadataAttributeProperty, simsModel.createResource(Configuration.SIMS_REPORTED_ATTRIBUTE));
-				}
-				else if (propertyRange.equals(XSD.xstring)) {
+					break;
+				case STRING:
 					// HACK For the UNIT_MEASURE attribute (S.4), the code list is no longer used, and codes should be replaced by labels
 					if ("S.4".equals(entry.getNotation())) {
-						if (!umMappings.containsKey(stringValue)) logger.warn("Invalid code for unit of measure '" + stringValue + "' for M0 resource " + m0EntryResource.getURI());
-						else {
-							String labels[] = umMappings.get(stringValue);
+						String labels[] = codeRecoder.getUnitMeasureLabels(entry.getCode(), stringValue, unknownCodeCounts);
+						if (labels != null) {
 							targetResource.addProperty(metadataAttributeProperty, simsModel.createLiteral(labels[0], "fr"));
 							targetResource.addProperty(metadataAttributeProperty, simsModel.createLiteral(labels[1], "en"));
 						}
@@ -316,21 +544,21 @@ public class M0SIMSConverter extends M0Converter {
 							if (stringValue.length() > 0) targetResource.addProperty(metadataAttributeProperty, simsModel.createLiteral(stringValue, "en"));
 						}
 					}
-				}
-				else if (propertyRange.equals(XSD.date)) {
+					break;
+				case DATE:
 					// Try to parse the string value as a date (yyyy-MM-dd seems to be used in the documentations graph)
 					try {
-						dateFormat.parse(stringValue); // Just to make sure we have a valid date
+						dateFormat.get().parse(stringValue); // Just to make sure we have a valid date
 						targetResource.addProperty(metadataAttributeProperty, simsModel.createTypedLiteral(stringValue, XSDDatatype.XSDdate));
 					} catch (ParseException e) {
 						logger.error("Unparseable date value '" + stringValue + "' for M0 resource " + m0EntryResource.getURI());
 					}
-				}
-				else if (propertyRange.equals(DQV.Metric)) {
+					break;
+				case METRIC:
 					// This case should not exist, since quality indicators have been filtered out
 					logger.error("Property range should not be equal to dqv:Metric");
-				}
-				else if (propertyRange.equals(Configuration.TERRITORY_MAP_RANGE)) {
+					break;
+				case TERRITORY:
 					// This is the REF_AREA attribute: the value gives the territory code, which should be found in the mappings
 					if ("OTHER".equals(stringValue)) {
 						logger.warn("'OTHER' value for REF_AREA not converted in documentation " + m0Id);
@@ -338,63 +566,35 @@ public class M0SIMSConverter extends M0Converter {
 						if (geoMappings.containsKey(stringValue)) targetResource.addProperty(metadataAttributeProperty, geoMappings.get(stringValue));
 						else logger.error("REF_AREA code not found in the geographic mappings: " + stringValue);
 					}
-				}
-				else if (propertyRange.equals(ORG.Organization)) {
+					break;
+				case ORGANIZATION:
 					if (!dummyString.equals(stringValue)) {
 						// We ignore and log cases where organizations are directly specified as values
 						logger.warn("Direct values for organizations are not converted - '" + stringValue + "' for attribute " + entry.getCode() + " in documentation " + m0Id);
 					}
-					SortedMap<String, SortedSet<String>> orgAttributeValues = organizationValues.get(documentNumber);
-					if (orgAttributeValues != null) {
-						if (orgAttributeValues.containsKey(entry.getCode())) {
-							SortedSet<String> orgURIs = orgAttributeValues.get(entry.getCode());
-							if (orgURIs.size() > 1) logger.warn("Multiple values for organizational attribute " + entry.getCode() + ", only the first value will be considered: " + orgURIs);
-							String orgURI = orgURIs.first();
-							Resource objectOrganization = simsModel.createResource(orgURI);
-							targetResource.addProperty(metadataAttributeProperty, objectOrganization);
-							logger.debug("Organization URI " + orgURI + " assigned to organizational attribute property");
-						}
+					int organizationsHandle = organizationValues.locate(documentNumber, entry.getCode());
+					if (organizationsHandle >= 0) {
+						if (organizationValues.getReferenceCount(organizationsHandle) > 1) logger.warn("Multiple values for organizational attribute " + entry.getCode() + ", only the first value will be considered: " + organizationValues.getReferenceURIs(organizationsHandle));
+						String orgURI = organizationValues.getReferenceURI(organizationsHandle, 0);
+						Resource objectOrganization = simsModel.createResource(orgURI);
+						targetResource.addProperty(metadataAttributeProperty, objectOrganization);
+						logger.debug("Organization URI " + orgURI + " assigned to organizational attribute property");
 					}
-				}
-				else {
-					// The only remaining case should be code lists, with the range equal to the concept associated to the code list
-					String propertyRangeString = propertyRange.getURI();
-					if (!propertyRangeString.startsWith(Configuration.INSEE_CODE_CONCEPTS_BASE_URI)) logger.error("Unrecognized property range: " + propertyRangeString);
-					else {
-						String codeConceptName = propertyRangeString.substring(propertyRangeString.lastIndexOf('/') + 1);
-						// We don't verify at this stage that the value is a valid code in the code list, but just sanitize the value (by taking the first word) to avoid URI problems
-						String sanitizedCode = (stringValue.indexOf(' ') == -1) ? stringValue : stringValue.split(" ", 2)[0];
-						// HACK some recodifications needed here for CL_FREQ (T -> U, BM -> T) and CL_SURVEY_UNIT (AS -> A); also value O (Other) is filterd out for CL_FREQ, CL_COLLECTION_MODE and CL_SURVEY_UNIT
-						if ("Frequence".equals(codeConceptName)) {
-							if ("T".equals(sanitizedCode)) {
-								logger.debug("Recoding M0 frequency code from 'T' to 'U'");
-								sanitizedCode = "U";
-							}
-							if ("BM".equals(sanitizedCode)) {
-								logger.debug("Recoding M0 frequency code from 'BM' to 'T'");
-								sanitizedCode = "T";
-							}
-						}
-						if ("UniteEnquetee".equals(codeConceptName)) {
-							if ("AS".equals(sanitizedCode)) {
-								logger.debug("Recoding M0 survey unit code from 'AS' to 'A'");
-								sanitizedCode = "A";
-							}
-							if ("O".equals(sanitizedCode)) {
-								logger.debug("M0 survey unit code 'O' not converted");
-								continue;
-							}
-						}
-						if ("ModeCollecte".equals(codeConceptName)) {
-							if ("O".equals(sanitizedCode)) {
-								logger.debug("M0 collection mode code 'O' not converted");
-								continue;
-							}
-						}
-						String codeURI = Configuration.inseeCodeURI(sanitizedCode, codeConceptName);
-						if (codeURI != null) targetResource.addProperty(metadataAttributeProperty, simsModel.createResource(codeURI));
-						logger.debug("Code list value " + codeURI + " of concept " + codeConceptName + " assigned to attribute property");
+					break;
+				case CODE_LIST:
+					// The range is the concept associated to the code list
+					String codeConceptName = conversion.getCodeConceptName();
+					// Sanitize the value (by taking the first word) to avoid URI problems
+					String sanitizedCode = (stringValue.indexOf(' ') == -1) ? stringValue : stringValue.split(" ", 2)[0];
+					// The code is recoded and validated against the code list by the recoder: some codes of CL_FREQ, CL_SURVEY_UNIT and CL_COLLECTION_MODE are recoded or filtered out
+					String codeURI = codeRecoder.getCodeURI(entry.getCode(), codeConceptName, sanitizedCode, unknownCodeCounts);
+					if (codeURI == null) {
+						logger.debug("M0 code '" + sanitizedCode + "' of concept " + codeConceptName + " not converted");
+						continue;
 					}
+					targetResource.addProperty(metadataAttributeProperty, simsModel.createResource(codeURI));
+					logger.debug("Code list value " + codeURI + " of concept " + codeConceptName + " assigned to attribute property");
+					break;
 				}
 			}
 		}
@@ -404,12 +604,23 @@ public class M0SIMSConverter extends M0Converter {
 
 	/**
 	 * Converts the information on external links from a model in M0 format to a model in the target format.
+	 * Uses the default conversion context.
 	 * 
 	 * @return The model in the target format containing the information on external links.
 	 */
 	public static Model convertLinksToSIMS() {
+		return convertLinksToSIMS(ConversionContext.getDefault());
+	}
 
-		readDataset();
+	/**
+	 * Converts the information on external links from a model in M0 format to a model in the target format.
+	 * 
+	 * @param context The conversion context.
+	 * @return The model in the target format containing the information on external links.
+	 */
+	public static Model convertLinksToSIMS(ConversionContext context) {
+
+		Dataset m0Dataset = context.getM0Dataset();
 		Model m0LinkModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "liens");
 		Model simsLinkModel = ModelFactory.createDefaultModel();
 		simsLinkModel.setNsPrefix("foaf", FOAF.getURI());
@@ -435,14 +646,13 @@ public class M0SIMSConverter extends M0Converter {
 		m0LinkModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
 			@Override
 			public void accept(Statement statement) {
-				Integer linkNumber = 0;
-				try {
-					linkNumber = Integer.parseInt(StringUtils.substringAfterLast(statement.getSubject().getURI(), "/"));
-					logger.info("Creating FOAF document for link number " + linkNumber);
-				} catch (Exception e) {
+				M0URI linkURI = M0URI.parse(statement.getSubject().getURI());
+				if ((linkURI == null) || (linkURI.getAttribute() != null)) {
 					logger.error("Unparseable URI for a link M0 concept: cannot extract link number");
 					return;
 				}
+				Integer linkNumber = linkURI.getNumber();
+				logger.info("Creating FOAF document for link number " + linkNumber);
 				Resource linkResource = simsLinkModel.createResource(Configuration.linkURI(linkNumber), FOAF.Document);
 				// We can add a dc:language property at this stage
 				if (linkLanguages.containsKey(linkNumber)) {
@@ -453,23 +663,19 @@ public class M0SIMSConverter extends M0Converter {
 		});
 		for (Integer missingLink : linkNumbers) logger.warn("Link number " + missingLink + " has a language tag but is missing from model");
 
-		// Now we can iterate on the 'M0_VALUES' predicates to get the other properties of the link (NB: no 'M0_VALUES_EN' in the M0 link model)
-		StmtIterator statementIterator = m0LinkModel.listStatements(null, Configuration.M0_VALUES, (RDFNode) null);
-		statementIterator.forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String variablePart = statement.getSubject().toString().replace(M0_LINK_BASE_URI, "");
-				if (variablePart.length() == statement.getSubject().toString().length()) logger.warn("Unexpected subject URI in statement " + statement);
-				String attributeName = variablePart.split("/")[1];
-				if (!attributeMappings.keySet().contains(attributeName)) return;
-				Integer linkNumber = Integer.parseInt(variablePart.split("/")[0]);
-				String languageTag = linkLanguages.get(linkNumber);
-				if (languageTag == null) languageTag = "fr"; // Take 'fr' as default
-				Resource linkResource = simsLinkModel.createResource(Configuration.linkURI(linkNumber));
-				if ("URI".equals(attributeName)) linkResource.addProperty(attributeMappings.get(attributeName), simsLinkModel.createResource(statement.getObject().toString()));
-				else linkResource.addProperty(attributeMappings.get(attributeName), simsLinkModel.createLiteral(statement.getObject().toString(), languageTag));
+		// Now we can get the values of the other properties of the link from the index of the M0 model (NB: no 'M0_VALUES_EN' in the M0 link model)
+		M0Index linkIndex = M0DatasetRegistry.getIndex(m0LinkModel);
+		for (Integer linkNumber : linkIndex.getNumbers(M0ResourceType.LINK)) {
+			String languageTag = linkLanguages.get(linkNumber);
+			if (languageTag == null) languageTag = "fr"; // Take 'fr' as default
+			Resource linkResource = simsLinkModel.createResource(Configuration.linkURI(linkNumber));
+			for (String attributeName : attributeMappings.keySet()) {
+				for (RDFNode value : linkIndex.getValues(M0ResourceType.LINK, linkNumber, attributeName, false)) {
+					if ("URI".equals(attributeName)) linkResource.addProperty(attributeMappings.get(attributeName), simsLinkModel.createResource(value.toString()));
+					else linkResource.addProperty(attributeMappings.get(attributeName), simsLinkModel.createLiteral(value.toString(), languageTag));
+				}
 			}
-		});
+		}
 		// We check that all subjects are foaf:Documents (ie: have been created in the first pass)
 		simsLinkModel.listSubjects().forEachRemaining(new Consumer<Resource>() {
 			@Override
@@ -482,12 +688,23 @@ public class M0SIMSConverter extends M0Converter {
 
 	/**
 	 * Converts the information on external documents from a model in M0 format to a model in the target format.
+	 * Uses the default conversion context.
 	 * 
 	 * @return The model in the target format containing the information on external documents.
 	 */
 	public static Model convertDocumentsToSIMS() {
+		return convertDocumentsToSIMS(ConversionContext.getDefault());
+	}
+
+	/**
+	 * Converts the information on external documents from a model in M0 format to a model in the target format.
+	 * 
+	 * @param context The conversion context.
+	 * @return The model in the target format containing the information on external documents.
+	 */
+	public static Model convertDocumentsToSIMS(ConversionContext context) {
 
-		readDataset();
+		Dataset m0Dataset = context.getM0Dataset();
 		Model m0DocumentModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documents");
 		Model simsDocumentModel = ModelFactory.createDefaultModel();
 		simsDocumentModel.setNsPrefix("xsd", XSD.getURI());
@@ -516,14 +733,13 @@ public class M0SIMSConverter extends M0Converter {
 		m0DocumentModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
 			@Override
 			public void accept(Statement statement) {
-				Integer documentNumber = 0;
-				try {
-					documentNumber = Integer.parseInt(StringUtils.substringAfterLast(statement.getSubject().getURI(), "/"));
-					logger.info("Creating FOAF document for document number " + documentNumber);
-				} catch (Exception e) {
+				M0URI documentURI = M0URI.parse(statement.getSubject().getURI());
+				if ((documentURI == null) || (documentURI.getAttribute() != null)) {
 					logger.error("Unparseable URI for a link M0 concept: cannot extract document number");
 					return;
 				}
+				Integer documentNumber = documentURI.getNumber();
+				logger.info("Creating FOAF document for document number " + documentNumber);
 				Resource documentResource = simsDocumentModel.createResource(Configuration.documentURI(documentNumber), FOAF.Document);
 				// We can add a dc:language property at this stage
 				if (documentLanguages.containsKey(documentNumber)) {
@@ -532,35 +748,31 @@ public class M0SIMSConverter extends M0Converter {
 				} else logger.warn("Cannot determine language for document number " + documentNumber);
 				// We can also add the 'date' property
 				if (documentDates.containsKey(documentNumber)) {
-					String dateString = dateFormat.format(documentDates.get(documentNumber));
+					String dateString = dateFormat.get().format(documentDates.get(documentNumber));
 					Literal dateLiteral = simsDocumentModel.createTypedLiteral(dateString, XSDDatatype.XSDdate);
 					documentResource.addProperty(propertyMappings.get("DATE"), dateLiteral);
 				}
 			}
 		});
 
-		// Now we can iterate on the 'M0_VALUES' predicates to get the other properties of the document (NB: no 'M0_VALUES_EN' in the M0 link model)
+		// Now we can get the values of the other properties of the document from the index of the M0 model (NB: no 'M0_VALUES_EN' in the M0 document model)
 		// That is actually only TITLE and URI for now.
-		StmtIterator statementIterator = m0DocumentModel.listStatements(null, Configuration.M0_VALUES, (RDFNode) null);
-		statementIterator.forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String variablePart = statement.getSubject().toString().replace(M0_DOCUMENT_BASE_URI, "");
-				if (variablePart.length() == statement.getSubject().toString().length()) logger.warn("Unexpected subject URI in statement " + statement);
-				String attributeName = variablePart.split("/")[1];
-				if (!propertyMappings.keySet().contains(attributeName)) return;
-				if (attributeName.startsWith("DATE")) return; // Already done above
-				Integer documentNumber = Integer.parseInt(variablePart.split("/")[0]);
-				String languageTag = documentLanguages.get(documentNumber);
-				if (languageTag == null) languageTag = "fr"; // Take 'fr' as default
-				Resource documentResource = simsDocumentModel.createResource(Configuration.documentURI(documentNumber));
-				if ("URI".equals(attributeName)) {
-					String documentURI = SIMS_DOCUMENT_BASE_URI + statement.getObject().toString();
-					documentResource.addProperty(propertyMappings.get(attributeName), simsDocumentModel.createResource(documentURI));
+		M0Index documentIndex = M0DatasetRegistry.getIndex(m0DocumentModel);
+		for (Integer documentNumber : documentIndex.getNumbers(M0ResourceType.DOCUMENT)) {
+			String languageTag = documentLanguages.get(documentNumber);
+			if (languageTag == null) languageTag = "fr"; // Take 'fr' as default
+			Resource documentResource = simsDocumentModel.createResource(Configuration.documentURI(documentNumber));
+			for (String attributeName : propertyMappings.keySet()) {
+				if (attributeName.startsWith("DATE")) continue; // Already done above
+				for (RDFNode value : documentIndex.getValues(M0ResourceType.DOCUMENT, documentNumber, attributeName, false)) {
+					if ("URI".equals(attributeName)) {
+						String documentURI = SIMS_DOCUMENT_BASE_URI + value.toString();
+						documentResource.addProperty(propertyMappings.get(attributeName), simsDocumentModel.createResource(documentURI));
+					}
+					else documentResource.addProperty(propertyMappings.get(attributeName), simsDocumentModel.createLiteral(value.toString(), languageTag));
 				}
-				else documentResource.addProperty(propertyMappings.get(attributeName), simsDocumentModel.createLiteral(statement.getObject().toString(), languageTag));
 			}
-		});
+		}
 		// We check that all subjects are foaf:Documents (ie: have been created in the first pass)
 		simsDocumentModel.listSubjects().forEachRemaining(new Consumer<Resource>() {
 			@Override
@@ -607,11 +819,8 @@ public class M0SIMSConverter extends M0Converter {
 
 		logger.debug("Extracting the information on relations between SIMS properties and link or document objects from dataset " + Configuration.M0_FILE_NAME);
 
-		List<SortedMap<Integer, SortedMap<String, SortedSet<String>>>> referenceMappingsList = new ArrayList<SortedMap<Integer, SortedMap<String, SortedSet<String>>>>();
-		referenceMappingsList.add(getAttributeReferences(m0AssociationModel, language, true));
-		referenceMappingsList.add(getAttributeReferences(m0AssociationModel, language, false));
-
-		return mergeAttributeReferences(referenceMappingsList);	
+		// References to links and documents are held in the same table, so there is no need to merge them
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getReferenceTable(language).toSortedMap();
 	}
 
 	/**
@@ -629,53 +838,47 @@ public class M0SIMSConverter extends M0Converter {
 		// The relations between SIMS properties and link/document objects are in the 'associations' graph and have the following structure (replace by relatedToGb for English):
 		// <http://baseUri/documentations/documentation/1580/SEE_ALSO> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/liens/lien/54/SEE_ALSO> .
 
-		Property associationProperty = "en".equalsIgnoreCase(language) ? Configuration.M0_RELATED_TO_EN : Configuration.M0_RELATED_TO;
-		final String m0BaseURI = (links) ? M0_LINK_BASE_URI : M0_DOCUMENT_BASE_URI;
-		final String referenceType = (links) ? "link" : "document";
-
-		logger.debug("Extracting relations between SIMS attributes and " + referenceType + " objects for language '" + language + "'");
-		SortedMap<Integer, SortedMap<String, SortedSet<String>>> referenceMappings = new TreeMap<Integer, SortedMap<String, SortedSet<String>>>();
-
-		// Will select triples of the form indicated above
-		Selector selector = new SimpleSelector(null, associationProperty, (RDFNode) null) {
-			// Override 'selects' method to retain only statements whose subject and object URIs conform to what we expect
-	        public boolean selects(Statement statement) {
-	        	return ((statement.getSubject().getURI().startsWith(Configuration.M0_SIMS_BASE_URI)) && (statement.getObject().isResource())
-	        			&& (statement.getObject().asResource().getURI().startsWith(m0BaseURI)));
-	        }
-	    };
-	    // Go through the selected triples and fill the map to return
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				// The link/document identifier and SIMS attribute are the last two elements of the link/document URI
-				String[] pathElements = statement.getObject().asResource().getURI().replace(m0BaseURI, "").split("/");
-				// Check that the URI contains an attribute name and that the attributes in both subject and object URIs are the same
-				if ((pathElements.length != 2) || (!pathElements[1].equals(StringUtils.substringAfterLast(statement.getSubject().getURI(), "/")))) {
-					logger.error("Unexpected statement ignored: " + statement);
-					return;
-				}
-				// Hopefully the identifiers are really integers
-				try {
-					Integer referenceNumber = Integer.parseInt(pathElements[0]);
-					Integer documentationNumber = Integer.parseInt(statement.getSubject().getURI().replace(Configuration.M0_SIMS_BASE_URI, "").split("/")[0]);
-					String attributeName = pathElements[1];
-					// HACK: some associations are made on the 'ASSOCIE_A' attribute, which is not a SIMS attribute, we don't want those associations
-					if ("ASSOCIE_A".equals(attributeName)) return;
-					// Update the map with the information from the current triple
-					if (!referenceMappings.containsKey(documentationNumber)) referenceMappings.put(documentationNumber, new TreeMap<String, SortedSet<String>>());
-					Map<String, SortedSet<String>> attributeMappings = referenceMappings.get(documentationNumber);
-					if (!attributeMappings.containsKey(attributeName)) attributeMappings.put(attributeName, new TreeSet<String>());
-					String referenceURI = links ? Configuration.linkURI(referenceNumber) : Configuration.documentURI(referenceNumber);
-					attributeMappings.get(attributeName).add(referenceURI);
-				} catch (Exception e) {
-					logger.error("Statement ignored (invalid integer): " + statement);
-					return;
-				}
+		logger.debug("Extracting relations between SIMS attributes and " + ((links) ? "link" : "document") + " objects for language '" + language + "'");
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getAttributeReferences(language, links);
+	}
+
+	/**
+	 * Reads the values of SIMSFr attributes that correspond to organizations (CONTACT_ORGANISATION, ORGANISATION_UNIT) and stores them in a compact table.
+	 * The table gives, for each documentation identifier and attribute name, the organisation target URIs in ascending order.
+	 * Example: <1507, <CONTACT_ORGANISATION, <http://id.insee.fr/organisations/insee/DG75-F201>>, <ORGANISATION_UNIT, <http://id.insee.fr/organisations/insee/DG75-F210>>>.
+	 * Uses the default conversion context.
+	 * 
+	 * @param m0AssociationModel The M0 'associations' model where the information should be read.
+	 * @return A table containing the values.
+	 */
+	public static ReferenceTable getOrganizationValueTable(Model m0AssociationModel) {
+		return getOrganizationValueTable(ConversionContext.getDefault(), m0AssociationModel);
+	}
+
+	/**
+	 * Reads the values of SIMSFr attributes that correspond to organizations and stores them in a compact table, using the organization mappings of a conversion context.
+	 * 
+	 * @param context The conversion context.
+	 * @param m0AssociationModel The M0 'associations' model where the information should be read.
+	 * @return A table containing the values.
+	 */
+	public static ReferenceTable getOrganizationValueTable(ConversionContext context, Model m0AssociationModel) {
+
+		// The relations between SIMS properties and organization objects are in the 'associations' graph and have the following structure:
+		// <http://baseUri/documentations/documentation/1507/CONTACT_ORGANISATION> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/organismes/organisme/36/CONTACT_ORGANISATION> .
+
+		logger.debug("Extracting URI values of SIMS attributes " + AssociationIndex.ORGANIZATION_ATTRIBUTES);
+		// The index contains the M0 URIs of the organizations, which are converted into their target URIs
+		ReferenceTable.Builder organizationURIs = new ReferenceTable.Builder();
+		M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getOrganizationValueTable().forEachReference((documentationM0Id, attributeName, organizationM0URI) -> {
+			try {
+				organizationURIs.add(documentationM0Id, attributeName, convertM0OrganizationURI(context, organizationM0URI));
+			} catch (Exception e) {
+				logger.error("Unexpected organization ignored for documentation " + documentationM0Id + ": " + organizationM0URI);
 			}
 		});
 
-		return referenceMappings;
+		return organizationURIs.build();
 	}
 
 	/**
@@ -688,46 +891,7 @@ public class M0SIMSConverter extends M0Converter {
 	 */
 	public static SortedMap<Integer, SortedMap<String, SortedSet<String>>> getOrganizationValues(Model m0AssociationModel) {
 
-		// The relations between SIMS properties and organization objects are in the 'associations' graph and have the following structure:
-		// <http://baseUri/documentations/documentation/1507/CONTACT_ORGANISATION> <http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo> <http://baseUri/organismes/organisme/36/CONTACT_ORGANISATION> .
-
-		List<String> attributeNames = Arrays.asList("CONTACT_ORGANISATION", "ORGANISATION_UNIT");
-
-		SortedMap<Integer, SortedMap<String, SortedSet<String>>> organizationURIs = new TreeMap<Integer, SortedMap<String, SortedSet<String>>>();
-		for (String attributeName : attributeNames) {
-			logger.debug("Extracting URI values of SIMS attribute " + attributeName);
-			// Will select triples of the form indicated above
-			Selector selector = new SimpleSelector(null, Configuration.M0_RELATED_TO, (RDFNode) null) {
-				// Override 'selects' method to retain only statements whose subject URI conforms to what we expect
-		        public boolean selects(Statement statement) {
-		        	String subjectURI = statement.getSubject().getURI();
-		        	return ((subjectURI.startsWith(Configuration.M0_SIMS_BASE_URI)) && (subjectURI.endsWith(attributeName)));
-		        }
-		    };
-		    // Go through the selected triples and fill the map to return
-		    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-				@Override
-				public void accept(Statement statement) {
-					// Extract the documentation and organisation M0 identifiers
-					String subjectURI = statement.getSubject().getURI();
-					String objectURI = statement.getObject().toString();
-					try {
-						Integer documentationM0Id = Integer.parseInt(StringUtils.substringAfterLast(StringUtils.substringBeforeLast(subjectURI, "/"), "/"));
-						String organizationM0URI = StringUtils.substringBeforeLast(objectURI, "/");
-						String organizationURI = convertM0OrganizationURI(organizationM0URI);
-						if (!organizationURIs.containsKey(documentationM0Id)) organizationURIs.put(documentationM0Id, new TreeMap<>());
-						if (!organizationURIs.get(documentationM0Id).containsKey(attributeName)) organizationURIs.get(documentationM0Id).put(attributeName, new TreeSet<>());
-						organizationURIs.get(documentationM0Id).get(attributeName).add(organizationURI);
-
-					} catch (Exception e) {
-						logger.error("Unexpected statement ignored: " + statement);
-						return;
-					}
-				}
-			});
-		}
-
-		return organizationURIs;
+		return getOrganizationValueTable(m0AssociationModel).toSortedMap();
 	}
 
 	/**
@@ -765,61 +929,8 @@ public class M0SIMSConverter extends M0Converter {
 	 */
 	public static SortedMap<Integer, String> getLanguageTags(Model m0AssociationModel, boolean links) {
 
-		final String m0BaseURI = ((links) ? M0_LINK_BASE_URI : M0_DOCUMENT_BASE_URI);
-
 		logger.debug("Extracting language tag for each " + ((links) ? "link" : "document"));
-
-		SortedMap<Integer, String> languageTags = new TreeMap<Integer, String>();
-
-		// Will select triples corresponding to French links or documents
-		Selector selector = new SimpleSelector(null, Configuration.M0_RELATED_TO, (RDFNode) null) {
-	        public boolean selects(Statement statement) {
-	        	return ((statement.getSubject().getURI().startsWith(Configuration.M0_SIMS_BASE_URI)) && (statement.getObject().isResource())
-	        			&& (statement.getObject().asResource().getURI().startsWith(m0BaseURI)));
-	        }
-	    };
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				// The link or document identifier is the penultimate element of the URI
-				String[] pathElements = statement.getObject().asResource().getURI().replace(m0BaseURI, "").split("/");
-				if (pathElements.length != 2) return; // Avoid weird cases
-				try {
-					Integer objectNumber = Integer.parseInt(pathElements[0]);
-					if (!languageTags.containsKey(objectNumber)) languageTags.put(objectNumber, "fr");
-				} catch (Exception e) {
-					logger.error("Statement ignored (invalid integer): " + statement);
-					return;
-				}
-			}
-		});
-
-		// Will select triples corresponding to English links or document
-		selector = new SimpleSelector(null, Configuration.M0_RELATED_TO_EN, (RDFNode) null) {
-	        public boolean selects(Statement statement) {
-	        	return ((statement.getSubject().getURI().startsWith(Configuration.M0_SIMS_BASE_URI)) && (statement.getObject().isResource())
-	        			&& (statement.getObject().asResource().getURI().startsWith(m0BaseURI)));
-	        }
-	    };
-	    m0AssociationModel.listStatements(selector).forEachRemaining(new Consumer<Statement>() {
-			@Override
-			public void accept(Statement statement) {
-				String[] pathElements = statement.getObject().asResource().getURI().replace(m0BaseURI, "").split("/");
-				if (pathElements.length != 2) return;
-				try {
-					Integer objectNumber = Integer.parseInt(pathElements[0]);
-					if (!languageTags.containsKey(objectNumber)) languageTags.put(objectNumber, "en");
-					else {
-						if (!"fr".equals(languageTags.get(objectNumber))) logger.warn(((links) ? "Link" : "Document") + " number " + objectNumber + " is both English and French");
-					}
-				} catch (Exception e) {
-					logger.error("Statement ignored (invalid integer): " + statement);
-					return;
-				}			
-			}
-		});
-
-		return languageTags;
+		return M0DatasetRegistry.getAssociationIndex(m0AssociationModel).getLanguageTags(links);
 	}
 
 	/**
@@ -864,16 +975,28 @@ public class M0SIMSConverter extends M0Converter {
 
 	/**
 	 * Returns the correspondence between M0 documentations identifiers and URIs of associated target resources documented, sorted numerically.
+	 * Uses the default conversion context.
 	 * 
 	 * @param m0AssociationsModel The M0 'associations' model where the information about associations should be read.
 	 * @return A <code>Map</code> whose keys are documentation identifiers and values are target URI of the documented resources, sorted numerically.
 	 */
 	public static SortedMap<Integer, String> getSIMSAttachments(Model m0AssociationsModel) {
+		return getSIMSAttachments(ConversionContext.getDefault(), m0AssociationsModel);
+	}
+
+	/**
+	 * Returns the correspondence between M0 documentations identifiers and URIs of associated target resources documented, using the URI mappings of a conversion context.
+	 * 
+	 * @param context The conversion context.
+	 * @param m0AssociationsModel The M0 'associations' model where the information about associations should be read.
+	 * @return A <code>Map</code> whose keys are documentation identifiers and values are target URI of the documented resources, sorted numerically.
+	 */
+	public static SortedMap<Integer, String> getSIMSAttachments(ConversionContext context, Model m0AssociationsModel) {
 
 		logger.debug("Calculating attachments between documentations and target resources");
 
-		// Create the URI mappings if necessary
-		if (allURIMappings == null) allURIMappings = createURIMappings();
+		// Get the URI mappings of the context
+		Map<String, String> allURIMappings = context.getURIMappings();
 		SortedMap<Integer, String> simsAttachments = new TreeMap<Integer, String>();
 		SortedMap<String, String> m0SIMSAttachments = M0Extractor.extractSIMSAttachments(m0AssociationsModel, true);
 		for (String m0DocumentationURI : m0SIMSAttachments.keySet()) {
@@ -0,0 +1,185 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Resolves the attribute properties of a metadata structure definition without inference.
+ * The MSD is read in a plain Jena model, and the range, concept and cardinality of each attribute property are extracted once in an immutable table.
+ * The resolver does not refer to the MSD model, so it can be used concurrently.
+ *
+ * @author Franck
+ */
+public class MSDResolver {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(MSDResolver.class);
+
+	/** Properties of the SDMX metadata model used in the MSD */
+	private static final Property METADATA_ATTRIBUTE_PROPERTY = ResourceFactory.createProperty(Configuration.SDMX_MM_BASE_URI + "metadataAttributeProperty");
+	private static final Property CONCEPT = ResourceFactory.createProperty(Configuration.SDMX_MM_BASE_URI + "concept");
+	private static final Property MAX_OCCURS = ResourceFactory.createProperty(Configuration.SDMX_MM_BASE_URI + "maxOccurs");
+	/** Types of the resources considered as attribute properties, in addition to the subjects of ranges */
+	private static final Resource[] PROPERTY_TYPES = {ResourceFactory.createResource(Configuration.SDMX_MM_BASE_URI + "MetadataAttributeProperty"), RDF.Property, OWL.ObjectProperty, OWL.DatatypeProperty};
+
+	/** Characteristics of the attribute properties, indexed by property URI */
+	private final Map<String, AttributeProperty> attributeProperties;
+
+	private MSDResolver(Map<String, AttributeProperty> attributeProperties) {
+		this.attributeProperties = Collections.unmodifiableMap(attributeProperties);
+	}
+
+	/**
+	 * Reads a vocabulary or MSD file in a plain Jena model, without ontology API nor reasoner.
+	 *
+	 * @param fileName The name of the RDF file (the syntax is determined by the extension).
+	 * @return A Jena model containing the statements of the file.
+	 */
+	public static Model readModel(String fileName) {
+
+		Model model = ModelFactory.createDefaultModel();
+		RDFDataMgr.read(model, fileName);
+		logger.debug("Model read from file " + fileName + " (" + model.size() + " statements, no inference)");
+		return model;
+	}
+
+	/**
+	 * Creates a resolver for the MSD contained in a file.
+	 *
+	 * @param fileName The name of the MSD file.
+	 * @return The MSD resolver.
+	 */
+	public static MSDResolver read(String fileName) {
+
+		Model msdModel = readModel(fileName);
+		MSDResolver resolver = fromModel(msdModel);
+		msdModel.close();
+		return resolver;
+	}
+
+	/**
+	 * Creates a resolver for the MSD contained in a Jena model.
+	 * The model should be a plain model: with an inference model, the inferences would be computed while building the table.
+	 *
+	 * @param msdModel The Jena model containing the MSD.
+	 * @return The MSD resolver.
+	 */
+	public static MSDResolver fromModel(Model msdModel) {
+
+		SortedSet<String> propertyURIs = new TreeSet<String>();
+		for (Resource propertyType : PROPERTY_TYPES) {
+			msdModel.listSubjectsWithProperty(RDF.type, propertyType).forEachRemaining(property -> {
+				if (property.isURIResource()) propertyURIs.add(property.getURI());
+			});
+		}
+		msdModel.listSubjectsWithProperty(RDFS.range).forEachRemaining(property -> {
+			if (property.isURIResource()) propertyURIs.add(property.getURI());
+		});
+
+		// Multiple properties are those whose specification has an unbounded maximum number of occurrences
+		SortedSet<String> multiplePropertyURIs = new TreeSet<String>();
+		for (Statement specificationStatement : msdModel.listStatements(null, METADATA_ATTRIBUTE_PROPERTY, (RDFNode) null).toList()) {
+			Statement maxOccurs = specificationStatement.getSubject().getProperty(MAX_OCCURS);
+			if ((maxOccurs != null) && maxOccurs.getObject().isLiteral() && "unbounded".equals(maxOccurs.getString()) && specificationStatement.getObject().isURIResource())
+				multiplePropertyURIs.add(specificationStatement.getResource().getURI());
+		}
+
+		Map<String, AttributeProperty> attributeProperties = new HashMap<String, AttributeProperty>();
+		for (String propertyURI : propertyURIs) {
+			Resource property = msdModel.getResource(propertyURI);
+			Resource range = getResourceValue(property, RDFS.range);
+			Resource concept = getResourceValue(property, CONCEPT);
+			attributeProperties.put(propertyURI, new AttributeProperty(ResourceFactory.createProperty(propertyURI), range, concept, multiplePropertyURIs.contains(propertyURI)));
+		}
+		logger.debug("MSD resolver created for " + attributeProperties.size() + " attribute properties");
+
+		return new MSDResolver(attributeProperties);
+	}
+
+	/**
+	 * Returns the characteristics of an attribute property.
+	 *
+	 * @param propertyURI The URI of the attribute property.
+	 * @return The characteristics of the property, or <code>null</code> if the property is not defined in the MSD.
+	 */
+	public AttributeProperty getAttributeProperty(String propertyURI) {
+		return attributeProperties.get(propertyURI);
+	}
+
+	/**
+	 * Returns the number of attribute properties known by the resolver.
+	 *
+	 * @return The number of attribute properties.
+	 */
+	public int size() {
+		return attributeProperties.size();
+	}
+
+	/** Returns the first resource value of a property for a subject, detached from the model if it is a URI resource */
+	private static Resource getResourceValue(Resource subject, Property property) {
+
+		Statement statement = subject.getProperty(property);
+		if ((statement == null) || !statement.getObject().isResource()) return null;
+		Resource value = statement.getResource();
+		return value.isURIResource() ? ResourceFactory.createResource(value.getURI()) : value;
+	}
+
+	/**
+	 * Characteristics of an attribute property of the MSD.
+	 */
+	public static final class AttributeProperty {
+
+		private final Property property;
+		private final Resource range;
+		private final Resource concept;
+		private final boolean multiple;
+
+		private AttributeProperty(Property property, Resource range, Resource concept, boolean multiple) {
+			this.property = property;
+			this.range = range;
+			this.concept = concept;
+			this.multiple = multiple;
+		}
+
+		public Property getProperty() {
+			return property;
+		}
+
+		/** Returns the range of the property, or <code>null</code> if the MSD does not define it */
+		public Resource getRange() {
+			return range;
+		}
+
+		/** Returns the concept associated to the property, or <code>null</code> if the MSD does not define it */
+		public Resource getConcept() {
+			return concept;
+		}
+
+		/** Indicates if the attribute can have several values */
+		public boolean isMultiple() {
+			return multiple;
+		}
+
+		@Override
+		public String toString() {
+			return property.getURI() + " (range: " + range + ", concept: " + concept + (multiple ? ", multiple" : "") + ")";
+		}
+	}
+}
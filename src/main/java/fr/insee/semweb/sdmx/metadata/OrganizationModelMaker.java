@@ -1,5 +1,6 @@
 package fr.insee.semweb.sdmx.metadata;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -23,11 +24,15 @@ import javax.naming.directory.InitialDirContext;
 import javax.naming.directory.SearchControls;
 import javax.naming.directory.SearchResult;
 
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.ORG;
 import org.apache.jena.vocabulary.OWL;
@@ -36,11 +41,11 @@ import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
-import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 
+import fr.insee.semweb.utils.SnapshotCache;
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
 import fr.insee.semweb.utils.Utils;
 
 /**
@@ -51,6 +56,13 @@ import fr.insee.semweb.utils.Utils;
 public class OrganizationModelMaker {
 
 	public static Logger logger = LogManager.getLogger(OrganizationModelMaker.class);
+	/** Prefixes used in the organization models */
+	private static final PrefixMapping ORGANIZATION_PREFIXES = PrefixMapping.Factory.create()
+			.setNsPrefix("rdfs", RDFS.getURI()).setNsPrefix("dcterms", DCTerms.getURI()).setNsPrefix("org", ORG.getURI())
+			.setNsPrefix("skos", SKOS.getURI()).setNsPrefix("insee", Configuration.BASE_INSEE_ONTO_URI).lock();
+	/** Names of the graphs of the SSM and Insee models in the snapshots of the organization workbook */
+	private static final String SSM_GRAPH_NAME = "urn:x-sheet:ssm";
+	private static final String INSEE_GRAPH_NAME = "urn:x-sheet:insee";
 	/** Use directly the DILA URIs for the organizations or make sameAs links */
 	public static boolean USE_DILA_URI = true;
 	/** For these line numbers, org:linkedTo relations will be used between the organization and its mother */
@@ -87,6 +99,32 @@ public class OrganizationModelMaker {
 	 */
 	public static Model createInseeModel(Workbook orgWorkbook) {
 
+		return createInseeModel(SpreadsheetRow.rowIterator(orgWorkbook.getSheetAt(2)));
+	}
+
+	/**
+	 * Reads the information on Insee structures from the dedicated Excel file and transforms it into a Jena model.
+	 * The file is streamed, or read from its snapshot if workbook snapshots are activated and the snapshot is up to date.
+	 * 
+	 * @param xlsxFile The Excel file containing the source information.
+	 * @return A Jena <code>Model</code> containing the organization scheme conforming to the ORG ontology, or <code>null</code> in case of problem.
+	 */
+	public static Model createInseeModel(File xlsxFile) {
+
+		Dataset organizationDataset = readOrganizationDataset(xlsxFile);
+		if (organizationDataset == null) return null;
+
+		return ModelFactory.createDefaultModel().setNsPrefixes(ORGANIZATION_PREFIXES).add(organizationDataset.getNamedModel(INSEE_GRAPH_NAME));
+	}
+
+	/**
+	 * Reads the information on Insee structures from the rows of the dedicated Excel sheet and transforms it into a Jena model.
+	 * 
+	 * @param unitRows An iterator on the rows of the sheet describing the Insee structures, including the title line.
+	 * @return A Jena <code>Model</code> containing the organization scheme conforming to the ORG ontology.
+	 */
+	public static Model createInseeModel(Iterator<SpreadsheetRow> unitRows) {
+
 		Model inseeModel = ModelFactory.createDefaultModel();
 
 		inseeModel.setNsPrefix("rdfs", RDFS.getURI());
@@ -102,8 +140,6 @@ public class OrganizationModelMaker {
 		insee.addProperty(SKOS.prefLabel, inseeModel.createLiteral("National Institute of Statistics and Economic Studies", "en"));
 		// TODO Check that this is coherent with resource created in the SSM model
 
-		Sheet inseeSheet = orgWorkbook.getSheetAt(2);
-		Iterator<Row> unitRows = inseeSheet.rowIterator();
 
 		String cellValue = "";
 		String directionName = "", departmentName = "", divisionName = "";
@@ -111,9 +147,9 @@ public class OrganizationModelMaker {
 		String idPrefix = "DG75-" ;
 		unitRows.next();
 		while (unitRows.hasNext()) {
-			Row unitRow = unitRows.next();
+			SpreadsheetRow unitRow = unitRows.next();
 			// Read direction column
-			cellValue = unitRow.getCell(1, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			cellValue = unitRow.getString(1).trim();
 			if ((cellValue.length() > 0) && (!cellValue.equals(directionName))) {
 				String directionId = idPrefix + cellValue.substring(1, 5);
 				logger.debug("Creating resource for direction " + directionId);
@@ -126,7 +162,7 @@ public class OrganizationModelMaker {
 				directionName = cellValue;
 			}
 			// Read department column
-			cellValue = unitRow.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			cellValue = unitRow.getString(2).trim();
 			if ((cellValue.length() > 0) && (!cellValue.equals(departmentName))) {
 				String departmentId = idPrefix + cellValue.substring(1, 5);
 				department = inseeModel.createResource(Configuration.inseeUnitURI(departmentId), ORG.OrganizationalUnit);
@@ -138,7 +174,7 @@ public class OrganizationModelMaker {
 				departmentName = cellValue;
 			}
 			// Read division column
-			cellValue = unitRow.getCell(3, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			cellValue = unitRow.getString(3).trim();
 			if ((cellValue.length() > 0) && (!cellValue.equals(divisionName))) {
 				String divisionId = idPrefix + cellValue.substring(1, 5);
 				division = inseeModel.createResource(Configuration.inseeUnitURI(divisionId), ORG.OrganizationalUnit);
@@ -263,52 +299,104 @@ public class OrganizationModelMaker {
 	 */
 	public static Model createSSMModel(Workbook orgWorkbook) {
 
-		Model orgModel = ModelFactory.createDefaultModel();
-		orgModel.setNsPrefix("rdfs", RDFS.getURI());
-		orgModel.setNsPrefix("dcterms", DCTerms.getURI());
-		orgModel.setNsPrefix("org", ORG.getURI());
-		orgModel.setNsPrefix("skos", SKOS.getURI());
-		orgModel.setNsPrefix("insee", Configuration.BASE_INSEE_ONTO_URI);
+		Model orgModel = createSSMModel(SpreadsheetRow.rowIterator(orgWorkbook.getSheetAt(0)), SpreadsheetRow.rowIterator(orgWorkbook.getSheetAt(1)));
+		try { orgWorkbook.close(); } catch (IOException ignored) { }
+
+		return orgModel;
+	}
+
+	/**
+	 * Reads the information on SSM structures from the dedicated Excel file and transforms it into a Jena model.
+	 * The file is streamed, or read from its snapshot if workbook snapshots are activated and the snapshot is up to date.
+	 * 
+	 * @param xlsxFile The Excel file containing the source information.
+	 * @return A Jena <code>Model</code> containing the organization scheme conforming to the ORG ontology, or <code>null</code> in case of problem.
+	 */
+	public static Model createSSMModel(File xlsxFile) {
 
-		Sheet orgSheet = orgWorkbook.getSheetAt(0);;
-		Sheet detailSheet = orgWorkbook.getSheetAt(1);
+		Dataset organizationDataset = readOrganizationDataset(xlsxFile);
+		if (organizationDataset == null) return null;
+
+		return ModelFactory.createDefaultModel().setNsPrefixes(ORGANIZATION_PREFIXES).add(organizationDataset.getNamedModel(SSM_GRAPH_NAME));
+	}
+
+	/**
+	 * Reads the SSM and Insee organization models from the dedicated Excel file into a dataset, using the snapshot of the file if workbook snapshots are activated.
+	 * 
+	 * @param xlsxFile The Excel file containing the source information.
+	 * @return A dataset containing the SSM and Insee models in two named graphs, or <code>null</code> in case of problem.
+	 */
+	private static Dataset readOrganizationDataset(File xlsxFile) {
+
+		File snapshotDirectory = new File(Configuration.SNAPSHOT_DIRECTORY);
+		if (Configuration.USE_WORKBOOK_SNAPSHOTS) {
+			DatasetGraph snapshot = SnapshotCache.readSnapshot(xlsxFile, snapshotDirectory);
+			if (snapshot != null) {
+				logger.info("Organization models read from snapshot of Excel file " + xlsxFile.getAbsolutePath());
+				return DatasetFactory.wrap(snapshot);
+			}
+		}
+
+		Dataset organizationDataset = DatasetFactory.create();
+		try (SpreadsheetReader orgReader = SpreadsheetReader.open(xlsxFile)) {
+			organizationDataset.addNamedModel(SSM_GRAPH_NAME, createSSMModel(orgReader.readRows(0), orgReader.readRows(1)));
+			organizationDataset.addNamedModel(INSEE_GRAPH_NAME, createInseeModel(orgReader.readRows(2)));
+		} catch (Exception e) {
+			logger.fatal("Error while reading Excel file " + xlsxFile.getAbsolutePath() + " - " + e.getMessage());
+			return null;
+		}
+		if (Configuration.USE_WORKBOOK_SNAPSHOTS) SnapshotCache.writeSnapshot(xlsxFile, snapshotDirectory, organizationDataset.asDatasetGraph());
+
+		return organizationDataset;
+	}
+
+	/**
+	 * Reads the information on SSM structures from the rows of the dedicated Excel sheets and transforms it into a Jena model.
+	 * The two sheets are read in parallel, the rows of the detail sheet corresponding to those of the organization sheet.
+	 * 
+	 * @param orgRows An iterator on the rows of the sheet listing the organizations, including the title line.
+	 * @param detailRows An iterator on the rows of the sheet detailing the organizations, including the title line.
+	 * @return A Jena <code>Model</code> containing the organization scheme conforming to the ORG ontology.
+	 */
+	public static Model createSSMModel(Iterator<SpreadsheetRow> orgRows, Iterator<SpreadsheetRow> detailRows) {
+
+		Model orgModel = ModelFactory.createDefaultModel();
+		orgModel.setNsPrefixes(ORGANIZATION_PREFIXES);
 
-		Iterator<Row> orgRows = orgSheet.rowIterator();
-		Iterator<Row> detailRows = detailSheet.rowIterator();
 		orgRows.next(); detailRows.next(); // Skip the title lines
 
 		while (orgRows.hasNext()) {
-			Row orgRow = orgRows.next();
-			Row detailRow = detailRows.next();
+			SpreadsheetRow orgRow = orgRows.next();
+			SpreadsheetRow detailRow = detailRows.next();
 			int rowNumber = orgRow.getRowNum() + 1; // Because row numbers used in static specifications are 1-based
 
-			String orgId = orgRow.getCell(0).toString().trim();
-			String orgIdCheck = detailRow.getCell(4).toString().trim();
+			String orgId = orgRow.getString(0).trim();
+			String orgIdCheck = detailRow.getString(4).trim();
 			if (!orgId.equals(orgIdCheck)) {
 				logger.error("Inconsistency on organization identifier line " + orgRow.getRowNum() + ": " + orgId + " different from " + orgIdCheck);
 				continue;
 			}
 
-			String dilaURI = orgRow.getCell(6, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			String dilaURI = orgRow.getString(6).trim();
 			String orgURI = (USE_DILA_URI && (dilaURI.length() > 0) ? dilaURI : Configuration.organizationURI(orgId));
 			logger.debug("Creating organization resource for " + orgId + " with URI " + orgURI);
 			Resource organization = orgModel.createResource(orgURI, ORG.Organization);
 
 			organization.addProperty(DCTerms.identifier, orgId);
 			// French label is in column B and English label in column C (both should be always present)
-			String label = stripTrailingParenthesis(orgRow.getCell(1).toString().trim());
+			String label = stripTrailingParenthesis(orgRow.getString(1).trim());
 			organization.addProperty(SKOS.prefLabel, orgModel.createLiteral(label, "fr"));
-			label = stripTrailingParenthesis(orgRow.getCell(2).toString().trim());
+			label = stripTrailingParenthesis(orgRow.getString(2).trim());
 			organization.addProperty(SKOS.prefLabel, orgModel.createLiteral(label, "en"));
 			// TODO I don't really know what to do with 'Dénomination SSM', declare it as altLabel for now
-			String ssmName = orgRow.getCell(3, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			String ssmName = orgRow.getString(3).trim();
 			if (ssmName.length() > 0) organization.addProperty(SKOS.altLabel, orgModel.createLiteral(ssmName, "fr"));
-			boolean isOna = (orgRow.getCell(4, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim().length() > 0);
+			boolean isOna = (orgRow.getString(4).trim().length() > 0);
 			if (isOna) organization.addProperty(RDF.type, orgModel.createResource(Configuration.BASE_INSEE_ONTO_URI + "OtherNationalAuthority"));
-			boolean isNSI = (orgRow.getCell(5, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim().length() > 0);
+			boolean isNSI = (orgRow.getString(5).trim().length() > 0);
 			if (isNSI) organization.addProperty(RDF.type, orgModel.createResource(Configuration.BASE_INSEE_ONTO_URI + "NationalStatisticalInstitute"));
-			String url = orgRow.getCell(7, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
-			if (url.length() == 0) url = orgRow.getCell(8, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim(); // URL should never be empty
+			String url = orgRow.getString(7).trim();
+			if (url.length() == 0) url = orgRow.getString(8).trim(); // URL should never be empty
 			organization.addProperty(RDFS.seeAlso, orgModel.createResource(url));
 
 			// Create sameAs links if dilaURI is not used for identifying the resource
@@ -316,23 +404,23 @@ public class OrganizationModelMaker {
 
 			// The direct mother will be in column C, or A if C is empty (or no mother)
 			// Grand-mother will be in A if mother in C (or no grand-mother)
-			String motherLabel = detailRow.getCell(2, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			String motherLabel = detailRow.getString(2).trim();
 			String motherURI = null;
 			String grannyLabel = null;
 			String grannyURI = null;
 			if (motherLabel.length() > 0) {
 				// If there is a DILA URI for the mother use it, otherwise create a URI in Insee namespace
-				motherURI = detailRow.getCell(3, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+				motherURI = detailRow.getString(3).trim();
 				if (motherURI.length() == 0) motherURI = getOrganizationURIFromLabel(motherLabel);
 				// If there was a mother in C, there is a grand-mother in A (never empty)
-				grannyLabel = detailRow.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
-				grannyURI = detailRow.getCell(1, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+				grannyLabel = detailRow.getString(0).trim();
+				grannyURI = detailRow.getString(1).trim();
 				if (grannyURI.length() == 0) grannyURI = getOrganizationURIFromLabel(grannyLabel);
 			}
 			else {
 				// No mother in column C, then the mother is in column A (never empty)
-				motherLabel = detailRow.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
-				motherURI = detailRow.getCell(1, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+				motherLabel = detailRow.getString(0).trim();
+				motherURI = detailRow.getString(1).trim();
 				if (motherURI.length() == 0) motherURI = getOrganizationURIFromLabel(motherLabel);
 			} 
 
@@ -404,7 +492,6 @@ public class OrganizationModelMaker {
 				}
 			}
 		}
-		try { orgWorkbook.close(); } catch (IOException ignored) { }
 
 		return orgModel;
 	}
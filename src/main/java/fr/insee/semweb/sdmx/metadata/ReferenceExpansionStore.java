@@ -0,0 +1,121 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Immutable store of the descriptions of the documents and links that can be referenced in SIMS reports.
+ * The triples describing each document or link are grouped once in a frozen block indexed by the URI of the document or link, so that expanding a reference in a report does not query the documents and links model.
+ * The blocks are shared by all the reports, and can also be gathered in a single model for the documents and links referenced by a set of reports.
+ *
+ * @author Franck
+ */
+public class ReferenceExpansionStore {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(ReferenceExpansionStore.class);
+
+	/** The blocks of triples, indexed by the URI of the document or link they describe */
+	private final Map<String, Triple[]> blocks;
+	/** The prefixes of the documents and links model */
+	private final PrefixMapping prefixes;
+
+	private ReferenceExpansionStore(Map<String, Triple[]> blocks, PrefixMapping prefixes) {
+
+		this.blocks = blocks;
+		this.prefixes = prefixes;
+	}
+
+	/**
+	 * Builds the store from the model containing the documents and links, in one pass over the model.
+	 *
+	 * @param documentsAndLinksModel The documents and links in SIMSFr format.
+	 * @return The reference expansion store.
+	 */
+	public static ReferenceExpansionStore build(Model documentsAndLinksModel) {
+
+		Map<String, List<Triple>> triplesBySubject = new HashMap<String, List<Triple>>();
+		documentsAndLinksModel.getGraph().find().forEachRemaining(triple -> {
+			Node subject = triple.getSubject();
+			if (subject.isURI()) triplesBySubject.computeIfAbsent(subject.getURI(), uri -> new ArrayList<Triple>()).add(triple);
+		});
+		Map<String, Triple[]> blocks = new HashMap<String, Triple[]>(2 * triplesBySubject.size());
+		for (Map.Entry<String, List<Triple>> entry : triplesBySubject.entrySet()) blocks.put(entry.getKey(), entry.getValue().toArray(new Triple[entry.getValue().size()]));
+		PrefixMapping prefixes = PrefixMapping.Factory.create().setNsPrefixes(documentsAndLinksModel).lock();
+		logger.debug("Reference expansion store built with " + blocks.size() + " documents and links");
+
+		return new ReferenceExpansionStore(blocks, prefixes);
+	}
+
+	/**
+	 * Indicates if the store contains the description of a document or link.
+	 *
+	 * @param referenceURI The URI of the document or link.
+	 * @return <code>true</code> if the store contains triples about the document or link, <code>false</code> otherwise.
+	 */
+	public boolean contains(String referenceURI) {
+		return blocks.containsKey(referenceURI);
+	}
+
+	/**
+	 * Returns the triples describing a document or link.
+	 *
+	 * @param referenceURI The URI of the document or link.
+	 * @return An unmodifiable list of triples, empty if the document or link is unknown.
+	 */
+	public List<Triple> getTriples(String referenceURI) {
+
+		Triple[] block = blocks.get(referenceURI);
+		return (block == null) ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(block));
+	}
+
+	/**
+	 * Adds the triples describing a document or link to a graph.
+	 *
+	 * @param graph The graph where the triples are added (for example the graph of a SIMS report).
+	 * @param referenceURI The URI of the document or link.
+	 */
+	public void expand(Graph graph, String referenceURI) {
+
+		Triple[] block = blocks.get(referenceURI);
+		if (block == null) return;
+		for (Triple triple : block) graph.add(triple);
+	}
+
+	/**
+	 * Creates a model containing the descriptions of a set of documents and links.
+	 *
+	 * @param referenceURIs The URIs of the documents and links.
+	 * @return A Jena model containing the triples describing the documents and links, with the prefixes of the original model.
+	 */
+	public Model createModel(Collection<String> referenceURIs) {
+
+		Model referencesModel = ModelFactory.createDefaultModel();
+		referencesModel.setNsPrefixes(prefixes);
+		for (String referenceURI : referenceURIs) expand(referencesModel.getGraph(), referenceURI);
+		return referencesModel;
+	}
+
+	/**
+	 * Returns the number of documents and links in the store.
+	 *
+	 * @return The number of documents and links described in the store.
+	 */
+	public int size() {
+		return blocks.size();
+	}
+}
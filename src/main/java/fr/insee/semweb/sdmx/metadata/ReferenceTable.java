@@ -0,0 +1,412 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Compact and immutable table of the references held by the attributes of documentations, for example the links or documents associated to a rich text attribute.
+ * Documentation numbers are the keys of an open-addressing hash table, attribute names are encoded as small integers and references are stored as integer identifiers in a single array.
+ * The URIs of the references are only created when they are requested.
+ * Lookups do not allocate any object: <code>locate</code> returns a handle on the references of a documentation attribute, which is then used to read the references one by one.
+ *
+ * @author Franck
+ */
+public class ReferenceTable {
+
+	/** Key of the free slots of the hash table (documentation numbers are never negative) */
+	private static final int EMPTY = -1;
+
+	/** Creates the URIs of the references identified by <code>linkReference</code> or <code>documentReference</code> */
+	public static final IntFunction<String> LINK_OR_DOCUMENT_URI = reference -> isLink(reference) ? Configuration.linkURI(getNumber(reference)) : Configuration.documentURI(getNumber(reference));
+
+	/** Names of the attributes, indexed by attribute code */
+	private final String[] attributeNames;
+	/** Codes of the attributes, indexed by attribute name */
+	private final Map<String, Integer> attributeCodes = new HashMap<String, Integer>();
+	/** Documentation numbers, or EMPTY for free slots */
+	private final int[] keys;
+	/** For each slot of the hash table, position of the block of the documentation in the data array */
+	private final int[] positions;
+	/** Blocks of the documentations: number of attributes, then for each attribute its code, the number of references and the references */
+	private final int[] data;
+	/** Function creating the URI of a reference from its identifier */
+	private final IntFunction<String> uriMinter;
+	/** Number of documentations in the table */
+	private final int size;
+
+	private ReferenceTable(String[] attributeNames, int[] keys, int[] positions, int[] data, IntFunction<String> uriMinter, int size) {
+
+		this.attributeNames = attributeNames;
+		for (int code = 0; code < attributeNames.length; code++) attributeCodes.put(attributeNames[code], code);
+		this.keys = keys;
+		this.positions = positions;
+		this.data = data;
+		this.uriMinter = uriMinter;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the reference identifier of a link.
+	 *
+	 * @param linkNumber The M0 number of the link.
+	 * @return The reference identifier.
+	 */
+	public static int linkReference(int linkNumber) {
+		return linkNumber << 1;
+	}
+
+	/**
+	 * Returns the reference identifier of a document.
+	 *
+	 * @param documentNumber The M0 number of the document.
+	 * @return The reference identifier.
+	 */
+	public static int documentReference(int documentNumber) {
+		return (documentNumber << 1) | 1;
+	}
+
+	/**
+	 * Indicates if a reference identifier created by <code>linkReference</code> or <code>documentReference</code> is the one of a link.
+	 *
+	 * @param reference The reference identifier.
+	 * @return <code>true</code> for a link, <code>false</code> for a document.
+	 */
+	public static boolean isLink(int reference) {
+		return (reference & 1) == 0;
+	}
+
+	/**
+	 * Returns the M0 number of the link or document corresponding to a reference identifier.
+	 *
+	 * @param reference The reference identifier.
+	 * @return The M0 number of the link or document.
+	 */
+	public static int getNumber(int reference) {
+		return reference >>> 1;
+	}
+
+	/**
+	 * Returns a handle on the references of an attribute of a documentation.
+	 *
+	 * @param documentationNumber The number of the documentation.
+	 * @param attributeName The name of the attribute (e.g. SEE_ALSO).
+	 * @return The handle, or -1 if the attribute of the documentation has no references.
+	 */
+	public int locate(int documentationNumber, String attributeName) {
+
+		Integer attributeCode = attributeCodes.get(attributeName);
+		if (attributeCode == null) return -1;
+		int slot = findSlot(documentationNumber);
+		if (keys[slot] == EMPTY) return -1;
+		int position = positions[slot];
+		int attributeCount = data[position++];
+		for (int index = 0; index < attributeCount; index++) {
+			if (data[position] == attributeCode) return position;
+			position += 2 + data[position + 1];
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks if an attribute of a documentation has references.
+	 *
+	 * @param documentationNumber The number of the documentation.
+	 * @param attributeName The name of the attribute.
+	 * @return <code>true</code> if there is at least one reference, <code>false</code> otherwise.
+	 */
+	public boolean contains(int documentationNumber, String attributeName) {
+		return locate(documentationNumber, attributeName) >= 0;
+	}
+
+	/**
+	 * Returns the number of references corresponding to a handle.
+	 *
+	 * @param handle A handle returned by <code>locate</code>.
+	 * @return The number of references, 0 for an invalid handle.
+	 */
+	public int getReferenceCount(int handle) {
+		return (handle < 0) ? 0 : data[handle + 1];
+	}
+
+	/**
+	 * Returns the identifier of one of the references corresponding to a handle.
+	 *
+	 * @param handle A handle returned by <code>locate</code>.
+	 * @param index The index of the reference, between 0 and <code>getReferenceCount(handle)</code> excluded.
+	 * @return The reference identifier.
+	 */
+	public int getReference(int handle, int index) {
+
+		if ((index < 0) || (index >= getReferenceCount(handle))) throw new IndexOutOfBoundsException("Invalid reference index " + index);
+		return data[handle + 2 + index];
+	}
+
+	/**
+	 * Returns the URI of one of the references corresponding to a handle.
+	 * References are ordered by URI.
+	 *
+	 * @param handle A handle returned by <code>locate</code>.
+	 * @param index The index of the reference, between 0 and <code>getReferenceCount(handle)</code> excluded.
+	 * @return The URI of the reference.
+	 */
+	public String getReferenceURI(int handle, int index) {
+		return uriMinter.apply(getReference(handle, index));
+	}
+
+	/**
+	 * Returns the URIs of all the references corresponding to a handle.
+	 *
+	 * @param handle A handle returned by <code>locate</code>.
+	 * @return The list of URIs of the references, ordered by URI.
+	 */
+	public List<String> getReferenceURIs(int handle) {
+
+		List<String> referenceURIs = new ArrayList<String>();
+		for (int index = 0; index < getReferenceCount(handle); index++) referenceURIs.add(getReferenceURI(handle, index));
+		return referenceURIs;
+	}
+
+	/**
+	 * Returns a textual description of all the references of a documentation, for example to calculate a fingerprint of the documentation.
+	 *
+	 * @param documentationNumber The number of the documentation.
+	 * @return The references of the documentation as 'ATTRIBUTE=uri1,uri2;' sequences in the order of the attribute names, or an empty string if the documentation has no references.
+	 */
+	public String describe(int documentationNumber) {
+
+		int slot = findSlot(documentationNumber);
+		if (keys[slot] == EMPTY) return "";
+		StringBuilder description = new StringBuilder();
+		int position = positions[slot];
+		int attributeCount = data[position++];
+		for (int index = 0; index < attributeCount; index++) {
+			description.append(attributeNames[data[position]]).append('=');
+			for (int reference = 0; reference < data[position + 1]; reference++) description.append((reference == 0) ? "" : ",").append(uriMinter.apply(data[position + 2 + reference]));
+			description.append(';');
+			position += 2 + data[position + 1];
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Returns the number of documentations in the table.
+	 *
+	 * @return The number of documentations having references.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the content of the table as a map.
+	 *
+	 * @return A sorted map whose keys are the documentation numbers and values maps between attribute names and sets of reference URIs.
+	 */
+	public SortedMap<Integer, SortedMap<String, SortedSet<String>>> toSortedMap() {
+		return toSortedMap(reference -> true);
+	}
+
+	/**
+	 * Returns part of the content of the table as a map.
+	 *
+	 * @param filter The filter applied on the reference identifiers.
+	 * @return A sorted map whose keys are the documentation numbers and values maps between attribute names and sets of URIs of the references selected.
+	 */
+	public SortedMap<Integer, SortedMap<String, SortedSet<String>>> toSortedMap(IntPredicate filter) {
+
+		SortedMap<Integer, SortedMap<String, SortedSet<String>>> referenceMappings = new TreeMap<Integer, SortedMap<String, SortedSet<String>>>();
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] == EMPTY) continue;
+			int position = positions[slot];
+			int attributeCount = data[position++];
+			for (int index = 0; index < attributeCount; index++) {
+				int referenceCount = data[position + 1];
+				for (int reference = 0; reference < referenceCount; reference++) {
+					if (!filter.test(data[position + 2 + reference])) continue;
+					SortedMap<String, SortedSet<String>> attributeMappings = referenceMappings.computeIfAbsent(keys[slot], number -> new TreeMap<String, SortedSet<String>>());
+					attributeMappings.computeIfAbsent(attributeNames[data[position]], name -> new TreeSet<String>()).add(uriMinter.apply(data[position + 2 + reference]));
+				}
+				position += 2 + referenceCount;
+			}
+		}
+		return referenceMappings;
+	}
+
+	/**
+	 * Visits all the references of the table, in no particular order of documentations.
+	 *
+	 * @param visitor The visitor called for each reference.
+	 */
+	public void forEachReference(ReferenceVisitor visitor) {
+
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] == EMPTY) continue;
+			int position = positions[slot];
+			int attributeCount = data[position++];
+			for (int index = 0; index < attributeCount; index++) {
+				int referenceCount = data[position + 1];
+				for (int reference = 0; reference < referenceCount; reference++) visitor.visit(keys[slot], attributeNames[data[position]], uriMinter.apply(data[position + 2 + reference]));
+				position += 2 + referenceCount;
+			}
+		}
+	}
+
+	private int findSlot(int documentationNumber) {
+
+		int mask = keys.length - 1;
+		int slot = hash(documentationNumber) & mask;
+		while ((keys[slot] != EMPTY) && (keys[slot] != documentationNumber)) slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private static int hash(int key) {
+
+		int hash = key * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Receives the references of a table one by one.
+	 */
+	@FunctionalInterface
+	public interface ReferenceVisitor {
+
+		/**
+		 * Visits a reference.
+		 *
+		 * @param documentationNumber The number of the documentation.
+		 * @param attributeName The name of the attribute.
+		 * @param referenceURI The URI of the reference.
+		 */
+		void visit(int documentationNumber, String attributeName, String referenceURI);
+	}
+
+	/**
+	 * Accumulates references and creates the corresponding table.
+	 * References are either identified by integers (and their URIs created by a function), or given as URIs (which are then stored once).
+	 */
+	public static class Builder {
+
+		private final IntFunction<String> uriMinter;
+		private final List<String> uriPool;
+		private final Map<String, Integer> uriCodes = new HashMap<String, Integer>();
+		private final SortedMap<Integer, SortedMap<String, SortedSet<Integer>>> references = new TreeMap<Integer, SortedMap<String, SortedSet<Integer>>>();
+
+		/**
+		 * Creates a builder for references identified by integers.
+		 *
+		 * @param uriMinter The function creating the URI of a reference from its identifier.
+		 */
+		public Builder(IntFunction<String> uriMinter) {
+
+			this.uriMinter = uriMinter;
+			this.uriPool = null;
+		}
+
+		/**
+		 * Creates a builder for references given as URIs.
+		 */
+		public Builder() {
+
+			this.uriMinter = null;
+			this.uriPool = new ArrayList<String>();
+		}
+
+		/**
+		 * Adds a reference identified by an integer.
+		 *
+		 * @param documentationNumber The number of the documentation.
+		 * @param attributeName The name of the attribute.
+		 * @param reference The identifier of the reference.
+		 * @return This builder.
+		 */
+		public Builder add(int documentationNumber, String attributeName, int reference) {
+
+			if (documentationNumber < 0) throw new IllegalArgumentException("Invalid documentation number " + documentationNumber);
+			references.computeIfAbsent(documentationNumber, number -> new TreeMap<String, SortedSet<Integer>>()).computeIfAbsent(attributeName, name -> new TreeSet<Integer>()).add(reference);
+			return this;
+		}
+
+		/**
+		 * Adds a reference given as a URI.
+		 *
+		 * @param documentationNumber The number of the documentation.
+		 * @param attributeName The name of the attribute.
+		 * @param referenceURI The URI of the reference.
+		 * @return This builder.
+		 */
+		public Builder add(int documentationNumber, String attributeName, String referenceURI) {
+
+			if (uriPool == null) throw new IllegalStateException("References given as URIs are not accepted by this builder");
+			Integer reference = uriCodes.get(referenceURI);
+			if (reference == null) {
+				reference = uriPool.size();
+				uriPool.add(referenceURI);
+				uriCodes.put(referenceURI, reference);
+			}
+			return add(documentationNumber, attributeName, reference);
+		}
+
+		/**
+		 * Creates the table containing the references added so far.
+		 *
+		 * @return The reference table.
+		 */
+		public ReferenceTable build() {
+
+			// Attribute codes are allocated in the order of the attribute names
+			SortedSet<String> attributeNameSet = new TreeSet<String>();
+			int dataLength = 0;
+			for (SortedMap<String, SortedSet<Integer>> attributeReferences : references.values()) {
+				attributeNameSet.addAll(attributeReferences.keySet());
+				dataLength++;
+				for (SortedSet<Integer> referenceSet : attributeReferences.values()) dataLength += 2 + referenceSet.size();
+			}
+			String[] attributeNames = attributeNameSet.toArray(new String[attributeNameSet.size()]);
+
+			// The table is at most half full
+			int capacity = 16;
+			while (capacity < 2 * references.size()) capacity <<= 1;
+			int[] keys = new int[capacity];
+			Arrays.fill(keys, EMPTY);
+			int[] positions = new int[capacity];
+			int[] data = new int[dataLength];
+			IntFunction<String> minter = (uriPool == null) ? uriMinter : poolMinter(uriPool);
+			ReferenceTable table = new ReferenceTable(attributeNames, keys, positions, data, minter, references.size());
+
+			int position = 0;
+			Comparator<Integer> uriOrder = Comparator.comparing(reference -> minter.apply(reference));
+			for (Map.Entry<Integer, SortedMap<String, SortedSet<Integer>>> entry : references.entrySet()) {
+				int slot = table.findSlot(entry.getKey());
+				keys[slot] = entry.getKey();
+				positions[slot] = position;
+				data[position++] = entry.getValue().size();
+				for (Map.Entry<String, SortedSet<Integer>> attributeEntry : entry.getValue().entrySet()) {
+					data[position++] = Arrays.binarySearch(attributeNames, attributeEntry.getKey());
+					data[position++] = attributeEntry.getValue().size();
+					// References are stored in the order of their URIs
+					List<Integer> sortedReferences = new ArrayList<Integer>(attributeEntry.getValue());
+					sortedReferences.sort(uriOrder);
+					for (Integer reference : sortedReferences) data[position++] = reference;
+				}
+			}
+			return table;
+		}
+
+		private static IntFunction<String> poolMinter(List<String> uriPool) {
+
+			String[] uris = uriPool.toArray(new String[uriPool.size()]);
+			return reference -> uris[reference];
+		}
+	}
+}
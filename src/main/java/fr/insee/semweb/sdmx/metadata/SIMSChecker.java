@@ -1,7 +1,6 @@
 package fr.insee.semweb.sdmx.metadata;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -18,11 +17,9 @@ import org.apache.jena.rdf.model.SimpleSelector;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.vocabulary.DC;
 import org.apache.jena.vocabulary.RDFS;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
 
 /**
  * Methods for consistency checking and reporting on SIMS constructs.
@@ -148,33 +145,27 @@ public class SIMSChecker {
 	
 		int sheetNumber = (fromFr ? 1 : 0);
 		
-		Workbook simsWorkbook = null;
-		Sheet simsSheet = null;
-		try {
-			simsWorkbook = WorkbookFactory.create(xlsxFile);
-			simsSheet = simsWorkbook.getSheetAt(sheetNumber);
+		List<SIMSEntry> sims = new ArrayList<SIMSEntry>();
+
+		try (SpreadsheetReader simsReader = SpreadsheetReader.open(xlsxFile)) {
+			Iterator<SpreadsheetRow> rows = simsReader.readRows(sheetNumber);
+			rows.next(); // Skip the title line
+			if (fromFr) rows.next(); // There is a second title line in the SIMSFr format
+			while (rows.hasNext()) {
+				SpreadsheetRow row = rows.next();
+				// Additional lines in the SIMSFr format are identified by a non blank K column ("Origine")
+				if ((fromFr) && (row.getString(10).trim().length() > 0)) continue;
+
+				SIMSEntry simsEntry = SIMSEntry.readFromRow(row, fromFr);
+				if (simsEntry == null) continue;
+
+				System.out.println(simsEntry);
+				sims.add(simsEntry);
+			}
 		} catch (Exception e) {
-			SIMSModelMaker.logger.fatal("Error while opening Excel file - " + e.getMessage());
+			SIMSModelMaker.logger.fatal("Error while reading Excel file - " + e.getMessage());
 			return null;
 		}
-	
-		List<SIMSEntry> sims = new ArrayList<SIMSEntry>();
-	
-		Iterator<Row> rows = simsSheet.rowIterator();
-		rows.next(); // Skip the title line
-		if (fromFr) rows.next(); // There is a second title line in the SIMSFr format
-		while (rows.hasNext()) {
-			Row row = rows.next();
-			// Additional lines in the SIMSFr format are identified by a non blank K column ("Origine")
-			if ((fromFr) && (row.getCell(10, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim().length() > 0)) continue;
-	
-			SIMSEntry simsEntry = SIMSEntry.readFromRow(row, fromFr);
-			if (simsEntry == null) continue;
-	
-			System.out.println(simsEntry);
-			sims.add(simsEntry);
-		}
-		try { simsWorkbook.close(); } catch (IOException ignored) { }
 		return sims;
 	}
 
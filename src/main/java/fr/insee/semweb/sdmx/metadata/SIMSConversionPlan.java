@@ -0,0 +1,197 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTypes;
+import org.apache.jena.vocabulary.ORG;
+import org.apache.jena.vocabulary.XSD;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.insee.semweb.sdmx.metadata.MSDResolver.AttributeProperty;
+import fr.insee.stamina.utils.DQV;
+
+/**
+ * Plan of the conversion of M0 documentations into SIMSFr reports, compiled once from the SIMSFr scheme and MSD.
+ * The plan contains one conversion for each SIMSFr attribute, with the target property, the kind of its range and, for coded attributes, the code concept and recodings.
+ * The plan is immutable and does not refer to the MSD, so it can be used concurrently.
+ *
+ * @author Franck
+ */
+public class SIMSConversionPlan {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(SIMSConversionPlan.class);
+
+	/** Kinds of ranges of the SIMSFr attribute properties, which determine how the M0 values are converted */
+	public enum RangeKind {
+		/** dcmitype:Text: French and English texts with references to links and documents */
+		RICH_TEXT,
+		/** sdmx-mm:ReportedAttribute */
+		REPORTED_ATTRIBUTE,
+		/** xsd:string */
+		STRING,
+		/** xsd:date */
+		DATE,
+		/** dqv:Metric */
+		METRIC,
+		/** Territories */
+		TERRITORY,
+		/** org:Organization */
+		ORGANIZATION,
+		/** Concept associated to a code list */
+		CODE_LIST;
+	}
+
+	/** The conversions of the SIMSFr attributes, in the order of the SIMSFr scheme */
+	private final List<AttributeConversion> conversions;
+
+	private SIMSConversionPlan(List<AttributeConversion> conversions) {
+		this.conversions = Collections.unmodifiableList(conversions);
+	}
+
+	/**
+	 * Compiles the conversion plan for the attributes of a SIMSFr scheme.
+	 * Direct attributes and quality indicators are not converted. Attributes whose property or range cannot be resolved in the MSD are logged and ignored.
+	 *
+	 * @param simsFrMSD The SIMSFr metadata structure definition.
+	 * @param simsFrScheme The SIMSFr scheme.
+	 * @return The conversion plan.
+	 */
+	public static SIMSConversionPlan compile(Model simsFrMSD, SIMSFrScheme simsFrScheme) {
+		return compile(MSDResolver.fromModel(simsFrMSD), simsFrScheme);
+	}
+
+	/**
+	 * Compiles the conversion plan for the attributes of a SIMSFr scheme, with the attribute properties resolved by an MSD resolver.
+	 *
+	 * @param msdResolver The resolver of the SIMSFr metadata structure definition.
+	 * @param simsFrScheme The SIMSFr scheme.
+	 * @return The conversion plan.
+	 */
+	public static SIMSConversionPlan compile(MSDResolver msdResolver, SIMSFrScheme simsFrScheme) {
+
+		List<AttributeConversion> conversions = new ArrayList<AttributeConversion>();
+		for (SIMSFrEntry entry : simsFrScheme.getEntries()) {
+			if (entry.isDirect() || (entry.isQualityMetric())) continue; // Only SIMSFr attributes are converted: excluding direct attributes and quality indicators
+			String propertyURI = Configuration.simsAttributePropertyURI(entry, false);
+			AttributeProperty metadataAttributeProperty = msdResolver.getAttributeProperty(propertyURI);
+			if (metadataAttributeProperty == null) { // This should not happen
+				logger.error("Property " + propertyURI + " not found in the SIMSFr MSD, attribute " + entry.getCode() + " will not be converted");
+				continue;
+			}
+			Resource propertyRange = metadataAttributeProperty.getRange();
+			if (propertyRange == null) {
+				logger.error("No range found in the SIMSFr MSD for property " + propertyURI + ", attribute " + entry.getCode() + " will not be converted");
+				continue;
+			}
+			RangeKind rangeKind = getRangeKind(propertyRange);
+			if (rangeKind == null) {
+				logger.error("Unrecognized property range: " + propertyRange + ", attribute " + entry.getCode() + " will not be converted");
+				continue;
+			}
+			String codeConceptName = null;
+			if (rangeKind == RangeKind.CODE_LIST) codeConceptName = propertyRange.getURI().substring(propertyRange.getURI().lastIndexOf('/') + 1);
+			conversions.add(new AttributeConversion(entry, metadataAttributeProperty.getProperty(), propertyRange, rangeKind, codeConceptName));
+		}
+		logger.debug("SIMSFr conversion plan compiled with " + conversions.size() + " attribute conversions");
+
+		return new SIMSConversionPlan(conversions);
+	}
+
+	/**
+	 * Returns the conversions of the SIMSFr attributes.
+	 *
+	 * @return An unmodifiable list of attribute conversions, in the order of the SIMSFr scheme.
+	 */
+	public List<AttributeConversion> getConversions() {
+		return conversions;
+	}
+
+	/**
+	 * Returns the kind of a property range.
+	 *
+	 * @param propertyRange The range of a SIMSFr attribute property.
+	 * @return The kind of the range, or <code>null</code> if the range is not recognized.
+	 */
+	static RangeKind getRangeKind(Resource propertyRange) {
+
+		if (propertyRange.equals(DCTypes.Text)) return RangeKind.RICH_TEXT;
+		if (propertyRange.equals(Configuration.SIMS_REPORTED_ATTRIBUTE)) return RangeKind.REPORTED_ATTRIBUTE;
+		if (propertyRange.equals(XSD.xstring)) return RangeKind.STRING;
+		if (propertyRange.equals(XSD.date)) return RangeKind.DATE;
+		if (propertyRange.equals(DQV.Metric)) return RangeKind.METRIC;
+		if (propertyRange.equals(Configuration.TERRITORY_MAP_RANGE)) return RangeKind.TERRITORY;
+		if (propertyRange.equals(ORG.Organization)) return RangeKind.ORGANIZATION;
+		// The only remaining case should be code lists, with the range equal to the concept associated to the code list
+		if (propertyRange.isURIResource() && propertyRange.getURI().startsWith(Configuration.INSEE_CODE_CONCEPTS_BASE_URI)) return RangeKind.CODE_LIST;
+
+		return null;
+	}
+
+	/**
+	 * Conversion of one SIMSFr attribute, with everything that can be resolved independently of the documentations.
+	 */
+	public static final class AttributeConversion {
+
+		private final SIMSFrEntry entry;
+		private final Property property;
+		private final Resource range;
+		private final RangeKind rangeKind;
+		private final String codeConceptName;
+
+		private AttributeConversion(SIMSFrEntry entry, Property property, Resource range, RangeKind rangeKind, String codeConceptName) {
+
+			this.entry = entry;
+			this.property = property;
+			this.range = range;
+			this.rangeKind = rangeKind;
+			this.codeConceptName = codeConceptName;
+		}
+
+		/** Returns the SIMSFr entry of the attribute */
+		public SIMSFrEntry getEntry() {
+			return entry;
+		}
+
+		/** Returns the SIMSFr property corresponding to the attribute */
+		public Property getProperty() {
+			return property;
+		}
+
+		/** Returns the range of the property */
+		public Resource getRange() {
+			return range;
+		}
+
+		/** Returns the kind of the range of the property */
+		public RangeKind getRangeKind() {
+			return rangeKind;
+		}
+
+		/** Returns the name of the code concept for coded attributes, <code>null</code> otherwise */
+		public String getCodeConceptName() {
+			return codeConceptName;
+		}
+
+		/**
+		 * Returns the target code corresponding to an M0 code, according to the recoding table of <code>CodeRecoder</code>.
+		 *
+		 * @param code The M0 code.
+		 * @return The target code, which is the M0 code itself if there is no recoding, or <code>null</code> if the M0 code must not be converted.
+		 */
+		public String recode(String code) {
+			return (codeConceptName == null) ? code : CodeRecoder.recode(codeConceptName, code);
+		}
+
+		@Override
+		public String toString() {
+			return entry.getCode() + " -> " + property.getURI() + " (" + rangeKind + ((codeConceptName == null) ? "" : " " + codeConceptName) + ")";
+		}
+	}
+}
@@ -2,8 +2,8 @@ package fr.insee.semweb.sdmx.metadata;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
+
+import fr.insee.semweb.utils.SpreadsheetRow;
 
 /**
  * Represents an entry in the SIMS structure.
@@ -24,15 +24,15 @@ public class SIMSEntry {
 	/**
 	 * Creates a <code>SIMSEntry</code> from a spreadsheet row.
 	 * 
-	 * @param row A SIMS spreadsheet row as a <code>Row</code> object.
+	 * @param row A SIMS spreadsheet row as a <code>SpreadsheetRow</code> object.
 	 * @param fromFr Indicates if the row is in SIMSFr format or just SIMS format.
 	 * @return A <code>SIMSEntry</code> with values read in the row.
 	 */
-	public static SIMSEntry readFromRow(Row row, boolean fromFr) {
+	public static SIMSEntry readFromRow(SpreadsheetRow row, boolean fromFr) {
 
 		int[] indexes = (fromFr ? Configuration.SIMS_COLUMNS_SIMS_FR : Configuration.SIMS_COLUMNS_SIMS);
 
-		String notationAndName = row.getCell(indexes[0], MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		String notationAndName = row.getString(indexes[0]).trim();
 		if (notationAndName.length() == 0) return null; // Avoids a trailing empty line in the "Plus" format
 		String notation = notationAndName.split(" ")[0];
 		SIMSEntry entry = (fromFr ? new SIMSFrEntry(notation) : new SIMSEntry(notation));
@@ -40,19 +40,19 @@ public class SIMSEntry {
 		entry.setType((notation.split("\\.").length == 2) ? EntryType.CATEGORY : EntryType.DIMENSION);
 
 		// Concept name is in column B (SIMSFr: F), never empty
-		String cellValue = row.getCell(indexes[1], MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		String cellValue = row.getString(indexes[1]).trim();
 		entry.setName(cellValue);
 
 		// Concept code is in column C (SIMSFr: E), never empty
-		cellValue = row.getCell(indexes[2], MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(indexes[2]).trim();
 		entry.setCode(cellValue);
 
 		// Description is in column D (SIMSFr: G), can be empty (only case S.3)
-		cellValue = row.getCell(indexes[3], MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(indexes[3]).trim();
 		if (cellValue.length() > 0) entry.setDescription(cellValue);
 
 		// Representation is in column E (SIMSFr: J), can be empty
-		cellValue = row.getCell(indexes[4], MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(indexes[4]).trim();
 		if (cellValue.length() > 0) {
 			entry.setRepresentation(cellValue);
 			if (cellValue.toLowerCase().startsWith("quality")) entry.setType(EntryType.METRIC);
@@ -60,9 +60,9 @@ public class SIMSEntry {
 
 		// The next attributes are only available in the base format
 		if (!fromFr) {
-			cellValue = row.getCell(5, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			cellValue = row.getString(5).trim();
 			if (cellValue.length() > 0) entry.setGuidelines(cellValue); // Guidelines are in column F, can be empty
-			cellValue = row.getCell(6, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+			cellValue = row.getString(6).trim();
 			if (cellValue.length() > 0) entry.setIndicators(cellValue); // Quality indicators are in column G, often empty
 		}
 
@@ -8,9 +8,8 @@ import org.apache.jena.vocabulary.ORG;
 import org.apache.jena.vocabulary.XSD;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
 
+import fr.insee.semweb.utils.SpreadsheetRow;
 import fr.insee.stamina.utils.DQV;
 
 /**
@@ -38,10 +37,10 @@ public class SIMSFrEntry extends SIMSEntry {
 	/**
 	 * Reads a SIMSFr entry from a row in the base Excel spreadsheet.
 	 * 
-	 * @param row The row (POI user model object) storing the characteristics of the entry.
+	 * @param row The row (<code>SpreadsheetRow</code> object) storing the characteristics of the entry.
 	 * @return The SIMSFr entry read.
 	 */
-	public static SIMSFrEntry readFromRow(Row row) {
+	public static SIMSFrEntry readFromRow(SpreadsheetRow row) {
 
 		SIMSEntry baseEntry = SIMSEntry.readFromRow(row, true);
 		if (baseEntry == null) return null;
@@ -49,31 +48,31 @@ public class SIMSFrEntry extends SIMSEntry {
 		SIMSFrEntry entry = (SIMSFrEntry) baseEntry;
 
 		// Dissemination is in column A, should not be empty
-		String cellValue = row.getCell(0, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		String cellValue = row.getString(0).trim();
 		entry.setDissemination(cellValue);
 
 		// Metric is in column D, often empty
-		cellValue = row.getCell(3, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim().replace("\n", " ");
+		cellValue = row.getString(3).trim().replace("\n", " ");
 		if (cellValue.length() > 0) entry.setMetric(cellValue);
 
 		// French concept name is in column H, never empty
-		cellValue = row.getCell(7, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(7).trim();
 		entry.setFrenchName(cellValue);
 
 		// French description is in column I, can be empty (only S.3)
-		cellValue = row.getCell(8, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(8).trim();
 		if (cellValue.length() > 0) entry.setFrenchDescription(cellValue);
 
 		// Origin is in column K, often empty (only present for French additions)
-		cellValue = row.getCell(10, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(10).trim();
 		if (cellValue.length() > 0) entry.setOrigin(cellValue);
 
 		// Insee representation is in column L, can be empty
-		cellValue = row.getCell(11, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(11).trim();
 		if (cellValue.length() > 0) entry.setInseeRepresentation(cellValue);
 
 		// Multiplicity is in column M, can be empty
-		cellValue = row.getCell(12, MissingCellPolicy.CREATE_NULL_AS_BLANK).toString().trim();
+		cellValue = row.getString(12).trim();
 		entry.setMultiple(cellValue.equalsIgnoreCase("oui"));
 
 		return entry;
@@ -1,8 +1,17 @@
 package fr.insee.semweb.sdmx.metadata;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -10,26 +19,98 @@ import java.util.Map;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import fr.insee.semweb.sdmx.metadata.SIMSEntry.EntryType;
+import fr.insee.semweb.utils.SnapshotCache;
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
 
 /**
  * The <code>SIMSFrScheme</code> class represents the structure of the SIMSv2Fr standard.
+ * A scheme is immutable once built: it is created with a <code>Builder</code> and indexes its entries by index, code and notation.
+ * The parent and children of each entry and the depth-first order of the entries are calculated when the scheme is built.
  * 
  * @author Franck Cotton
  */
 public class SIMSFrScheme {
 
-	private String name = null;
-	private String source = null;
-	private List<SIMSFrEntry> entries = null;
+	private final String name;
+	private final String source;
+	private final List<SIMSFrEntry> entries;
+
+	/** Positions of the entries in the list, indexed by entry index, code and notation (first entry for each key) */
+	private final Map<String, Integer> indexPositions = new HashMap<String, Integer>();
+	private final Map<String, Integer> codePositions = new HashMap<String, Integer>();
+	private final Map<String, Integer> notationPositions = new HashMap<String, Integer>();
+	/** Positions of the indirect entries, indexed by entry index (direct entries are not part of hierarchies) */
+	private final Map<String, Integer> indirectIndexPositions = new HashMap<String, Integer>();
+	/** Position of the parent of each entry (-1 if no parent) */
+	private final int[] parents;
+	/** Positions of the children of each entry */
+	private final int[][] children;
+	/** Entries in depth-first order */
+	private final List<SIMSFrEntry> depthFirstEntries;
 
 	private static Logger logger = LogManager.getLogger(SIMSFrScheme.class);
 
-	public SIMSFrScheme() {
-		this.entries = new ArrayList<SIMSFrEntry>();
+	/** Extension of the snapshot files of SIMSFr schemes */
+	public static final String SNAPSHOT_EXTENSION = ".sims";
+	/** Version of the binary format of the scheme, to be incremented when the format changes */
+	private static final int BINARY_FORMAT_VERSION = 1;
+
+	private SIMSFrScheme(String name, String source, List<SIMSFrEntry> entries) {
+
+		this.name = name;
+		this.source = source;
+		this.entries = Collections.unmodifiableList(new ArrayList<SIMSFrEntry>(entries));
+
+		int size = this.entries.size();
+		for (int position = 0; position < size; position++) {
+			SIMSFrEntry entry = this.entries.get(position);
+			if (entry.getIndex() != null) {
+				indexPositions.putIfAbsent(entry.getIndex(), position);
+				if (!entry.isDirect()) indirectIndexPositions.putIfAbsent(entry.getIndex(), position);
+			}
+			if (entry.getCode() != null) codePositions.putIfAbsent(entry.getCode(), position);
+			notationPositions.putIfAbsent(entry.getNotation(), position);
+		}
+
+		parents = new int[size];
+		int[] childCounts = new int[size];
+		for (int position = 0; position < size; position++) {
+			parents[position] = parentPosition(this.entries.get(position));
+			if (parents[position] >= 0) childCounts[parents[position]]++;
+		}
+		children = new int[size][];
+		for (int position = 0; position < size; position++) children[position] = new int[childCounts[position]];
+		int[] filled = new int[size];
+		for (int position = 0; position < size; position++) {
+			int parent = parents[position];
+			if (parent >= 0) children[parent][filled[parent]++] = position;
+		}
+
+		// Depth-first traversal from the entries without parent, children in the order of the scheme
+		List<SIMSFrEntry> ordered = new ArrayList<SIMSFrEntry>(size);
+		Deque<Integer> stack = new ArrayDeque<Integer>();
+		for (int position = 0; position < size; position++) {
+			if (parents[position] >= 0) continue;
+			stack.push(position);
+			while (!stack.isEmpty()) {
+				int current = stack.pop();
+				ordered.add(this.entries.get(current));
+				for (int child = children[current].length - 1; child >= 0; child--) stack.push(children[current][child]);
+			}
+		}
+		depthFirstEntries = Collections.unmodifiableList(ordered);
+	}
+
+	/**
+	 * Returns a new builder of SIMSFr scheme.
+	 * 
+	 * @return An empty <code>Builder</code>.
+	 */
+	public static Builder builder() {
+		return new Builder();
 	}
 
 	/**
@@ -39,10 +120,7 @@ public class SIMSFrScheme {
 	 * @return <code>true</code> if the index was found, <code>false</code> otherwise.
 	 */
 	public boolean containsIndex(String index) {
-		for (SIMSFrEntry entry : this.entries) {
-			if (entry.getIndex().equals(index)) return true;
-		}
-		return false;
+		return indexPositions.containsKey(index);
 	}
 
 	/**
@@ -70,56 +148,232 @@ public class SIMSFrScheme {
 	 */
 	public SIMSFrEntry getParent(SIMSFrEntry childEntry) {
 
-		if ((childEntry == null) || (childEntry.getNotation() == null)) return null;
-		if (childEntry.isDirect()) return null; // We do not consider hierarchies on direct attributes
+		int parent = parentPosition(childEntry);
+		return (parent < 0) ? null : entries.get(parent);
+	}
+
+	/**
+	 * Gets the children of an entry of the scheme.
+	 * 
+	 * @param parentEntry The entry (<code>SIMSFrEntry</code> object) whose children are sought.
+	 * @return The list of the children of the entry in the order of the scheme (empty list if the entry does not belong to the scheme).
+	 */
+	public List<SIMSFrEntry> getChildren(SIMSFrEntry parentEntry) {
+
+		if ((parentEntry == null) || (parentEntry.getNotation() == null)) return Collections.emptyList();
+		Integer position = notationPositions.get(parentEntry.getNotation());
+		if (position == null) return Collections.emptyList();
+		List<SIMSFrEntry> childEntries = new ArrayList<SIMSFrEntry>(children[position].length);
+		for (int child : children[position]) childEntries.add(entries.get(child));
+		return childEntries;
+	}
+
+	/**
+	 * Gets the entry with a given index (notation without the section letter, e.g. 1.1 for S.1.1).
+	 * 
+	 * @param index The index of the entry.
+	 * @return The entry (<code>SIMSFrEntry</code> object) or <code>null</code> if no entry has this index.
+	 */
+	public SIMSFrEntry getEntryByIndex(String index) {
+		return getEntry(indexPositions, index);
+	}
+
+	/**
+	 * Gets the entry with a given code (e.g. CONTACT_ORGANISATION).
+	 * 
+	 * @param code The code of the entry.
+	 * @return The entry (<code>SIMSFrEntry</code> object) or <code>null</code> if no entry has this code.
+	 */
+	public SIMSFrEntry getEntryByCode(String code) {
+		return getEntry(codePositions, code);
+	}
+
+	/**
+	 * Gets the entry with a given notation (e.g. S.1.1).
+	 * 
+	 * @param notation The notation of the entry.
+	 * @return The entry (<code>SIMSFrEntry</code> object) or <code>null</code> if no entry has this notation.
+	 */
+	public SIMSFrEntry getEntryByNotation(String notation) {
+		return getEntry(notationPositions, notation);
+	}
+
+	/**
+	 * Returns the entries of the scheme in depth-first order: each entry is followed by its descendants.
+	 * 
+	 * @return The unmodifiable list of the entries in depth-first order.
+	 */
+	public List<SIMSFrEntry> getDepthFirstEntries() {
+		return depthFirstEntries;
+	}
+
+	/** Returns the position of the parent of an entry, or -1 if there is none (direct entries have no parent) */
+	private int parentPosition(SIMSFrEntry childEntry) {
+
+		if ((childEntry == null) || (childEntry.getNotation() == null)) return -1;
+		if (childEntry.isDirect()) return -1; // We do not consider hierarchies on direct attributes
 		String parentIndex = childEntry.getParentIndex();
-		if (parentIndex != null) {
-			for (SIMSFrEntry entry : this.entries) {
-				if (entry.isDirect()) continue;
-				if (entry.getIndex().equals(parentIndex)) return entry;
-			}
-		}
-		return null;
+		if (parentIndex == null) return -1;
+		Integer parent = indirectIndexPositions.get(parentIndex);
+		return (parent == null) ? -1 : parent;
+	}
+
+	private SIMSFrEntry getEntry(Map<String, Integer> positions, String key) {
+
+		if (key == null) return null;
+		Integer position = positions.get(key);
+		return (position == null) ? null : entries.get(position);
 	}
 
 	/**
 	 * Reads the SIMSFr scheme from an Excel file.
+	 * If workbook snapshots are activated, the scheme is read from the binary snapshot of the file when it is up to date, and the snapshot is created otherwise.
 	 * 
 	 * @param xlsxFile The Excel file specifying the SIMSFr.
 	 * @return The SIMSFr as a <code>SIMSFrScheme</code> object, or <code>null</code> in case of problem.
 	 */
 	public static SIMSFrScheme readSIMSFrFromExcel(File xlsxFile) {
+
+		if (!Configuration.USE_WORKBOOK_SNAPSHOTS) return parseSIMSFrFromExcel(xlsxFile);
+
+		File snapshotDirectory = new File(Configuration.SNAPSHOT_DIRECTORY);
+		SIMSFrScheme simsFr = SnapshotCache.readSnapshot(xlsxFile, snapshotDirectory, SNAPSHOT_EXTENSION, input -> readBinaryBuilder(input).setSource(xlsxFile.getPath()).build());
+		if (simsFr != null) {
+			logger.info("SIMSFr scheme read from snapshot of Excel file " + xlsxFile.getAbsolutePath() + ", number of entries in the scheme: " + simsFr.getEntries().size());
+			return simsFr;
+		}
+		SIMSFrScheme parsedScheme = parseSIMSFrFromExcel(xlsxFile);
+		if (parsedScheme != null) SnapshotCache.writeSnapshot(xlsxFile, snapshotDirectory, SNAPSHOT_EXTENSION, parsedScheme::writeBinary);
+
+		return parsedScheme;
+	}
+
+	/**
+	 * Parses the SIMSFr scheme in an Excel file.
+	 * 
+	 * @param xlsxFile The Excel file specifying the SIMSFr.
+	 * @return The SIMSFr as a <code>SIMSFrScheme</code> object, or <code>null</code> in case of problem.
+	 */
+	private static SIMSFrScheme parseSIMSFrFromExcel(File xlsxFile) {
 	
-		Workbook simsWorkbook = null;
-		Sheet simsFrSheet = null;
-		try {
-			logger.info("Reading SIMSFr scheme from Excel file " + xlsxFile.getAbsolutePath());
-			simsWorkbook = WorkbookFactory.create(xlsxFile);
-			simsFrSheet = simsWorkbook.getSheetAt(1); // SIMSFr is on the second sheet
+		logger.info("Reading SIMSFr scheme from Excel file " + xlsxFile.getAbsolutePath());
+		Builder builder = builder().setName(Configuration.simsConceptSchemeName(false, false)).setSource(xlsxFile.getPath());
+
+		try (SpreadsheetReader simsReader = SpreadsheetReader.open(xlsxFile)) {
+			Iterator<SpreadsheetRow> rows = simsReader.readRows(1); // SIMSFr is on the second sheet
+			rows.next(); rows.next(); // Skip two title lines
+			while (rows.hasNext()) {
+				SIMSFrEntry simsFrEntry = SIMSFrEntry.readFromRow(rows.next());
+				if (simsFrEntry == null) continue;
+				builder.addEntry(simsFrEntry);
+				logger.debug("Entry read: " + simsFrEntry);
+			}
 		} catch (Exception e) {
-			logger.fatal("Error while opening Excel file - " + e.getMessage());
+			logger.fatal("Error while reading Excel file - " + e.getMessage());
 			return null;
 		}
-	
-		SIMSFrScheme simsFr = new SIMSFrScheme();
-		simsFr.setName(Configuration.simsConceptSchemeName(false, false));
-		simsFr.setSource(xlsxFile.getPath());
-	
-		Iterator<Row> rows = simsFrSheet.rowIterator();
-		rows.next(); rows.next(); // Skip two title lines
-		while (rows.hasNext()) {
-			Row row = rows.next();
-			SIMSFrEntry simsFrEntry = SIMSFrEntry.readFromRow(row);
-			if (simsFrEntry == null) continue;
-			simsFr.addEntry(simsFrEntry);
-			logger.debug("Entry read: " + simsFrEntry);
-		}
-		try { simsWorkbook.close(); } catch (IOException ignored) { }
+		SIMSFrScheme simsFr = builder.build();
 		logger.info("Finished reading SIMSFr scheme, number of entries in the scheme: " + simsFr.getEntries().size());
 	
 		return simsFr;
 	}
 
+	/**
+	 * Writes the SIMSFr scheme in a compact binary format.
+	 * 
+	 * @param output The stream where the scheme is written (it is not closed).
+	 * @throws IOException In case of problem while writing.
+	 */
+	public void writeBinary(OutputStream output) throws IOException {
+
+		DataOutputStream dataOutput = new DataOutputStream(output);
+		dataOutput.writeInt(BINARY_FORMAT_VERSION);
+		writeString(dataOutput, name);
+		writeString(dataOutput, source);
+		dataOutput.writeInt(entries.size());
+		for (SIMSFrEntry entry : entries) {
+			writeString(dataOutput, entry.getNotation());
+			writeString(dataOutput, entry.getCode());
+			writeString(dataOutput, entry.getName());
+			writeString(dataOutput, entry.getDescription());
+			writeString(dataOutput, entry.getRepresentation());
+			writeString(dataOutput, entry.getGuidelines());
+			writeString(dataOutput, entry.getIndicators());
+			writeString(dataOutput, entry.getType().name());
+			writeString(dataOutput, entry.getDissemination());
+			writeString(dataOutput, entry.getMetric());
+			writeString(dataOutput, entry.getFrenchName());
+			writeString(dataOutput, entry.getFrenchDescription());
+			writeString(dataOutput, entry.getOrigin());
+			writeString(dataOutput, entry.getInseeRepresentation());
+			dataOutput.writeBoolean(entry.isMultiple());
+		}
+		dataOutput.flush();
+	}
+
+	/**
+	 * Reads a SIMSFr scheme written in binary format by <code>writeBinary</code>.
+	 * 
+	 * @param input The stream from which the scheme is read.
+	 * @return The SIMSFr as a <code>SIMSFrScheme</code> object.
+	 * @throws IOException In case of problem while reading, or if the binary format is not the current one.
+	 */
+	public static SIMSFrScheme readBinary(InputStream input) throws IOException {
+		return readBinaryBuilder(input).build();
+	}
+
+	/** Reads a SIMSFr scheme written in binary format into a builder */
+	private static Builder readBinaryBuilder(InputStream input) throws IOException {
+
+		DataInputStream dataInput = new DataInputStream(input);
+		int version = dataInput.readInt();
+		if (version != BINARY_FORMAT_VERSION) throw new IOException("Unsupported binary format version " + version);
+		Builder builder = builder().setName(readString(dataInput)).setSource(readString(dataInput));
+		int entryCount = dataInput.readInt();
+		for (int index = 0; index < entryCount; index++) {
+			SIMSFrEntry entry = new SIMSFrEntry(readString(dataInput));
+			entry.setCode(readString(dataInput));
+			entry.setName(readString(dataInput));
+			entry.setDescription(readString(dataInput));
+			entry.setRepresentation(readString(dataInput));
+			entry.setGuidelines(readString(dataInput));
+			entry.setIndicators(readString(dataInput));
+			entry.setType(EntryType.valueOf(readString(dataInput)));
+			entry.setDissemination(readString(dataInput));
+			entry.setMetric(readString(dataInput));
+			entry.setFrenchName(readString(dataInput));
+			entry.setFrenchDescription(readString(dataInput));
+			entry.setOrigin(readString(dataInput));
+			entry.setInseeRepresentation(readString(dataInput));
+			entry.setMultiple(dataInput.readBoolean());
+			builder.addEntry(entry);
+		}
+
+		return builder;
+	}
+
+	/** Writes a string which can be null (the length is not limited as with writeUTF) */
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+
+		if (value == null) {
+			output.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	/** Reads a string written by writeString */
+	private static String readString(DataInputStream input) throws IOException {
+
+		int length = input.readInt();
+		if (length < 0) return null;
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
 	/**
 	 * Returns a string representation of the SIMSFr scheme.
 	 */
@@ -180,27 +434,53 @@ public class SIMSFrScheme {
 		return name;
 	}
 
-	public void setName(String name) {
-		this.name = name;
-	}
-
 	public String getSource() {
 		return source;
 	}
 
-	public void setSource(String source) {
-		this.source = source;
-	}
-
+	/**
+	 * Returns the entries of the scheme, in the order of the specification.
+	 * 
+	 * @return The unmodifiable list of the entries.
+	 */
 	public List<SIMSFrEntry> getEntries() {
 		return entries;
 	}
 
-	public void setEntries(List<SIMSFrEntry> entries) {
-		this.entries = entries;
-	}
+	/**
+	 * Builder of <code>SIMSFrScheme</code> objects.
+	 * The entries must not be modified once the scheme is built, since the scheme indexes them.
+	 */
+	public static class Builder {
+
+		private String name = null;
+		private String source = null;
+		private List<SIMSFrEntry> entries = new ArrayList<SIMSFrEntry>();
+
+		private Builder() {}
 
-	public void addEntry(SIMSFrEntry entry) {
-		this.entries.add(entry);
+		public Builder setName(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public Builder setSource(String source) {
+			this.source = source;
+			return this;
+		}
+
+		public Builder addEntry(SIMSFrEntry entry) {
+			this.entries.add(entry);
+			return this;
+		}
+
+		/**
+		 * Builds the SIMSFr scheme containing the entries added, in the order of addition.
+		 * 
+		 * @return The SIMSFr scheme.
+		 */
+		public SIMSFrScheme build() {
+			return new SIMSFrScheme(name, source, entries);
+		}
 	}
 }
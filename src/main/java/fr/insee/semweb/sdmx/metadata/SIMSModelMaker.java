@@ -1,18 +1,28 @@
 package fr.insee.semweb.sdmx.metadata;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.jena.ontology.DatatypeProperty;
 import org.apache.jena.ontology.ObjectProperty;
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
 import org.apache.jena.vocabulary.DC;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.OWL;
@@ -35,8 +45,8 @@ public class SIMSModelMaker {
 
 	public static Logger logger = LogManager.getLogger(SIMSModelMaker.class);
 
-	/** Jena model for the SDMX metadata vocabulary model */
-	public static OntModel sdmxModel = null;
+	/** Names of the SIMS/SIMSFr models (also used for their graphs in the combined file), in the order of creation */
+	private static final String[] SIMS_MODEL_NAMES = {"sims-cs", "sims-fr-cs", "sims-msd", "sims-fr-msd"};
 
 	/**
 	 * Reads the SIMS/SIMSFr in an Excel files and creates all the Jena models: concept schemes and MSD for both SIMSv2 and SIMSv2Fr.
@@ -56,43 +66,84 @@ public class SIMSModelMaker {
 			System.exit(1);
 		}
 
-		// Create the SKOS concept scheme for SIMSv2 (strict) without the French labels and with the DQV constructs
-		Model simsSKOSModel = createConceptScheme(simsFrScheme, true, false, true);
 		try {
-			simsSKOSModel.write(new FileWriter(Configuration.SIMS_CS_TURTLE_FILE_NAME), "TTL");
-		} catch (IOException e) {
-			logger.fatal("Error writing the SIMSv2 concept scheme Turtle file", e);
+			writeAllModels(simsFrScheme);
+		} catch (Exception e) {
+			logger.fatal("Error writing the SIMS/SIMSFr models", e);
 			System.exit(1);
 		}
+	}
+
+	/**
+	 * Creates concurrently the concept schemes and MSDs of SIMSv2 and SIMSv2Fr and writes them in their Turtle files and in the combined TriG file.
+	 * Each model is written as soon as it is created, and the combined file is written while the Turtle files are.
+	 * 
+	 * @param simsFrScheme The SIMSFr scheme, which is only read by the concurrent creations.
+	 * @throws IOException In case of problem while writing the combined file (problems while writing Turtle files are rethrown by <code>ForkJoinTask.join</code>).
+	 */
+	public static void writeAllModels(SIMSFrScheme simsFrScheme) throws IOException {
+
+		// The SDMX vocabulary and the code list mappings are read once and shared by the two MSD creations
+		Model sdmxMMModel = MSDResolver.readModel(Configuration.SDMX_MM_TURTLE_FILE_NAME);
+		Map<String, Resource> clMappings = CodelistModelMaker.getNotationConceptMappings();
 
-		// Create the SKOS concept scheme for SIMSv2Fr with the French labels and the DQV constructs
-		simsSKOSModel = createConceptScheme(simsFrScheme, false, true, true);
+		String[] turtleFileNames = {Configuration.SIMS_CS_TURTLE_FILE_NAME, Configuration.SIMS_FR_CS_TURTLE_FILE_NAME, Configuration.SIMS_MSD_TURTLE_FILE_NAME, Configuration.SIMS_FR_MSD_TURTLE_FILE_NAME};
+		ForkJoinPool pool = new ForkJoinPool(SIMS_MODEL_NAMES.length);
 		try {
-			simsSKOSModel.write(new FileWriter(Configuration.SIMS_FR_CS_TURTLE_FILE_NAME), "TTL");
-		} catch (IOException e) {
-			logger.fatal("Error writing the SIMSv2Fr concept scheme Turtle file", e);
-			System.exit(1);
+			List<ForkJoinTask<Model>> modelTasks = Arrays.asList(
+				pool.submit(() -> createConceptScheme(simsFrScheme, true, false, true)), // SIMSv2 (strict) without the French labels
+				pool.submit(() -> createConceptScheme(simsFrScheme, false, true, true)),
+				pool.submit(() -> createMetadataStructureDefinition(simsFrScheme, sdmxMMModel, clMappings, true, false)),
+				pool.submit(() -> createMetadataStructureDefinition(simsFrScheme, sdmxMMModel, clMappings, false, true)));
+
+			Dataset simsDataset = DatasetFactory.create();
+			List<ForkJoinTask<String>> writeTasks = new ArrayList<ForkJoinTask<String>>();
+			for (int index = 0; index < SIMS_MODEL_NAMES.length; index++) {
+				Model simsModel = modelTasks.get(index).join();
+				String turtleFileName = turtleFileNames[index];
+				writeTasks.add(pool.submit(() -> writeModel(simsModel, turtleFileName)));
+				simsDataset.addNamedModel(Configuration.simsMetadataGraphURI(SIMS_MODEL_NAMES[index]), simsModel);
+				simsDataset.getDefaultModel().setNsPrefixes(simsModel);
+			}
+			// The models are only read from now on, so the combined file can be written while the Turtle files are
+			writeDataset(simsDataset, Configuration.SIMS_METADATA_TRIG_FILE_NAME);
+			for (ForkJoinTask<String> writeTask : writeTasks) writeTask.join();
+		} finally {
+			pool.shutdown();
 		}
-		simsSKOSModel.close();
+		logger.info("SIMS/SIMSFr models written in " + Arrays.asList(turtleFileNames) + " and " + Configuration.SIMS_METADATA_TRIG_FILE_NAME);
+	}
 
-		// Create the SIMS MSD model for SIMSv2 (strict, ie without French extensions)
-		Model simsMSDModel = createMetadataStructureDefinition(simsFrScheme, true, false);
-		try {
-			simsMSDModel.write(new FileWriter(Configuration.SIMS_MSD_TURTLE_FILE_NAME), "TTL");
-		} catch (IOException e) {
-			logger.fatal("Error writing the SIMSv2 MSD Turtle file", e);
-			System.exit(1);
+	/**
+	 * Writes a model in a Turtle file, with the pretty layout of the published Turtle files.
+	 * 
+	 * @param model The model to write.
+	 * @param turtleFileName The name of the Turtle file.
+	 * @return The name of the Turtle file.
+	 * @throws IOException In case of problem while writing the file.
+	 */
+	private static String writeModel(Model model, String turtleFileName) throws IOException {
+
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(turtleFileName), 1 << 16)) {
+			RDFDataMgr.write(output, model, RDFFormat.TURTLE_PRETTY);
 		}
+		logger.debug("Model written in file " + turtleFileName);
+		return turtleFileName;
+	}
 
-		// Create the SIMS MSD model for SIMSv2Fr
-		simsMSDModel = createMetadataStructureDefinition(simsFrScheme, false, true);
-		try {
-			simsMSDModel.write(new FileWriter(Configuration.SIMS_FR_MSD_TURTLE_FILE_NAME), "TTL");
-		} catch (IOException e) {
-			logger.fatal("Error writing the SIMSv2Fr MSD Turtle file", e);
-			System.exit(1);
+	/**
+	 * Writes a dataset in a TriG file with a streaming writer.
+	 * 
+	 * @param dataset The dataset to write.
+	 * @param trigFileName The name of the TriG file.
+	 * @throws IOException In case of problem while writing the file.
+	 */
+	private static void writeDataset(Dataset dataset, String trigFileName) throws IOException {
+
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(trigFileName), 1 << 16)) {
+			RDFDataMgr.write(output, dataset, RDFFormat.TRIG_BLOCKS);
 		}
-		simsMSDModel.close();
+		logger.debug("Dataset written in file " + trigFileName);
 	}
 
 	/**
@@ -219,14 +270,28 @@ public class SIMSModelMaker {
 	 */
 	public static Model createMetadataStructureDefinition(SIMSFrScheme sims, boolean simsStrict, boolean addFrench) {
 
-		logger.info("About to create the model for the " + (simsStrict ? " SIMS" : "SIMSFr") + " Metadata Structure Definition");
-
-		// Read the SDMX metadata model RDF vocabulary in the OntModel
+		// Read the SDMX metadata model RDF vocabulary: only its terms are used, so no inference is needed
 		logger.debug("About to read the SDMX metadata model RDF vocabulary");
-		sdmxModel = readSDMXModel(Configuration.SDMX_MM_TURTLE_FILE_NAME, true);
+		Model sdmxModel = MSDResolver.readModel(Configuration.SDMX_MM_TURTLE_FILE_NAME);
 
 		// We will need the code mappings for the range calculations
-		Map<String, Resource> clMappings = CodelistModelMaker.getNotationConceptMappings();
+		return createMetadataStructureDefinition(sims, sdmxModel, CodelistModelMaker.getNotationConceptMappings(), simsStrict, addFrench);
+	}
+
+	/**
+	 * Creates the Metadata Structure Definition associated to the SIMS in a Jena model, with a given SDMX vocabulary and code list mappings.
+	 * The vocabulary model and mappings are only read, so MSDs can be created concurrently with the same inputs.
+	 * 
+	 * @param sims A <code>SIMSScheme</object> containing the SIMS model.
+	 * @param sdmxModel The SDMX metadata model RDF vocabulary.
+	 * @param clMappings The mappings between code list notations and associated concepts, used for the range calculations.
+	 * @param simsStrict A boolean indicating if the MSD generated is restricted to the SIMS or extended to SIMSFr.
+	 * @param addFrench A boolean indicating if French labels and descriptions should be included.
+	 * @return A Jena <code>Model</code> containing the metadata structure definition.
+	 */
+	public static Model createMetadataStructureDefinition(SIMSFrScheme sims, Model sdmxModel, Map<String, Resource> clMappings, boolean simsStrict, boolean addFrench) {
+
+		logger.info("About to create the model for the " + (simsStrict ? " SIMS" : "SIMSFr") + " Metadata Structure Definition");
 
 		Model msdModel = ModelFactory.createDefaultModel();
 		msdModel.setNsPrefix("rdfs", RDFS.getURI());
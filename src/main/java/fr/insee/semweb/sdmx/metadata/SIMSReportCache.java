@@ -0,0 +1,222 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.insee.semweb.utils.Utils;
+
+/**
+ * Local cache of converted SIMS reports, keyed by a fingerprint of the M0 information used to convert each report.
+ * Each report is stored in a Turtle file named after the documentation number and the fingerprint, so a report whose fingerprint did not change since the last conversion can be read instead of converted again.
+ * The cache also keeps track of the reports added, changed, unchanged or removed since the previous conversion.
+ * Errors are logged but not propagated, since a missing cache entry only means that the report will be converted again.
+ *
+ * @author Franck
+ */
+public class SIMSReportCache {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(SIMSReportCache.class);
+
+	/** Version of the conversion, included in the fingerprints: must be changed when the conversion algorithm changes */
+	public static final String CONVERSION_VERSION = "1";
+
+	/** Extension of the report files */
+	public static final String REPORT_EXTENSION = ".ttl";
+
+	/** The directory where the reports are stored */
+	private final File cacheDirectory;
+	/** Fingerprints of the reports found in the cache directory at creation, indexed by documentation number */
+	private final SortedMap<Integer, String> previousFingerprints = new TreeMap<Integer, String>();
+
+	private final SortedSet<Integer> addedReports = new TreeSet<Integer>();
+	private final SortedSet<Integer> changedReports = new TreeSet<Integer>();
+	private final SortedSet<Integer> unchangedReports = new TreeSet<Integer>();
+	private final SortedSet<Integer> removedReports = new TreeSet<Integer>();
+
+	/**
+	 * Creates a cache of SIMS reports stored in a given directory, and lists the reports already present.
+	 *
+	 * @param cacheDirectory The directory where the reports are stored (created if necessary).
+	 */
+	public SIMSReportCache(File cacheDirectory) {
+
+		this.cacheDirectory = cacheDirectory;
+		File[] reportFiles = cacheDirectory.listFiles((directory, name) -> name.endsWith(REPORT_EXTENSION));
+		if (reportFiles == null) return;
+		for (File reportFile : reportFiles) {
+			String[] nameParts = reportFile.getName().split("\\.");
+			if ((nameParts.length != 3) || !nameParts[0].matches("\\d+")) continue;
+			previousFingerprints.put(Integer.parseInt(nameParts[0]), nameParts[1]);
+		}
+		logger.debug(previousFingerprints.size() + " reports found in cache directory " + cacheDirectory);
+	}
+
+	/**
+	 * Calculates the fingerprint of a documentation from the triples of its M0 model and other textual information.
+	 * Blank nodes are ignored in the fingerprint since their labels are not stable from one parsing to another.
+	 *
+	 * @param m0Model The M0 model of the documentation.
+	 * @param information Other information used for the conversion of the documentation (context, references, etc.).
+	 * @return The fingerprint of the documentation, as a hexadecimal string.
+	 */
+	public static String fingerprint(Model m0Model, String... information) {
+
+		MessageDigest digest = Utils.sha256Digest();
+		digest.update(CONVERSION_VERSION.getBytes(StandardCharsets.UTF_8));
+		for (String part : information) {
+			digest.update((byte) 0);
+			digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+		}
+		// Triples are sorted so that the fingerprint does not depend on the order of the statements in the model
+		List<String> triples = new ArrayList<String>();
+		if (m0Model != null) m0Model.getGraph().find().forEachRemaining(triple -> triples.add(tripleString(triple)));
+		Collections.sort(triples);
+		for (String triple : triples) {
+			digest.update((byte) 0);
+			digest.update(triple.getBytes(StandardCharsets.UTF_8));
+		}
+		return Utils.hexString(digest.digest());
+	}
+
+	/**
+	 * Returns the report of a documentation stored in the cache, if its fingerprint has not changed.
+	 *
+	 * @param documentationNumber The number of the documentation.
+	 * @param fingerprint The current fingerprint of the documentation.
+	 * @return The model of the report, or <code>null</code> if there is no valid report for this fingerprint in the cache.
+	 */
+	public Model get(int documentationNumber, String fingerprint) {
+
+		if (!fingerprint.equals(getPreviousFingerprint(documentationNumber))) return null;
+		File reportFile = getReportFile(documentationNumber, fingerprint);
+		Model reportModel = ModelFactory.createDefaultModel();
+		try {
+			RDFDataMgr.read(reportModel, reportFile.getPath(), Lang.TURTLE);
+		} catch (Exception e) {
+			// A corrupted report is simply discarded, the caller will convert the documentation again
+			logger.warn("Error while reading cached report " + reportFile + ", it will be discarded - " + e.getMessage());
+			reportFile.delete();
+			reportModel.close();
+			return null;
+		}
+		synchronized (this) {
+			unchangedReports.add(documentationNumber);
+		}
+		logger.debug("Report for documentation " + documentationNumber + " read from cache");
+
+		return reportModel;
+	}
+
+	/**
+	 * Stores the report of a documentation in the cache, and removes the report corresponding to the previous fingerprint.
+	 *
+	 * @param documentationNumber The number of the documentation.
+	 * @param fingerprint The current fingerprint of the documentation.
+	 * @param reportModel The model of the report.
+	 */
+	public void put(int documentationNumber, String fingerprint, Model reportModel) {
+
+		String previousFingerprint = getPreviousFingerprint(documentationNumber);
+		synchronized (this) {
+			if (previousFingerprint == null) addedReports.add(documentationNumber);
+			else changedReports.add(documentationNumber);
+		}
+
+		File reportFile = getReportFile(documentationNumber, fingerprint);
+		File temporaryFile = null;
+		try {
+			Files.createDirectories(cacheDirectory.toPath());
+			// Write to a temporary file first, so that an interrupted write never leaves a truncated report
+			temporaryFile = File.createTempFile(documentationNumber + ".", ".tmp", cacheDirectory);
+			try (OutputStream output = new BufferedOutputStream(new FileOutputStream(temporaryFile))) {
+				RDFDataMgr.write(output, reportModel, Lang.TURTLE);
+			}
+			Files.move(temporaryFile.toPath(), reportFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (Exception e) {
+			logger.warn("Error while writing report of documentation " + documentationNumber + " to cache - " + e.getMessage());
+			if (temporaryFile != null) temporaryFile.delete();
+			return;
+		}
+		if ((previousFingerprint != null) && !previousFingerprint.equals(fingerprint)) getReportFile(documentationNumber, previousFingerprint).delete();
+	}
+
+	/**
+	 * Removes from the cache the reports of the documentations that were not converted.
+	 * This method should only be called when all the existing documentations have been converted.
+	 *
+	 * @param documentationNumbers The numbers of all the documentations converted.
+	 */
+	public void removeOtherReports(Set<Integer> documentationNumbers) {
+
+		SortedSet<Integer> otherReports = new TreeSet<Integer>(previousFingerprints.keySet());
+		otherReports.removeAll(documentationNumbers);
+		for (Integer documentationNumber : otherReports) {
+			if (getReportFile(documentationNumber, previousFingerprints.get(documentationNumber)).delete()) logger.debug("Report of removed documentation " + documentationNumber + " deleted from cache");
+		}
+		synchronized (this) {
+			removedReports.addAll(otherReports);
+		}
+		logger.info("SIMS reports: " + addedReports.size() + " added, " + changedReports.size() + " changed, " + removedReports.size() + " removed, " + unchangedReports.size() + " unchanged");
+	}
+
+	/** Returns the numbers of the documentations whose reports were not in the cache */
+	public synchronized SortedSet<Integer> getAddedReports() {
+		return new TreeSet<Integer>(addedReports);
+	}
+
+	/** Returns the numbers of the documentations whose reports were in the cache with a different fingerprint */
+	public synchronized SortedSet<Integer> getChangedReports() {
+		return new TreeSet<Integer>(changedReports);
+	}
+
+	/** Returns the numbers of the documentations whose reports were read from the cache */
+	public synchronized SortedSet<Integer> getUnchangedReports() {
+		return new TreeSet<Integer>(unchangedReports);
+	}
+
+	/** Returns the numbers of the documentations whose reports were in the cache but which do not exist anymore */
+	public synchronized SortedSet<Integer> getRemovedReports() {
+		return new TreeSet<Integer>(removedReports);
+	}
+
+	private String getPreviousFingerprint(int documentationNumber) {
+		return previousFingerprints.get(documentationNumber);
+	}
+
+	private File getReportFile(int documentationNumber, String fingerprint) {
+		return new File(cacheDirectory, documentationNumber + "." + fingerprint + REPORT_EXTENSION);
+	}
+
+	private static String tripleString(Triple triple) {
+		return nodeString(triple.getSubject()) + " " + nodeString(triple.getPredicate()) + " " + nodeString(triple.getObject());
+	}
+
+	private static String nodeString(Node node) {
+		return node.isBlank() ? "[]" : NodeFmtLib.str(node);
+	}
+}
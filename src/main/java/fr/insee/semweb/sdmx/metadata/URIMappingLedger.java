@@ -0,0 +1,201 @@
+package fr.insee.semweb.sdmx.metadata;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.insee.semweb.utils.URIComparator;
+
+/**
+ * Persistent ledger of the mappings between M0 URIs and target URIs.
+ * The ledger is an append-only file where each line contains an M0 URI and its target URI separated by a tab.
+ * Once a mapping is recorded in the ledger, it is only changed explicitly (for example by a new fixed mapping), so that the published target URIs remain stable from one conversion to the next.
+ * A mapping is changed by appending a new line for the M0 URI: if an M0 URI appears several times in the file, the last mapping is kept.
+ * A last line without end of line character was left by an interrupted append: it is ignored when reading and removed before appending, since its target URI may be truncated.
+ *
+ * @author Franck
+ */
+public class URIMappingLedger {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(URIMappingLedger.class);
+
+	/** The file containing the ledger */
+	private final File ledgerFile;
+	/** The mappings recorded in the ledger */
+	private final SortedMap<String, String> mappings = new TreeMap<String, String>(Comparator.nullsFirst(new URIComparator()));
+
+	private URIMappingLedger(File ledgerFile) {
+		this.ledgerFile = ledgerFile;
+	}
+
+	/**
+	 * Opens a ledger and loads the mappings it contains.
+	 * The file is memory-mapped for reading, and a ledger which does not exist yet is empty.
+	 *
+	 * @param ledgerFile The file containing the ledger.
+	 * @return The ledger.
+	 */
+	public static URIMappingLedger open(File ledgerFile) {
+
+		URIMappingLedger ledger = new URIMappingLedger(ledgerFile);
+		if (!ledgerFile.exists()) {
+			logger.info("URI mapping ledger " + ledgerFile.getAbsolutePath() + " does not exist yet, it will be created");
+			return ledger;
+		}
+		try (FileChannel channel = FileChannel.open(ledgerFile.toPath(), StandardOpenOption.READ)) {
+			// An incomplete last line (interrupted append) is ignored
+			long completeLength = getCompleteLength(channel);
+			if (completeLength < channel.size()) logger.warn("Incomplete last line ignored in URI mapping ledger " + ledgerFile.getAbsolutePath());
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, completeLength);
+			for (String line : StandardCharsets.UTF_8.decode(buffer).toString().split("\n")) {
+				int tabIndex = line.indexOf('\t');
+				if ((tabIndex <= 0) || (tabIndex == line.length() - 1)) continue;
+				ledger.mappings.put(line.substring(0, tabIndex), line.substring(tabIndex + 1).trim());
+			}
+		} catch (IOException e) {
+			logger.error("Error while reading URI mapping ledger " + ledgerFile.getAbsolutePath() + " - " + e.getMessage());
+		}
+		logger.info(ledger.mappings.size() + " URI mappings read from ledger " + ledgerFile.getAbsolutePath());
+
+		return ledger;
+	}
+
+	/**
+	 * Returns the target URI recorded for an M0 URI.
+	 *
+	 * @param m0URI The M0 URI.
+	 * @return The target URI, or <code>null</code> if the M0 URI is not in the ledger.
+	 */
+	public synchronized String get(String m0URI) {
+		return mappings.get(m0URI);
+	}
+
+	/**
+	 * Returns the mappings recorded in the ledger.
+	 *
+	 * @return An unmodifiable copy of the mappings where the keys are the M0 URIs and the values the target URIs, sorted on keys.
+	 */
+	public synchronized SortedMap<String, String> getMappings() {
+		return Collections.unmodifiableSortedMap(new TreeMap<String, String>(mappings));
+	}
+
+	/**
+	 * Appends to the ledger the mappings whose M0 URIs are not recorded yet.
+	 * Mappings of M0 URIs already in the ledger are ignored (with a warning if the target URI is different).
+	 *
+	 * @param newMappings The mappings to record.
+	 * @return The number of mappings appended to the ledger.
+	 */
+	public synchronized int append(Map<String, String> newMappings) {
+
+		SortedMap<String, String> addedMappings = new TreeMap<String, String>(Comparator.nullsFirst(new URIComparator()));
+		for (Map.Entry<String, String> mapping : newMappings.entrySet()) {
+			String recordedURI = mappings.get(mapping.getKey());
+			if (recordedURI == null) addedMappings.put(mapping.getKey(), mapping.getValue());
+			else if (!recordedURI.equals(mapping.getValue())) logger.warn("Mapping of " + mapping.getKey() + " to " + mapping.getValue() + " ignored, ledger already maps it to " + recordedURI);
+		}
+		if (addedMappings.isEmpty()) return 0;
+
+		if (!write(addedMappings)) return 0;
+		logger.info(addedMappings.size() + " new URI mappings appended to ledger " + ledgerFile.getAbsolutePath());
+
+		return addedMappings.size();
+	}
+
+	/**
+	 * Records mappings which replace the mappings recorded for their M0 URIs, for example when a fixed mapping has changed.
+	 * The mappings are appended to the ledger, where they take precedence over the previous lines of the same M0 URIs.
+	 *
+	 * @param replacingMappings The mappings to record.
+	 * @return The number of mappings appended to the ledger (mappings already recorded with the same target URI are ignored).
+	 */
+	public synchronized int replace(Map<String, String> replacingMappings) {
+
+		SortedMap<String, String> changedMappings = new TreeMap<String, String>(Comparator.nullsFirst(new URIComparator()));
+		for (Map.Entry<String, String> mapping : replacingMappings.entrySet()) {
+			String recordedURI = mappings.get(mapping.getKey());
+			if (mapping.getValue().equals(recordedURI)) continue;
+			if (recordedURI != null) logger.info("Mapping of " + mapping.getKey() + " to " + recordedURI + " replaced by " + mapping.getValue() + " in the ledger");
+			changedMappings.put(mapping.getKey(), mapping.getValue());
+		}
+		if (changedMappings.isEmpty()) return 0;
+
+		if (!write(changedMappings)) return 0;
+		logger.info(changedMappings.size() + " URI mappings replaced in ledger " + ledgerFile.getAbsolutePath());
+
+		return changedMappings.size();
+	}
+
+	/** Appends mappings to the ledger file and to the mappings in memory, and returns false if the file could not be written */
+	private boolean write(SortedMap<String, String> newMappings) {
+
+		try {
+			if (ledgerFile.getParentFile() != null) Files.createDirectories(ledgerFile.getParentFile().toPath());
+			removeIncompleteLine();
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(ledgerFile, true), StandardCharsets.UTF_8))) {
+				for (Map.Entry<String, String> mapping : newMappings.entrySet()) writer.write(mapping.getKey() + "\t" + mapping.getValue() + "\n");
+			}
+		} catch (IOException e) {
+			logger.error("Error while appending to URI mapping ledger " + ledgerFile.getAbsolutePath() + " - " + e.getMessage());
+			return false;
+		}
+		mappings.putAll(newMappings);
+		return true;
+	}
+
+	/** Truncates the ledger file after its last end of line character, removing the line left by an interrupted append */
+	private void removeIncompleteLine() throws IOException {
+
+		if (!ledgerFile.exists()) return;
+		try (FileChannel channel = FileChannel.open(ledgerFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+			long completeLength = getCompleteLength(channel);
+			if (completeLength == channel.size()) return;
+			logger.warn("Incomplete last line removed from URI mapping ledger " + ledgerFile.getAbsolutePath());
+			channel.truncate(completeLength);
+		}
+	}
+
+	/** Returns the length of the part of the file made of complete lines, that is the position following the last end of line character */
+	private static long getCompleteLength(FileChannel channel) throws IOException {
+
+		ByteBuffer block = ByteBuffer.allocate(4096);
+		long end = channel.size();
+		while (end > 0) {
+			long start = Math.max(0, end - block.capacity());
+			block.clear().limit((int) (end - start));
+			while (block.hasRemaining() && (channel.read(block, start + block.position()) >= 0));
+			for (int index = block.position() - 1; index >= 0; index--) {
+				if (block.get(index) == '\n') return start + index + 1;
+			}
+			end = start;
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the number of mappings recorded in the ledger.
+	 *
+	 * @return The number of mappings.
+	 */
+	public synchronized int size() {
+		return mappings.size();
+	}
+}
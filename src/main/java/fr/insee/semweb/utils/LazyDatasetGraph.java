@@ -0,0 +1,150 @@
+package fr.insee.semweb.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphMapLink;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.insee.semweb.utils.TriGBlockIndex.Chunk;
+
+/**
+ * Dataset backed by an indexed TriG file, where each graph is parsed only when it is requested for the first time.
+ * The names of the graphs are known from the index, so listing them does not require any parsing.
+ * If a snapshot directory is given, each graph is read from its binary snapshot when it is up to date, and the snapshot is written when the graph is parsed.
+ *
+ * @author Franck
+ */
+public class LazyDatasetGraph extends DatasetGraphMapLink {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(LazyDatasetGraph.class);
+
+	/** The index of the TriG file */
+	private final TriGBlockIndex index;
+	/** The number of threads used to parse a graph */
+	private final int parallelism;
+	/** The directory where the snapshots of the graphs are stored, or <code>null</code> if the graphs are not snapshotted */
+	private final File snapshotDirectory;
+	/** The chunks of each graph of the file (including the default graph), in order of appearance */
+	private final Map<Node, List<Chunk>> graphChunks = new LinkedHashMap<Node, List<Chunk>>();
+	/** The graphs already parsed */
+	private final Set<Node> loadedGraphs = new HashSet<Node>();
+
+	/**
+	 * Creates a lazy dataset on an indexed TriG file.
+	 *
+	 * @param index The index of the TriG file.
+	 * @param parallelism The number of threads used to parse a graph.
+	 * @throws IllegalArgumentException If a graph of the file is labeled with a blank node.
+	 */
+	public LazyDatasetGraph(TriGBlockIndex index, int parallelism) {
+
+		this(index, parallelism, null);
+	}
+
+	/**
+	 * Creates a lazy dataset on an indexed TriG file, with snapshots of the graphs.
+	 *
+	 * @param index The index of the TriG file.
+	 * @param parallelism The number of threads used to parse a graph.
+	 * @param snapshotDirectory The directory where the snapshots of the graphs are stored, or <code>null</code> if the graphs should not be snapshotted.
+	 * @throws IllegalArgumentException If a graph of the file is labeled with a blank node.
+	 */
+	public LazyDatasetGraph(TriGBlockIndex index, int parallelism, File snapshotDirectory) {
+
+		super(GraphFactory.createGraphMem());
+		this.index = index;
+		this.parallelism = parallelism;
+		this.snapshotDirectory = snapshotDirectory;
+		for (Chunk chunk : index.getChunks()) graphChunks.computeIfAbsent(index.getGraphName(chunk), graphName -> new ArrayList<Chunk>()).add(chunk);
+		logger.debug("Lazy dataset created on file " + index.getFile() + " with " + size() + " named graphs");
+	}
+
+	@Override
+	public synchronized Graph getDefaultGraph() {
+
+		Graph defaultGraph = super.getDefaultGraph();
+		if (loadedGraphs.add(Quad.defaultGraphIRI) && graphChunks.containsKey(Quad.defaultGraphIRI)) {
+			GraphUtil.addInto(defaultGraph, load(Quad.defaultGraphIRI).getDefaultGraph());
+		}
+		return defaultGraph;
+	}
+
+	@Override
+	public synchronized Graph getGraph(Node graphNode) {
+
+		if (Quad.isDefaultGraph(graphNode)) return getDefaultGraph();
+		if (graphChunks.containsKey(graphNode) && loadedGraphs.add(graphNode)) {
+			DatasetGraph parsedGraph = load(graphNode);
+			addGraph(graphNode, parsedGraph.getGraph(graphNode));
+			// Prefixes of a dataset are held by its default graph
+			super.getDefaultGraph().getPrefixMapping().setNsPrefixes(parsedGraph.getDefaultGraph().getPrefixMapping());
+		}
+		return super.getGraph(graphNode);
+	}
+
+	@Override
+	public synchronized boolean containsGraph(Node graphNode) {
+		return graphChunks.containsKey(graphNode) || super.containsGraph(graphNode);
+	}
+
+	@Override
+	public synchronized Iterator<Node> listGraphNodes() {
+
+		Set<Node> graphNodes = new HashSet<Node>(graphChunks.keySet());
+		graphNodes.remove(Quad.defaultGraphIRI);
+		super.listGraphNodes().forEachRemaining(graphNodes::add);
+		return graphNodes.iterator();
+	}
+
+	@Override
+	public synchronized long size() {
+
+		long size = 0;
+		for (Iterator<Node> iterator = listGraphNodes(); iterator.hasNext(); iterator.next()) size++;
+		return size;
+	}
+
+	/**
+	 * Returns the graphs that have already been parsed.
+	 *
+	 * @return The set of names of the graphs parsed (<code>Quad.defaultGraphIRI</code> for the default graph).
+	 */
+	public synchronized Set<Node> getLoadedGraphs() {
+		return new HashSet<Node>(loadedGraphs);
+	}
+
+	/**
+	 * Reads one graph from its snapshot if there is one, or parses its chunks otherwise.
+	 */
+	private DatasetGraph load(Node graphNode) {
+
+		long startTime = System.currentTimeMillis();
+		if (snapshotDirectory != null) {
+			DatasetGraph snapshotGraph = SnapshotCache.readGraphSnapshot(index.getFile(), snapshotDirectory, graphNode);
+			if (snapshotGraph != null) {
+				logger.info("Graph " + graphNode + " read from snapshot of file " + index.getFile() + " in " + (System.currentTimeMillis() - startTime) + " ms");
+				return snapshotGraph;
+			}
+		}
+		DatasetGraph parsedGraph = index.parse(graphChunks.get(graphNode), parallelism);
+		logger.info("Graph " + graphNode + " read from file " + index.getFile() + " in " + (System.currentTimeMillis() - startTime) + " ms");
+		if (snapshotDirectory != null) SnapshotCache.writeGraphSnapshot(index.getFile(), snapshotDirectory, graphNode, parsedGraph);
+
+		return parsedGraph;
+	}
+}
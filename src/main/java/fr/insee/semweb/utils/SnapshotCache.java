@@ -0,0 +1,241 @@
+package fr.insee.semweb.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Manages binary (RDF Thrift) snapshots of RDF datasets parsed from source files.
+ * Snapshots are keyed by the digest and the modification time of the source file, so that a modified source is never read from a stale snapshot.
+ * Other objects parsed from source files can be snapshotted in their own binary format, with a dedicated extension.
+ *
+ * @author Franck
+ */
+public class SnapshotCache {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(SnapshotCache.class);
+
+	/** Extension of the snapshot files */
+	public static final String SNAPSHOT_EXTENSION = ".rt";
+	/** Extension of the snapshot files of individual graphs, preceded by the key of the graph */
+	public static final String GRAPH_SNAPSHOT_EXTENSION = ".rtg";
+
+	/** Reads the object stored in a snapshot */
+	@FunctionalInterface
+	public interface SnapshotReader<T> {
+		T read(InputStream input) throws IOException;
+	}
+
+	/** Writes the object stored in a snapshot */
+	@FunctionalInterface
+	public interface SnapshotWriter {
+		void write(OutputStream output) throws IOException;
+	}
+
+	/** Digests already calculated, indexed by file path, size and modification time */
+	private static Map<String, String> digests = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Reads the snapshot corresponding to the current state of a source file, if it exists.
+	 *
+	 * @param sourceFile The source file of the snapshot.
+	 * @param snapshotDirectory The directory where snapshots are stored.
+	 * @return The dataset read from the snapshot, or <code>null</code> if there is no valid snapshot for the source file.
+	 */
+	public static DatasetGraph readSnapshot(File sourceFile, File snapshotDirectory) {
+
+		return readSnapshot(sourceFile, snapshotDirectory, SNAPSHOT_EXTENSION, SnapshotCache::readDatasetGraph);
+	}
+
+	/**
+	 * Reads the snapshot of one graph of a dataset corresponding to the current state of a source file, if it exists.
+	 *
+	 * @param sourceFile The source file of the snapshot.
+	 * @param snapshotDirectory The directory where snapshots are stored.
+	 * @param graphNode The name of the graph (<code>Quad.defaultGraphIRI</code> for the default graph).
+	 * @return A dataset containing the graph read from the snapshot, or <code>null</code> if there is no valid snapshot of the graph for the source file.
+	 */
+	public static DatasetGraph readGraphSnapshot(File sourceFile, File snapshotDirectory, Node graphNode) {
+
+		return readSnapshot(sourceFile, snapshotDirectory, getGraphSnapshotExtension(graphNode), SnapshotCache::readDatasetGraph);
+	}
+
+	/**
+	 * Reads the snapshot of an object corresponding to the current state of a source file, if it exists.
+	 *
+	 * @param sourceFile The source file of the snapshot.
+	 * @param snapshotDirectory The directory where snapshots are stored.
+	 * @param extension The extension of the snapshot files, which identifies their format.
+	 * @param reader The reader of the snapshot content.
+	 * @return The object read from the snapshot, or <code>null</code> if there is no valid snapshot for the source file.
+	 */
+	public static <T> T readSnapshot(File sourceFile, File snapshotDirectory, String extension, SnapshotReader<T> reader) {
+
+		File snapshotFile = null;
+		try {
+			snapshotFile = getSnapshotFile(sourceFile, snapshotDirectory, extension);
+		} catch (IOException e) {
+			logger.warn("Cannot calculate snapshot key for file " + sourceFile + " - " + e.getMessage());
+			return null;
+		}
+		if (!snapshotFile.exists()) {
+			logger.debug("No snapshot found for the current version of file " + sourceFile);
+			return null;
+		}
+
+		long startTime = System.currentTimeMillis();
+		T snapshot = null;
+		try (InputStream input = new BufferedInputStream(new FileInputStream(snapshotFile), 1 << 16)) {
+			snapshot = reader.read(input);
+		} catch (Exception e) {
+			// A corrupted snapshot is simply discarded, the caller will parse the source file
+			logger.warn("Error while reading snapshot " + snapshotFile + ", it will be discarded - " + e.getMessage());
+			snapshotFile.delete();
+			return null;
+		}
+		logger.info("Snapshot " + snapshotFile + " read in " + (System.currentTimeMillis() - startTime) + " ms");
+
+		return snapshot;
+	}
+
+	/**
+	 * Writes the snapshot corresponding to the current state of a source file, and removes the snapshots of previous states of the file.
+	 * Errors are logged but not propagated, since a missing snapshot only means that the source file will be parsed again.
+	 *
+	 * @param sourceFile The source file of the snapshot.
+	 * @param snapshotDirectory The directory where snapshots are stored.
+	 * @param datasetGraph The dataset parsed from the source file.
+	 */
+	public static void writeSnapshot(File sourceFile, File snapshotDirectory, DatasetGraph datasetGraph) {
+
+		writeSnapshot(sourceFile, snapshotDirectory, SNAPSHOT_EXTENSION, output -> RDFDataMgr.write(output, datasetGraph, Lang.RDFTHRIFT));
+	}
+
+	/**
+	 * Writes the snapshot of one graph of a dataset corresponding to the current state of a source file, and removes the snapshots of the graph for previous states of the file.
+	 *
+	 * @param sourceFile The source file of the snapshot.
+	 * @param snapshotDirectory The directory where snapshots are stored.
+	 * @param graphNode The name of the graph (<code>Quad.defaultGraphIRI</code> for the default graph).
+	 * @param datasetGraph The dataset containing the graph parsed from the source file.
+	 */
+	public static void writeGraphSnapshot(File sourceFile, File snapshotDirectory, Node graphNode, DatasetGraph datasetGraph) {
+
+		writeSnapshot(sourceFile, snapshotDirectory, getGraphSnapshotExtension(graphNode), output -> RDFDataMgr.write(output, datasetGraph, Lang.RDFTHRIFT));
+	}
+
+	/**
+	 * Writes the snapshot of an object corresponding to the current state of a source file, and removes the snapshots of previous states of the file with the same extension.
+	 * Errors are logged but not propagated, since a missing snapshot only means that the source file will be parsed again.
+	 *
+	 * @param sourceFile The source file of the snapshot.
+	 * @param snapshotDirectory The directory where snapshots are stored.
+	 * @param extension The extension of the snapshot files, which identifies their format.
+	 * @param writer The writer of the snapshot content.
+	 */
+	public static void writeSnapshot(File sourceFile, File snapshotDirectory, String extension, SnapshotWriter writer) {
+
+		File snapshotFile = null;
+		File temporaryFile = null;
+		try {
+			snapshotFile = getSnapshotFile(sourceFile, snapshotDirectory, extension);
+			Files.createDirectories(snapshotDirectory.toPath());
+			// Write to a temporary file first, so that an interrupted write never leaves a truncated snapshot
+			temporaryFile = File.createTempFile(sourceFile.getName() + ".", ".tmp", snapshotDirectory);
+			try (OutputStream output = new BufferedOutputStream(new FileOutputStream(temporaryFile), 1 << 16)) {
+				writer.write(output);
+			}
+			Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			logger.info("Snapshot of file " + sourceFile + " written to " + snapshotFile);
+		} catch (Exception e) {
+			logger.warn("Error while writing snapshot of file " + sourceFile + " - " + e.getMessage());
+			if (temporaryFile != null) temporaryFile.delete();
+			return;
+		}
+		// Remove snapshots corresponding to previous versions of the source file
+		File[] snapshotFiles = snapshotDirectory.listFiles((directory, name) -> name.startsWith(sourceFile.getName() + ".") && name.endsWith(extension));
+		if (snapshotFiles == null) return;
+		for (File staleFile : snapshotFiles) {
+			if (staleFile.getName().equals(snapshotFile.getName())) continue;
+			if (staleFile.delete()) logger.debug("Stale snapshot " + staleFile + " removed");
+		}
+	}
+
+	/**
+	 * Returns the snapshot file corresponding to the current state of a source file.
+	 * The name of the snapshot is made of the name of the source file, its digest and its modification time.
+	 *
+	 * @param sourceFile The source file of the snapshot.
+	 * @param snapshotDirectory The directory where snapshots are stored.
+	 * @return The snapshot file (which may not exist).
+	 * @throws IOException In case of problem reading the source file.
+	 */
+	public static File getSnapshotFile(File sourceFile, File snapshotDirectory) throws IOException {
+
+		return getSnapshotFile(sourceFile, snapshotDirectory, SNAPSHOT_EXTENSION);
+	}
+
+	/**
+	 * Returns the snapshot file with a given extension corresponding to the current state of a source file.
+	 *
+	 * @param sourceFile The source file of the snapshot.
+	 * @param snapshotDirectory The directory where snapshots are stored.
+	 * @param extension The extension of the snapshot file.
+	 * @return The snapshot file (which may not exist).
+	 * @throws IOException In case of problem reading the source file.
+	 */
+	public static File getSnapshotFile(File sourceFile, File snapshotDirectory, String extension) throws IOException {
+
+		// The digest is memorized for a given path, size and modification time, since it is costly to calculate on big files
+		String fileState = sourceFile.getAbsolutePath() + "|" + sourceFile.length() + "|" + sourceFile.lastModified();
+		String digest = digests.get(fileState);
+		if (digest == null) {
+			digest = Utils.fileDigest(sourceFile);
+			digests.put(fileState, digest);
+		}
+		String key = digest.substring(0, 32) + "-" + sourceFile.lastModified();
+
+		return new File(snapshotDirectory, sourceFile.getName() + "." + key + extension);
+	}
+
+	/**
+	 * Returns the extension of the snapshot files of a graph, made of a digest of the graph name.
+	 *
+	 * @param graphNode The name of the graph (<code>Quad.defaultGraphIRI</code> for the default graph).
+	 * @return The extension of the snapshot files of the graph.
+	 */
+	public static String getGraphSnapshotExtension(Node graphNode) {
+
+		if (Quad.isDefaultGraph(graphNode)) return ".default" + GRAPH_SNAPSHOT_EXTENSION;
+		String graphKey = Utils.hexString(Utils.sha256Digest().digest(graphNode.getURI().getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+
+		return "." + graphKey + GRAPH_SNAPSHOT_EXTENSION;
+	}
+
+	private static DatasetGraph readDatasetGraph(InputStream input) {
+
+		DatasetGraph datasetGraph = DatasetGraphFactory.create();
+		RDFDataMgr.read(datasetGraph, input, Lang.RDFTHRIFT);
+		return datasetGraph;
+	}
+}
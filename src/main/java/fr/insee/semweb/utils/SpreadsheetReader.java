@@ -0,0 +1,325 @@
+package fr.insee.semweb.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.LocaleUtil;
+import org.apache.poi.util.StaxHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.SAXException;
+
+/**
+ * Streaming reader of the rows of an Excel (xlsx) file, based on the XSSF event model.
+ * The sheets are parsed row by row from the package, so that the workbook is never loaded in memory: only the shared strings and the styles are read when the file is opened.
+ * The rows are returned as <code>SpreadsheetRow</code> objects whose string values are the same as those given by the POI user model.
+ *
+ * @author Franck
+ */
+public class SpreadsheetReader implements Closeable {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(SpreadsheetReader.class);
+
+	/** Factory of the StAX parsers of the sheets */
+	private static final XMLInputFactory XML_INPUT_FACTORY = StaxHelper.newXMLInputFactory();
+
+	/** The Excel package, opened read-only */
+	private final OPCPackage xlsxPackage;
+	/** The shared strings table of the workbook */
+	private final ReadOnlySharedStringsTable sharedStrings;
+	/** The styles table of the workbook (used to recognize dates), can be null */
+	private final StylesTable styles;
+	/** Names and package parts of the sheets, in workbook order */
+	private final List<String> sheetNames = new ArrayList<String>();
+	private final List<PackagePart> sheetParts = new ArrayList<PackagePart>();
+	/** The sheet streams currently open */
+	private final List<InputStream> openStreams = new ArrayList<InputStream>();
+
+	private SpreadsheetReader(OPCPackage xlsxPackage) throws IOException, OpenXML4JException, SAXException {
+
+		this.xlsxPackage = xlsxPackage;
+		XSSFReader xssfReader = new XSSFReader(xlsxPackage);
+		this.sharedStrings = new ReadOnlySharedStringsTable(xlsxPackage);
+		this.styles = xssfReader.getStylesTable();
+		XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+		while (sheets.hasNext()) {
+			sheets.next().close(); // We only need the names and parts here
+			sheetNames.add(sheets.getSheetName());
+			sheetParts.add(sheets.getSheetPart());
+		}
+	}
+
+	/**
+	 * Opens an Excel file for streaming reading.
+	 *
+	 * @param xlsxFile The Excel file (xlsx format).
+	 * @return A <code>SpreadsheetReader</code> on the file, that must be closed after use.
+	 * @throws IOException If the file cannot be opened or is not a valid xlsx file.
+	 */
+	public static SpreadsheetReader open(File xlsxFile) throws IOException {
+
+		OPCPackage xlsxPackage = null;
+		try {
+			xlsxPackage = OPCPackage.open(xlsxFile, PackageAccess.READ);
+			SpreadsheetReader reader = new SpreadsheetReader(xlsxPackage);
+			logger.debug("Excel file " + xlsxFile.getAbsolutePath() + " opened for streaming, sheets: " + reader.sheetNames);
+			return reader;
+		} catch (OpenXML4JException | SAXException | RuntimeException e) {
+			if (xlsxPackage != null) xlsxPackage.revert();
+			throw new IOException("Cannot open Excel file " + xlsxFile.getAbsolutePath() + " - " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the names of the sheets of the workbook.
+	 *
+	 * @return The names of the sheets, in workbook order.
+	 */
+	public List<String> getSheetNames() {
+		return Collections.unmodifiableList(sheetNames);
+	}
+
+	/**
+	 * Returns an iterator on the rows of a sheet designated by its name.
+	 *
+	 * @param sheetName The name of the sheet.
+	 * @return An iterator on the rows of the sheet.
+	 * @throws IOException If there is no sheet with this name or if the sheet cannot be read.
+	 */
+	public Iterator<SpreadsheetRow> readRows(String sheetName) throws IOException {
+
+		int sheetIndex = sheetNames.indexOf(sheetName);
+		if (sheetIndex < 0) throw new IOException("No sheet named " + sheetName + " in workbook");
+		return readRows(sheetIndex);
+	}
+
+	/**
+	 * Returns an iterator on the rows of a sheet designated by its index.
+	 * As with <code>Sheet.rowIterator()</code>, only the rows physically present in the sheet are returned.
+	 * The sheet is parsed as the iterator advances, and the underlying stream is closed when the last row is reached or when the reader is closed.
+	 *
+	 * @param sheetIndex The zero-based index of the sheet.
+	 * @return An iterator on the rows of the sheet.
+	 * @throws IOException If there is no sheet with this index or if the sheet cannot be read.
+	 */
+	public Iterator<SpreadsheetRow> readRows(int sheetIndex) throws IOException {
+
+		if ((sheetIndex < 0) || (sheetIndex >= sheetParts.size())) throw new IOException("No sheet with index " + sheetIndex + " in workbook");
+		InputStream sheetStream = sheetParts.get(sheetIndex).getInputStream();
+		try {
+			XMLStreamReader xmlReader = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+			synchronized (openStreams) {
+				openStreams.add(sheetStream);
+			}
+			return new RowIterator(sheetNames.get(sheetIndex), sheetStream, xmlReader);
+		} catch (XMLStreamException e) {
+			sheetStream.close();
+			throw new IOException("Cannot read sheet " + sheetNames.get(sheetIndex) + " - " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Closes the reader and the underlying package, without saving it.
+	 */
+	@Override
+	public void close() {
+
+		synchronized (openStreams) {
+			for (InputStream stream : openStreams) {
+				try { stream.close(); } catch (IOException ignored) { }
+			}
+			openStreams.clear();
+		}
+		xlsxPackage.revert();
+	}
+
+	/**
+	 * Iterator on the rows of a sheet, which parses the XML of the sheet one row ahead.
+	 */
+	private class RowIterator implements Iterator<SpreadsheetRow> {
+
+		private final String sheetName;
+		private InputStream sheetStream;
+		private XMLStreamReader xmlReader;
+		private SpreadsheetRow nextRow = null;
+		private int lastRowNum = -1;
+
+		RowIterator(String sheetName, InputStream sheetStream, XMLStreamReader xmlReader) {
+
+			this.sheetName = sheetName;
+			this.sheetStream = sheetStream;
+			this.xmlReader = xmlReader;
+		}
+
+		@Override
+		public boolean hasNext() {
+
+			if ((nextRow == null) && (xmlReader != null)) {
+				try {
+					nextRow = parseNextRow();
+				} catch (XMLStreamException e) {
+					end();
+					throw new IllegalStateException("Error while reading sheet " + sheetName + " - " + e.getMessage(), e);
+				}
+				if (nextRow == null) end();
+			}
+			return (nextRow != null);
+		}
+
+		@Override
+		public SpreadsheetRow next() {
+
+			if (!hasNext()) throw new NoSuchElementException();
+			SpreadsheetRow row = nextRow;
+			nextRow = null;
+			return row;
+		}
+
+		/** Parses the sheet up to the end of the next row, or returns null if there is no more row */
+		private SpreadsheetRow parseNextRow() throws XMLStreamException {
+
+			while (xmlReader.hasNext()) {
+				if ((xmlReader.next() == XMLStreamConstants.START_ELEMENT) && xmlReader.getLocalName().equals("row")) {
+					String rowReference = xmlReader.getAttributeValue(null, "r");
+					lastRowNum = (rowReference == null) ? lastRowNum + 1 : Integer.parseInt(rowReference) - 1;
+					return parseRow(lastRowNum);
+				}
+			}
+			return null;
+		}
+
+		/** Parses the cells of a row, the XML reader being on the start of the row element */
+		private SpreadsheetRow parseRow(int rowNum) throws XMLStreamException {
+
+			List<CellType> types = new ArrayList<CellType>();
+			List<String> strings = new ArrayList<String>();
+			List<Double> numbers = new ArrayList<Double>();
+			int column = -1;
+			while (xmlReader.hasNext()) {
+				int event = xmlReader.next();
+				if ((event == XMLStreamConstants.END_ELEMENT) && xmlReader.getLocalName().equals("row")) break;
+				if ((event != XMLStreamConstants.START_ELEMENT) || !xmlReader.getLocalName().equals("c")) continue;
+				String cellReference = xmlReader.getAttributeValue(null, "r");
+				column = (cellReference == null) ? column + 1 : CellReference.convertColStringToIndex(cellReference.replaceAll("\\d", ""));
+				while (types.size() <= column) {
+					types.add(null);
+					strings.add(null);
+					numbers.add(0.0);
+				}
+				parseCell(column, types, strings, numbers);
+			}
+			int size = types.size();
+			double[] numberArray = new double[size];
+			for (int index = 0; index < size; index++) numberArray[index] = numbers.get(index);
+
+			return new SpreadsheetRow(rowNum, types.toArray(new CellType[size]), strings.toArray(new String[size]), numberArray);
+		}
+
+		/** Parses a cell, the XML reader being on the start of the cell element, and stores its type and values */
+		private void parseCell(int column, List<CellType> types, List<String> strings, List<Double> numbers) throws XMLStreamException {
+
+			String type = xmlReader.getAttributeValue(null, "t");
+			String styleIndex = xmlReader.getAttributeValue(null, "s");
+			String value = null;
+			String formula = null;
+			StringBuilder inlineString = null;
+			boolean inPhonetic = false;
+			while (xmlReader.hasNext()) {
+				int event = xmlReader.next();
+				if (event == XMLStreamConstants.END_ELEMENT) {
+					if (xmlReader.getLocalName().equals("c")) break;
+					if (xmlReader.getLocalName().equals("rPh")) inPhonetic = false;
+					continue;
+				}
+				if (event != XMLStreamConstants.START_ELEMENT) continue;
+				String elementName = xmlReader.getLocalName();
+				if (elementName.equals("v")) value = xmlReader.getElementText();
+				else if (elementName.equals("f")) formula = xmlReader.getElementText();
+				else if (elementName.equals("is")) inlineString = new StringBuilder();
+				else if (elementName.equals("rPh")) inPhonetic = true;
+				else if (elementName.equals("t") && (inlineString != null) && !inPhonetic) inlineString.append(xmlReader.getElementText());
+			}
+
+			// Same type and string value as with XSSFCell
+			if (formula != null) {
+				types.set(column, CellType.FORMULA);
+				strings.set(column, formula);
+			} else if ("s".equals(type)) {
+				types.set(column, CellType.STRING);
+				strings.set(column, (value == null) ? "" : sharedStrings.getItemAt(Integer.parseInt(value)).getString());
+			} else if ("inlineStr".equals(type) || "str".equals(type)) {
+				types.set(column, CellType.STRING);
+				strings.set(column, (inlineString != null) ? inlineString.toString() : ((value == null) ? "" : value));
+			} else if ("b".equals(type)) {
+				types.set(column, CellType.BOOLEAN);
+				strings.set(column, ("1".equals(value) || "true".equalsIgnoreCase(value)) ? "TRUE" : "FALSE");
+			} else if ("e".equals(type)) {
+				types.set(column, CellType.ERROR);
+				strings.set(column, (value == null) ? "" : value);
+			} else if ((value == null) || value.isEmpty()) {
+				types.set(column, CellType.BLANK);
+				strings.set(column, "");
+			} else {
+				double number = Double.parseDouble(value);
+				types.set(column, CellType.NUMERIC);
+				numbers.set(column, number);
+				strings.set(column, isDateFormatted(styleIndex, number) ? formatDate(number) : Double.toString(number));
+			}
+		}
+
+		/** Indicates if a numeric value is formatted as a date, in the same way as DateUtil.isCellDateFormatted */
+		private boolean isDateFormatted(String styleIndex, double number) {
+
+			if ((styles == null) || (styleIndex == null) || !DateUtil.isValidExcelDate(number)) return false;
+			XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(styleIndex));
+			if (style == null) return false;
+			return DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+		}
+
+		/** Formats a date as XSSFCell.toString does (the 1904 date system is not supported) */
+		private String formatDate(double number) {
+
+			DateFormat dateFormat = new SimpleDateFormat("dd-MMM-yyyy", LocaleUtil.getUserLocale());
+			dateFormat.setTimeZone(LocaleUtil.getUserTimeZone());
+			return dateFormat.format(DateUtil.getJavaDate(number));
+		}
+
+		/** Releases the XML reader and stream of the sheet */
+		private void end() {
+
+			try { xmlReader.close(); } catch (XMLStreamException ignored) { }
+			try { sheetStream.close(); } catch (IOException ignored) { }
+			synchronized (openStreams) {
+				openStreams.remove(sheetStream);
+			}
+			xmlReader = null;
+			sheetStream = null;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package fr.insee.semweb.utils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Immutable row of a spreadsheet, as read by <code>SpreadsheetReader</code> or adapted from a POI <code>Row</code>.
+ * The string value of a cell is the one returned by the <code>toString</code> method of the POI cell, so that readers of rows behave the same with both sources.
+ * Missing cells are considered as blank.
+ *
+ * @author Franck
+ */
+public class SpreadsheetRow {
+
+	/** Zero-based index of the row in the sheet */
+	private final int rowNum;
+	/** Cell types, indexed by zero-based column index (null for missing cells) */
+	private final CellType[] types;
+	/** String values of the cells */
+	private final String[] strings;
+	/** Numeric values of the numeric cells */
+	private final double[] numbers;
+
+	SpreadsheetRow(int rowNum, CellType[] types, String[] strings, double[] numbers) {
+
+		this.rowNum = rowNum;
+		this.types = types;
+		this.strings = strings;
+		this.numbers = numbers;
+	}
+
+	/**
+	 * Creates a spreadsheet row from a POI row.
+	 *
+	 * @param row The POI row (<code>Row</code> object).
+	 * @return The corresponding <code>SpreadsheetRow</code>.
+	 */
+	public static SpreadsheetRow fromRow(Row row) {
+
+		int size = Math.max(row.getLastCellNum(), 0);
+		CellType[] types = new CellType[size];
+		String[] strings = new String[size];
+		double[] numbers = new double[size];
+		for (Cell cell : row) {
+			int column = cell.getColumnIndex();
+			types[column] = cell.getCellType();
+			strings[column] = cell.toString();
+			if (types[column] == CellType.NUMERIC) numbers[column] = cell.getNumericCellValue();
+		}
+		return new SpreadsheetRow(row.getRowNum(), types, strings, numbers);
+	}
+
+	/**
+	 * Returns an iterator on the rows of a POI sheet, adapted as spreadsheet rows.
+	 *
+	 * @param sheet The POI sheet (<code>Sheet</code> object).
+	 * @return An iterator on the rows of the sheet, in the order of <code>Sheet.rowIterator()</code>.
+	 */
+	public static Iterator<SpreadsheetRow> rowIterator(Sheet sheet) {
+
+		Iterator<Row> rows = sheet.rowIterator();
+		return new Iterator<SpreadsheetRow>() {
+			@Override
+			public boolean hasNext() {
+				return rows.hasNext();
+			}
+			@Override
+			public SpreadsheetRow next() {
+				return fromRow(rows.next());
+			}
+		};
+	}
+
+	/**
+	 * Returns the index of the row in its sheet.
+	 *
+	 * @return The zero-based index of the row.
+	 */
+	public int getRowNum() {
+		return rowNum;
+	}
+
+	/**
+	 * Indicates if the row contains a cell at a given column.
+	 *
+	 * @param column The zero-based index of the column.
+	 * @return <code>true</code> if the cell exists in the row, <code>false</code> otherwise.
+	 */
+	public boolean hasCell(int column) {
+		return (column >= 0) && (column < types.length) && (types[column] != null);
+	}
+
+	/**
+	 * Returns the type of a cell.
+	 *
+	 * @param column The zero-based index of the column.
+	 * @return The type of the cell, <code>CellType.BLANK</code> if the cell is missing.
+	 */
+	public CellType getCellType(int column) {
+		return hasCell(column) ? types[column] : CellType.BLANK;
+	}
+
+	/**
+	 * Returns the string value of a cell, as given by <code>Cell.toString()</code>.
+	 *
+	 * @param column The zero-based index of the column.
+	 * @return The string value of the cell, an empty string if the cell is missing.
+	 */
+	public String getString(int column) {
+		return hasCell(column) ? strings[column] : "";
+	}
+
+	/**
+	 * Returns the numeric value of a numeric cell.
+	 *
+	 * @param column The zero-based index of the column.
+	 * @return The numeric value of the cell, 0 if the cell is missing or not numeric.
+	 */
+	public double getNumeric(int column) {
+		return hasCell(column) ? numbers[column] : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "Row " + (rowNum + 1) + ": " + Arrays.toString(strings);
+	}
+}
@@ -0,0 +1,571 @@
+package fr.insee.semweb.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.jena.atlas.lib.IRILib;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.lang.BlankNodeAllocator;
+import org.apache.jena.riot.lang.BlankNodeAllocatorFixedSeedHash;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.system.MapWithScope;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Index of the top-level blocks of a TriG file, which allows the blocks to be parsed independently, and therefore concurrently.
+ * The file is scanned once at the byte level (all TriG delimiters are ASCII characters, so UTF-8 content can be skipped safely).
+ * Large graph blocks are divided at statement boundaries into chunks of bounded size, so that the parsing work can be balanced between threads.
+ * Only files made of directives and graph blocks are supported: triples outside of graph blocks cause an <code>IllegalArgumentException</code>.
+ *
+ * @author Franck
+ */
+public class TriGBlockIndex {
+
+	/** Log4J2 logger */
+	public static Logger logger = LogManager.getLogger(TriGBlockIndex.class);
+
+	/** Default maximum size of a chunk of graph block */
+	public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+	/** The file indexed */
+	private final File file;
+	/** The content of the file */
+	private final ByteBuffer content;
+	/** The prefix and base directives, in order of appearance */
+	private final List<Chunk> directives = new ArrayList<Chunk>();
+	/** The chunks of graph blocks, in order of appearance */
+	private final List<Chunk> chunks = new ArrayList<Chunk>();
+	/** Graph names already resolved, indexed by number of directives in force and label */
+	private final Map<String, Node> graphNames = new ConcurrentHashMap<String, Node>();
+	/** Base IRI of the file */
+	private final String baseIRI;
+	/** Blank node labels are document-wide in TriG: labels are allocated in the same scope in all chunks so that a label denotes the same node everywhere */
+	private final UUID documentScope = UUID.randomUUID();
+
+	/**
+	 * Creates the index of a TriG file.
+	 *
+	 * @param file The TriG file to index.
+	 * @param chunkSize The maximum size of a chunk in bytes (a statement bigger than this size will make a chunk on its own).
+	 * @throws IOException In case of problem reading the file.
+	 * @throws IllegalArgumentException If the structure of the file is not supported.
+	 */
+	public TriGBlockIndex(File file, int chunkSize) throws IOException {
+
+		this.file = file;
+		this.baseIRI = IRILib.filenameToIRI(file.getPath());
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"); FileChannel channel = randomAccessFile.getChannel()) {
+			this.content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // The mapping remains valid after the channel is closed
+		}
+		long startTime = System.currentTimeMillis();
+		new Scanner(chunkSize).scan();
+		logger.debug("File " + file + " indexed in " + (System.currentTimeMillis() - startTime) + " ms: " + directives.size() + " directives and " + chunks.size() + " chunks of graph blocks");
+	}
+
+	/**
+	 * Returns the list of the chunks of graph blocks of the file, in order of appearance.
+	 *
+	 * @return The list of chunks as an unmodifiable list.
+	 */
+	public List<Chunk> getChunks() {
+		return Collections.unmodifiableList(chunks);
+	}
+
+	/**
+	 * Returns the file indexed.
+	 *
+	 * @return The file indexed.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns a TriG input stream for a chunk: the directives preceding the chunk, followed by the chunk enclosed in its graph block.
+	 *
+	 * @param chunk The chunk (taken from the list returned by <code>getChunks</code>).
+	 * @return An input stream over the standalone TriG document corresponding to the chunk.
+	 */
+	public InputStream openChunk(Chunk chunk) {
+
+		List<InputStream> streams = new ArrayList<InputStream>();
+		for (int index = 0; index < chunk.directiveCount; index++) streams.add(slice(directives.get(index).start, directives.get(index).end));
+		streams.add(slice(chunk.labelStart, chunk.labelEnd));
+		streams.add(new ByteArrayInputStream(" {\n".getBytes(StandardCharsets.US_ASCII)));
+		streams.add(slice(chunk.start, chunk.end));
+		streams.add(new ByteArrayInputStream("\n}\n".getBytes(StandardCharsets.US_ASCII)));
+
+		return new SequenceInputStream(Collections.enumeration(streams));
+	}
+
+	/**
+	 * Returns the text of the directives preceding a chunk.
+	 *
+	 * @param chunk The chunk.
+	 * @return The directives as a string.
+	 */
+	public String getDirectives(Chunk chunk) {
+
+		StringBuilder builder = new StringBuilder();
+		for (int index = 0; index < chunk.directiveCount; index++) builder.append(text(directives.get(index).start, directives.get(index).end)).append('\n');
+		return builder.toString();
+	}
+
+	/**
+	 * Returns the graph label of a chunk as it is written in the file (for example an IRI between angle brackets or a prefixed name).
+	 *
+	 * @param chunk The chunk.
+	 * @return The graph label, or an empty string for the default graph.
+	 */
+	public String getLabel(Chunk chunk) {
+		return text(chunk.labelStart, chunk.labelEnd).trim();
+	}
+
+	/**
+	 * Returns the name of the graph to which a chunk belongs, resolved with the directives in force at the position of the chunk.
+	 *
+	 * @param chunk The chunk.
+	 * @return The graph name as an IRI node, or <code>Quad.defaultGraphIRI</code> for the default graph.
+	 * @throws IllegalArgumentException If the graph is labeled with a blank node.
+	 */
+	public Node getGraphName(Chunk chunk) {
+
+		String label = getLabel(chunk);
+		if (label.isEmpty()) return Quad.defaultGraphIRI;
+
+		return graphNames.computeIfAbsent(chunk.directiveCount + " " + label, key -> {
+			// The label is resolved by parsing it as the object of a triple preceded by the directives
+			Graph graph = GraphFactory.createGraphMem();
+			RDFParser.fromString(getDirectives(chunk) + "<urn:s> <urn:p> " + label + " .").lang(Lang.TURTLE).base(baseIRI).parse(graph);
+			Node graphName = graph.find().next().getObject();
+			if (!graphName.isURI()) throw new IllegalArgumentException("Graph label " + label + " in " + file + " is not an IRI");
+			return graphName;
+		});
+	}
+
+	/**
+	 * Parses a list of chunks into a dataset.
+	 *
+	 * @param selectedChunks The chunks to parse.
+	 * @param parallelism The number of threads to use (1 for sequential parsing).
+	 * @return A dataset containing the graphs of the chunks.
+	 */
+	public DatasetGraph parse(List<Chunk> selectedChunks, int parallelism) {
+
+		List<DatasetGraph> parsedChunks = new ArrayList<DatasetGraph>(Collections.<DatasetGraph>nCopies(selectedChunks.size(), null));
+		if (parallelism <= 1 || selectedChunks.size() <= 1) {
+			for (int index = 0; index < selectedChunks.size(); index++) parsedChunks.set(index, parseChunk(selectedChunks.get(index)));
+		} else {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				List<ForkJoinTask<DatasetGraph>> tasks = new ArrayList<ForkJoinTask<DatasetGraph>>();
+				for (Chunk chunk : selectedChunks) tasks.add(pool.submit(() -> parseChunk(chunk)));
+				for (int index = 0; index < tasks.size(); index++) parsedChunks.set(index, tasks.get(index).join());
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		// Assemble the parsed chunks in order of appearance: graphs seen for the first time are linked, the others are merged
+		DatasetGraph datasetGraph = DatasetGraphFactory.createGeneral();
+		for (DatasetGraph parsedChunk : parsedChunks) {
+			GraphUtil.addInto(datasetGraph.getDefaultGraph(), parsedChunk.getDefaultGraph());
+			parsedChunk.listGraphNodes().forEachRemaining(graphNode -> {
+				Graph graph = parsedChunk.getGraph(graphNode);
+				if (datasetGraph.containsGraph(graphNode)) GraphUtil.addInto(datasetGraph.getGraph(graphNode), graph);
+				else datasetGraph.addGraph(graphNode, graph);
+			});
+			// Prefixes of a dataset are held by its default graph
+			datasetGraph.getDefaultGraph().getPrefixMapping().setNsPrefixes(parsedChunk.getDefaultGraph().getPrefixMapping());
+		}
+
+		return datasetGraph;
+	}
+
+	/**
+	 * Parses a complete TriG file, using several threads if requested.
+	 * If the structure of the file is not supported by the index, the file is parsed sequentially in the usual way.
+	 *
+	 * @param file The TriG file to parse.
+	 * @param parallelism The number of threads to use.
+	 * @return A dataset containing all the graphs of the file.
+	 */
+	public static DatasetGraph loadDatasetGraph(File file, int parallelism) {
+
+		TriGBlockIndex index = null;
+		try {
+			index = new TriGBlockIndex(file, getChunkSize(file.length(), parallelism));
+		} catch (IllegalArgumentException | IOException e) {
+			logger.warn("File " + file + " cannot be split in blocks, parsing it sequentially - " + e.getMessage());
+			DatasetGraph datasetGraph = DatasetGraphFactory.create();
+			RDFParser.source(file.getPath()).lang(Lang.TRIG).parse(datasetGraph);
+			return datasetGraph;
+		}
+
+		return index.parse(index.chunks, parallelism);
+	}
+
+	/**
+	 * Returns a chunk size adapted to the size of a file and to the number of threads used to parse it.
+	 *
+	 * @param fileSize The size of the file in bytes.
+	 * @param parallelism The number of threads used to parse the file.
+	 * @return The chunk size in bytes.
+	 */
+	public static int getChunkSize(long fileSize, int parallelism) {
+
+		// Chunk size is chosen in order to get a few chunks per thread, without going below the default size
+		long chunkSize = Math.max(DEFAULT_CHUNK_SIZE, fileSize / (4 * Math.max(parallelism, 1)));
+		return (int) Math.min(chunkSize, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Parses one chunk into a dataset of its own.
+	 */
+	private DatasetGraph parseChunk(Chunk chunk) {
+
+		DatasetGraph chunkGraph = DatasetGraphFactory.create();
+		try (InputStream input = openChunk(chunk)) {
+			RDFParser.create().source(input).lang(Lang.TRIG).base(baseIRI).labelToNode(createLabelToNode()).parse(chunkGraph);
+		} catch (IOException e) {
+			throw new IllegalStateException("Error while reading chunk at offset " + chunk.start + " of " + file, e); // Streams are in memory, should not happen
+		}
+		return chunkGraph;
+	}
+
+	/**
+	 * Creates the blank node allocation policy used to parse one chunk.
+	 * Labelled blank nodes are allocated from the document scope, so that a label gives the same node in all chunks.
+	 * Anonymous blank nodes (<code>[]</code> and collections) are always fresh: with the document scope, they would be numbered from the start in each chunk, and merged with those of the other chunks.
+	 */
+	private LabelToNode createLabelToNode() {
+
+		BlankNodeAllocator labelAllocator = new BlankNodeAllocatorFixedSeedHash(documentScope); // Allocation of labels only depends on the seed
+		MapWithScope.ScopePolicy<String, Node, Node> documentPolicy = new MapWithScope.ScopePolicy<String, Node, Node>() {
+			@Override
+			public Map<String, Node> getScope(Node graphName) {
+				return null; // No cache: the label is allocated each time, which gives the same node
+			}
+
+			@Override
+			public void clear() {}
+		};
+		MapWithScope.Allocator<String, Node, Node> allocator = new MapWithScope.Allocator<String, Node, Node>() {
+			@Override
+			public Node alloc(Node graphName, String label) {
+				return labelAllocator.alloc(label);
+			}
+
+			@Override
+			public Node create() {
+				return NodeFactory.createBlankNode();
+			}
+
+			@Override
+			public void reset() {}
+		};
+		return new LabelToNode(documentPolicy, allocator);
+	}
+
+	/**
+	 * Returns an input stream over a slice of the file content.
+	 */
+	private InputStream slice(int start, int end) {
+
+		ByteBuffer slice = content.duplicate();
+		((Buffer) slice).position(start); // Cast needed for binary compatibility with Java 8
+		((Buffer) slice).limit(end);
+		return new InputStream() {
+			@Override
+			public int read() {
+				return slice.hasRemaining() ? (slice.get() & 0xFF) : -1;
+			}
+
+			@Override
+			public int read(byte[] bytes, int offset, int length) {
+				if (!slice.hasRemaining()) return -1;
+				int count = Math.min(length, slice.remaining());
+				slice.get(bytes, offset, count);
+				return count;
+			}
+		};
+	}
+
+	/**
+	 * Returns a slice of the file content as a string.
+	 */
+	private String text(int start, int end) {
+
+		byte[] bytes = new byte[end - start];
+		ByteBuffer slice = content.duplicate();
+		((Buffer) slice).position(start);
+		slice.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * A chunk of graph block: a sequence of complete statements of a graph block, with the position of the graph label in the file.
+	 */
+	public static class Chunk {
+
+		private final int labelStart;
+		private final int labelEnd;
+		private final int start;
+		private final int end;
+		private final int directiveCount;
+
+		private Chunk(int labelStart, int labelEnd, int start, int end, int directiveCount) {
+			this.labelStart = labelStart;
+			this.labelEnd = labelEnd;
+			this.start = start;
+			this.end = end;
+			this.directiveCount = directiveCount;
+		}
+
+		/** Returns the offset of the beginning of the chunk content in the file */
+		public int getStart() {
+			return start;
+		}
+
+		/** Returns the size of the chunk content in bytes */
+		public int getSize() {
+			return end - start;
+		}
+	}
+
+	/**
+	 * Byte-level scanner which fills the lists of directives and chunks.
+	 */
+	private class Scanner {
+
+		private final int chunkSize;
+		private final int length;
+		private int position = 0;
+
+		private Scanner(int chunkSize) {
+			this.chunkSize = chunkSize;
+			this.length = content.limit();
+		}
+
+		private void scan() {
+
+			while (true) {
+				skipWhitespaceAndComments();
+				if (position >= length) return;
+				int start = position;
+				byte current = content.get(position);
+				if (current == '@') {
+					// Turtle-style directive: ends with a dot
+					skipUntilDot();
+					directives.add(new Chunk(start, start, start, position, 0));
+				} else if (matchesKeyword("PREFIX") || matchesKeyword("BASE")) {
+					// SPARQL-style directive: ends with the IRI
+					skipUntilByte('>');
+					directives.add(new Chunk(start, start, start, position, 0));
+				} else {
+					if (matchesKeyword("GRAPH")) {
+						position += 5;
+						skipWhitespaceAndComments();
+					}
+					int labelStart = position;
+					skipLabel();
+					int labelEnd = position;
+					skipWhitespaceAndComments();
+					if (position >= length || content.get(position) != '{') throw new IllegalArgumentException("Unsupported TriG structure at offset " + start);
+					scanBlock(labelStart, labelEnd);
+				}
+			}
+		}
+
+		/**
+		 * Scans the content of a graph block (the position is on the opening brace) and splits it into chunks at statement boundaries.
+		 */
+		private void scanBlock(int labelStart, int labelEnd) {
+
+			int blockStart = ++position;
+			int chunkStart = blockStart;
+			int depth = 0; // Depth of brackets and parentheses
+			while (position < length) {
+				byte current = content.get(position);
+				if (current == '"' || current == '\'') {
+					skipString(current);
+					continue;
+				}
+				if (current == '<') {
+					skipUntilByte('>');
+					continue;
+				}
+				if (current == '#') {
+					skipLine();
+					continue;
+				}
+				if (current == '[' || current == '(') depth++;
+				else if (current == ']' || current == ')') depth--;
+				else if (current == '}' && depth == 0) {
+					// The remainder of a block which was already split is only kept if it contains statements
+					if (chunkStart == blockStart || !isBlank(chunkStart, position)) chunks.add(new Chunk(labelStart, labelEnd, chunkStart, position, directives.size()));
+					position++;
+					return;
+				}
+				else if (current == '.' && depth == 0 && isStatementEnd(position + 1)) {
+					int statementEnd = position + 1;
+					if (statementEnd - chunkStart >= chunkSize) {
+						chunks.add(new Chunk(labelStart, labelEnd, chunkStart, statementEnd, directives.size()));
+						chunkStart = statementEnd;
+					}
+				}
+				position++;
+			}
+			throw new IllegalArgumentException("Unterminated graph block starting at offset " + labelStart);
+		}
+
+		/**
+		 * Checks if a range of the content only contains whitespace and comments.
+		 */
+		private boolean isBlank(int start, int end) {
+
+			boolean inComment = false;
+			for (int index = start; index < end; index++) {
+				byte current = content.get(index);
+				if (current == '\n') inComment = false;
+				else if (current == '#') inComment = true;
+				else if (!inComment && !isWhitespace(current)) return false;
+			}
+			return true;
+		}
+
+		/**
+		 * A dot ends a statement if it is followed by whitespace, a comment or the end of the block (otherwise it belongs to a name or a number).
+		 */
+		private boolean isStatementEnd(int next) {
+
+			if (next >= length) return true;
+			byte nextByte = content.get(next);
+			return isWhitespace(nextByte) || nextByte == '#' || nextByte == '}';
+		}
+
+		private void skipLabel() {
+
+			if (position < length && content.get(position) == '<') {
+				skipUntilByte('>');
+				return;
+			}
+			if (position < length && content.get(position) == '[') {
+				skipUntilByte(']');
+				return;
+			}
+			// Prefixed name or blank node label, or nothing for the default graph
+			while (position < length) {
+				byte current = content.get(position);
+				if (isWhitespace(current) || current == '{' || current == '#') return;
+				position++;
+			}
+		}
+
+		private void skipString(byte quote) {
+
+			boolean isLong = (position + 2 < length) && content.get(position + 1) == quote && content.get(position + 2) == quote;
+			if (isLong) {
+				position += 3;
+				while (position < length) {
+					byte current = content.get(position);
+					if (current == '\\') position += 2;
+					else if (current == quote && position + 2 < length && content.get(position + 1) == quote && content.get(position + 2) == quote) {
+						position += 3;
+						// A long string can end with up to two additional quotes
+						while (position < length && content.get(position) == quote) position++;
+						return;
+					}
+					else position++;
+				}
+			} else {
+				position++;
+				while (position < length) {
+					byte current = content.get(position);
+					if (current == '\\') position += 2;
+					else if (current == quote) {
+						position++;
+						return;
+					}
+					else position++;
+				}
+			}
+			throw new IllegalArgumentException("Unterminated string in " + file);
+		}
+
+		private void skipUntilByte(char delimiter) {
+
+			while (position < length && content.get(position) != delimiter) position++;
+			if (position >= length) throw new IllegalArgumentException("Missing '" + delimiter + "' in " + file);
+			position++;
+		}
+
+		private void skipUntilDot() {
+
+			while (position < length) {
+				byte current = content.get(position);
+				if (current == '<') skipUntilByte('>');
+				else if (current == '.') {
+					position++;
+					return;
+				}
+				else position++;
+			}
+			throw new IllegalArgumentException("Unterminated directive in " + file);
+		}
+
+		private void skipLine() {
+			while (position < length && content.get(position) != '\n') position++;
+		}
+
+		private void skipWhitespaceAndComments() {
+
+			while (position < length) {
+				byte current = content.get(position);
+				if (current == '#') skipLine();
+				else if (isWhitespace(current)) position++;
+				else return;
+			}
+		}
+
+		private boolean matchesKeyword(String keyword) {
+
+			if (position + keyword.length() >= length) return false;
+			for (int index = 0; index < keyword.length(); index++) {
+				if (Character.toUpperCase((char) content.get(position + index)) != keyword.charAt(index)) return false;
+			}
+			byte next = content.get(position + keyword.length());
+			return isWhitespace(next) || next == '<' || next == '{';
+		}
+
+		private boolean isWhitespace(byte current) {
+			return current == ' ' || current == '\t' || current == '\n' || current == '\r';
+		}
+	}
+}
@@ -1,7 +1,14 @@
 package fr.insee.semweb.utils;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.util.Arrays;
@@ -141,4 +148,50 @@ public class Utils {
 	
 		return Normalizer.normalize(original, Form.NFD).replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
 	}
+
+	/**
+	 * Calculates the SHA-256 digest of the content of a file.
+	 * 
+	 * @param file The file to digest.
+	 * @return The digest as a lower-case hexadecimal string.
+	 * @throws IOException In case of problem reading the file.
+	 */
+	public static String fileDigest(File file) throws IOException {
+
+		MessageDigest digest = sha256Digest();
+		try (InputStream input = new DigestInputStream(new FileInputStream(file), digest)) {
+			byte[] buffer = new byte[1 << 16];
+			while (input.read(buffer) != -1);
+		}
+
+		return hexString(digest.digest());
+	}
+
+	/**
+	 * Creates a SHA-256 message digest.
+	 * 
+	 * @return A new SHA-256 <code>MessageDigest</code>.
+	 */
+	public static MessageDigest sha256Digest() {
+
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 algorithm not available", e); // Should never happen, SHA-256 is mandatory in all JVMs
+		}
+	}
+
+	/**
+	 * Returns the hexadecimal representation of an array of bytes, typically a digest.
+	 * 
+	 * @param bytes The array of bytes.
+	 * @return The hexadecimal string in lower case.
+	 */
+	public static String hexString(byte[] bytes) {
+
+		StringBuilder builder = new StringBuilder();
+		for (byte digestByte : bytes) builder.append(String.format("%02x", digestByte));
+
+		return builder.toString();
+	}
 }
@@ -0,0 +1,188 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.AssociationIndex;
+import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.sdmx.metadata.Configuration.OrganizationRole;
+
+/**
+ * Test and launch methods for class <code>AssociationIndex</code>.
+ *
+ * @author Franck
+ */
+class AssociationIndexTest {
+
+	private static final String RELATED_TO_URI = "http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo";
+
+	@Test
+	public void testBuild() {
+
+		Model m0Model = ModelFactory.createDefaultModel();
+		Property relatedTo = m0Model.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo");
+		Property relatedToEn = m0Model.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedToGb");
+		addRelation(m0Model, "http://baseUri/series/serie/99/RELATED_TO", relatedTo, "http://baseUri/series/serie/98/RELATED_TO");
+		addRelation(m0Model, "http://baseUri/codelists/codelist/1/RELATED_TO", relatedTo, "http://baseUri/codes/code/2/RELATED_TO");
+		addRelation(m0Model, "http://baseUri/series/serie/117/ASSOCIE_A", relatedTo, "http://baseUri/familles/famille/58/ASSOCIE_A");
+		addRelation(m0Model, "http://baseUri/operations/operation/1/ASSOCIE_A", relatedTo, "http://baseUri/series/serie/117/ASSOCIE_A");
+		addRelation(m0Model, "http://baseUri/series/serie/12/REPLACES", relatedTo, "http://baseUri/series/serie/13/REMPLACE_PAR");
+		addRelation(m0Model, "http://baseUri/indicateurs/indicateur/27/PRODUCED_FROM", relatedTo, "http://baseUri/series/serie/137/PRODUIT_INDICATEURS");
+		addRelation(m0Model, "http://baseUri/series/serie/42/STAKEHOLDERS", relatedTo, "http://baseUri/organismes/organisme/10/STAKEHOLDERS");
+		addRelation(m0Model, "http://baseUri/series/serie/42/ORGANISATION", relatedTo, "http://baseUri/organismes/organisme/11/ORGANISATION");
+		addRelation(m0Model, "http://baseUri/documentations/documentation/1527/ASSOCIE_A", relatedTo, "http://baseUri/operations/operation/1/ASSOCIE_A");
+		addRelation(m0Model, "http://baseUri/documentations/documentation/1528/ASSOCIE_A", relatedTo, "http://baseUri/indicateurs/indicateur/27/ASSOCIE_A");
+		addRelation(m0Model, "http://baseUri/documentations/documentation/1580/SEE_ALSO", relatedTo, "http://baseUri/liens/lien/54/SEE_ALSO");
+		addRelation(m0Model, "http://baseUri/documentations/documentation/1580/SEE_ALSO", relatedToEn, "http://baseUri/liens/lien/55/SEE_ALSO");
+		addRelation(m0Model, "http://baseUri/documentations/documentation/1580/SEE_ALSO", relatedToEn, "http://baseUri/liens/lien/54/SEE_ALSO");
+		addRelation(m0Model, "http://baseUri/documentations/documentation/1580/ASSOCIE_A", relatedTo, "http://baseUri/documents/document/7/ASSOCIE_A");
+		addRelation(m0Model, "http://baseUri/documentations/documentation/1507/CONTACT_ORGANISATION", relatedTo, "http://baseUri/organismes/organisme/36/CONTACT_ORGANISATION");
+
+		AssociationIndex index = AssociationIndex.build(m0Model);
+
+		assertEquals(Arrays.asList("http://baseUri/series/serie/98"), index.getRelations().get("http://baseUri/series/serie/99"));
+		assertEquals(1, index.getRelations().size());
+		assertEquals("http://baseUri/familles/famille/58", index.getHierarchies().get("http://baseUri/series/serie/117"));
+		assertEquals("http://baseUri/series/serie/117", index.getHierarchies().get("http://baseUri/operations/operation/1"));
+		assertEquals(Arrays.asList("http://baseUri/series/serie/13"), index.getReplacements().get("http://baseUri/series/serie/12"));
+		assertEquals(Arrays.asList("http://baseUri/series/serie/137"), index.getProductionRelations().get("http://baseUri/indicateurs/indicateur/27"));
+		assertEquals(Arrays.asList("http://baseUri/organismes/organisme/10"), index.getOrganizationalRelations(OrganizationRole.STAKEHOLDER).get("http://baseUri/series/serie/42"));
+		assertEquals(Arrays.asList("http://baseUri/organismes/organisme/11"), index.getOrganizationalRelations(OrganizationRole.PRODUCER).get("http://baseUri/series/serie/42"));
+
+		assertEquals(1, index.getSIMSAttachments(false).size());
+		assertEquals(2, index.getSIMSAttachments(true).size());
+		assertEquals("http://baseUri/indicateurs/indicateur/27", index.getSIMSAttachments(true).get("http://baseUri/documentations/documentation/1528"));
+
+		SortedSet<String> references = index.getAttributeReferences("fr", true).get(1580).get("SEE_ALSO");
+		assertEquals(1, references.size());
+		assertTrue(references.contains(Configuration.linkURI(54)));
+		assertEquals(2, index.getAttributeReferences("en", true).get(1580).get("SEE_ALSO").size());
+		// Associations on the 'ASSOCIE_A' attribute are not references
+		assertTrue(index.getAttributeReferences("fr", false).isEmpty());
+
+		SortedMap<Integer, String> languageTags = index.getLanguageTags(true);
+		assertEquals("fr", languageTags.get(54));
+		assertEquals("en", languageTags.get(55));
+		assertEquals("fr", index.getLanguageTags(false).get(7));
+
+		assertTrue(index.getOrganizationValues().get(1507).get("CONTACT_ORGANISATION").contains("http://baseUri/organismes/organisme/36"));
+	}
+
+	@Test
+	public void testImmutability() {
+
+		Model m0Model = ModelFactory.createDefaultModel();
+		Property relatedTo = m0Model.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo");
+		addRelation(m0Model, "http://baseUri/series/serie/99/RELATED_TO", relatedTo, "http://baseUri/series/serie/98/RELATED_TO");
+
+		AssociationIndex index = AssociationIndex.build(m0Model);
+		index.getRelations().get("http://baseUri/series/serie/99").add("http://baseUri/series/serie/97");
+		index.getRelations().clear();
+		assertEquals(1, index.getRelations().get("http://baseUri/series/serie/99").size());
+		assertFalse(index.getRelations().isEmpty());
+	}
+
+	/**
+	 * Checks that the relations of the index are the same as those extracted one by one as by the original <code>M0Extractor</code> methods.
+	 */
+	@Test
+	public void testSameAsExtractors() {
+
+		Model m0Model = ModelFactory.createDefaultModel();
+		Property relatedTo = m0Model.createProperty(RELATED_TO_URI);
+		for (int number = 1; number <= 20; number++) {
+			// Documentations attached to an indicator and to a series or operation, in various orders of the statements in the model
+			String documentationURI = "http://baseUri/documentations/documentation/" + (1500 + number) + "/ASSOCIE_A";
+			addRelation(m0Model, documentationURI, relatedTo, "http://baseUri/indicateurs/indicateur/" + number + "/ASSOCIE_A");
+			addRelation(m0Model, documentationURI, relatedTo, "http://baseUri/" + ((number % 2 == 0) ? "series/serie/" : "operations/operation/") + number + "/ASSOCIE_A");
+			if (number % 5 == 0) addRelation(m0Model, documentationURI, relatedTo, "http://baseUri/series/serie/" + (100 + number) + "/ASSOCIE_A");
+			addRelation(m0Model, "http://baseUri/series/serie/" + number + "/ASSOCIE_A", relatedTo, "http://baseUri/familles/famille/" + (number % 3) + "/ASSOCIE_A");
+			addRelation(m0Model, "http://baseUri/series/serie/" + number + "/ASSOCIE_A", relatedTo, "http://baseUri/familles/famille/" + (number % 4) + "/ASSOCIE_A");
+			addRelation(m0Model, "http://baseUri/operations/operation/" + number + "/ASSOCIE_A", relatedTo, "http://baseUri/series/serie/" + (number % 7) + "/ASSOCIE_A");
+			addRelation(m0Model, "http://baseUri/series/serie/" + number + "/RELATED_TO", relatedTo, "http://baseUri/indicateurs/indicateur/" + (number % 6) + "/RELATED_TO");
+			addRelation(m0Model, "http://baseUri/indicateurs/indicateur/" + (number % 6) + "/RELATED_TO", relatedTo, "http://baseUri/series/serie/" + number + "/RELATED_TO");
+			addRelation(m0Model, "http://baseUri/series/serie/" + number + "/REPLACES", relatedTo, "http://baseUri/series/serie/" + (number % 5) + "/REMPLACE_PAR");
+			addRelation(m0Model, "http://baseUri/indicateurs/indicateur/" + number + "/PRODUCED_FROM", relatedTo, "http://baseUri/series/serie/" + (number % 8) + "/PRODUIT_INDICATEURS");
+			addRelation(m0Model, "http://baseUri/indicateurs/indicateur/" + number + "/PRODUCED_FROM", relatedTo, "http://baseUri/series/serie/" + (number % 9) + "/PRODUCED_FROM");
+			addRelation(m0Model, "http://baseUri/series/serie/" + number + "/STAKEHOLDERS", relatedTo, "http://baseUri/organismes/organisme/" + (number % 4) + "/STAKEHOLDERS");
+			addRelation(m0Model, "http://baseUri/operations/operation/" + number + "/ORGANISATION", relatedTo, "http://baseUri/organismes/organisme/" + (number % 3) + "/ORGANISATION");
+		}
+		addRelation(m0Model, "http://baseUri/codelists/codelist/1/RELATED_TO", relatedTo, "http://baseUri/codes/code/2/RELATED_TO");
+
+		AssociationIndex index = AssociationIndex.build(m0Model);
+
+		assertEquals(extractSIMSAttachments(m0Model, false), index.getSIMSAttachments(false));
+		assertEquals(extractSIMSAttachments(m0Model, true), index.getSIMSAttachments(true));
+		assertEquals(20, index.getSIMSAttachments(false).size()); // No documentation loses its series or operation
+		assertEquals(extractListMap(m0Model, "RELATED_TO", "RELATED_TO", "", ""), index.getRelations());
+		assertEquals(extractHierarchies(m0Model), index.getHierarchies());
+		assertEquals(extractListMap(m0Model, "REPLACES", "REMPLACE_PAR", "", ""), index.getReplacements());
+		assertEquals(extractListMap(m0Model, "PRODUCED_FROM", "PRODUIT_INDICATEURS", "http://baseUri/indicateurs", "http://baseUri/series"), index.getProductionRelations());
+		for (OrganizationRole role : OrganizationRole.values()) {
+			String suffix = role.toString();
+			assertEquals(extractListMap(m0Model, suffix, suffix, "", "http://baseUri/organismes"), index.getOrganizationalRelations(role));
+		}
+	}
+
+	/** Extracts the relations between subject and object URIs having given suffixes and prefixes, as the original selector-based extractions */
+	private static SortedMap<String, List<String>> extractListMap(Model m0Model, String subjectSuffix, String objectSuffix, String subjectPrefix, String objectPrefix) {
+
+		SortedMap<String, List<String>> relations = new TreeMap<String, List<String>>();
+		for (Statement statement : m0Model.listStatements(null, m0Model.createProperty(RELATED_TO_URI), (RDFNode) null).toList()) {
+			String subjectURI = statement.getSubject().getURI();
+			String objectURI = statement.getResource().getURI();
+			if (subjectURI.startsWith("http://baseUri/code")) continue;
+			if (!subjectURI.endsWith(subjectSuffix) || !objectURI.endsWith(objectSuffix) || !subjectURI.startsWith(subjectPrefix) || !objectURI.startsWith(objectPrefix)) continue;
+			relations.computeIfAbsent(StringUtils.removeEnd(subjectURI, "/" + subjectSuffix), key -> new ArrayList<String>()).add(StringUtils.removeEnd(objectURI, "/" + objectSuffix));
+		}
+		return relations;
+	}
+
+	/** Extracts the hierarchies as the original <code>M0Extractor.extractHierarchies</code> method */
+	private static SortedMap<String, String> extractHierarchies(Model m0Model) {
+
+		SortedMap<String, String> hierarchies = new TreeMap<String, String>();
+		for (Statement statement : m0Model.listStatements(null, m0Model.createProperty(RELATED_TO_URI), (RDFNode) null).toList()) {
+			String subjectURI = statement.getSubject().getURI();
+			String objectURI = statement.getResource().getURI();
+			if (!subjectURI.endsWith("ASSOCIE_A") || !objectURI.endsWith("ASSOCIE_A")) continue;
+			if ((subjectURI.startsWith("http://baseUri/series") && objectURI.startsWith("http://baseUri/familles")) || (subjectURI.startsWith("http://baseUri/operations") && objectURI.startsWith("http://baseUri/series")))
+				hierarchies.putIfAbsent(StringUtils.removeEnd(subjectURI, "/ASSOCIE_A"), StringUtils.removeEnd(objectURI, "/ASSOCIE_A"));
+		}
+		return hierarchies;
+	}
+
+	/** Extracts the SIMS attachments as the original <code>M0Extractor.extractSIMSAttachments</code> method */
+	private static SortedMap<String, String> extractSIMSAttachments(Model m0Model, boolean includeIndicators) {
+
+		SortedMap<String, String> attachments = new TreeMap<String, String>();
+		for (Statement statement : m0Model.listStatements(null, m0Model.createProperty(RELATED_TO_URI), (RDFNode) null).toList()) {
+			String subjectURI = statement.getSubject().getURI();
+			String objectURI = statement.getResource().getURI();
+			if (!subjectURI.endsWith("ASSOCIE_A") || !objectURI.endsWith("ASSOCIE_A") || !subjectURI.startsWith("http://baseUri/documentations")) continue;
+			if (objectURI.startsWith("http://baseUri/series") || objectURI.startsWith("http://baseUri/operations") || (includeIndicators && objectURI.startsWith("http://baseUri/indicateurs")))
+				attachments.putIfAbsent(StringUtils.removeEnd(subjectURI, "/ASSOCIE_A"), StringUtils.removeEnd(objectURI, "/ASSOCIE_A"));
+		}
+		return attachments;
+	}
+
+	private static void addRelation(Model model, String subjectURI, Property property, String objectURI) {
+		model.createResource(subjectURI).addProperty(property, model.createResource(objectURI));
+	}
+}
@@ -0,0 +1,118 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.SKOS;
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.CodeRecoder;
+import fr.insee.semweb.sdmx.metadata.Configuration;
+
+/**
+ * Test and launch methods for class <code>CodeRecoder</code>.
+ *
+ * @author Franck
+ */
+class CodeRecoderTest {
+
+	@Test
+	public void testRecode() {
+
+		assertEquals("U", CodeRecoder.recode("Frequence", "T"));
+		assertEquals("T", CodeRecoder.recode("Frequence", "BM"));
+		assertEquals("A", CodeRecoder.recode("Frequence", "A"));
+		assertNull(CodeRecoder.recode("ModeCollecte", "O"));
+		assertEquals("O", CodeRecoder.recode("Categorie", "O"));
+	}
+
+	@Test
+	public void testGetCodeURI() {
+
+		Map<String, Set<String>> validCodes = CodeRecoder.getValidCodes(createCodesModel());
+		assertEquals(Collections.singleton("Frequence"), validCodes.keySet());
+
+		CodeRecoder recoder = new CodeRecoder(validCodes, null);
+		Map<String, Integer> unknownCodeCounts = new HashMap<String, Integer>();
+		assertEquals(Configuration.inseeCodeURI("A", "Frequence"), recoder.getCodeURI("FREQ_COLL", "Frequence", "A", unknownCodeCounts));
+		assertEquals(Configuration.inseeCodeURI("U", "Frequence"), recoder.getCodeURI("FREQ_COLL", "Frequence", "T", unknownCodeCounts));
+		assertTrue(unknownCodeCounts.isEmpty());
+		// Unknown codes are converted but counted
+		assertEquals(Configuration.inseeCodeURI("X", "Frequence"), recoder.getCodeURI("FREQ_COLL", "Frequence", "X", unknownCodeCounts));
+		assertEquals(Configuration.inseeCodeURI("T", "Frequence"), recoder.getCodeURI("FREQ_DISS", "Frequence", "BM", unknownCodeCounts));
+		assertEquals(Configuration.inseeCodeURI("Y", "Frequence"), recoder.getCodeURI("FREQ_COLL", "Frequence", "Y", unknownCodeCounts));
+		// Codes of concepts without code list are not validated
+		assertNull(recoder.getCodeURI("COLL_METHOD", "ModeCollecte", "O", unknownCodeCounts));
+		assertEquals(Configuration.inseeCodeURI("P", "ModeCollecte"), recoder.getCodeURI("COLL_METHOD", "ModeCollecte", "P", unknownCodeCounts));
+
+		SortedMap<String, Integer> expectedCounts = new TreeMap<String, Integer>();
+		expectedCounts.put("FREQ_COLL", 2);
+		expectedCounts.put("FREQ_DISS", 1);
+		assertEquals(expectedCounts, unknownCodeCounts);
+	}
+
+	@Test
+	public void testGetCodeURIFiltered() {
+
+		CodeRecoder recoder = new CodeRecoder(Collections.singletonMap("UniteEnquetee", Collections.singleton("A")), null);
+		Map<String, Integer> unknownCodeCounts = new HashMap<String, Integer>();
+		assertEquals(Configuration.inseeCodeURI("A", "UniteEnquetee"), recoder.getCodeURI("UNIT_COLL", "UniteEnquetee", "AS", unknownCodeCounts));
+		// Filtered codes are not converted nor counted as unknown, but empty codes are unknown
+		assertNull(recoder.getCodeURI("UNIT_COLL", "UniteEnquetee", "O", unknownCodeCounts));
+		assertEquals(Configuration.inseeCodeURI("", "UniteEnquetee"), recoder.getCodeURI("UNIT_COLL", "UniteEnquetee", "", unknownCodeCounts));
+		assertEquals(Collections.singletonMap("UNIT_COLL", 1), unknownCodeCounts);
+	}
+
+	@Test
+	public void testUnknownCodeCountsByConversion() {
+
+		// The same recoder is used by two conversions, which count their unknown codes separately
+		CodeRecoder recoder = new CodeRecoder(Collections.emptyMap(), Collections.singletonMap("EUR", new String[] {"Euros", "Euros"}));
+		Map<String, Integer> firstCounts = new ConcurrentHashMap<String, Integer>();
+		Map<String, Integer> secondCounts = new ConcurrentHashMap<String, Integer>();
+		recoder.getUnitMeasureLabels("UNIT_MEASURE", "XXX", firstCounts);
+		recoder.getUnitMeasureLabels("UNIT_MEASURE", "EUR", secondCounts);
+		recoder.getUnitMeasureLabels("UNIT_MEASURE", "XXX", firstCounts);
+		recoder.getUnitMeasureLabels("UNIT_MEASURE", "ZZZ", secondCounts);
+		recoder.getUnitMeasureLabels("UNIT_MULT", "YYY", firstCounts);
+
+		SortedMap<String, Integer> expectedCounts = new TreeMap<String, Integer>();
+		expectedCounts.put("UNIT_MEASURE", 2);
+		expectedCounts.put("UNIT_MULT", 1);
+		assertEquals(expectedCounts, firstCounts);
+		assertEquals(Collections.singletonMap("UNIT_MEASURE", 1), secondCounts);
+	}
+
+	@Test
+	public void testGetUnitMeasureLabels() {
+
+		String[] labels = new String[] {"Euros", "Euros"};
+		CodeRecoder recoder = new CodeRecoder(Collections.emptyMap(), Collections.singletonMap("EUR", labels));
+		Map<String, Integer> unknownCodeCounts = new HashMap<String, Integer>();
+		assertArrayEquals(labels, recoder.getUnitMeasureLabels("UNIT_MEASURE", "EUR", unknownCodeCounts));
+		assertNull(recoder.getUnitMeasureLabels("UNIT_MEASURE", "XXX", unknownCodeCounts));
+		assertEquals(Collections.singletonMap("UNIT_MEASURE", 1), unknownCodeCounts);
+	}
+
+	private static Model createCodesModel() {
+
+		// Frequency code list with codes A and U (no code T, so BM cannot be recoded to a valid code)
+		Model codesModel = ModelFactory.createDefaultModel();
+		for (String code : new String[] {"A", "U"}) {
+			codesModel.createResource(Configuration.inseeCodeURI(code, "Frequence"), codesModel.createResource(Configuration.INSEE_CODE_CONCEPTS_BASE_URI + "Frequence")).addProperty(SKOS.notation, code);
+		}
+		return codesModel;
+	}
+}
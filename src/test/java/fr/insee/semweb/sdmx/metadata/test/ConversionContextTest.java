@@ -0,0 +1,52 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.sdmx.metadata.ConversionContext;
+import fr.insee.semweb.sdmx.metadata.M0Converter;
+
+/**
+ * Test and launch methods for class <code>ConversionContext</code>.
+ *
+ * @author Franck
+ */
+class ConversionContextTest {
+
+	@Test
+	public void testDefault() {
+
+		assertSame(ConversionContext.getDefault(), ConversionContext.getDefault());
+	}
+
+	@Test
+	public void testIndependentContexts() {
+
+		ConversionContext firstContext = new ConversionContext(createM0Dataset("Drees"));
+		ConversionContext secondContext = new ConversionContext(createM0Dataset("F201"));
+		String m0URI = "http://baseUri/organismes/organisme/12";
+
+		assertEquals(Configuration.organizationURI("Drees"), M0Converter.convertM0OrganizationURI(firstContext, m0URI));
+		assertEquals(Configuration.inseeUnitURI("DG75-F201"), M0Converter.convertM0OrganizationURI(secondContext, m0URI));
+		assertNull(M0Converter.convertM0OrganizationURI(firstContext, "http://baseUri/organismes/organisme/13"));
+		// The mappings are calculated once for each context
+		assertSame(firstContext.getOrganizationURIMappings(), firstContext.getOrganizationURIMappings());
+	}
+
+	private static Dataset createM0Dataset(String organizationId) {
+
+		Dataset m0Dataset = DatasetFactory.create();
+		Model m0OrganizationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "organismes");
+		m0OrganizationsModel.add(m0OrganizationsModel.createResource("http://baseUri/organismes/organisme/12/ID_CODE"),
+				ResourceFactory.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#values"), organizationId);
+		return m0Dataset;
+	}
+}
@@ -7,11 +7,11 @@ import java.util.SortedSet;
 
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
-import org.apache.jena.riot.RDFDataMgr;
 import org.junit.jupiter.api.Test;
 
 import fr.insee.semweb.sdmx.metadata.Configuration;
 import fr.insee.semweb.sdmx.metadata.GeoMapper;
+import fr.insee.semweb.sdmx.metadata.M0DatasetRegistry;
 
 class GeoMapperTest {
 
@@ -46,7 +46,7 @@ class GeoMapperTest {
 	@Test
 	void testGetUsedAreaCodes() {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documentations");
 
 		SortedSet<String> usedAreaCodes = GeoMapper.getUsedAreaCodes(m0DocumentationsModel);
@@ -62,7 +62,7 @@ class GeoMapperTest {
 	@Test
 	public void testGetDocumentationsWithOherAreaCode() {
 		
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documentations");
 
 		SortedSet<String> documentationsWithOherAreaCode = GeoMapper.getDocumentationsWithOherAreaCode(m0DocumentationsModel);
@@ -0,0 +1,54 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.IdentifierAllocator;
+
+/**
+ * Test and launch methods for class <code>IdentifierAllocator</code>.
+ *
+ * @author Franck
+ */
+class IdentifierAllocatorTest {
+
+	@Test
+	public void testAllocation() {
+
+		IdentifierAllocator allocator = new IdentifierAllocator(1001, 1010);
+		assertEquals(10, allocator.available());
+
+		// Fixed identifiers
+		assertTrue(allocator.claim(1001));
+		assertTrue(allocator.claim(1003));
+		assertFalse(allocator.claim(1003));
+		assertFalse(allocator.claim(2000));
+		assertEquals(8, allocator.available());
+
+		assertEquals(1002, allocator.next());
+		assertEquals(1004, allocator.next());
+		// Reserve 1005, 1006 and 1007
+		assertEquals(3, allocator.reserve(3));
+		assertEquals(1008, allocator.peek());
+		assertEquals(1008, allocator.next());
+		assertEquals(2, allocator.available());
+
+		assertEquals(2, allocator.reserve(5));
+		assertEquals(0, allocator.available());
+		assertEquals(-1, allocator.peek());
+		assertThrows(IllegalStateException.class, () -> allocator.next());
+	}
+
+	@Test
+	public void testLargeRange() {
+
+		IdentifierAllocator allocator = new IdentifierAllocator(1001, 1000000);
+		for (int identifier = 1001; identifier < 500000; identifier += 2) allocator.claim(identifier);
+		assertEquals(1002, allocator.next());
+		assertEquals(1000000 - 1000 - 249500 - 1, allocator.available());
+	}
+}
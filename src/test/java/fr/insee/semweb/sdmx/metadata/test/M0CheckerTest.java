@@ -2,11 +2,11 @@ package fr.insee.semweb.sdmx.metadata.test;
 
 import fr.insee.semweb.sdmx.metadata.Configuration;
 import fr.insee.semweb.sdmx.metadata.M0Checker;
+import fr.insee.semweb.sdmx.metadata.M0DatasetRegistry;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
-import org.apache.jena.riot.RDFDataMgr;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.junit.jupiter.api.Test;
@@ -32,7 +32,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckFamilies() throws IOException {
 	
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0FamiliesModel = m0Dataset.getNamedModel("http://rdf.insee.fr/graphe/familles");
 		String report = M0Checker.checkSeries(m0FamiliesModel);
 		PrintStream outStream = new PrintStream("src/test/resources/reports/m0-families.txt");
@@ -49,7 +49,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckSeries() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0SeriesModel = m0Dataset.getNamedModel("http://rdf.insee.fr/graphe/series");
 		String report = M0Checker.checkSeries(m0SeriesModel);
 		PrintStream outStream = new PrintStream("src/test/resources/reports/m0-series.txt");
@@ -66,7 +66,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckOperations() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0OperationsModel = m0Dataset.getNamedModel("http://rdf.insee.fr/graphe/operations");
 		String report = M0Checker.checkOperations(m0OperationsModel);
 		PrintStream outStream = new PrintStream("src/test/resources/reports/m0-operations.txt");
@@ -83,7 +83,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckOperationsWithAttributes() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0OperationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "operations");
 		String report = M0Checker.checkOperations(m0OperationsModel, "ID_DDS");
 		PrintStream outStream = new PrintStream("src/test/resources/reports/m0-operations-id_dds.txt");
@@ -100,7 +100,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckDocumentations() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documentations");
 		String report = M0Checker.checkDocumentations(m0DocumentationsModel);
 		PrintStream outStream = new PrintStream("src/test/resources/reports/m0-documentations.txt");
@@ -117,7 +117,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckDocuments() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documents");
 		Model m0AssociationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 
@@ -138,7 +138,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckLinks() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0LinksModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "liens");
 		Model m0AssociationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		String report = M0Checker.checkLinks(m0LinksModel, m0AssociationsModel, new File("src/test/resources/links.xslx"), Arrays.asList("TITLE", "TYPE", "URI", "SUMMARY"));
@@ -157,7 +157,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckSIMSAttributes() {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documentations");
 		M0Checker.checkSIMSAttributes(m0DocumentationsModel);
 
@@ -171,7 +171,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckDocumentDates() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documents");
 		String report = M0Checker.checkDocumentDates(m0DocumentsModel);
 		PrintStream outStream = new PrintStream("src/test/resources/m0-documents.txt");
@@ -187,7 +187,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckModelCoherence() {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		M0Checker.checkModelCoherence(m0Dataset, true);
 		m0Dataset.close();
 	}
@@ -198,7 +198,7 @@ public class M0CheckerTest {
 	@Test
 	public void testListAttributeValues() {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documentations");
 
 		Set<String> attributeValues = M0Checker.listAttributeValues(m0DocumentationsModel, "REF_AREA");
@@ -239,7 +239,7 @@ public class M0CheckerTest {
 		codedAttributes.put("SURVEY_UNIT", "CL_SURVEY_UNIT");
 		// NB: SOURCE_CATEGORY is also coded (with CL_SOURCE_CATEGORY), but it is a direct attribute and thus not checked by checkCodedAttributeValues
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentationsModel = m0Dataset.getNamedModel("http://rdf.insee.fr/graphe/documentations");
 
 		for (String attributeToCheck : codedAttributes.keySet()) {
@@ -273,7 +273,7 @@ public class M0CheckerTest {
 
 		String m0ModelName = "indicateurs";
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0Model = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + m0ModelName);
 
 		System.out.print("Attributes used in the " + m0ModelName + " M0 model: ");
@@ -286,7 +286,7 @@ public class M0CheckerTest {
 	@Test
 	public void testListModels() {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		SortedSet<String> graphNames = new TreeSet<String>();
 		m0Dataset.listNames().forEachRemaining(new Consumer<String>() {
 			@Override
@@ -311,7 +311,7 @@ public class M0CheckerTest {
 		// Attributes to report. Notes: 'ORGANISATION' always empty
 		String[] attributesToCheck = new String[]{"ID_CODE", "ALT_LABEL", "TITLE", "ORIGINE", "STAKEHOLDERS", "TYPE", "UNIT_OF"};
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0rganizationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "organismes");
 		String report = M0Checker.checkOrganizations(m0rganizationsModel, attributesToCheck);
 		PrintStream outStream = new PrintStream("src/test/resources/reports/m0-organizations.txt");
@@ -328,7 +328,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckUsedOrganizations() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		String report = M0Checker.checkUsedOrganizations(m0AssociationsModel);
 		PrintStream outStream = new PrintStream("src/test/resources/reports/m0-organizations-usage.txt");
@@ -345,7 +345,7 @@ public class M0CheckerTest {
 	@Test
 	public void testCheckOrganizationMappings() throws IOException {
 		
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Workbook orgWorkbook = WorkbookFactory.create(new File(Configuration.ORGANIZATIONS_XLSX_FILE_NAME));
 		System.out.println(M0Checker.checkOrganizationMappings(m0Dataset, orgWorkbook));
 		m0Dataset.close();
@@ -1,25 +1,45 @@
 package fr.insee.semweb.sdmx.metadata.test;
 
 import fr.insee.semweb.sdmx.metadata.*;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
 import org.apache.poi.ss.usermodel.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 /**
  * Test and launch methods for class <code>M0Converter</code>.
  * 
@@ -35,7 +55,7 @@ public class M0ConverterTest {
 	@Test
 	public void testGetIdURIFixedMappingsSeries() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Map<Integer, String> mappings = M0Converter.getIdURIFixedMappings(m0Dataset, "serie");
 		m0Dataset.close();
 
@@ -53,7 +73,7 @@ public class M0ConverterTest {
 	@Test
 	public void testGetIdURIFixedMappingsOperations() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Map<Integer, String> mappings = M0Converter.getIdURIFixedMappings(m0Dataset, "operation");
 
 		try (PrintWriter writer = new PrintWriter("src/test/resources/mappings-id-uri-operations.txt", "UTF-8")) {
@@ -204,6 +224,131 @@ public class M0ConverterTest {
 		allOPerationsModel.close();
 	}
 
+	/**
+	 * Checks on a small in-memory M0 dataset that the concurrent conversion of families, series, operations and indicators gives the same result as the sequential conversion.
+	 */
+	@Test
+	public void testConvertAllOperationsAndIndicatorsInMemory() {
+
+		// The converters close the M0 models they read, which must not close the graphs of the dataset
+		Dataset m0Dataset = DatasetFactory.createTxnMem();
+		addM0Resources(m0Dataset, "familles", "famille", 1);
+		addM0Resources(m0Dataset, "series", "serie", 3);
+		addM0Resources(m0Dataset, "operations", "operation", 3);
+		addM0Resources(m0Dataset, "indicateurs", "indicateur", 1);
+		Property valuesProperty = ResourceFactory.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#values");
+		Model m0OrganizationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "organismes");
+		m0OrganizationsModel.add(m0OrganizationsModel.createResource("http://baseUri/organismes/organisme/12/ID_CODE"), valuesProperty, "Drees");
+		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
+		String[][] associations = {
+				{"series/serie/1/ASSOCIE_A", "familles/famille/1/ASSOCIE_A"}, {"series/serie/2/ASSOCIE_A", "familles/famille/1/ASSOCIE_A"},
+				{"operations/operation/1/ASSOCIE_A", "series/serie/1/ASSOCIE_A"}, {"operations/operation/2/ASSOCIE_A", "series/serie/1/ASSOCIE_A"}, {"operations/operation/3/ASSOCIE_A", "series/serie/2/ASSOCIE_A"},
+				{"series/serie/1/RELATED_TO", "series/serie/3/RELATED_TO"}, {"series/serie/3/RELATED_TO", "series/serie/1/RELATED_TO"},
+				{"series/serie/2/RELATED_TO", "indicateurs/indicateur/1/RELATED_TO"}, {"indicateurs/indicateur/1/RELATED_TO", "series/serie/2/RELATED_TO"},
+				{"series/serie/3/REPLACES", "series/serie/2/REMPLACE_PAR"}, {"indicateurs/indicateur/1/PRODUCED_FROM", "series/serie/1/PRODUIT_INDICATEURS"},
+				{"series/serie/1/ORGANISATION", "organismes/organisme/12/ORGANISATION"}, {"series/serie/2/STAKEHOLDERS", "organismes/organisme/12/STAKEHOLDERS"}};
+		Property relatedToProperty = ResourceFactory.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo");
+		for (String[] association : associations) m0AssociationModel.add(m0AssociationModel.createResource("http://baseUri/" + association[0]), relatedToProperty, m0AssociationModel.createResource("http://baseUri/" + association[1]));
+
+		// The fixed mappings are not used for the in-memory dataset
+		Map<String, String> ddsMappings = Configuration.ddsToWeb4GIdMappings;
+		Map<Integer, String> m0Mappings = Configuration.m0ToWeb4GIdMappings;
+		Configuration.ddsToWeb4GIdMappings = new HashMap<String, String>();
+		Configuration.m0ToWeb4GIdMappings = new HashMap<Integer, String>();
+		try {
+			ConversionContext context = new ConversionContext(m0Dataset);
+			Dataset concurrentDataset = M0Converter.convertAllOperationsAndIndicators(context, "http://rdf.insee.fr/graphes/operations", "http://rdf.insee.fr/graphes/produits");
+
+			// Previous sequential composition, where the cross-relations were selected statement by statement in the associations model
+			Map<String, String> uriMappings = context.getURIMappings();
+			Model sequentialModel = ModelFactory.createDefaultModel();
+			sequentialModel.add(M0Converter.convertFamilies(context)).add(M0Converter.convertSeries(context)).add(M0Converter.convertOperations(context));
+			for (Statement statement : m0AssociationModel.listStatements(null, relatedToProperty, (RDFNode) null).toList()) {
+				String subjectURI = statement.getSubject().getURI();
+				String objectURI = statement.getResource().getURI();
+				if (subjectURI.endsWith("/ASSOCIE_A") && objectURI.endsWith("/ASSOCIE_A")
+						&& ((subjectURI.startsWith("http://baseUri/series") && objectURI.startsWith("http://baseUri/familles")) || (subjectURI.startsWith("http://baseUri/operations") && objectURI.startsWith("http://baseUri/series")))) {
+					Resource child = sequentialModel.createResource(uriMappings.get(StringUtils.removeEnd(subjectURI, "/ASSOCIE_A")));
+					Resource parent = sequentialModel.createResource(uriMappings.get(StringUtils.removeEnd(objectURI, "/ASSOCIE_A")));
+					child.addProperty(DCTerms.isPartOf, parent);
+					parent.addProperty(DCTerms.hasPart, child);
+				}
+				if (subjectURI.startsWith("http://baseUri/indicateurs")) continue;
+				if (subjectURI.endsWith("/RELATED_TO") && objectURI.endsWith("/RELATED_TO")) {
+					sequentialModel.createResource(uriMappings.get(StringUtils.removeEnd(subjectURI, "/RELATED_TO"))).addProperty(RDFS.seeAlso, sequentialModel.createResource(uriMappings.get(StringUtils.removeEnd(objectURI, "/RELATED_TO"))));
+				}
+				if (subjectURI.endsWith("/REPLACES") && objectURI.endsWith("/REMPLACE_PAR")) {
+					Resource replacing = sequentialModel.createResource(uriMappings.get(StringUtils.removeEnd(subjectURI, "/REPLACES")));
+					Resource replaced = sequentialModel.createResource(uriMappings.get(StringUtils.removeEnd(objectURI, "/REMPLACE_PAR")));
+					replacing.addProperty(DCTerms.replaces, replaced);
+					replaced.addProperty(DCTerms.isReplacedBy, replacing);
+				}
+				for (Configuration.OrganizationRole role : Configuration.OrganizationRole.values()) {
+					String suffix = "/" + role.toString();
+					if (!subjectURI.endsWith(suffix) || !objectURI.startsWith("http://baseUri/organismes") || !objectURI.endsWith(suffix)) continue;
+					String organizationURI = M0Converter.convertM0OrganizationURI(context, StringUtils.removeEnd(objectURI, suffix));
+					sequentialModel.createResource(uriMappings.get(StringUtils.removeEnd(subjectURI, suffix))).addProperty(role.getProperty(), sequentialModel.createResource(organizationURI));
+				}
+			}
+
+			Model concurrentOperationModel = concurrentDataset.getNamedModel("http://rdf.insee.fr/graphes/operations");
+			assertTrue(concurrentOperationModel.isIsomorphicWith(sequentialModel));
+			assertTrue(concurrentDataset.getNamedModel("http://rdf.insee.fr/graphes/produits").isIsomorphicWith(M0Converter.convertIndicators(context)));
+			// Check a few relations, so that the comparison is not made on empty models
+			Resource operation = concurrentOperationModel.createResource(uriMappings.get("http://baseUri/operations/operation/3"));
+			assertTrue(concurrentOperationModel.contains(operation, DCTerms.isPartOf, concurrentOperationModel.createResource(uriMappings.get("http://baseUri/series/serie/2"))));
+			assertTrue(concurrentOperationModel.contains(null, DCTerms.contributor, concurrentOperationModel.createResource(Configuration.organizationURI("Drees"))));
+			assertEquals(3, concurrentOperationModel.listStatements(null, RDFS.seeAlso, (RDFNode) null).toList().size());
+		} finally {
+			Configuration.ddsToWeb4GIdMappings = ddsMappings;
+			Configuration.m0ToWeb4GIdMappings = m0Mappings;
+		}
+	}
+
+	/**
+	 * Creates the URI mappings of a small in-memory M0 dataset with a ledger, and checks that the fixed mappings take precedence over the ledger.
+	 */
+	@Test
+	public void testCreateURIMappingsWithLedger(@TempDir File ledgerDirectory) throws IOException {
+
+		Dataset m0Dataset = DatasetFactory.createTxnMem();
+		addM0Resources(m0Dataset, "series", "serie", 2);
+		addM0Resources(m0Dataset, "operations", "operation", 3);
+		File ledgerFile = new File(ledgerDirectory, "uri-mappings.tsv");
+		String recordedLines = "http://baseUri/series/serie/1\t" + Configuration.operationResourceURI("1100", "serie") + "\n"
+				+ "http://baseUri/series/serie/9\t" + Configuration.operationResourceURI("1001", "serie") + "\n" // Stale: the series does not exist anymore
+				+ "http://baseUri/operations/operation/2\t" + Configuration.operationResourceURI("1002", "operation") + "\n";
+		Files.write(ledgerFile.toPath(), recordedLines.getBytes(StandardCharsets.UTF_8));
+
+		Map<String, String> ddsMappings = Configuration.ddsToWeb4GIdMappings;
+		Map<Integer, String> m0Mappings = Configuration.m0ToWeb4GIdMappings;
+		Configuration.ddsToWeb4GIdMappings = new HashMap<String, String>();
+		Configuration.m0ToWeb4GIdMappings = new HashMap<Integer, String>();
+		try {
+			ConversionContext context = new ConversionContext(m0Dataset);
+			Configuration.m0ToWeb4GIdMappings.put(2, "1500");
+			SortedMap<String, String> uriMappings = M0Converter.createURIMappings(context, URIMappingLedger.open(ledgerFile));
+			for (String m0URI : new String[] {"series/serie/1", "series/serie/2", "operations/operation/1", "operations/operation/2", "operations/operation/3"}) assertTrue(uriMappings.containsKey("http://baseUri/" + m0URI));
+			assertEquals(Configuration.operationResourceURI("1100", "serie"), uriMappings.get("http://baseUri/series/serie/1"));
+			assertEquals(Configuration.operationResourceURI("1500", "operation"), uriMappings.get("http://baseUri/operations/operation/2"));
+			// Identifiers of the recorded mappings are not reused, even for the resources which do not exist anymore
+			assertFalse(uriMappings.containsKey("http://baseUri/series/serie/9"));
+			assertFalse(uriMappings.containsValue(Configuration.operationResourceURI("1001", "serie")));
+			assertFalse(uriMappings.containsValue(Configuration.operationResourceURI("1002", "operation")));
+			assertEquals(Configuration.operationResourceURI("1500", "operation"), URIMappingLedger.open(ledgerFile).get("http://baseUri/operations/operation/2"));
+
+			// A change of fixed mapping is taken into account, and the other mappings remain stable
+			Configuration.m0ToWeb4GIdMappings.put(2, "1501");
+			SortedMap<String, String> newURIMappings = M0Converter.createURIMappings(context, URIMappingLedger.open(ledgerFile));
+			uriMappings.put("http://baseUri/operations/operation/2", Configuration.operationResourceURI("1501", "operation"));
+			assertEquals(uriMappings, newURIMappings);
+			assertEquals(Configuration.operationResourceURI("1501", "operation"), URIMappingLedger.open(ledgerFile).get("http://baseUri/operations/operation/2"));
+		} finally {
+			Configuration.ddsToWeb4GIdMappings = ddsMappings;
+			Configuration.m0ToWeb4GIdMappings = m0Mappings;
+		}
+	}
+
 	/**
 	 * Creates and writes to a Turtle file the information about families in the target model.
 	 * 
@@ -295,7 +440,7 @@ public class M0ConverterTest {
 
 		// We also list all the links that are actually referenced in the documentations
 		SortedSet<String> referencedLinks = new TreeSet<String>();
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<Integer, SortedMap<String, SortedSet<String>>> relations = M0SIMSConverter.getAttributeReferences(m0AssociationsModel, "fr", true);
 		try (PrintWriter writer = new PrintWriter("src/test/resources/links-references-french.txt", "UTF-8")) {
@@ -329,7 +474,7 @@ public class M0ConverterTest {
 
 		// We also list the documents that are actually referenced in the relations
 		SortedSet<String> referencedDocuments = new TreeSet<String>();
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<Integer, SortedMap<String, SortedSet<String>>> relations = M0SIMSConverter.getAttributeReferences(m0AssociationsModel, "fr", false);
 		try (PrintWriter writer = new PrintWriter("src/test/resources/documents-references-french.txt", "UTF-8")) {
@@ -361,7 +506,7 @@ public class M0ConverterTest {
 	@Test
 	public void testGetLanguageTags() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<Integer, String> languageTags = M0SIMSConverter.getLanguageTags(m0AssociationModel, true);
 		try (PrintWriter writer = new PrintWriter("src/test/resources/links-languages.txt", "UTF-8")) {
@@ -409,7 +554,7 @@ public class M0ConverterTest {
 	@Test
 	public void testGetDocumentDates() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documents");
 
 		SortedMap<Integer, Date> documentDates = M0SIMSConverter.getDocumentDates(m0DocumentsModel);
@@ -428,7 +573,7 @@ public class M0ConverterTest {
 	@Test
 	public void testGetSIMSAttachments() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 
 		SortedMap<Integer, String> simsAttachments = M0SIMSConverter.getSIMSAttachments(m0AssociationsModel);
@@ -451,11 +596,47 @@ public class M0ConverterTest {
 		boolean withAttachments = true; // Include the attachments of SIMSFr to their base resource
 		boolean includeReferences = false; // Include in each SIMSFr the data on the documents or pages referenced (false recommended)
 
+		// The reports are written as soon as they are converted
+		try (OutputStream simsOutput = new FileOutputStream("src/main/resources/data/sims-all." + (namedGraphs ? "trig" : "ttl"))) {
+			StreamRDF simsStream = StreamRDFWriter.getWriterStream(simsOutput, (namedGraphs ? RDFFormat.TRIG_BLOCKS : RDFFormat.TURTLE_BLOCKS));
+			M0SIMSConverter.convertToSIMS(null, namedGraphs, withAttachments, includeReferences, simsStream);
+		}
+	}
+
+	/**
+	 * Converts all SIMSFr to the target model in a dataset and writes the dataset as a TriG or Turtle file.
+	 * 
+	 * @throws IOException In case of problems while writing the output file.
+	 */
+	@Test
+	public void testConvertAllToSIMSDataset() throws IOException {
+
+		boolean namedGraphs = true; // Each SIMSFr in its own graph
+		boolean withAttachments = true; // Include the attachments of SIMSFr to their base resource
+		boolean includeReferences = false; // Include in each SIMSFr the data on the documents or pages referenced (false recommended)
+
 		Dataset simsDataset = M0SIMSConverter.convertToSIMS(null, namedGraphs, withAttachments, includeReferences);
 		RDFDataMgr.write(new FileOutputStream("src/main/resources/data/sims-all." + (namedGraphs ? "trig" : "ttl")), simsDataset, (namedGraphs ? Lang.TRIG : Lang.TURTLE));
 		simsDataset.close();
 	}
 
+	/**
+	 * Checks that the quads sent to a stream are the same as the content of the dataset with named models.
+	 */
+	@Test
+	public void testConvertToSIMSStream() {
+
+		List<Integer> simsNumbers = Arrays.asList(1501, 1507, 1508, 1580, 1893);
+
+		DatasetGraph streamedDataset = DatasetGraphFactory.create();
+		M0SIMSConverter.convertToSIMS(simsNumbers, true, true, false, StreamRDFLib.dataset(streamedDataset));
+		Dataset simsDataset = M0SIMSConverter.convertToSIMS(simsNumbers, true, true, false);
+
+		assertEquals(simsNumbers.size(), streamedDataset.size());
+		assertTrue(IsoMatcher.isomorphic(simsDataset.asDatasetGraph(), streamedDataset));
+		simsDataset.close();
+	}
+
 	/**
 	 * Converts information on documents (M0 'documents' and 'links' to the target model and writes the result as a TriG.
 	 * 
@@ -508,6 +689,34 @@ public class M0ConverterTest {
 		RDFDataMgr.write(new FileOutputStream(fileName), simsDataset, (namedGraphs ? Lang.TRIG : Lang.TURTLE)); // TODO Check if Lang.TRIG is OK for both cases
 	}
 
+	/**
+	 * Checks that the SIMS reports converted concurrently are the same as those converted sequentially.
+	 */
+	@Test
+	public void testConvertToSIMSParallelism() {
+
+		List<Integer> simsNumbers = Arrays.asList(1501, 1507, 1508, 1580, 1893);
+
+		int parallelism = Configuration.SIMS_CONVERSION_PARALLELISM;
+		Dataset sequentialDataset = null;
+		Dataset parallelDataset = null;
+		try {
+			Configuration.SIMS_CONVERSION_PARALLELISM = 1;
+			sequentialDataset = M0SIMSConverter.convertToSIMS(simsNumbers, true, true, false);
+			Configuration.SIMS_CONVERSION_PARALLELISM = 4;
+			parallelDataset = M0SIMSConverter.convertToSIMS(simsNumbers, true, true, false);
+		} finally {
+			Configuration.SIMS_CONVERSION_PARALLELISM = parallelism;
+		}
+		for (Integer simsNumber : simsNumbers) {
+			String graphURI = Configuration.simsReportGraphURI(simsNumber.toString());
+			assertTrue(sequentialDataset.getNamedModel(graphURI).size() > 0, "Empty report " + simsNumber);
+			assertTrue(sequentialDataset.getNamedModel(graphURI).isIsomorphicWith(parallelDataset.getNamedModel(graphURI)), "Different reports " + simsNumber);
+		}
+		sequentialDataset.close();
+		parallelDataset.close();
+	}
+
 	/**
 	 * Extracts from the M0 dataset and prints to console the mappings between the M0 and target URIs for organizations.
 	 */
@@ -523,7 +732,7 @@ public class M0ConverterTest {
 	 */
 	@Test
 	public void testGetOrganizationValues() {
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<Integer, SortedMap<String, SortedSet<String>>> organizationValues = M0SIMSConverter.getOrganizationValues(m0AssociationModel);
 
@@ -534,4 +743,55 @@ public class M0ConverterTest {
 				System.out.println("\t" + attribute + "\t" + docMappings.get(attribute));
 		}
 	}
+
+	/**
+	 * Adds to an in-memory M0 dataset a number of resources of a given type, each with a title.
+	 */
+	private static void addM0Resources(Dataset m0Dataset, String graphName, String resourceType, int number) {
+
+		Model m0Model = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + graphName);
+		String baseURI = "http://baseUri/" + graphName + "/" + resourceType + "/";
+		m0Model.add(m0Model.createResource(baseURI + "sequence"), ResourceFactory.createProperty("http://rem.org/schema#sequenceValue"), Integer.toString(number));
+		for (int index = 1; index <= number; index++) {
+			Resource titleResource = m0Model.createResource(baseURI + index + "/TITLE");
+			m0Model.add(m0Model.createResource(baseURI + index), ResourceFactory.createProperty("http://rem.org/schema#varSims"), titleResource);
+			m0Model.add(titleResource, ResourceFactory.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#values"), resourceType + " " + index);
+		}
+	}
+
+	/**
+	 * Converts the code lists of a small in-memory M0 dataset and checks the resulting SKOS concept scheme.
+	 */
+	@Test
+	public void testConvertCodeListsInMemory() {
+
+		Dataset m0Dataset = DatasetFactory.create();
+		Property valuesProperty = ResourceFactory.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#values");
+		Property valuesEnProperty = ResourceFactory.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#valuesGb");
+		Model clM0Model = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "codelists");
+		clM0Model.add(clM0Model.createResource("http://baseUri/codelists/codelist/sequence"), ResourceFactory.createProperty("http://rem.org/schema#sequenceValue"), "1");
+		clM0Model.add(clM0Model.createResource("http://baseUri/codelists/codelist/1/CODE_VALUE"), valuesProperty, "CL_FREQ");
+		clM0Model.add(clM0Model.createResource("http://baseUri/codelists/codelist/1/TITLE"), valuesProperty, "Fréquence");
+		clM0Model.add(clM0Model.createResource("http://baseUri/codelists/codelist/1/TITLE"), valuesEnProperty, "Frequency");
+		Model codeM0Model = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "codes");
+		Model associationsM0Model = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
+		for (String code : Arrays.asList("1", "2")) {
+			codeM0Model.add(codeM0Model.createResource("http://baseUri/codes/code/" + code + "/CODE_VALUE"), valuesProperty, "A" + code);
+			codeM0Model.add(codeM0Model.createResource("http://baseUri/codes/code/" + code + "/TITLE"), valuesProperty, "Code " + code);
+			associationsM0Model.add(associationsM0Model.createResource("http://baseUri/codelists/codelist/1/RELATED_TO"),
+					ResourceFactory.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#relatedTo"), associationsM0Model.createResource("http://baseUri/codes/code/" + code + "/RELATED_TO"));
+		}
+
+		Model skosModel = M0Converter.convertCodeLists(new ConversionContext(m0Dataset));
+		Resource codeList = skosModel.createResource("http://baseUri/codelists/codelist/1");
+		assertTrue(skosModel.contains(codeList, RDF.type, SKOS.ConceptScheme));
+		assertEquals("CL_FREQ", codeList.getProperty(SKOS.notation).getString());
+		assertEquals("Frequency", codeList.getProperty(SKOS.prefLabel, "en").getString());
+		assertEquals(2, skosModel.listStatements(codeList, SKOS.hasTopConcept, (RDFNode) null).toList().size());
+		Resource code = skosModel.createResource("http://baseUri/codes/code/2");
+		assertTrue(skosModel.contains(code, SKOS.inScheme, codeList));
+		assertTrue(skosModel.contains(code, SKOS.topConceptOf, codeList));
+		assertEquals("Code 2", code.getProperty(SKOS.prefLabel, "fr").getString());
+		assertEquals("A2", code.getProperty(SKOS.notation).getString());
+	}
 }
@@ -0,0 +1,104 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.sdmx.metadata.M0DatasetRegistry;
+import fr.insee.semweb.utils.SnapshotCache;
+
+/**
+ * Test and launch methods for class <code>M0DatasetRegistry</code>.
+ * 
+ * @author Franck
+ */
+class M0DatasetRegistryTest {
+
+	@TempDir
+	File temporaryDirectory;
+
+	/**
+	 * Checks that the M0 dataset is read only once and survives the closing of its models.
+	 */
+	@Test
+	public void testGetDataset() {
+
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
+		Model m0SeriesModel = M0DatasetRegistry.getNamedModel("series");
+		long seriesModelSize = m0SeriesModel.size();
+		System.out.println("Size of the 'series' model: " + seriesModelSize);
+		m0SeriesModel.close();
+		m0Dataset.close();
+
+		assertSame(m0Dataset, M0DatasetRegistry.getDataset());
+		assertEquals(seriesModelSize, M0DatasetRegistry.getNamedModel("series").size());
+	}
+
+	/**
+	 * Checks that the models handed out by the registry cannot be modified.
+	 */
+	@Test
+	public void testReadOnly() {
+
+		Model m0SeriesModel = M0DatasetRegistry.getNamedModel("series");
+		assertThrows(Exception.class, () -> m0SeriesModel.add(m0SeriesModel.createResource("http://baseUri/series/serie/0"), m0SeriesModel.createProperty("http://example.org/p"), "test"));
+	}
+
+	/**
+	 * Checks that the M0 graphs are read from their snapshots with the default loading configuration.
+	 */
+	@Test
+	public void testSnapshotInDefaultConfiguration() throws IOException {
+
+		assertTrue(Configuration.M0_LAZY_LOADING);
+		assertTrue(Configuration.USE_M0_SNAPSHOT);
+
+		String m0FileName = Configuration.M0_FILE_NAME;
+		String snapshotDirectoryName = Configuration.SNAPSHOT_DIRECTORY;
+		File m0File = new File(temporaryDirectory, "m0.trig");
+		File snapshotDirectory = new File(temporaryDirectory, "snapshots");
+		Node seriesGraph = NodeFactory.createURI(Configuration.M0_BASE_GRAPH_URI + "series");
+		Files.write(m0File.toPath(), ("<" + seriesGraph.getURI() + "> { <http://baseUri/series/serie/1> <http://example.org/p> \"1\" . }\n").getBytes(StandardCharsets.UTF_8));
+		try {
+			Configuration.M0_FILE_NAME = m0File.getPath();
+			Configuration.SNAPSHOT_DIRECTORY = snapshotDirectory.getPath();
+
+			// The first read parses the graph and writes its snapshot
+			M0DatasetRegistry.reset();
+			assertEquals(1, M0DatasetRegistry.getNamedModel("series").size());
+			File snapshotFile = SnapshotCache.getSnapshotFile(m0File, snapshotDirectory, SnapshotCache.getGraphSnapshotExtension(seriesGraph));
+			assertTrue(snapshotFile.exists());
+
+			// The snapshot is replaced by a different content in order to check that the next read uses it
+			DatasetGraph modified = DatasetGraphFactory.create();
+			modified.add(seriesGraph, NodeFactory.createURI("http://baseUri/series/serie/1"), NodeFactory.createURI("http://example.org/p"), NodeFactory.createLiteral("1"));
+			modified.add(seriesGraph, NodeFactory.createURI("http://baseUri/series/serie/2"), NodeFactory.createURI("http://example.org/p"), NodeFactory.createLiteral("2"));
+			try (OutputStream output = new FileOutputStream(snapshotFile)) {
+				RDFDataMgr.write(output, modified, Lang.RDFTHRIFT);
+			}
+			M0DatasetRegistry.reset();
+			assertEquals(2, M0DatasetRegistry.getNamedModel("series").size());
+		} finally {
+			Configuration.M0_FILE_NAME = m0FileName;
+			Configuration.SNAPSHOT_DIRECTORY = snapshotDirectoryName;
+			M0DatasetRegistry.reset();
+		}
+	}
+}
@@ -1,5 +1,8 @@
 package fr.insee.semweb.sdmx.metadata.test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -12,11 +15,13 @@ import java.util.SortedSet;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
-import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.rdf.model.RDFNode;
 import org.junit.jupiter.api.Test;
 
 import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.sdmx.metadata.Configuration.M0ResourceType;
 import fr.insee.semweb.sdmx.metadata.Configuration.OrganizationRole;
+import fr.insee.semweb.sdmx.metadata.M0DatasetRegistry;
 import fr.insee.semweb.sdmx.metadata.M0Extractor;
 
 /**
@@ -35,7 +40,7 @@ class M0ExtractorTest {
 		String attributeOfInterest = "ORGANISATION_UNIT";
 		String modelName = "documentations";
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0SIMSModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + modelName);
 		SortedMap<String, List<String>> values = M0Extractor.extractAttributeValues(m0SIMSModel, attributeOfInterest, false);
 		System.out.println("Values of the " + attributeOfInterest + " attribute in the '" + modelName + "' model");
@@ -50,7 +55,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractRelations() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<String, List<String>> relations = M0Extractor.extractRelations(m0AssociationModel);
 		for (String related : relations.keySet()) System.out.println(related + " is related to " + relations.get(related));
@@ -67,7 +72,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractUnitMeasureMappings() {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		SortedMap<String, String[]> mappings = M0Extractor.extractUnitMeasureMappings(m0Dataset, false);
 		for (String code : mappings.keySet()) {
 			System.out.println(code + "\t" + Arrays.toString(mappings.get(code)));
@@ -80,7 +85,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractOrganizationMappings() {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0OrganizationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "organismes");
 		SortedMap<String, String> mappings = M0Extractor.extractOrganizationMappings(m0OrganizationsModel);
 		System.out.println(mappings.size() + " mappings found");
@@ -97,7 +102,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractHierarchies() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<String, String> hierarchies = M0Extractor.extractHierarchies(m0AssociationModel);
 		m0AssociationModel.close();
@@ -115,7 +120,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractProductionRelations() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<String, List<String>> relations = M0Extractor.extractProductionRelations(m0AssociationModel);
 		m0AssociationModel.close();
@@ -133,7 +138,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractReplacements() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<String, List<String>> replacements = M0Extractor.extractReplacements(m0AssociationModel);
 		m0AssociationModel.close();
@@ -151,7 +156,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractReplacementRelations() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<String, List<String>> relations = M0Extractor.extractProductionRelations(m0AssociationModel);
 		m0AssociationModel.close();
@@ -169,7 +174,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractOrganizationalRelations() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<String, List<String>> organizationMappings = M0Extractor.extractOrganizationalRelations(m0AssociationModel, OrganizationRole.PRODUCER);
 		try (PrintWriter writer = new PrintWriter("src/test/resources/m0-producer-relations.txt", "UTF-8")) {
@@ -191,7 +196,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractSIMSAttachments() throws IOException {
 
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0AssociationModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "associations");
 		SortedMap<String, String> attachments = M0Extractor.extractSIMSAttachments(m0AssociationModel, true);
 		m0AssociationModel.close();
@@ -212,7 +217,7 @@ class M0ExtractorTest {
 		String simsAttributeName = "DATA_COMP";
 
 		// Read the source M0 dataset and extract SIMS information
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0SIMSModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documentations");
 
 		// Select attribute values and write to file
@@ -236,7 +241,7 @@ class M0ExtractorTest {
 		List<String> propertyNames = Arrays.asList("SUMMARY", "ID_DDS");
 
 		// Read the source M0 dataset and extract the model on series
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0SeriesModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "series");
 
 		// Select values for specified properties and write to file
@@ -261,7 +266,7 @@ class M0ExtractorTest {
 	public void testGetMaxSequence() {
 
 		String m0ModelName = "familles"; // Can be replaced by any other M0 model name
-		Dataset dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset dataset = M0DatasetRegistry.getDataset();
 		Model m0Model = dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + m0ModelName);
 
 		System.out.println("Max sequence number for model " + m0ModelName + " is " + M0Extractor.getMaxSequence(m0Model));
@@ -277,7 +282,7 @@ class M0ExtractorTest {
 
 		String m0ModelName = "documentations"; // Can be replaced by any other M0 model name
 		// Extract the model from the M0 dataset
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0Model = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + m0ModelName);
 		m0Model.write(new FileOutputStream("src/test/resources/m0-" + m0ModelName + ".ttl"), "TTL");
 		m0Model.close();
@@ -292,7 +297,7 @@ class M0ExtractorTest {
 	@Test
 	public void testExtractM0Models() {
 
-		Dataset dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset dataset = M0DatasetRegistry.getDataset();
 		M0Extractor.extractM0Models(dataset);
 		dataset.close();
 	}
@@ -308,7 +313,7 @@ class M0ExtractorTest {
 		List<String> m0IdList = Arrays.asList("1502", "1508", "1509");
 
 		// Extract the documentation model from the M0 dataset
-		Dataset m0Dataset = RDFDataMgr.loadDataset(Configuration.M0_FILE_NAME);
+		Dataset m0Dataset = M0DatasetRegistry.getDataset();
 		Model m0DocumentationsModel = m0Dataset.getNamedModel(Configuration.M0_BASE_GRAPH_URI + "documentations");
 		for (String m0Id : m0IdList) {
 			// Extract M0 model for the current documentation identifier
@@ -319,4 +324,23 @@ class M0ExtractorTest {
 		m0DocumentationsModel.close();
 		m0Dataset.close();
 	}
+
+	/**
+	 * Partitions the documentation model of the M0 dataset and checks that the partition is consistent with the extraction of individual documentation models.
+	 */
+	@Test
+	public void testPartitionM0Model() {
+
+		List<Integer> m0IdList = Arrays.asList(1502, 1508, 1509);
+
+		Model m0DocumentationsModel = M0DatasetRegistry.getNamedModel("documentations");
+		SortedMap<Integer, Model> partition = M0Extractor.partitionM0Model(m0DocumentationsModel, M0ResourceType.DOCUMENTATION, null);
+		System.out.println("Number of documentation models in the partition: " + partition.size());
+		for (Integer m0Id : m0IdList) {
+			Model extractedModel = M0Extractor.extractM0ResourceModel(m0DocumentationsModel, "http://baseUri/documentations/documentation/" + m0Id + "/");
+			extractedModel.add(m0DocumentationsModel.listStatements(m0DocumentationsModel.createResource("http://baseUri/documentations/documentation/" + m0Id), null, (RDFNode) null));
+			assertTrue(partition.get(m0Id).isIsomorphicWith(extractedModel));
+		}
+		assertEquals(M0Extractor.getM0DocumentationIds(m0DocumentationsModel), partition.keySet());
+	}
 }
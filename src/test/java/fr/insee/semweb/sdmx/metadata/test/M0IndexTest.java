@@ -0,0 +1,107 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.SKOS;
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.Configuration.M0ResourceType;
+import fr.insee.semweb.sdmx.metadata.M0Index;
+import fr.insee.semweb.sdmx.metadata.M0Index.M0URI;
+
+/**
+ * Test and launch methods for class <code>M0Index</code>.
+ * 
+ * @author Franck
+ */
+class M0IndexTest {
+
+	@Test
+	public void testParseURI() {
+
+		M0URI m0URI = M0URI.parse("http://baseUri/documentations/documentation/1580/SEE_ALSO");
+		assertEquals(M0ResourceType.DOCUMENTATION, m0URI.getType());
+		assertEquals(1580, m0URI.getNumber());
+		assertEquals("SEE_ALSO", m0URI.getAttribute());
+		assertEquals("http://baseUri/documentations/documentation/1580", m0URI.getResourceURI());
+
+		m0URI = M0URI.parse("http://baseUri/series/serie/12");
+		assertEquals(M0ResourceType.SERIES, m0URI.getType());
+		assertEquals(12, m0URI.getNumber());
+		assertNull(m0URI.getAttribute());
+
+		assertNull(M0URI.parse("http://baseUri/liens/lien/sequence"));
+		assertNull(M0URI.parse("http://baseUri/liens/document/12/TITLE"));
+		assertNull(M0URI.parse("http://baseUri/liens/lien/12/TITLE/other"));
+		assertNull(M0URI.parse("http://id.insee.fr/documents/page/12"));
+		// Only ASCII digits are accepted in resource numbers
+		assertNull(M0URI.parse("http://baseUri/series/serie/\u0661\u0662"));
+	}
+
+	@Test
+	public void testBuild() {
+
+		Model m0Model = ModelFactory.createDefaultModel();
+		Property values = m0Model.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#values");
+		Property valuesEn = m0Model.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#valuesGb");
+		m0Model.createResource("http://baseUri/liens/lien/54").addProperty(RDF.type, SKOS.Concept);
+		m0Model.createResource("http://baseUri/liens/lien/54/TITLE").addProperty(values, "Titre").addProperty(valuesEn, "Title");
+		m0Model.createResource("http://baseUri/liens/lien/3/URI").addProperty(values, "http://www.insee.fr");
+		m0Model.createResource("http://baseUri/liens/lien/sequence").addProperty(m0Model.createProperty("http://rem.org/schema#sequenceValue"), "54");
+
+		M0Index index = M0Index.build(m0Model);
+		assertEquals(3, index.size());
+		assertEquals(Arrays.asList(3, 54), Arrays.asList(index.getNumbers(M0ResourceType.LINK).toArray()));
+		assertEquals("Titre", index.getValues(M0ResourceType.LINK, 54, "TITLE", false).get(0).toString());
+		assertEquals("Title", index.getValues(M0ResourceType.LINK, 54, "TITLE", true).get(0).toString());
+		assertTrue(index.getValues(M0ResourceType.LINK, 3, "TITLE", false).isEmpty());
+		assertTrue(index.getValues(M0ResourceType.LINK, 1000, "TITLE", false).isEmpty());
+		assertTrue(index.contains(M0ResourceType.LINK, 54));
+		assertFalse(index.contains(M0ResourceType.DOCUMENT, 54));
+	}
+
+	@Test
+	public void testBuildLargeNumbers() {
+
+		Model m0Model = ModelFactory.createDefaultModel();
+		Property values = m0Model.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#values");
+		m0Model.createResource("http://baseUri/liens/lien/900000000/TITLE").addProperty(values, "Grand");
+		m0Model.createResource("http://baseUri/liens/lien/70000/TITLE").addProperty(values, "Moyen");
+		m0Model.createResource("http://baseUri/liens/lien/12/TITLE").addProperty(values, "Petit");
+
+		// Large numbers must not be indexed in tables sized to the largest number
+		M0Index index = M0Index.build(m0Model);
+		assertEquals(Arrays.asList(12, 70000, 900000000), Arrays.asList(index.getNumbers(M0ResourceType.LINK).toArray()));
+		assertEquals("Grand", index.getValues(M0ResourceType.LINK, 900000000, "TITLE", false).get(0).toString());
+		assertEquals("Moyen", index.getValues(M0ResourceType.LINK, 70000, "TITLE", false).get(0).toString());
+		assertTrue(index.contains(M0ResourceType.LINK, 12));
+		assertFalse(index.contains(M0ResourceType.LINK, 900000001));
+		assertFalse(index.contains(M0ResourceType.DOCUMENT, 900000000));
+	}
+
+	@Test
+	public void testGetAttributeStatements() {
+
+		Model m0Model = ModelFactory.createDefaultModel();
+		Property values = m0Model.createProperty("http://www.SDMX.org/resources/SDMXML/schemas/v2_0/message#values");
+		m0Model.createResource("http://baseUri/documentations/documentation/1/STATUS").addProperty(values, "A");
+		m0Model.createResource("http://baseUri/documentations/documentation/2/STATUS").addProperty(values, "B");
+		m0Model.createResource("http://baseUri/documentations/documentation/1/VALIDATION_STATUS").addProperty(values, "Validated");
+
+		M0Index index = M0Index.build(m0Model);
+		// Attribute names are matched exactly: STATUS and VALIDATION_STATUS are not mixed
+		assertEquals(2, index.getAttributeStatements("STATUS", false).size());
+		assertEquals(1, index.getAttributeStatements("VALIDATION_STATUS", false).size());
+		assertTrue(index.getAttributeStatements("STATUS", true).isEmpty());
+		assertTrue(index.getAttributeStatements("REF_AREA", false).isEmpty());
+	}
+}
@@ -0,0 +1,56 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTypes;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.XSD;
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.sdmx.metadata.MSDResolver;
+import fr.insee.semweb.sdmx.metadata.MSDResolver.AttributeProperty;
+
+/**
+ * Test and launch methods for class <code>MSDResolver</code>.
+ *
+ * @author Franck
+ */
+class MSDResolverTest {
+
+	@Test
+	public void testFromModel() {
+
+		Model msdModel = ModelFactory.createDefaultModel();
+		Resource propertyType = msdModel.createResource(Configuration.SDMX_MM_BASE_URI + "MetadataAttributeProperty");
+		Resource summary = msdModel.createResource("http://example.org/attribute/S.1", propertyType);
+		summary.addProperty(RDFS.range, DCTypes.Text);
+		summary.addProperty(msdModel.createProperty(Configuration.SDMX_MM_BASE_URI + "concept"), msdModel.createResource("http://example.org/concept/S.1"));
+		Resource specification = msdModel.createResource("http://example.org/specification/S.1");
+		specification.addProperty(msdModel.createProperty(Configuration.SDMX_MM_BASE_URI + "metadataAttributeProperty"), summary);
+		specification.addProperty(msdModel.createProperty(Configuration.SDMX_MM_BASE_URI + "maxOccurs"), "unbounded");
+		msdModel.createResource("http://example.org/attribute/S.2").addProperty(RDFS.range, XSD.date); // Property not typed
+		msdModel.createResource("http://example.org/attribute/S.3", RDF.Property); // Property without range
+
+		MSDResolver resolver = MSDResolver.fromModel(msdModel);
+		msdModel.close();
+		assertEquals(3, resolver.size());
+
+		AttributeProperty summaryProperty = resolver.getAttributeProperty("http://example.org/attribute/S.1");
+		assertEquals(DCTypes.Text, summaryProperty.getRange());
+		assertEquals("http://example.org/concept/S.1", summaryProperty.getConcept().getURI());
+		assertTrue(summaryProperty.isMultiple());
+		AttributeProperty dateProperty = resolver.getAttributeProperty("http://example.org/attribute/S.2");
+		assertEquals(XSD.date, dateProperty.getRange());
+		assertFalse(dateProperty.isMultiple());
+		assertNull(resolver.getAttributeProperty("http://example.org/attribute/S.3").getRange());
+		assertNull(resolver.getAttributeProperty("http://example.org/attribute/S.4"));
+	}
+}
@@ -0,0 +1,52 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.vocabulary.FOAF;
+import org.apache.jena.vocabulary.DC;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.sdmx.metadata.ReferenceExpansionStore;
+
+/**
+ * Test and launch methods for class <code>ReferenceExpansionStore</code>.
+ *
+ * @author Franck
+ */
+class ReferenceExpansionStoreTest {
+
+	@Test
+	public void testExpansion() {
+
+		Model documentsAndLinksModel = ModelFactory.createDefaultModel();
+		documentsAndLinksModel.setNsPrefix("foaf", FOAF.getURI());
+		documentsAndLinksModel.createResource(Configuration.linkURI(55), FOAF.Document).addProperty(RDFS.label, "Lien").addProperty(DC.language, "fr");
+		documentsAndLinksModel.createResource(Configuration.documentURI(7), FOAF.Document).addProperty(RDFS.label, "Document");
+		ReferenceExpansionStore store = ReferenceExpansionStore.build(documentsAndLinksModel);
+
+		assertEquals(2, store.size());
+		assertTrue(store.contains(Configuration.linkURI(55)));
+		assertFalse(store.contains(Configuration.linkURI(56)));
+		assertEquals(3, store.getTriples(Configuration.linkURI(55)).size());
+		assertTrue(store.getTriples(Configuration.linkURI(56)).isEmpty());
+
+		// Expansion gives the same result as a query on the documents and links model
+		Model reportModel = ModelFactory.createDefaultModel();
+		store.expand(reportModel.getGraph(), Configuration.linkURI(55));
+		store.expand(reportModel.getGraph(), Configuration.linkURI(56));
+		Model expectedModel = ModelFactory.createDefaultModel().add(documentsAndLinksModel.listStatements(documentsAndLinksModel.createResource(Configuration.linkURI(55)), null, (String) null));
+		assertTrue(reportModel.isIsomorphicWith(expectedModel));
+
+		Model referencesModel = store.createModel(Arrays.asList(Configuration.linkURI(55), Configuration.documentURI(7)));
+		assertTrue(referencesModel.isIsomorphicWith(documentsAndLinksModel));
+		assertEquals(FOAF.getURI(), referencesModel.getNsPrefixURI("foaf"));
+	}
+}
@@ -0,0 +1,99 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.sdmx.metadata.ReferenceTable;
+
+/**
+ * Test and launch methods for class <code>ReferenceTable</code>.
+ *
+ * @author Franck
+ */
+class ReferenceTableTest {
+
+	@Test
+	public void testLinksAndDocuments() {
+
+		ReferenceTable.Builder builder = new ReferenceTable.Builder(ReferenceTable.LINK_OR_DOCUMENT_URI);
+		builder.add(1580, "SEE_ALSO", ReferenceTable.linkReference(55));
+		builder.add(1580, "SEE_ALSO", ReferenceTable.documentReference(7));
+		builder.add(1580, "SEE_ALSO", ReferenceTable.linkReference(55));
+		builder.add(1580, "SUMMARY", ReferenceTable.linkReference(3));
+		builder.add(12, "SEE_ALSO", ReferenceTable.linkReference(3));
+		ReferenceTable table = builder.build();
+
+		assertEquals(2, table.size());
+		int handle = table.locate(1580, "SEE_ALSO");
+		assertEquals(2, table.getReferenceCount(handle));
+		// References are sorted by URI
+		SortedSet<String> expected = table.toSortedMap().get(1580).get("SEE_ALSO");
+		assertEquals(Arrays.asList(expected.toArray()), table.getReferenceURIs(handle));
+		assertTrue(table.getReferenceURIs(handle).contains(Configuration.documentURI(7)));
+		assertTrue(table.getReferenceURIs(handle).contains(Configuration.linkURI(55)));
+
+		assertTrue(table.contains(1580, "SUMMARY"));
+		assertFalse(table.contains(12, "SUMMARY"));
+		assertFalse(table.contains(13, "SEE_ALSO"));
+		assertFalse(table.contains(1580, "UNKNOWN"));
+		assertEquals(0, table.getReferenceCount(table.locate(13, "SEE_ALSO")));
+
+		SortedMap<Integer, SortedMap<String, SortedSet<String>>> documentsOnly = table.toSortedMap(reference -> !ReferenceTable.isLink(reference));
+		assertEquals(1, documentsOnly.size());
+		assertEquals(1, documentsOnly.get(1580).get("SEE_ALSO").size());
+	}
+
+	@Test
+	public void testURIs() {
+
+		ReferenceTable.Builder builder = new ReferenceTable.Builder();
+		builder.add(1507, "CONTACT_ORGANISATION", "http://id.insee.fr/organisations/insee/DG75-F210");
+		builder.add(1507, "CONTACT_ORGANISATION", "http://id.insee.fr/organisations/insee/DG75-F201");
+		builder.add(1508, "ORGANISATION_UNIT", "http://id.insee.fr/organisations/insee/DG75-F210");
+		ReferenceTable table = builder.build();
+
+		int handle = table.locate(1507, "CONTACT_ORGANISATION");
+		assertEquals(2, table.getReferenceCount(handle));
+		assertEquals("http://id.insee.fr/organisations/insee/DG75-F201", table.getReferenceURI(handle, 0));
+		assertEquals("http://id.insee.fr/organisations/insee/DG75-F210", table.getReferenceURI(table.locate(1508, "ORGANISATION_UNIT"), 0));
+	}
+
+	@Test
+	public void testForEachReference() {
+
+		ReferenceTable.Builder builder = new ReferenceTable.Builder();
+		builder.add(1507, "CONTACT_ORGANISATION", "http://baseUri/organismes/organisme/36");
+		builder.add(1507, "ORGANISATION_UNIT", "http://baseUri/organismes/organisme/36");
+		builder.add(1508, "CONTACT_ORGANISATION", "http://baseUri/organismes/organisme/12");
+		ReferenceTable table = builder.build();
+
+		SortedMap<Integer, SortedMap<String, SortedSet<String>>> visited = new TreeMap<Integer, SortedMap<String, SortedSet<String>>>();
+		table.forEachReference((number, attribute, uri) -> visited.computeIfAbsent(number, key -> new TreeMap<String, SortedSet<String>>()).computeIfAbsent(attribute, key -> new TreeSet<String>()).add(uri));
+		assertEquals(table.toSortedMap(), visited);
+	}
+
+	@Test
+	public void testCollisions() {
+
+		ReferenceTable.Builder builder = new ReferenceTable.Builder(ReferenceTable.LINK_OR_DOCUMENT_URI);
+		for (int number = 0; number < 5000; number++) builder.add(number * 64, "SEE_ALSO", ReferenceTable.linkReference(number));
+		ReferenceTable table = builder.build();
+
+		assertEquals(5000, table.size());
+		for (int number = 0; number < 5000; number++) {
+			int handle = table.locate(number * 64, "SEE_ALSO");
+			assertEquals(ReferenceTable.linkReference(number), table.getReference(handle, 0));
+			assertFalse(table.contains(number * 64 + 1, "SEE_ALSO"));
+		}
+	}
+}
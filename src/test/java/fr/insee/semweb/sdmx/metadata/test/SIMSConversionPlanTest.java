@@ -0,0 +1,68 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.DCTypes;
+import org.apache.jena.vocabulary.ORG;
+import org.apache.jena.vocabulary.XSD;
+import org.junit.jupiter.api.Test;
+
+import fr.insee.semweb.sdmx.metadata.Configuration;
+import fr.insee.semweb.sdmx.metadata.SIMSConversionPlan;
+import fr.insee.semweb.sdmx.metadata.SIMSConversionPlan.AttributeConversion;
+import fr.insee.semweb.sdmx.metadata.SIMSConversionPlan.RangeKind;
+import fr.insee.semweb.sdmx.metadata.SIMSFrEntry;
+import fr.insee.semweb.sdmx.metadata.SIMSFrScheme;
+
+/**
+ * Test and launch methods for class <code>SIMSConversionPlan</code>.
+ *
+ * @author Franck
+ */
+class SIMSConversionPlanTest {
+
+	@Test
+	public void testCompile() {
+
+		SIMSFrScheme.Builder simsFrScheme = SIMSFrScheme.builder();
+		OntModel simsFrMSD = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+		addEntry(simsFrScheme, "I.1.1", "TITLE"); // Direct attribute, not converted
+		simsFrMSD.createOntProperty(addEntry(simsFrScheme, "S.1", "SUMMARY")).addRange(DCTypes.Text);
+		simsFrMSD.createOntProperty(addEntry(simsFrScheme, "S.2", "LAST_UPDATE")).addRange(XSD.date);
+		simsFrMSD.createOntProperty(addEntry(simsFrScheme, "S.3", "FREQ_COLL")).addRange(simsFrMSD.createResource(Configuration.INSEE_CODE_CONCEPTS_BASE_URI + "Frequence"));
+		simsFrMSD.createOntProperty(addEntry(simsFrScheme, "S.4", "CONTACT_ORGANISATION")).addRange(ORG.Organization);
+		simsFrMSD.createOntProperty(addEntry(simsFrScheme, "S.5", "OTHER")).addRange(simsFrMSD.createResource("http://example.org/unknown"));
+		addEntry(simsFrScheme, "S.6", "MISSING"); // No property in the MSD
+
+		SIMSConversionPlan plan = SIMSConversionPlan.compile(simsFrMSD, simsFrScheme.build());
+		List<AttributeConversion> conversions = plan.getConversions();
+		assertEquals(4, conversions.size());
+		assertEquals(RangeKind.RICH_TEXT, conversions.get(0).getRangeKind());
+		assertEquals(RangeKind.DATE, conversions.get(1).getRangeKind());
+		assertEquals(RangeKind.ORGANIZATION, conversions.get(3).getRangeKind());
+		assertEquals(Configuration.BASE_SIMS_URI + "attribute/S.2", conversions.get(1).getProperty().getURI());
+
+		AttributeConversion frequency = conversions.get(2);
+		assertEquals(RangeKind.CODE_LIST, frequency.getRangeKind());
+		assertEquals("Frequence", frequency.getCodeConceptName());
+		assertEquals("U", frequency.recode("T"));
+		assertEquals("T", frequency.recode("BM"));
+		assertEquals("A", frequency.recode("A"));
+		assertNull(conversions.get(1).getCodeConceptName());
+		assertEquals("T", conversions.get(1).recode("T"));
+	}
+
+	private static String addEntry(SIMSFrScheme.Builder simsFrScheme, String notation, String code) {
+
+		SIMSFrEntry entry = new SIMSFrEntry(notation);
+		entry.setCode(code);
+		simsFrScheme.addEntry(entry);
+		return Configuration.simsAttributePropertyURI(entry, false);
+	}
+}
@@ -6,6 +6,8 @@ import fr.insee.semweb.sdmx.metadata.SIMSFrScheme;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
 
 import java.io.File;
 import java.io.IOException;
@@ -15,13 +17,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test and launch methods for class <code>SIMSFrScheme</code>.
  * 
  * @author Franck
  */
+@TestInstance(Lifecycle.PER_CLASS)
 public class SIMSFrSchemeTest {
 
 	SIMSFrScheme simsFrScheme = null;
@@ -72,6 +79,43 @@ public class SIMSFrSchemeTest {
 		assertEquals(hierarchyReport.length(), 0);
 	}
 
+	/**
+	 * Checks the indexes and hierarchy of a scheme created with a builder.
+	 */
+	@Test
+	public void testIndexes() {
+
+		SIMSFrScheme.Builder builder = SIMSFrScheme.builder();
+		for (String notation : new String[] {"I.1.1", "S.1", "S.1.1", "S.2", "S.1.2", "S.1.1.1", "S.3.1"}) {
+			SIMSFrEntry entry = new SIMSFrEntry(notation);
+			entry.setCode("CODE_" + notation);
+			builder.addEntry(entry);
+		}
+		SIMSFrScheme scheme = builder.build();
+
+		assertTrue(scheme.containsIndex("1.1.1"));
+		assertFalse(scheme.containsIndex("3"));
+		assertEquals("S.1.2", scheme.getEntryByCode("CODE_S.1.2").getNotation());
+		assertEquals("S.1.1", scheme.getEntryByNotation("S.1.1").getNotation());
+		assertEquals("I.1.1", scheme.getEntryByIndex("1.1").getNotation()); // First entry with the index
+		assertNull(scheme.getEntryByCode("UNKNOWN"));
+
+		assertEquals("S.1", scheme.getParent(scheme.getEntryByNotation("S.1.1")).getNotation()); // Direct entry I.1.1 is ignored
+		assertNull(scheme.getParent(scheme.getEntryByNotation("I.1.1")));
+		assertNull(scheme.getParent(scheme.getEntryByNotation("S.3.1")));
+		assertEquals(2, scheme.getChildren(scheme.getEntryByNotation("S.1")).size());
+		assertEquals("I.1.1 S.1 S.1.1 S.1.1.1 S.1.2 S.2 S.3.1", notations(scheme.getDepthFirstEntries()));
+		assertEquals("No parent found for entry with notation S.3.1\n", scheme.checkHierarchy());
+		assertThrows(UnsupportedOperationException.class, () -> scheme.getEntries().clear());
+	}
+
+	private static String notations(List<SIMSFrEntry> entries) {
+
+		List<String> notations = new ArrayList<String>();
+		for (SIMSFrEntry entry : entries) notations.add(entry.getNotation());
+		return String.join(" ", notations);
+	}
+
 	/**
 	 * Writes to the console the list of representations used in the base SIMS and in the SIMSFr models.
 	 */
@@ -1,20 +1,34 @@
 package fr.insee.semweb.sdmx.metadata.test;
 
+import fr.insee.semweb.sdmx.metadata.CodelistModelMaker;
 import fr.insee.semweb.sdmx.metadata.Configuration;
 import fr.insee.semweb.sdmx.metadata.GeoModelMaker;
+import fr.insee.semweb.sdmx.metadata.SIMSEntry.EntryType;
+import fr.insee.semweb.sdmx.metadata.SIMSFrEntry;
 import fr.insee.semweb.sdmx.metadata.SIMSFrScheme;
 import fr.insee.semweb.sdmx.metadata.SIMSModelMaker;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test and launch methods for class <code>SIMSModelMaker</code>.
@@ -23,6 +37,9 @@ import java.io.IOException;
  */
 public class SIMSModelMakerTest {
 
+	@TempDir
+	File temporaryDirectory;
+
 	/**
 	 * Creates and writes to a file the Concept Scheme associated to the SIMS in a Jena model.
 	 *
@@ -51,6 +68,72 @@ public class SIMSModelMakerTest {
 		simsMSDModel.close();
 	}
 
+	/**
+	 * Writes all the SIMS models in a temporary directory and checks that the Turtle files and the combined TriG file contain the models created one by one.
+	 *
+	 * @throws IOException In case of problem while writing the output files.
+	 */
+	@Test
+	public void testWriteAllModels() throws IOException {
+
+		// A small scheme and vocabulary, so that the test does not depend on the specification files
+		SIMSFrScheme.Builder builder = SIMSFrScheme.builder().setName("SIMSFr");
+		String[][] entries = {{"S.1", "CONTACT", "CATEGORY"}, {"S.1.1", "CONTACT_ORGANISATION", "DIMENSION"}, {"S.1.2", "CONTACT_NAME", null}};
+		for (String[] entryData : entries) {
+			SIMSFrEntry entry = new SIMSFrEntry(entryData[0]);
+			entry.setCode(entryData[1]);
+			entry.setName(entryData[1]);
+			entry.setFrenchName(entryData[1]);
+			entry.setRepresentation("Free text");
+			if (entryData[2] != null) entry.setType(EntryType.valueOf(entryData[2]));
+			builder.addEntry(entry);
+		}
+		SIMSFrScheme simsFrScheme = builder.build();
+		File sdmxFile = new File(temporaryDirectory, "sdmx-metadata.ttl");
+		Files.write(sdmxFile.toPath(), ("@prefix sdmx-mm: <http://www.w3.org/ns/sdmx-mm#> .\n@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+				+ "sdmx-mm:MetadataStructureDefinition a rdfs:Class .\n").getBytes(StandardCharsets.UTF_8));
+
+		String[] fileNames = {Configuration.SDMX_MM_TURTLE_FILE_NAME, Configuration.SIMS_CS_TURTLE_FILE_NAME, Configuration.SIMS_FR_CS_TURTLE_FILE_NAME,
+				Configuration.SIMS_MSD_TURTLE_FILE_NAME, Configuration.SIMS_FR_MSD_TURTLE_FILE_NAME, Configuration.SIMS_METADATA_TRIG_FILE_NAME};
+		String[] modelNames = {"sims-cs", "sims-fr-cs", "sims-msd", "sims-fr-msd"};
+		String[] turtleFileNames = new String[modelNames.length];
+		for (int index = 0; index < modelNames.length; index++) turtleFileNames[index] = new File(temporaryDirectory, modelNames[index] + ".ttl").getPath();
+		try {
+			Configuration.SDMX_MM_TURTLE_FILE_NAME = sdmxFile.getPath();
+			Configuration.SIMS_CS_TURTLE_FILE_NAME = turtleFileNames[0];
+			Configuration.SIMS_FR_CS_TURTLE_FILE_NAME = turtleFileNames[1];
+			Configuration.SIMS_MSD_TURTLE_FILE_NAME = turtleFileNames[2];
+			Configuration.SIMS_FR_MSD_TURTLE_FILE_NAME = turtleFileNames[3];
+			Configuration.SIMS_METADATA_TRIG_FILE_NAME = new File(temporaryDirectory, "sims-metadata.trig").getPath();
+			SIMSModelMaker.writeAllModels(simsFrScheme);
+
+			Model sdmxModel = RDFDataMgr.loadModel(sdmxFile.getPath());
+			Map<String, Resource> clMappings = CodelistModelMaker.getNotationConceptMappings();
+			List<Model> expectedModels = Arrays.asList(
+					SIMSModelMaker.createConceptScheme(simsFrScheme, true, false, true),
+					SIMSModelMaker.createConceptScheme(simsFrScheme, false, true, true),
+					SIMSModelMaker.createMetadataStructureDefinition(simsFrScheme, sdmxModel, clMappings, true, false),
+					SIMSModelMaker.createMetadataStructureDefinition(simsFrScheme, sdmxModel, clMappings, false, true));
+			Dataset simsDataset = RDFDataMgr.loadDataset(Configuration.SIMS_METADATA_TRIG_FILE_NAME);
+			List<String> graphNames = new ArrayList<String>();
+			simsDataset.listNames().forEachRemaining(graphNames::add);
+			assertEquals(modelNames.length, graphNames.size());
+			for (int index = 0; index < modelNames.length; index++) {
+				assertTrue(expectedModels.get(index).size() > 0);
+				assertTrue(expectedModels.get(index).isIsomorphicWith(RDFDataMgr.loadModel(turtleFileNames[index])), "Different content in " + turtleFileNames[index]);
+				assertTrue(expectedModels.get(index).isIsomorphicWith(simsDataset.getNamedModel(Configuration.simsMetadataGraphURI(modelNames[index]))), "Different content in graph " + modelNames[index]);
+			}
+			assertTrue(simsDataset.getDefaultModel().isEmpty());
+		} finally {
+			Configuration.SDMX_MM_TURTLE_FILE_NAME = fileNames[0];
+			Configuration.SIMS_CS_TURTLE_FILE_NAME = fileNames[1];
+			Configuration.SIMS_FR_CS_TURTLE_FILE_NAME = fileNames[2];
+			Configuration.SIMS_MSD_TURTLE_FILE_NAME = fileNames[3];
+			Configuration.SIMS_FR_MSD_TURTLE_FILE_NAME = fileNames[4];
+			Configuration.SIMS_METADATA_TRIG_FILE_NAME = fileNames[5];
+		}
+	}
+
 	/**
 	 * Reads the SDMX metadata RDF vocabulary into a Jena ontology model.
 	 */
@@ -0,0 +1,70 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.semweb.sdmx.metadata.SIMSReportCache;
+
+/**
+ * Test and launch methods for class <code>SIMSReportCache</code>.
+ *
+ * @author Franck
+ */
+class SIMSReportCacheTest {
+
+	@TempDir
+	File cacheDirectory;
+
+	@Test
+	public void testFingerprint() {
+
+		Model m0Model = ModelFactory.createDefaultModel();
+		m0Model.createResource("http://baseUri/documentations/documentation/1580").addProperty(RDFS.label, "Documentation");
+		String fingerprint = SIMSReportCache.fingerprint(m0Model, "context", "SEE_ALSO=http://id.insee.fr/lien/55;");
+
+		assertEquals(fingerprint, SIMSReportCache.fingerprint(m0Model, "context", "SEE_ALSO=http://id.insee.fr/lien/55;"));
+		assertNotEquals(fingerprint, SIMSReportCache.fingerprint(m0Model, "context", ""));
+		m0Model.createResource().addProperty(RDFS.label, "Blank");
+		assertNotEquals(fingerprint, SIMSReportCache.fingerprint(m0Model, "context", "SEE_ALSO=http://id.insee.fr/lien/55;"));
+	}
+
+	@Test
+	public void testChanges() {
+
+		Model report = ModelFactory.createDefaultModel();
+		report.createResource("http://id.insee.fr/qualite/rapport/1580").addProperty(RDFS.label, "Rapport");
+
+		SIMSReportCache firstCache = new SIMSReportCache(cacheDirectory);
+		assertNull(firstCache.get(1580, "aaaa"));
+		firstCache.put(1580, "aaaa", report);
+		firstCache.put(1581, "bbbb", report);
+		firstCache.put(1582, "cccc", report);
+		assertEquals(3, firstCache.getAddedReports().size());
+
+		SIMSReportCache secondCache = new SIMSReportCache(cacheDirectory);
+		assertTrue(secondCache.get(1580, "aaaa").isIsomorphicWith(report));
+		assertNull(secondCache.get(1581, "dddd"));
+		secondCache.put(1581, "dddd", report);
+		secondCache.put(1583, "eeee", report);
+		secondCache.removeOtherReports(new HashSet<Integer>(Arrays.asList(1580, 1581, 1583)));
+
+		assertEquals(Collections.singleton(1580), secondCache.getUnchangedReports());
+		assertEquals(Collections.singleton(1581), secondCache.getChangedReports());
+		assertEquals(Collections.singleton(1583), secondCache.getAddedReports());
+		assertEquals(Collections.singleton(1582), secondCache.getRemovedReports());
+		assertEquals(3, cacheDirectory.listFiles().length);
+	}
+}
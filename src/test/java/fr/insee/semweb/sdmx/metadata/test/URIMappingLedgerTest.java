@@ -0,0 +1,108 @@
+package fr.insee.semweb.sdmx.metadata.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.semweb.sdmx.metadata.URIMappingLedger;
+
+/**
+ * Test and launch methods for class <code>URIMappingLedger</code>.
+ *
+ * @author Franck
+ */
+class URIMappingLedgerTest {
+
+	@TempDir
+	File ledgerDirectory;
+
+	@Test
+	public void testAppendAndReopen() throws IOException {
+
+		File ledgerFile = new File(ledgerDirectory, "uri-mappings.tsv");
+		URIMappingLedger ledger = URIMappingLedger.open(ledgerFile);
+		assertEquals(0, ledger.size());
+
+		SortedMap<String, String> mappings = new TreeMap<String, String>();
+		mappings.put("http://baseUri/series/serie/1", "http://id.insee.fr/operations/serie/s1001");
+		mappings.put("http://baseUri/series/serie/2", "http://id.insee.fr/operations/serie/s1002");
+		assertEquals(2, ledger.append(mappings));
+
+		// Recorded mappings are never changed
+		mappings.put("http://baseUri/series/serie/2", "http://id.insee.fr/operations/serie/s1003");
+		mappings.put("http://baseUri/series/serie/3", "http://id.insee.fr/operations/serie/s1004");
+		assertEquals(1, ledger.append(mappings));
+		assertEquals("http://id.insee.fr/operations/serie/s1002", ledger.get("http://baseUri/series/serie/2"));
+
+		// An interrupted append leaves an incomplete line, which is ignored
+		Files.write(ledgerFile.toPath(), "http://baseUri/series/serie/4".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+		URIMappingLedger reopenedLedger = URIMappingLedger.open(ledgerFile);
+		assertEquals(3, reopenedLedger.size());
+		assertEquals(ledger.getMappings(), reopenedLedger.getMappings());
+		assertNull(reopenedLedger.get("http://baseUri/series/serie/4"));
+
+		// The incomplete line is removed before the next append
+		mappings.put("http://baseUri/series/serie/5", "http://id.insee.fr/operations/serie/s1005");
+		assertEquals(1, reopenedLedger.append(mappings));
+		assertEquals("http://id.insee.fr/operations/serie/s1005", URIMappingLedger.open(ledgerFile).get("http://baseUri/series/serie/5"));
+		assertNull(URIMappingLedger.open(ledgerFile).get("http://baseUri/series/serie/4"));
+	}
+
+	@Test
+	public void testTruncatedTargetURI() throws IOException {
+
+		File ledgerFile = new File(ledgerDirectory, "uri-mappings.tsv");
+		SortedMap<String, String> mappings = new TreeMap<String, String>();
+		mappings.put("http://baseUri/series/serie/1", "http://id.insee.fr/operations/serie/s1001");
+		URIMappingLedger.open(ledgerFile).append(mappings);
+
+		// An append interrupted in the middle of the target URI must not record the truncated URI
+		Files.write(ledgerFile.toPath(), "http://baseUri/series/serie/12\thttp://id.insee.fr/operations/serie/s10".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		URIMappingLedger ledger = URIMappingLedger.open(ledgerFile);
+		assertEquals(1, ledger.size());
+		assertNull(ledger.get("http://baseUri/series/serie/12"));
+
+		mappings.put("http://baseUri/series/serie/12", "http://id.insee.fr/operations/serie/s1012");
+		assertEquals(1, ledger.append(mappings));
+		URIMappingLedger reopenedLedger = URIMappingLedger.open(ledgerFile);
+		assertEquals("http://id.insee.fr/operations/serie/s1012", reopenedLedger.get("http://baseUri/series/serie/12"));
+		assertEquals(ledger.getMappings(), reopenedLedger.getMappings());
+		assertTrue(new String(Files.readAllBytes(ledgerFile.toPath()), StandardCharsets.UTF_8).endsWith("s1012\n"));
+		assertEquals(2, Files.readAllLines(ledgerFile.toPath()).size());
+	}
+
+	@Test
+	public void testReplace() throws IOException {
+
+		File ledgerFile = new File(ledgerDirectory, "uri-mappings.tsv");
+		URIMappingLedger ledger = URIMappingLedger.open(ledgerFile);
+		SortedMap<String, String> mappings = new TreeMap<String, String>();
+		mappings.put("http://baseUri/operations/operation/1", "http://id.insee.fr/operations/operation/s1001");
+		mappings.put("http://baseUri/operations/operation/2", "http://id.insee.fr/operations/operation/s1002");
+		ledger.append(mappings);
+
+		// Mappings are replaced explicitly, identical mappings are not appended again
+		mappings.put("http://baseUri/operations/operation/2", "http://id.insee.fr/operations/operation/s1500");
+		assertEquals(1, ledger.replace(mappings));
+		assertEquals(0, ledger.replace(mappings));
+		assertEquals("http://id.insee.fr/operations/operation/s1500", ledger.get("http://baseUri/operations/operation/2"));
+
+		// The last line of an M0 URI takes precedence when the ledger is reopened
+		URIMappingLedger reopenedLedger = URIMappingLedger.open(ledgerFile);
+		assertEquals(2, reopenedLedger.size());
+		assertEquals(mappings, reopenedLedger.getMappings());
+		assertEquals(3, Files.readAllLines(ledgerFile.toPath()).size());
+	}
+}
@@ -0,0 +1,125 @@
+package fr.insee.semweb.utils.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.semweb.utils.LazyDatasetGraph;
+import fr.insee.semweb.utils.SnapshotCache;
+import fr.insee.semweb.utils.TriGBlockIndex;
+
+/**
+ * Test and launch methods for class <code>LazyDatasetGraph</code>.
+ *
+ * @author Franck
+ */
+class LazyDatasetGraphTest {
+
+	private static final Node GRAPH_1 = NodeFactory.createURI("http://example.org/g1");
+	private static final Node GRAPH_2 = NodeFactory.createURI("http://example.org/g2");
+
+	private static final String TRIG_CONTENT = "@prefix ex: <http://example.org/> .\n"
+			+ "ex:g1 { ex:s1 ex:p \"o1\" . ex:s2 ex:p _:b1 . }\n"
+			+ "<http://example.org/g2> { _:b1 ex:p \"o2\" . }\n"
+			+ "GRAPH ex:g1 { ex:s3 ex:p \"o3\" . }\n";
+
+	/** TriG content with anonymous blank nodes and collections in several blocks and graphs */
+	private static final String ANONYMOUS_CONTENT = "@prefix ex: <http://example.org/> .\n"
+			+ "ex:g1 { ex:s1 ex:p [ ex:q 1 ] ; ex:r ( 1 2 ) . ex:s2 ex:p [ ex:q 1 ] . }\n"
+			+ "ex:g2 { ex:s1 ex:p [ ex:q 1 ] ; ex:r ( 1 2 ) . }\n"
+			+ "ex:g1 { ex:s3 ex:p [] ; ex:r ( 1 2 ) . }\n";
+
+	@TempDir
+	File temporaryDirectory;
+
+	@Test
+	public void testGraphsLoadedOnDemand() throws IOException {
+
+		File trigFile = new File(temporaryDirectory, "test.trig");
+		Files.write(trigFile.toPath(), TRIG_CONTENT.getBytes(StandardCharsets.UTF_8));
+		LazyDatasetGraph lazyDataset = new LazyDatasetGraph(new TriGBlockIndex(trigFile, 1), 2);
+
+		// Graph names are known without parsing
+		Set<Node> graphNames = new HashSet<Node>();
+		lazyDataset.listGraphNodes().forEachRemaining(graphNames::add);
+		assertEquals(2, graphNames.size());
+		assertTrue(graphNames.contains(GRAPH_1) && graphNames.contains(GRAPH_2));
+		assertTrue(lazyDataset.getLoadedGraphs().isEmpty());
+
+		DatasetGraph expected = RDFDataMgr.loadDatasetGraph(trigFile.getPath());
+		assertTrue(IsoMatcher.isomorphic(expected.getGraph(GRAPH_2), lazyDataset.getGraph(GRAPH_2)));
+		assertFalse(lazyDataset.getLoadedGraphs().contains(GRAPH_1));
+		assertEquals(3, lazyDataset.getGraph(GRAPH_1).size());
+		assertTrue(IsoMatcher.isomorphic(expected, lazyDataset));
+
+		// A blank node label denotes the same node in all the graphs of the file
+		Node blankNode = lazyDataset.getGraph(GRAPH_1).find(null, null, null).filterKeep(triple -> triple.getObject().isBlank()).mapWith(Triple::getObject).next();
+		assertTrue(lazyDataset.getGraph(GRAPH_2).contains(blankNode, Node.ANY, Node.ANY));
+	}
+
+	@Test
+	public void testGraphSnapshots() throws IOException {
+
+		File trigFile = new File(temporaryDirectory, "test.trig");
+		Files.write(trigFile.toPath(), TRIG_CONTENT.getBytes(StandardCharsets.UTF_8));
+		File snapshotDirectory = new File(temporaryDirectory, "snapshots");
+		LazyDatasetGraph parsedDataset = new LazyDatasetGraph(new TriGBlockIndex(trigFile, 1), 2, snapshotDirectory);
+		parsedDataset.getGraph(GRAPH_1);
+		parsedDataset.getGraph(GRAPH_2);
+		assertTrue(SnapshotCache.getSnapshotFile(trigFile, snapshotDirectory, SnapshotCache.getGraphSnapshotExtension(GRAPH_1)).exists());
+		assertTrue(SnapshotCache.getSnapshotFile(trigFile, snapshotDirectory, SnapshotCache.getGraphSnapshotExtension(GRAPH_2)).exists());
+
+		// Graphs read from the snapshots are the same as the graphs parsed, including the blank nodes shared between graphs and the prefixes
+		LazyDatasetGraph snapshotDataset = new LazyDatasetGraph(new TriGBlockIndex(trigFile, 1), 2, snapshotDirectory);
+		assertTrue(IsoMatcher.isomorphic(RDFDataMgr.loadDatasetGraph(trigFile.getPath()), snapshotDataset));
+		Node blankNode = snapshotDataset.getGraph(GRAPH_1).find(null, null, null).filterKeep(triple -> triple.getObject().isBlank()).mapWith(Triple::getObject).next();
+		assertTrue(snapshotDataset.getGraph(GRAPH_2).contains(blankNode, Node.ANY, Node.ANY));
+		assertEquals("http://example.org/", snapshotDataset.getDefaultGraph().getPrefixMapping().getNsPrefixURI("ex"));
+	}
+
+	@Test
+	public void testAnonymousBlankNodes() throws IOException {
+
+		File trigFile = new File(temporaryDirectory, "anonymous.trig");
+		Files.write(trigFile.toPath(), ANONYMOUS_CONTENT.getBytes(StandardCharsets.UTF_8));
+		File snapshotDirectory = new File(temporaryDirectory, "snapshots");
+		DatasetGraph expected = RDFDataMgr.loadDatasetGraph(trigFile.getPath());
+
+		// Graphs parsed on demand, then read from their snapshots, must be the same as the graphs loaded eagerly
+		for (int run = 0; run < 2; run++) {
+			LazyDatasetGraph lazyDataset = new LazyDatasetGraph(new TriGBlockIndex(trigFile, 1), 2, snapshotDirectory);
+			assertTrue(IsoMatcher.isomorphic(expected.getGraph(GRAPH_1), lazyDataset.getGraph(GRAPH_1)));
+			assertTrue(IsoMatcher.isomorphic(expected.getGraph(GRAPH_2), lazyDataset.getGraph(GRAPH_2)));
+			assertTrue(IsoMatcher.isomorphic(expected, lazyDataset));
+			assertEquals(countBlankNodes(expected), countBlankNodes(lazyDataset));
+		}
+		assertTrue(SnapshotCache.getSnapshotFile(trigFile, snapshotDirectory, SnapshotCache.getGraphSnapshotExtension(GRAPH_1)).exists());
+	}
+
+	/** Counts the distinct blank nodes of all the graphs of a dataset */
+	private static int countBlankNodes(DatasetGraph datasetGraph) {
+
+		Set<Node> blankNodes = new HashSet<Node>();
+		datasetGraph.find().forEachRemaining(quad -> {
+			if (quad.getSubject().isBlank()) blankNodes.add(quad.getSubject());
+			if (quad.getObject().isBlank()) blankNodes.add(quad.getObject());
+		});
+		return blankNodes.size();
+	}
+}
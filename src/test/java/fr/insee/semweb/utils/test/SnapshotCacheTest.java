@@ -0,0 +1,110 @@
+package fr.insee.semweb.utils.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.semweb.sdmx.metadata.SIMSEntry.EntryType;
+import fr.insee.semweb.sdmx.metadata.SIMSFrEntry;
+import fr.insee.semweb.sdmx.metadata.SIMSFrScheme;
+import fr.insee.semweb.utils.SnapshotCache;
+
+/**
+ * Test and launch methods for class <code>SnapshotCache</code>.
+ *
+ * @author Franck
+ */
+class SnapshotCacheTest {
+
+	@TempDir
+	File temporaryDirectory;
+
+	@Test
+	public void testWriteAndReadSnapshot() throws IOException {
+
+		File sourceFile = writeSource("source.trig", "<http://example.org/g> { <http://example.org/s> <http://example.org/p> \"o\" . }");
+		File snapshotDirectory = new File(temporaryDirectory, "snapshots");
+		assertNull(SnapshotCache.readSnapshot(sourceFile, snapshotDirectory));
+
+		DatasetGraph parsed = RDFDataMgr.loadDatasetGraph(sourceFile.getPath());
+		SnapshotCache.writeSnapshot(sourceFile, snapshotDirectory, parsed);
+		assertTrue(SnapshotCache.getSnapshotFile(sourceFile, snapshotDirectory).exists());
+
+		DatasetGraph snapshot = SnapshotCache.readSnapshot(sourceFile, snapshotDirectory);
+		assertNotNull(snapshot);
+		assertTrue(IsoMatcher.isomorphic(parsed, snapshot));
+		assertEquals(1, snapshot.getGraph(NodeFactory.createURI("http://example.org/g")).size());
+	}
+
+	@Test
+	public void testModifiedSourceInvalidatesSnapshot() throws IOException {
+
+		File sourceFile = writeSource("source.trig", "<http://example.org/g> { <http://example.org/s> <http://example.org/p> \"o\" . }");
+		File snapshotDirectory = new File(temporaryDirectory, "snapshots");
+		SnapshotCache.writeSnapshot(sourceFile, snapshotDirectory, RDFDataMgr.loadDatasetGraph(sourceFile.getPath()));
+		File oldSnapshotFile = SnapshotCache.getSnapshotFile(sourceFile, snapshotDirectory);
+
+		writeSource("source.trig", "<http://example.org/g> { <http://example.org/s> <http://example.org/p> \"modified\" . }");
+		sourceFile.setLastModified(sourceFile.lastModified() + 2000);
+		assertNotEquals(oldSnapshotFile, SnapshotCache.getSnapshotFile(sourceFile, snapshotDirectory));
+		assertNull(SnapshotCache.readSnapshot(sourceFile, snapshotDirectory));
+
+		// Writing the new snapshot removes the stale one
+		SnapshotCache.writeSnapshot(sourceFile, snapshotDirectory, RDFDataMgr.loadDatasetGraph(sourceFile.getPath()));
+		assertTrue(!oldSnapshotFile.exists());
+		assertEquals(1, snapshotDirectory.listFiles().length);
+	}
+
+	@Test
+	public void testObjectSnapshot() throws IOException {
+
+		File sourceFile = writeSource("sims.xlsx", "Not really a workbook");
+		File snapshotDirectory = new File(temporaryDirectory, "snapshots");
+		SIMSFrEntry entry = new SIMSFrEntry("S.1.1");
+		entry.setName("Contact organisation");
+		entry.setFrenchName("Organisation de contact");
+		entry.setType(EntryType.DIMENSION);
+		entry.setMultiple(true);
+		SIMSFrScheme simsFr = SIMSFrScheme.builder().setName("SIMSFr").addEntry(entry).build();
+		assertNull(SnapshotCache.readSnapshot(sourceFile, snapshotDirectory, SIMSFrScheme.SNAPSHOT_EXTENSION, SIMSFrScheme::readBinary));
+
+		SnapshotCache.writeSnapshot(sourceFile, snapshotDirectory, SIMSFrScheme.SNAPSHOT_EXTENSION, simsFr::writeBinary);
+		assertTrue(SnapshotCache.getSnapshotFile(sourceFile, snapshotDirectory, SIMSFrScheme.SNAPSHOT_EXTENSION).exists());
+		SIMSFrScheme snapshot = SnapshotCache.readSnapshot(sourceFile, snapshotDirectory, SIMSFrScheme.SNAPSHOT_EXTENSION, SIMSFrScheme::readBinary);
+		assertNotNull(snapshot);
+		assertEquals("SIMSFr", snapshot.getName());
+		assertNull(snapshot.getSource());
+		assertEquals(1, snapshot.getEntries().size());
+		SIMSFrEntry snapshotEntry = snapshot.getEntries().get(0);
+		assertEquals(entry, snapshotEntry);
+		assertEquals("Contact organisation", snapshotEntry.getName());
+		assertEquals("Organisation de contact", snapshotEntry.getFrenchName());
+		assertNull(snapshotEntry.getDescription());
+		assertEquals(EntryType.DIMENSION, snapshotEntry.getType());
+		assertTrue(snapshotEntry.isMultiple());
+
+		// RDF snapshots of the same source file are independent
+		assertNull(SnapshotCache.readSnapshot(sourceFile, snapshotDirectory));
+	}
+
+	private File writeSource(String name, String content) throws IOException {
+
+		File sourceFile = new File(temporaryDirectory, name);
+		Files.write(sourceFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return sourceFile;
+	}
+}
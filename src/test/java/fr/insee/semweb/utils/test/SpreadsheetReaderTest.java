@@ -0,0 +1,133 @@
+package fr.insee.semweb.utils.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Iterator;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.semweb.utils.SpreadsheetReader;
+import fr.insee.semweb.utils.SpreadsheetRow;
+
+/**
+ * Test and launch methods for class <code>SpreadsheetReader</code>.
+ *
+ * @author Franck
+ */
+class SpreadsheetReaderTest {
+
+	@TempDir
+	File temporaryDirectory;
+
+	@Test
+	public void testReadRows() throws IOException {
+
+		File xlsxFile = new File(temporaryDirectory, "test.xlsx");
+		try (Workbook workbook = createWorkbook()) {
+			try (OutputStream output = new FileOutputStream(xlsxFile)) {
+				workbook.write(output);
+			}
+		}
+
+		try (SpreadsheetReader reader = SpreadsheetReader.open(xlsxFile)) {
+			assertEquals(Arrays.asList("Values", "Other"), reader.getSheetNames());
+
+			Iterator<SpreadsheetRow> rows = reader.readRows("Values");
+			SpreadsheetRow row = rows.next();
+			assertEquals(0, row.getRowNum());
+			assertEquals("Title", row.getString(0));
+			row = rows.next();
+			assertEquals(2, row.getRowNum()); // Missing rows are skipped
+			assertEquals(" Name ", row.getString(0));
+			assertEquals(CellType.NUMERIC, row.getCellType(1));
+			assertEquals("12.0", row.getString(1));
+			assertEquals(12, row.getNumeric(1));
+			assertFalse(row.hasCell(2));
+			assertEquals("", row.getString(2));
+			assertEquals(CellType.BLANK, row.getCellType(2));
+			assertEquals("TRUE", row.getString(3));
+			assertEquals(CellType.FORMULA, row.getCellType(4));
+			assertEquals("B3*2", row.getString(4));
+			assertEquals("", row.getString(10));
+			assertFalse(rows.hasNext());
+
+			rows = reader.readRows(1);
+			assertEquals("Other", rows.next().getString(0));
+			assertFalse(rows.hasNext());
+
+			assertThrows(IOException.class, () -> reader.readRows(2));
+		}
+	}
+
+	@Test
+	public void testSameValuesAsUserModel() throws IOException {
+
+		File xlsxFile = new File(temporaryDirectory, "compare.xlsx");
+		try (Workbook workbook = createWorkbook()) {
+			try (OutputStream output = new FileOutputStream(xlsxFile)) {
+				workbook.write(output);
+			}
+			// The streamed rows must have the same values as the rows of the user model
+			try (SpreadsheetReader reader = SpreadsheetReader.open(xlsxFile)) {
+				for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+					Iterator<SpreadsheetRow> streamedRows = reader.readRows(sheetIndex);
+					Iterator<SpreadsheetRow> workbookRows = SpreadsheetRow.rowIterator(workbook.getSheetAt(sheetIndex));
+					while (workbookRows.hasNext()) {
+						assertTrue(streamedRows.hasNext());
+						SpreadsheetRow expected = workbookRows.next();
+						SpreadsheetRow actual = streamedRows.next();
+						assertEquals(expected.getRowNum(), actual.getRowNum());
+						for (int column = 0; column < 8; column++) {
+							assertEquals(expected.getString(column), actual.getString(column));
+							assertEquals(expected.getCellType(column), actual.getCellType(column));
+							assertEquals(expected.getNumeric(column), actual.getNumeric(column));
+						}
+					}
+					assertFalse(streamedRows.hasNext());
+				}
+			}
+		}
+	}
+
+	private static Workbook createWorkbook() {
+
+		Workbook workbook = new XSSFWorkbook();
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+
+		Sheet sheet = workbook.createSheet("Values");
+		sheet.createRow(0).createCell(0).setCellValue("Title");
+		Row row = sheet.createRow(2);
+		row.createCell(0).setCellValue(" Name ");
+		row.createCell(1).setCellValue(12);
+		row.createCell(3).setCellValue(true);
+		row.createCell(4).setCellFormula("B3*2");
+		row.createCell(5).setCellValue(2.5);
+		Calendar date = Calendar.getInstance();
+		date.clear();
+		date.set(2017, Calendar.JULY, 19);
+		row.createCell(6).setCellValue(date);
+		row.getCell(6).setCellStyle(dateStyle);
+		row.createCell(7).setBlank();
+
+		workbook.createSheet("Other").createRow(0).createCell(0).setCellValue("Other");
+
+		return workbook;
+	}
+}
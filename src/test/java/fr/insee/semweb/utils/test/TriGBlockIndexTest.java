@@ -0,0 +1,126 @@
+package fr.insee.semweb.utils.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.semweb.utils.TriGBlockIndex;
+
+/**
+ * Test and launch methods for class <code>TriGBlockIndex</code>.
+ *
+ * @author Franck
+ */
+class TriGBlockIndexTest {
+
+	/** TriG content exercising the delimiters that the index must skip */
+	private static final String TRIG_CONTENT = "@prefix ex: <http://example.org/> .\n"
+			+ "# Comment with { braces } and a dot. \n"
+			+ "<http://example.org/g1> {\n"
+			+ "  ex:s1 ex:p \"Value with a dot. and a brace }\" ; ex:q 1.5 .\n"
+			+ "  ex:s2 ex:p \"\"\"Long string\n. } on several lines\"\"\"@fr . # Trailing comment.\n"
+			+ "  ex:s3 ex:p [ ex:q \"Nested\" ; ex:r ( 1 2 3 ) ] .\n"
+			+ "  ex:s4 ex:p _:b1 .\n"
+			+ "}\n"
+			+ "PREFIX ex2: <http://example.com/>\n"
+			+ "GRAPH ex:g2 {\n"
+			+ "  ex2:s1 ex:p 'Single \\' quoted' .\n"
+			+ "  _:b1 ex:p <http://example.org/o#with.dot> .\n"
+			+ "}\n"
+			+ "ex:g1 { ex:s5 ex:p ex:o . }\n";
+
+	/** TriG content with anonymous blank nodes and collections in several chunks and graphs, and a labelled blank node shared by two graphs */
+	private static final String BLANK_NODES_CONTENT = "@prefix ex: <http://example.org/> .\n"
+			+ "ex:g1 {\n"
+			+ "  ex:s1 ex:p [ ex:q 1 ] ; ex:r ( 1 2 ) .\n"
+			+ "  ex:s2 ex:p [ ex:q 1 ] ; ex:r ( 1 2 ) .\n"
+			+ "  ex:s3 ex:p _:shared .\n"
+			+ "}\n"
+			+ "ex:g2 {\n"
+			+ "  ex:s1 ex:p [ ex:q 1 ] ; ex:r ( 1 2 ) .\n"
+			+ "  _:shared ex:q [] .\n"
+			+ "}\n";
+
+	@TempDir
+	File temporaryDirectory;
+
+	@Test
+	public void testParseInChunks() throws IOException {
+
+		File trigFile = writeSource("test.trig", TRIG_CONTENT);
+		// A very small chunk size forces splitting at each statement
+		TriGBlockIndex index = new TriGBlockIndex(trigFile, 1);
+		assertEquals(7, index.getChunks().size());
+		assertEquals("ex:g2", index.getLabel(index.getChunks().get(4)));
+
+		DatasetGraph expected = RDFDataMgr.loadDatasetGraph(trigFile.getPath());
+		DatasetGraph parsed = index.parse(index.getChunks(), 4);
+		assertTrue(IsoMatcher.isomorphic(expected, parsed));
+		assertEquals(14, parsed.getGraph(NodeFactory.createURI("http://example.org/g1")).size()); // Includes the triples of the blank node and of the list
+	}
+
+	@Test
+	public void testLoadDatasetGraph() throws IOException {
+
+		File trigFile = writeSource("test.trig", TRIG_CONTENT);
+		DatasetGraph expected = RDFDataMgr.loadDatasetGraph(trigFile.getPath());
+		assertTrue(IsoMatcher.isomorphic(expected, TriGBlockIndex.loadDatasetGraph(trigFile, 4)));
+		assertTrue(IsoMatcher.isomorphic(expected, TriGBlockIndex.loadDatasetGraph(trigFile, 1)));
+	}
+
+	@Test
+	public void testParseBlankNodes() throws IOException {
+
+		File trigFile = writeSource("blank.trig", BLANK_NODES_CONTENT);
+		TriGBlockIndex index = new TriGBlockIndex(trigFile, 1);
+		Dataset expected = RDFDataMgr.loadDataset(trigFile.getPath());
+		for (int parallelism : new int[] {1, 4}) {
+			Dataset parsed = DatasetFactory.wrap(index.parse(index.getChunks(), parallelism));
+			for (String graphName : new String[] {"http://example.org/g1", "http://example.org/g2"}) {
+				assertTrue(parsed.getNamedModel(graphName).isIsomorphicWith(expected.getNamedModel(graphName)));
+			}
+			// Anonymous blank nodes must be distinct in the different graphs, and the labelled blank node must be the same
+			assertTrue(getUnion(parsed).isIsomorphicWith(getUnion(expected)));
+			assertTrue(IsoMatcher.isomorphic(expected.asDatasetGraph(), parsed.asDatasetGraph()));
+		}
+	}
+
+	@Test
+	public void testUnsupportedStructure() throws IOException {
+
+		File trigFile = writeSource("test.trig", "@prefix ex: <http://example.org/> .\nex:s ex:p ex:o .\n");
+		assertThrows(IllegalArgumentException.class, () -> new TriGBlockIndex(trigFile, 1));
+		// The file is still parsed, sequentially
+		assertEquals(1, TriGBlockIndex.loadDatasetGraph(trigFile, 4).getDefaultGraph().size());
+	}
+
+	private static Model getUnion(Dataset dataset) {
+
+		Model union = ModelFactory.createDefaultModel();
+		dataset.listNames().forEachRemaining(graphName -> union.add(dataset.getNamedModel(graphName)));
+		return union;
+	}
+
+	private File writeSource(String name, String content) throws IOException {
+
+		File sourceFile = new File(temporaryDirectory, name);
+		Files.write(sourceFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return sourceFile;
+	}
+}